@@ -2,6 +2,10 @@ package com.jakduk.api.common;
 
 import org.springframework.data.domain.Sort;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author <a href="mailto:phjang1983@daum.net">Jang,Pyohwan</a>
  * @company  : http://jakduk.com
@@ -38,6 +42,11 @@ public class Constants {
 	public final static Integer GALLERY_THUMBNAIL_SIZE_HEIGHT = 230;
 	public final static Integer USER_SMALL_PICTURE_SIZE_WIDTH = 50;
 	public final static Integer USER_SMALL_PICTURE_SIZE_HEIGHT = 50;
+	/**
+	 * 요청할 수 있는 사진 너비. 이 너비들로만 파생 이미지를 만든다.
+	 */
+	public final static List<Integer> GALLERY_DERIVED_IMAGE_WIDTHS = Collections.unmodifiableList(
+		Arrays.asList(320, 640, 1024, 1600));
 	/**
 	 * 그림의 용량을 축소시키는 기준 값.
 	 */
@@ -65,6 +74,12 @@ public class Constants {
 	 * RSS, Sitemap 에서 한번에 읽을 아이템 수
 	 */
 	public final static Integer NUMBER_OF_ITEMS_EACH_PAGES = 1000;
+	public final static Integer SITEMAP_URLS_EACH_SHARD = 10000; // 사이트맵 파일 하나에 들어갈 글 번호 구간
+	public final static Integer RSS_FEED_SIZE = 50; // RSS 에 담을 최근 글 수
+	public final static Integer SEARCH_REINDEX_BULK_SIZE = 1000; // 재색인 때 bulk 요청 하나에 담을 문서 수
+	public final static Integer SEARCH_WORD_COUNTER_CAPACITY = 1000; // 메모리에서 세는 검색어 수
+	public final static Integer SEARCH_WORD_TOP_SIZE = 100; // 미리 계산해 두는 인기 검색어 수
+	public final static Integer SEARCH_WORD_POPULAR_DAYS = 21; // 인기 검색어를 모으는 기간
 	/**
 	 * 사진 상세에서 해당 사진의 앞뒤 사진의 갯수
 	 */
@@ -128,6 +143,34 @@ public class Constants {
 		ENABLE,
 	}
 
+	// 사진 파일 처리(리사이즈, 썸네일) 상태.
+	public enum GALLERY_PROCESS_STATUS_TYPE {
+		PROCESSING,
+		COMPLETED,
+		FAILED
+	}
+
+	// 엘라스틱서치 재색인 대상. 대상별로 별칭(alias) 하나를 바꾼다.
+	public enum SEARCH_REINDEX_TARGET_TYPE {
+		BOARD,      // 게시물 + 댓글
+		GALLERY
+	}
+
+	// 엘라스틱서치 재색인 단계.
+	public enum SEARCH_REINDEX_PHASE_TYPE {
+		ARTICLE,
+		ARTICLE_COMMENT,
+		GALLERY,
+		SWAP_ALIAS
+	}
+
+	// 엘라스틱서치 재색인 상태.
+	public enum SEARCH_REINDEX_STATUS_TYPE {
+		RUNNING,
+		FAILED,
+		COMPLETED
+	}
+
 	// 이름 타입.
 	public enum NAME_TYPE {
 		fullName,
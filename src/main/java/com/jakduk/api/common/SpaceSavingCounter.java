@@ -0,0 +1,81 @@
+package com.jakduk.api.common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Space-Saving 알고리즘으로 자주 나오는 키를 정해진 개수 안에서 센다.
+ * 자리가 없으면 가장 적게 나온 키를 밀어내고, 새 키는 밀려난 수를 오차로 물려받는다.
+ */
+
+public class SpaceSavingCounter {
+
+	private final int capacity;
+	private final Map<String, Counter> counters = new HashMap<>();
+	private final TreeSet<Counter> orderedCounters = new TreeSet<>(
+		Comparator.comparingLong((Counter counter) -> counter.count).thenComparing(counter -> counter.key));
+
+	public SpaceSavingCounter(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public synchronized void offer(String key) {
+		Counter counter = counters.get(key);
+
+		if (counter != null) {
+			orderedCounters.remove(counter);
+			counter.count++;
+		} else if (counters.size() < capacity) {
+			counter = new Counter(key, 1, 0);
+			counters.put(key, counter);
+		} else {
+			Counter min = orderedCounters.pollFirst();
+			counters.remove(min.key);
+
+			counter = new Counter(key, min.count + 1, min.count);
+			counters.put(key, counter);
+		}
+
+		orderedCounters.add(counter);
+	}
+
+	public synchronized boolean isEmpty() {
+		return counters.isEmpty();
+	}
+
+	/**
+	 * 확실히 센 수(count - error)가 많은 순서
+	 */
+	public synchronized List<Count> getCounts() {
+		List<Count> counts = new ArrayList<>();
+
+		for (Counter counter : orderedCounters.descendingSet())
+			counts.add(new Count(counter.key, counter.count - counter.error));
+
+		counts.sort(Comparator.comparingLong(Count::getCount).reversed());
+
+		return counts;
+	}
+
+	@AllArgsConstructor
+	@Getter
+	public static class Count {
+		private final String key;
+		private final long count;
+	}
+
+	@AllArgsConstructor
+	private static class Counter {
+		private final String key;
+		private long count;
+		private final long error;
+	}
+
+}
@@ -0,0 +1,206 @@
+package com.jakduk.api.common.rabbitmq;
+
+import com.jakduk.api.common.util.ObjectMapperUtils;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.listener.ElasticsearchListener;
+import com.jakduk.api.listener.EmailListener;
+import com.jakduk.api.listener.MessageAcknowledger;
+import com.jakduk.api.model.rabbitmq.EmailPayload;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 브로커 없이 이 프로세스 안에서 메시지를 리스너로 바로 넘긴다.
+ * 큐가 꺼져 있고(enabled: false) local-fallback 이 켜져 있을 때 RabbitMQPublisher 가 쓴다.
+ * 큐마다 고정 크기 버퍼와 작업 스레드 하나를 두고, 라우팅 키는 RabbitMQ 와 같은 값을 그대로 쓴다.
+ */
+
+@Component
+public class LocalMessageTransport {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	@Resource
+	private JakdukProperties.Rabbitmq rabbitmqProperties;
+
+	@Autowired
+	private ElasticsearchListener elasticsearchListener;
+
+	@Autowired
+	private EmailListener emailListener;
+
+	private final AtomicLong deliveryTagSequence = new AtomicLong();
+
+	private BlockingQueue<Message> elasticsearchQueue;
+	private BlockingQueue<EmailPayload> emailQueue;
+	private final List<Thread> workers = new ArrayList<>();
+	private volatile boolean running;
+
+	@PostConstruct
+	public void startWorkers() {
+		elasticsearchQueue = new ArrayBlockingQueue<>(rabbitmqProperties.getLocalBufferSize());
+		emailQueue = new ArrayBlockingQueue<>(rabbitmqProperties.getLocalBufferSize());
+
+		running = true;
+		workers.add(new Thread(this::runElasticsearchWorker, "local-transport-elasticsearch"));
+		workers.add(new Thread(this::runEmailWorker, "local-transport-email"));
+		workers.forEach(worker -> {
+			worker.setDaemon(true);
+			worker.start();
+		});
+	}
+
+	/**
+	 * 남은 메시지를 처리하고 끝낸다.
+	 */
+	@PreDestroy
+	public void stopWorkers() throws InterruptedException {
+		running = false;
+
+		for (Thread worker : workers)
+			worker.join(TimeUnit.SECONDS.toMillis(10));
+	}
+
+	public void publishElasticsearch(String routingKey, Object payload) {
+		Message message;
+
+		try {
+			MessageProperties messageProperties = new MessageProperties();
+			messageProperties.setReceivedRoutingKey(routingKey);
+			messageProperties.setDeliveryTag(deliveryTagSequence.incrementAndGet());
+
+			message = new Message(ObjectMapperUtils.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8),
+				messageProperties);
+		} catch (IOException e) {
+			log.error("can't write local message of {}. {}", routingKey, e.getMessage());
+			return;
+		}
+
+		// 버퍼가 차면 publisherBufferTimeout 까지 기다리고, 그래도 자리가 없으면 버린다.
+		// 요청 스레드에서 바로 처리하면 먼저 들어온 메시지를 앞지른다.
+		try {
+			if (elasticsearchQueue.offer(message, rabbitmqProperties.getPublisherBufferTimeout(), TimeUnit.MILLISECONDS))
+				return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		log.error("local elasticsearch queue is full. {} is dropped.", routingKey);
+	}
+
+	public void publishEmail(EmailPayload payload) {
+		if (!emailQueue.offer(payload)) {
+			log.warn("local email queue is full. handle {} on the caller thread.", payload.getType());
+			this.dispatchEmail(payload);
+		}
+	}
+
+	private void runElasticsearchWorker() {
+		List<Message> batch = new ArrayList<>();
+
+		while (running || !elasticsearchQueue.isEmpty()) {
+			try {
+				Message first = elasticsearchQueue.poll(1, TimeUnit.SECONDS);
+
+				if (Objects.isNull(first))
+					continue;
+
+				batch.add(first);
+				elasticsearchQueue.drainTo(batch, rabbitmqProperties.getElasticsearchBatchSize() - 1);
+
+				// 재시도할 메시지가 없어질 때까지 큐의 다음 메시지를 꺼내지 않는다.
+				List<Message> retries = this.dispatchElasticsearch(batch);
+
+				while (!retries.isEmpty()) {
+					Thread.sleep(rabbitmqProperties.getPublisherRetryInterval());
+					retries = this.dispatchElasticsearch(retries);
+				}
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (RuntimeException e) {
+				log.error("unexpected error while handling local elasticsearch messages.", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * ElasticsearchListener 로 넘긴다. 재시도할 메시지는 큐에 다시 넣지 않고 돌려줘서 작업 스레드가 그 자리에서 다시 처리한다.
+	 * 큐 뒤에 넣으면 같은 문서에 대한 나중 메시지가 먼저 처리된다.
+	 * 브로커가 없으므로 dead letter 는 로그만 남기고 버린다.
+	 *
+	 * @return 받은 순서대로 재시도할 메시지
+	 */
+	private List<Message> dispatchElasticsearch(List<Message> messages) {
+		List<Message> retries = new ArrayList<>();
+
+		try {
+			elasticsearchListener.handle(messages, new MessageAcknowledger() {
+				@Override
+				public void ack(long deliveryTag) {
+				}
+
+				@Override
+				public void retry(Message message) {
+					retries.add(message);
+				}
+
+				@Override
+				public void deadLetter(Message message) {
+					log.error("local message of {} is dropped.", message.getMessageProperties().getReceivedRoutingKey());
+				}
+			});
+		} catch (IOException e) {
+			log.error("failed to handle local elasticsearch messages. {}", e.getMessage());
+		}
+
+		return retries;
+	}
+
+	private void runEmailWorker() {
+		while (running || !emailQueue.isEmpty()) {
+			try {
+				EmailPayload payload = emailQueue.poll(1, TimeUnit.SECONDS);
+
+				if (Objects.nonNull(payload))
+					this.dispatchEmail(payload);
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+	}
+
+	private void dispatchEmail(EmailPayload payload) {
+		try {
+			emailListener.receive(payload);
+		} catch (Exception e) {
+			log.error("failed to send local email {} to {}. {}", payload.getType(), payload.getRecipientEmail(),
+				e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.jakduk.api.common.rabbitmq;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * RabbitMQPublisher 의 발행 지표
+ */
+
+@AllArgsConstructor
+@Getter
+public class PublisherMetrics {
+	private Integer queueDepth; // 보내길 기다리는 메시지 수
+	private Integer remainingCapacity; // 버퍼에 남은 자리
+	private Long published; // 브로커에 보낸 수(재시도 포함)
+	private Long confirmed; // 브로커가 ack 한 수
+	private Long retried; // nack, 타임아웃, 전송 실패로 다시 보낸 수
+	private Long failed; // 재시도를 다 쓰고 버린 수
+	private Long overflowed; // 버퍼가 차서 버린 수
+	private Double averageConfirmLatencyMillis;
+	private Double maxConfirmLatencyMillis;
+}
@@ -6,28 +6,41 @@ import com.jakduk.api.configuration.JakdukProperties;
 import com.jakduk.api.model.elasticsearch.EsArticle;
 import com.jakduk.api.model.elasticsearch.EsComment;
 import com.jakduk.api.model.elasticsearch.EsGallery;
-import com.jakduk.api.model.elasticsearch.EsSearchWord;
 import com.jakduk.api.model.embedded.ArticleItem;
 import com.jakduk.api.model.embedded.CommonWriter;
-import com.jakduk.api.model.embedded.SimpleWriter;
 import com.jakduk.api.model.rabbitmq.EmailPayload;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Created by pyohwanjang on 2017. 6. 17..
+ *
+ * 요청 스레드는 버퍼에 넣기만 하고, 발행 스레드가 배치로 보낸 뒤 publisher confirm 을 기다린다.
+ * confirm 을 못 받은 메시지는 버퍼로 돌려보내지 않고 그 자리에서 publisherMaxAttempts 까지 다시 보내서,
+ * 같은 문서에 대한 색인/삭제 메시지의 순서가 바뀌지 않게 한다.
  */
 
 @Component
@@ -44,6 +57,23 @@ public class RabbitMQPublisher {
 	@Autowired
 	private RabbitTemplate rabbitTemplate;
 
+	@Autowired
+	private LocalMessageTransport localMessageTransport;
+
+	// 발행 대기 버퍼. 발행 스레드 하나가 배치로 꺼내 보낸다.
+	private BlockingQueue<PendingMessage> buffer;
+	private Thread sender;
+	private volatile boolean running;
+	private boolean confirmEnabled;
+
+	private final LongAdder published = new LongAdder();
+	private final LongAdder confirmed = new LongAdder();
+	private final LongAdder retried = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder overflowed = new LongAdder();
+	private final LongAdder confirmLatencyNanos = new LongAdder();
+	private final AtomicLong maxConfirmLatencyNanos = new AtomicLong();
+
 	public void sendWelcome(Locale locale, String recipientEmail, String userName) {
 		EmailPayload emailPayload = new EmailPayload();
 		emailPayload.setLocale(locale);
@@ -153,21 +183,11 @@ public class RabbitMQPublisher {
 		this.publishElasticsearch(routingKey, id);
 	}
 
-	public void indexDocumentSearchWord(String word, CommonWriter writer) {
-		EsSearchWord esSearchWord = new EsSearchWord();
-		esSearchWord.setWord(word);
-		esSearchWord.setWriter(
-			Objects.nonNull(writer) ? new SimpleWriter(writer.getUserId(), writer.getUsername()) : null);
-		esSearchWord.setRegisterDate(LocalDateTime.now());
-
-		String routingKey = rabbitmqProperties.getRoutingKeys()
-			.get(ElasticsearchRoutingKey.ELASTICSEARCH_INDEX_DOCUMENT_SEARCH_WORD.getRoutingKey());
-		this.publishElasticsearch(routingKey, esSearchWord);
-	}
-
 	public void publishEmail(String routingKey, EmailPayload message) {
 		if (rabbitmqProperties.getQueues().get(QUEUE_EMAIL).getEnabled()) {
-			rabbitTemplate.convertAndSend(rabbitmqProperties.getExchangeName(), routingKey, message);
+			this.enqueue(new PendingMessage(rabbitmqProperties.getExchangeName(), routingKey, message, null, false));
+		} else if (Boolean.TRUE.equals(rabbitmqProperties.getQueues().get(QUEUE_EMAIL).getLocalFallback())) {
+			localMessageTransport.publishEmail(message);
 		} else {
 			log.info("Can not publish message. {} queue is disabled.", QUEUE_EMAIL);
 		}
@@ -175,10 +195,233 @@ public class RabbitMQPublisher {
 
 	public void publishElasticsearch(String routingKey, Object message) {
 		if (rabbitmqProperties.getQueues().get(QUEUE_ELASTICSEARCH).getEnabled()) {
-			rabbitTemplate.convertAndSend(rabbitmqProperties.getExchangeName(), routingKey, message);
+			this.enqueue(new PendingMessage(rabbitmqProperties.getExchangeName(), routingKey, message,
+				this.getDocumentId(message), true));
+		} else if (Boolean.TRUE.equals(rabbitmqProperties.getQueues().get(QUEUE_ELASTICSEARCH).getLocalFallback())) {
+			localMessageTransport.publishElasticsearch(routingKey, message);
 		} else {
 			log.info("Can not publish message. {} queue is disabled.", QUEUE_ELASTICSEARCH);
 		}
 	}
 
+	public PublisherMetrics getMetrics() {
+		long confirmedCount = confirmed.sum();
+
+		return new PublisherMetrics(
+			buffer.size(),
+			buffer.remainingCapacity(),
+			published.sum(),
+			confirmedCount,
+			retried.sum(),
+			failed.sum(),
+			overflowed.sum(),
+			confirmedCount > 0 ? confirmLatencyNanos.sum() / (double)confirmedCount / 1_000_000 : 0D,
+			maxConfirmLatencyNanos.get() / 1_000_000D);
+	}
+
+	@PostConstruct
+	public void startSender() {
+		buffer = new LinkedBlockingQueue<>(rabbitmqProperties.getPublisherBufferSize());
+		confirmEnabled = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+
+		if (!confirmEnabled)
+			log.warn("publisher confirms are disabled. set spring.rabbitmq.publisher-confirm-type=correlated.");
+
+		running = true;
+		sender = new Thread(this::runSender, "rabbitmq-publisher");
+		sender.setDaemon(true);
+		sender.start();
+	}
+
+	/**
+	 * 남은 메시지를 보내고 끝낸다.
+	 */
+	@PreDestroy
+	public void stopSender() throws InterruptedException {
+		running = false;
+		sender.join(rabbitmqProperties.getPublisherConfirmTimeout() * 2);
+
+		if (!buffer.isEmpty())
+			log.warn("{} messages are not published before shutdown.", buffer.size());
+	}
+
+	/**
+	 * 버퍼에 넣고 바로 돌아간다. 버퍼가 차 있으면 publisherBufferTimeout 까지 기다리고, 그래도 자리가 없으면 버린다.
+	 * 요청 스레드에서 직접 보내면 버퍼에 먼저 들어간 메시지를 앞지르므로 보내지 않는다.
+	 */
+	private void enqueue(PendingMessage message) {
+		try {
+			if (buffer.offer(message, rabbitmqProperties.getPublisherBufferTimeout(), TimeUnit.MILLISECONDS))
+				return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		overflowed.increment();
+		log.error("publisher buffer is full. {} {} is dropped.", message.routingKey, message.id);
+	}
+
+	private void runSender() {
+		List<PendingMessage> batch = new ArrayList<>(rabbitmqProperties.getPublisherBatchSize());
+
+		while (running || !buffer.isEmpty()) {
+			List<PendingMessage> retries = new ArrayList<>();
+
+			try {
+				PendingMessage first = buffer.poll(1, TimeUnit.SECONDS);
+
+				if (Objects.isNull(first))
+					continue;
+
+				batch.add(first);
+				buffer.drainTo(batch, rabbitmqProperties.getPublisherBatchSize() - 1);
+
+				// 다시 보낼 메시지가 없어질 때까지 버퍼의 다음 메시지를 꺼내지 않는다.
+				retries = this.publishBatch(batch);
+
+				while (!retries.isEmpty()) {
+					Thread.sleep(rabbitmqProperties.getPublisherRetryInterval());
+					retries = this.publishBatch(retries);
+				}
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+
+				if (!retries.isEmpty())
+					log.warn("{} messages are not published before interrupted.", retries.size());
+
+				break;
+			} catch (RuntimeException e) {
+				log.error("unexpected error while publishing.", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * 배치를 보내고 confirm 을 기다린다. nack, 타임아웃, 전송 실패는 다시 보낼 목록에 넣는다.
+	 * 다시 보낼 메시지 뒤에 보낸 색인 메시지는 confirm 을 받았더라도 함께 다시 보내서, 같은 문서에 대한 마지막 메시지가
+	 * 마지막에 도착하게 한다. 색인 메시지는 두 번 받아도 결과가 같다.
+	 *
+	 * @return 보낸 순서대로 다시 보낼 메시지
+	 */
+	private List<PendingMessage> publishBatch(List<PendingMessage> batch) {
+		List<CorrelationData> correlations = new ArrayList<>(batch.size());
+		String[] failures = new String[batch.size()];
+		long startedAt = System.nanoTime();
+
+		for (int i = 0; i < batch.size(); i++) {
+			PendingMessage message = batch.get(i);
+			CorrelationData correlationData = new CorrelationData();
+
+			try {
+				message.attempts++;
+				rabbitTemplate.convertAndSend(message.exchange, message.routingKey, message.payload, correlationData);
+				published.increment();
+				correlations.add(correlationData);
+			} catch (AmqpException e) {
+				correlations.add(null);
+				failures[i] = e.getMessage();
+			}
+		}
+
+		for (int i = 0; i < batch.size(); i++) {
+			CorrelationData correlationData = correlations.get(i);
+
+			if (Objects.isNull(correlationData))
+				continue;
+
+			if (!confirmEnabled) {
+				confirmed.increment();
+				continue;
+			}
+
+			try {
+				CorrelationData.Confirm confirm = correlationData.getFuture()
+					.get(rabbitmqProperties.getPublisherConfirmTimeout(), TimeUnit.MILLISECONDS);
+
+				if (confirm.isAck()) {
+					long latency = System.nanoTime() - startedAt;
+					confirmed.increment();
+					confirmLatencyNanos.add(latency);
+					maxConfirmLatencyNanos.accumulateAndGet(latency, Math::max);
+				} else {
+					failures[i] = confirm.getReason();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failures[i] = "interrupted";
+			} catch (ExecutionException | TimeoutException e) {
+				failures[i] = "confirm is not received. " + e.getMessage();
+			}
+		}
+
+		List<PendingMessage> retries = new ArrayList<>();
+
+		for (int i = 0; i < batch.size(); i++) {
+			PendingMessage message = batch.get(i);
+
+			if (Objects.nonNull(failures[i])) {
+				if (this.retry(message, failures[i]))
+					retries.add(message);
+			} else if (!retries.isEmpty() && message.replayable) {
+				retries.add(message);
+			}
+		}
+
+		return retries;
+	}
+
+	/**
+	 * @return 다시 보낼 수 있으면 true
+	 */
+	private boolean retry(PendingMessage message, String reason) {
+		if (message.attempts < rabbitmqProperties.getPublisherMaxAttempts()) {
+			retried.increment();
+			log.warn("retry publishing {} {} ({}/{}). {}", message.routingKey, message.id, message.attempts,
+				rabbitmqProperties.getPublisherMaxAttempts(), reason);
+			return true;
+		}
+
+		failed.increment();
+		log.error("failed to publish {} {} after {} attempts. {}", message.routingKey, message.id, message.attempts,
+			reason);
+
+		return false;
+	}
+
+	/**
+	 * 로그에 남길 문서 ID. 삭제 메시지는 ID 자체가 payload 다.
+	 */
+	private String getDocumentId(Object payload) {
+		if (payload instanceof String)
+			return (String)payload;
+		else if (payload instanceof EsArticle)
+			return ((EsArticle)payload).getId();
+		else if (payload instanceof EsComment)
+			return ((EsComment)payload).getId();
+		else if (payload instanceof EsGallery)
+			return ((EsGallery)payload).getId();
+
+		return null;
+	}
+
+	private static class PendingMessage {
+		private final String exchange;
+		private final String routingKey;
+		private final Object payload;
+		private final String id;
+		private final boolean replayable; // 두 번 받아도 결과가 같은지
+		private int attempts;
+
+		private PendingMessage(String exchange, String routingKey, Object payload, String id, boolean replayable) {
+			this.exchange = exchange;
+			this.routingKey = routingKey;
+			this.payload = payload;
+			this.id = id;
+			this.replayable = replayable;
+		}
+	}
+
 }
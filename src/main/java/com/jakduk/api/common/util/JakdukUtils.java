@@ -11,12 +11,10 @@ import org.apache.commons.text.RandomStringGenerator;
 import org.jsoup.Jsoup;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.ObjectUtils;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 
 import java.text.MessageFormat;
 import java.util.*;
@@ -29,8 +27,6 @@ import java.util.stream.Stream;
 
 public class JakdukUtils {
 
-	private final static String GALLERIES_FOR_REMOVAL = ":galleries_for_removal";
-
 	private static RandomStringGenerator generator = new RandomStringGenerator.Builder()
 		.withinRange('a', 'z')
 		.build();
@@ -161,64 +157,6 @@ public class JakdukUtils {
 		return null;
 	}
 
-	/**
-	 * 세션에서 해당 아이템의 지워질 사진 ID 목록을 가져온다.
-	 *
-	 * @param request HttpServletRequest
-	 * @param from 출처
-	 * @param id Item ID
-	 */
-	public static List<String> getSessionOfGalleryIdsForRemoval(HttpServletRequest request,
-		Constants.GALLERY_FROM_TYPE from, String id) {
-		String name = from + ":" + id + GALLERIES_FOR_REMOVAL;
-		HttpSession httpSession = request.getSession();
-
-		return (List<String>)httpSession.getAttribute(name);
-	}
-
-	/**
-	 * 해당 아이템의 지워질 사진 ID 목록 세션을 지운다.
-	 *
-	 * @param request HttpServletRequest
-	 * @param from 출처
-	 * @param id Item ID
-	 */
-	public static void removeSessionOfGalleryIdsForRemoval(HttpServletRequest request, Constants.GALLERY_FROM_TYPE from,
-		String id) {
-		String name = from + ":" + id + GALLERIES_FOR_REMOVAL;
-		HttpSession httpSession = request.getSession();
-
-		httpSession.removeAttribute(name);
-	}
-
-	/**
-	 * 글, 댓글 편집시 호출 했기 때문에 gallery를 바로 지우면 안된다. 글/댓글 편집 완료 시 실제로 gallery를 지워야 한다.
-	 * session에 저장해 두자.
-	 *
-	 * @param request HttpServletRequest
-	 * @param from 출처
-	 * @param itemId Item ID
-	 * @param galleryId Gallery ID
-	 */
-	public static void setSessionOfGalleryIdsForRemoval(HttpServletRequest request, Constants.GALLERY_FROM_TYPE from,
-		String itemId,
-		String galleryId) {
-
-		HttpSession httpSession = request.getSession();
-		String name = from + ":" + itemId + GALLERIES_FOR_REMOVAL;
-
-		List<String> galleryIds = getSessionOfGalleryIdsForRemoval(request, from, itemId);
-
-		if (ObjectUtils.isEmpty(galleryIds))
-			galleryIds = new ArrayList<>();
-
-		if (!galleryIds.contains(galleryId))
-			galleryIds.add(galleryId);
-
-		httpSession.setAttribute(name, galleryIds);
-		httpSession.setMaxInactiveInterval(60 * 60); // 1 hour
-	}
-
 	/**
 	 * 임시 이메일 주소를 생선한다.
 	 */
@@ -13,6 +13,7 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Component
 public class UrlGenerationUtils {
@@ -67,6 +68,54 @@ public class UrlGenerationUtils {
 		return uriComponents.toUriString();
 	}
 
+	/**
+	 * 사진첩 이미지 URL을 너비를 지정해서 생성한다.
+	 *
+	 * @param id Gallery ID
+	 * @param width 너비. Constants.GALLERY_DERIVED_IMAGE_WIDTHS 중 하나
+	 */
+	public String generateGalleryUrl(String id, Integer width) {
+
+		if (StringUtils.isBlank(id) || Objects.isNull(width))
+			return null;
+
+		UriComponents uriComponents = UriComponentsBuilder.fromHttpUrl(jakdukProperties.getApiServerUrl())
+			.path("/{urlPathGallery}/{id}")
+			.queryParam("width", width)
+			.buildAndExpand(apiUrlPathProperties.getGalleryImage(), id);
+
+		return uriComponents.toUriString();
+	}
+
+	/**
+	 * 사진첩 이미지의 너비별 URL을 img 태그의 srcset 형식으로 생성한다.
+	 *
+	 * @param id Gallery ID
+	 */
+	public String generateGallerySrcset(String id) {
+
+		if (StringUtils.isBlank(id))
+			return null;
+
+		return Constants.GALLERY_DERIVED_IMAGE_WIDTHS.stream()
+			.map(width -> generateGalleryUrl(id, width) + " " + width + "w")
+			.collect(Collectors.joining(", "));
+	}
+
+	/**
+	 * 사이트맵 파일 URL 생성
+	 *
+	 * @param fileName 사이트맵 파일 이름
+	 */
+	public String generateSitemapUrl(String fileName) {
+
+		UriComponents uriComponents = UriComponentsBuilder.fromHttpUrl(jakdukProperties.getWebServerUrl())
+			.path("/{fileName}")
+			.buildAndExpand(fileName);
+
+		return uriComponents.toUriString();
+	}
+
 	/**
 	 * 글 상세 API URL 생성
 	 *
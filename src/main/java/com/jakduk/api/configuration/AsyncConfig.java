@@ -1,13 +1,19 @@
 package com.jakduk.api.configuration;
 
+import com.jakduk.api.common.Constants;
+
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * @author pyohwan
@@ -16,6 +22,7 @@ import java.util.concurrent.Executor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig implements AsyncConfigurer {
 
 	@Override
@@ -28,6 +35,66 @@ public class AsyncConfig implements AsyncConfigurer {
 		return executor;
 	}
 
+	/**
+	 * 글 상세의 부가 조회를 동시에 돌리는 전용 풀. @Async 풀과 나눈다.
+	 * 큐가 차면 요청 스레드가 직접 실행한다.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor articleQueryExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(8);
+		executor.setMaxPoolSize(16);
+		executor.setQueueCapacity(200);
+		executor.setThreadNamePrefix("article-query-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+		return executor;
+	}
+
+	/**
+	 * 올린 사진의 리사이즈, 썸네일을 만드는 풀. CPU를 많이 쓰므로 작게 잡는다.
+	 * 큐가 차면 요청 스레드가 직접 실행한다.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor galleryImageExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.setMaxPoolSize(4);
+		executor.setQueueCapacity(100);
+		executor.setThreadNamePrefix("gallery-image-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+
+		return executor;
+	}
+
+	/**
+	 * 엘라스틱서치 재색인 작업 풀. 대상(게시판, 사진첩)별로 하나씩만 돈다.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor searchReindexExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(Constants.SEARCH_REINDEX_TARGET_TYPE.values().length);
+		executor.setMaxPoolSize(Constants.SEARCH_REINDEX_TARGET_TYPE.values().length);
+		executor.setQueueCapacity(0);
+		executor.setThreadNamePrefix("search-reindex-");
+
+		return executor;
+	}
+
+	/**
+	 * @Scheduled 작업 풀. 기본 스케줄러는 스레드가 하나라서 사이트맵, 재색인 확인 같은 긴 작업이
+	 * 읽음 수 반영 같은 짧은 작업을 붙잡지 않도록 늘린다.
+	 */
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler() {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(4);
+		scheduler.setThreadNamePrefix("scheduled-");
+
+		return scheduler;
+	}
+
 	@Override
 	public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
 		return new SimpleAsyncUncaughtExceptionHandler();
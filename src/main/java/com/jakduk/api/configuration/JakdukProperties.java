@@ -29,6 +29,9 @@ public class JakdukProperties {
 	private Integer rememberMeExpiration;
 	private String apiServerUrl;
 	private String webServerUrl;
+	private Long articleDetailQueryTimeout = 2000L; // 글 상세에서 부가 조회를 기다리는 시간(ms)
+	private Long sitemapFullCheckInterval = 3600000L; // 사이트맵 구간 전체를 DB 집계로 다시 맞추는 주기(ms)
+	private Map<String, Integer> sequenceBlockSizes = new HashMap<>(); // SEQUENCE 이름별 한번에 예약할 개수. 없으면 1
 
 	private ApiUrlPath apiUrlPath = new ApiUrlPath();
 	private Rabbitmq rabbitmq = new Rabbitmq();
@@ -52,6 +55,17 @@ public class JakdukProperties {
 		private String exchangeName;
 		private Map<String, RabbitMQ> queues = new HashMap<>();
 		private Map<String, String> routingKeys = new HashMap<>();
+		private Integer elasticsearchBatchSize = 500; // 한번의 bulk 요청으로 묶을 최대 메시지 수
+		private Long elasticsearchBatchReceiveTimeout = 1000L; // 배치를 채우려고 기다리는 시간(ms)
+		private Integer elasticsearchRetryDelay = 30000; // 색인에 실패한 메시지를 재시도 큐에 두는 시간(ms)
+		private Integer elasticsearchMaxAttempts = 5; // 색인 메시지를 처리하는 최대 횟수. 넘으면 dead letter 큐로 보낸다.
+		private Integer publisherBufferSize = 10000; // 발행 대기 버퍼 크기
+		private Long publisherBufferTimeout = 1000L; // 버퍼가 찼을 때 요청 스레드가 기다리는 시간(ms). 지나면 버린다.
+		private Integer publisherBatchSize = 100; // 한번에 보내고 confirm 을 기다릴 메시지 수
+		private Long publisherConfirmTimeout = 5000L; // confirm 을 기다리는 시간(ms)
+		private Integer publisherMaxAttempts = 5; // 메시지 하나를 보내는 최대 횟수
+		private Long publisherRetryInterval = 1000L; // 실패한 메시지를 다시 보내기 전에 쉬는 시간(ms)
+		private Integer localBufferSize = 10000; // 로컬 전달(localFallback) 큐 크기
 	}
 
 	@Getter
@@ -70,6 +84,8 @@ public class JakdukProperties {
 		private Integer bulkConcurrentRequests;
 		private Integer bulkFlushIntervalSeconds;
 		private Integer bulkSizeMb;
+		private Integer searchCacheSize = 1000; // 통합 검색 결과를 캐시할 최대 검색 조건 수
+		private Long searchCacheTtl = 30000L; // 통합 검색 결과 캐시 시간(ms). 0 이면 캐시하지 않는다
 	}
 
 	@Getter
@@ -81,6 +97,10 @@ public class JakdukProperties {
 		private String thumbnailPath;
 		private String userPictureLargePath;
 		private String userPictureSmallPath;
+		private String derivedImagePath; // 여러 크기 파생 이미지
+		private String sitemapPath; // 사이트맵 파일
+		private Long derivedImageCacheSize = 1073741824L; // 파생 이미지 캐시 최대 크기(byte). 기본 1GB
+		private Long derivedImageEvictionGrace = 60000L; // 마지막으로 준 뒤 이 시간(ms)이 지나야 지운다
 	}
 
 }
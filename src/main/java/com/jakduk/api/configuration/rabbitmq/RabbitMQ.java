@@ -9,6 +9,7 @@ public class RabbitMQ {
 	private String bindingQueueName;
 	private String bindingRoutingKey;
 	private Boolean enabled;
+	private Boolean localFallback = false; // enabled 가 false 일 때 브로커 없이 이 프로세스 안에서 바로 처리
 
 	public String getBindingQueueName() {
 		return bindingQueueName;
@@ -33,4 +34,12 @@ public class RabbitMQ {
 	public void setEnabled(Boolean enabled) {
 		this.enabled = enabled;
 	}
+
+	public Boolean getLocalFallback() {
+		return localFallback;
+	}
+
+	public void setLocalFallback(Boolean localFallback) {
+		this.localFallback = localFallback;
+	}
 }
@@ -4,9 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jakduk.api.configuration.JakdukProperties;
 
 import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +31,9 @@ import java.util.stream.Collectors;
 @Configuration
 public class RabbitMQConfig {
 
+	public static final String RETRY_SUFFIX = ".retry";
+	public static final String DEAD_LETTER_SUFFIX = ".dead";
+
 	@Resource
 	private JakdukProperties.Rabbitmq rabbitmqProperties;
 
@@ -64,4 +72,51 @@ public class RabbitMQConfig {
 			.collect(Collectors.toList());
 	}
 
+	/**
+	 * 엘라스틱서치 색인 메시지의 재시도, dead letter 큐.
+	 * 재시도 큐에서 elasticsearchRetryDelay 가 지나면 원래 라우팅 키 그대로 exchangeName 으로 돌아가 색인 큐에 다시 들어간다.
+	 * dead letter 큐는 소비하지 않는다. 확인한 뒤 shovel 등으로 exchangeName 에 다시 넣는다.
+	 */
+	@Bean
+	public Declarables elasticsearchRetryDeclarables() {
+		RabbitMQ elasticsearch = rabbitmqProperties.getQueues().get("elasticsearch");
+		String exchangeName = rabbitmqProperties.getExchangeName();
+
+		TopicExchange retryExchange = new TopicExchange(exchangeName + RETRY_SUFFIX);
+		TopicExchange deadLetterExchange = new TopicExchange(exchangeName + DEAD_LETTER_SUFFIX);
+
+		Queue retryQueue = QueueBuilder.durable(elasticsearch.getBindingQueueName() + RETRY_SUFFIX)
+			.ttl(rabbitmqProperties.getElasticsearchRetryDelay())
+			.deadLetterExchange(exchangeName)
+			.build();
+		Queue deadLetterQueue = QueueBuilder.durable(elasticsearch.getBindingQueueName() + DEAD_LETTER_SUFFIX).build();
+
+		return new Declarables(retryExchange, deadLetterExchange, retryQueue, deadLetterQueue,
+			BindingBuilder.bind(retryQueue).to(retryExchange).with(elasticsearch.getBindingRoutingKey()),
+			BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange).with(elasticsearch.getBindingRoutingKey()));
+	}
+
+	/**
+	 * 엘라스틱서치 색인 메시지를 모아서 받는 리스너 컨테이너.
+	 * batchSize 만큼 모이거나 receiveTimeout 동안 새 메시지가 없으면 리스너에 넘긴다.
+	 * 항목별로 ack/nack 하므로 수동 ack 를 쓴다. 순서를 지키려고 컨슈머는 하나만 둔다.
+	 */
+	@Bean
+	public SimpleRabbitListenerContainerFactory elasticsearchBatchListenerContainerFactory(
+		ConnectionFactory connectionFactory) {
+
+		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+		factory.setConnectionFactory(connectionFactory);
+		factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+		factory.setBatchListener(true);
+		factory.setConsumerBatchEnabled(true);
+		factory.setBatchSize(rabbitmqProperties.getElasticsearchBatchSize());
+		factory.setPrefetchCount(rabbitmqProperties.getElasticsearchBatchSize());
+		factory.setReceiveTimeout(rabbitmqProperties.getElasticsearchBatchReceiveTimeout());
+		factory.setConcurrentConsumers(1);
+		factory.setMaxConcurrentConsumers(1);
+
+		return factory;
+	}
+
 }
@@ -0,0 +1,31 @@
+package com.jakduk.api.configuration.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.rememberme.TokenBasedRememberMeServices;
+
+import java.util.Objects;
+
+/**
+ * 폼 로그인 때 remember-me 쿠키를 인증 결과의 비밀번호로 서명한다.
+ *
+ * 인증이 끝나면 비밀번호를 지우므로, 그냥 두면 쿠키를 만들 때마다 회원을 다시 읽는다.
+ */
+public class JakdukRememberMeServices extends TokenBasedRememberMeServices {
+
+	public JakdukRememberMeServices(String key, UserDetailsService userDetailsService) {
+		super(key, userDetailsService);
+	}
+
+	@Override
+	protected String retrievePassword(Authentication authentication) {
+		if (authentication.getPrincipal() instanceof UserDetailsImpl) {
+			String erasedPassword = ((UserDetailsImpl)authentication.getPrincipal()).getErasedPassword();
+
+			if (Objects.nonNull(erasedPassword))
+				return erasedPassword;
+		}
+
+		return super.retrievePassword(authentication);
+	}
+}
@@ -17,6 +17,7 @@ import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.crypto.password.StandardPasswordEncoder;
+import org.springframework.security.web.authentication.RememberMeServices;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import javax.annotation.Resource;
@@ -55,8 +56,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 			.failureHandler(new RestJakdukFailureHandler())
 
 			.and().rememberMe()
-			.key(jakdukProperties.getRememberMeSeed())
-			.tokenValiditySeconds(jakdukProperties.getRememberMeExpiration())
+			.rememberMeServices(rememberMeServices())
 
 			.and().logout()
 			.logoutSuccessHandler(new RestLogoutSuccessHandler())
@@ -156,6 +156,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 		return super.authenticationManagerBean();
 	}
 
+	private RememberMeServices rememberMeServices() {
+		JakdukRememberMeServices rememberMeServices = new JakdukRememberMeServices(
+			jakdukProperties.getRememberMeSeed(), userDetailsService);
+		rememberMeServices.setTokenValiditySeconds(jakdukProperties.getRememberMeExpiration());
+
+		return rememberMeServices;
+	}
+
 	@Bean
 	public PasswordEncoder passwordEncoder() {
 		DelegatingPasswordEncoder passwordEncoder = (DelegatingPasswordEncoder)PasswordEncoderFactories.createDelegatingPasswordEncoder();
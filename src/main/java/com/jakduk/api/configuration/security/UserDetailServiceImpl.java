@@ -5,12 +5,12 @@ import com.jakduk.api.common.util.AuthUtils;
 import com.jakduk.api.common.util.JakdukUtils;
 import com.jakduk.api.exception.ServiceError;
 import com.jakduk.api.exception.ServiceException;
-import com.jakduk.api.model.db.User;
-import com.jakduk.api.model.db.UserPicture;
 import com.jakduk.api.model.embedded.UserPictureInfo;
+import com.jakduk.api.model.simple.UserOnAuthentication;
 import com.jakduk.api.repository.user.UserRepository;
 import com.jakduk.api.service.UserService;
 
+import com.mongodb.DBRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,7 +45,7 @@ public class UserDetailServiceImpl implements UserDetailsService {
 		if (ObjectUtils.isEmpty(username)) {
 			throw new IllegalArgumentException("email 은 꼭 필요한 값입니다.");
 		} else {
-			User user = userRepository.findOneByEmail(username)
+			UserOnAuthentication user = userRepository.findUserOnAuthenticationByEmail(username)
 				.orElseThrow(() -> new ServiceException(ServiceError.NOT_FOUND_ACCOUNT,
 					JakdukUtils.getMessageSource("exception.not.found.jakduk.account", username)));
 
@@ -55,12 +55,14 @@ public class UserDetailServiceImpl implements UserDetailsService {
 				user.getPassword(), user.getUsername(), user.getProviderId(),
 				true, true, true, true, AuthUtils.getAuthorities(user.getRoles()));
 
-			UserPicture userPicture = user.getUserPicture();
+			DBRef userPicture = user.getUserPicture();
 
 			if (!ObjectUtils.isEmpty(userPicture)) {
-				UserPictureInfo userPictureInfo = new UserPictureInfo(userPicture.getId(),
-					authUtils.generateUserPictureUrl(Constants.IMAGE_SIZE_TYPE.SMALL, userPicture.getId()),
-					authUtils.generateUserPictureUrl(Constants.IMAGE_SIZE_TYPE.LARGE, userPicture.getId()));
+				String userPictureId = userPicture.getId().toString();
+
+				UserPictureInfo userPictureInfo = new UserPictureInfo(userPictureId,
+					authUtils.generateUserPictureUrl(Constants.IMAGE_SIZE_TYPE.SMALL, userPictureId),
+					authUtils.generateUserPictureUrl(Constants.IMAGE_SIZE_TYPE.LARGE, userPictureId));
 
 				userDetailsImpl.setPicture(userPictureInfo);
 			}
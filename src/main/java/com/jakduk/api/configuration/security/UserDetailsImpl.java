@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.model.embedded.UserPictureInfo;
 
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.SpringSecurityCoreVersion;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,7 +13,11 @@ import org.springframework.util.Assert;
 import java.io.Serializable;
 import java.util.*;
 
-public class UserDetailsImpl implements UserDetails {
+/**
+ * 세션 저장소에 직렬화되어 저장된다. 인증이 끝나면 비밀번호는 지운다.
+ * 지운 비밀번호는 remember-me 쿠키를 만들 때까지 직렬화되지 않는 필드에만 남긴다.
+ */
+public class UserDetailsImpl implements UserDetails, CredentialsContainer {
 
 	private final String id;
 	private final String nickname;                        // 별명
@@ -23,6 +28,7 @@ public class UserDetailsImpl implements UserDetails {
 	private final boolean credentialsNonExpired;
 	private final boolean enabled;
 	private String password;
+	private transient String erasedPassword; // remember-me 쿠키 서명용. 세션에 저장되지 않는다.
 	private String username;                                    // email
 	private UserPictureInfo picture;
 
@@ -115,6 +121,19 @@ public class UserDetailsImpl implements UserDetails {
 		this.picture = picture;
 	}
 
+	@JsonIgnore
+	public String getErasedPassword() {
+		return erasedPassword;
+	}
+
+	@Override
+	public void eraseCredentials() {
+		if (password != null)
+			erasedPassword = password;
+
+		password = null;
+	}
+
 	private static class AuthorityComparator implements Comparator<GrantedAuthority>, Serializable {
 		private static final long serialVersionUID = SpringSecurityCoreVersion.SERIAL_VERSION_UID;
 
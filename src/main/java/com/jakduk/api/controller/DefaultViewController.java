@@ -1,44 +1,39 @@
 package com.jakduk.api.controller;
 
 import com.jakduk.api.common.Constants;
-import com.jakduk.api.common.util.DateUtils;
 import com.jakduk.api.common.util.FileUtils;
-import com.jakduk.api.common.util.UrlGenerationUtils;
 import com.jakduk.api.configuration.JakdukProperties;
 import com.jakduk.api.exception.ServiceError;
 import com.jakduk.api.exception.ServiceException;
 import com.jakduk.api.model.db.Gallery;
 import com.jakduk.api.model.db.UserPicture;
-import com.jakduk.api.model.simple.ArticleOnSitemap;
-import com.jakduk.api.service.ArticleService;
 import com.jakduk.api.service.GalleryService;
+import com.jakduk.api.service.RssFeedService;
+import com.jakduk.api.service.SitemapService;
 import com.jakduk.api.service.UserPictureService;
-import com.redfin.sitemapgenerator.ChangeFreq;
-import com.redfin.sitemapgenerator.W3CDateFormat;
-import com.redfin.sitemapgenerator.WebSitemapGenerator;
-import com.redfin.sitemapgenerator.WebSitemapUrl;
 
+import org.apache.commons.lang3.StringUtils;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.Comparator;
-import java.util.List;
+import java.util.Objects;
 
 /**
  * @author <a href="mailto:phjang1983@daum.net">Jang,Pyohwan</a>
@@ -50,115 +45,106 @@ import java.util.List;
 @Controller
 public class DefaultViewController {
 
-	@Resource
-	private JakdukProperties jakdukProperties;
 	@Resource
 	private JakdukProperties.Storage storageProperties;
 
-	@Autowired
-	private UrlGenerationUtils urlGenerationUtils;
 	@Autowired
 	private GalleryService galleryService;
 	@Autowired
 	private UserPictureService userPictureService;
 	@Autowired
-	private ArticleService articleService;
+	private SitemapService sitemapService;
+	@Autowired
+	private RssFeedService rssFeedService;
+
+	// RSS. board 를 주면 그 게시판 글만.
+	@GetMapping("/rss.xml")
+	public ResponseEntity<byte[]> getRss(@RequestParam(required = false) Constants.BOARD_TYPE board) {
 
-	// RSS
-	@GetMapping(value = "/rss.xml", produces = MediaType.APPLICATION_XML_VALUE)
-	public String getRss() {
-		return "documentRssFeedView";
+		RssFeedService.RssFeed feed = rssFeedService.getFeed(board);
+
+		return ResponseEntity.ok()
+			.contentType(MediaType.parseMediaType("application/rss+xml;charset=UTF-8"))
+			.eTag(feed.getETag())
+			.lastModified(feed.getLastModified())
+			.body(feed.getBody());
 	}
 
-	// Sitemap
+	// Sitemap 인덱스
 	@GetMapping(value = "/sitemap.xml", produces = MediaType.APPLICATION_XML_VALUE)
-	public void getSitemap(HttpServletResponse servletResponse) {
-
-		try {
-			WebSitemapGenerator wsg = WebSitemapGenerator.builder(jakdukProperties.getWebServerUrl(), null)
-				.dateFormat(new W3CDateFormat(W3CDateFormat.Pattern.SECOND))
-				.build();
-
-			ObjectId postId = null;
-			Boolean existPosts = true;
-
-			do {
-				List<ArticleOnSitemap> articles = articleService.getBoardFreeOnSitemap(postId,
-					Constants.NUMBER_OF_ITEMS_EACH_PAGES);
-
-				if (CollectionUtils.isEmpty(articles)) {
-					existPosts = false;
-				} else {
-					ArticleOnSitemap article = articles.stream()
-						.sorted(Comparator.comparing(ArticleOnSitemap::getId))
-						.findFirst()
-						.orElseThrow(() -> new ServiceException(ServiceError.NOT_FOUND_ARTICLE));
-
-					postId = new ObjectId(article.getId());
-				}
-
-				if (existPosts) {
-					articles.forEach(post -> {
-						try {
-							WebSitemapUrl url = new WebSitemapUrl
-								.Options(urlGenerationUtils.generateArticleDetailUrl(post.getBoard(), post.getSeq()))
-								.lastMod(DateUtils.localDateTimeToDate(post.getLastUpdated()))
-								.priority(0.5)
-								.changeFreq(ChangeFreq.DAILY)
-								.build();
-
-							wsg.addUrl(url);
-						} catch (MalformedURLException e) {
-							throw new ServiceException(ServiceError.IO_EXCEPTION, e);
-						}
-					});
-				}
-			} while (existPosts);
-
-			servletResponse.setContentType(MediaType.APPLICATION_XML_VALUE);
-			servletResponse.setCharacterEncoding(StandardCharsets.UTF_8.name());
-			servletResponse.getWriter().println(wsg.writeAsStrings().get(0));
+	public ResponseEntity<FileSystemResource> getSitemap() {
+		return getSitemapFile(sitemapService.getSitemapIndex());
+	}
 
-		} catch (IOException e) {
-			throw new ServiceException(ServiceError.IO_EXCEPTION, e);
-		}
+	// 글 번호 구간별 Sitemap
+	@GetMapping(value = "/sitemap-{shard:\\d+}.xml", produces = MediaType.APPLICATION_XML_VALUE)
+	public ResponseEntity<FileSystemResource> getSitemapShard(@PathVariable Integer shard) {
+		return getSitemapFile(sitemapService.getSitemap(shard));
+	}
 
+	// 미리 만들어 둔 사이트맵 파일을 응답한다. If-Modified-Since 가 맞으면 304.
+	private ResponseEntity<FileSystemResource> getSitemapFile(FileSystemResource resource) {
+		return ResponseEntity.ok()
+			.contentType(MediaType.APPLICATION_XML)
+			.lastModified(resource.getFile().lastModified())
+			.body(resource);
 	}
 
-	// 사진 가져오기.
+	// 사진 가져오기. width 를 주면 그 너비로 줄인 사진을 준다.
 	@GetMapping("/${jakduk.api-url-path.gallery-image}/{id}")
-	public void getGallery(@PathVariable String id,
-		HttpServletResponse response) {
+	public ResponseEntity<FileSystemResource> getGallery(@PathVariable String id,
+		@RequestParam(required = false) Integer width) {
 
 		Gallery gallery = galleryService.findOneById(id);
 
-		ByteArrayOutputStream byteStream = galleryService.getGalleryOutStream(gallery.getId(), gallery.getContentType(),
-			Constants.IMAGE_TYPE.FULL);
-		response.setContentType(gallery.getContentType());
+		if (Objects.isNull(width)) {
+			FileSystemResource resource = galleryService.getGalleryResource(gallery.getId(),
+				gallery.getContentType(), Constants.IMAGE_TYPE.FULL);
 
-		try {
-			byteStream.writeTo(response.getOutputStream());
-		} catch (IOException e) {
-			throw new ServiceException(ServiceError.NOT_FOUND_GALLERY, e);
+			return getGalleryImage(gallery, resource, null);
 		}
+
+		FileSystemResource resource = galleryService.getGalleryResource(gallery.getId(), gallery.getContentType(),
+			width);
+
+		return getGalleryImage(gallery, resource, "w" + width);
 	}
 
 	// 사진 썸네일 가져오기.
 	@GetMapping("/${jakduk.api-url-path.gallery-thumbnail}/{id}")
-	public void getGalleyThumbnail(@PathVariable String id,
-		HttpServletResponse response) {
+	public ResponseEntity<FileSystemResource> getGalleyThumbnail(@PathVariable String id) {
 
 		Gallery gallery = galleryService.findOneById(id);
 
-		ByteArrayOutputStream byteStream = galleryService.getGalleryOutStream(gallery.getId(), gallery.getContentType(),
+		FileSystemResource resource = galleryService.getGalleryResource(gallery.getId(), gallery.getContentType(),
 			Constants.IMAGE_TYPE.THUMBNAIL);
-		response.setContentType(gallery.getContentType());
 
-		try {
-			byteStream.writeTo(response.getOutputStream());
-		} catch (IOException e) {
-			throw new ServiceException(ServiceError.NOT_FOUND_GALLERY, e);
-		}
+		return getGalleryImage(gallery, resource, "thumbnail");
+	}
+
+	/**
+	 * 사진 파일을 스트리밍으로 응답한다.
+	 * Range 요청은 206 으로, If-None-Match/If-Modified-Since 가 맞으면 304 로 응답된다. (HttpEntityMethodProcessor)
+	 *
+	 * @param variant 원본이 아닌 경우 ETag 를 구분하기 위한 값
+	 */
+	private ResponseEntity<FileSystemResource> getGalleryImage(Gallery gallery, FileSystemResource resource,
+		String variant) {
+
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+			.contentType(MediaType.parseMediaType(gallery.getContentType()));
+
+		// 처리 중에는 올린 원본 파일이 나가므로 캐시하지 않는다.
+		if (Constants.GALLERY_PROCESS_STATUS_TYPE.PROCESSING.equals(gallery.getStatus().getProcess()))
+			return builder.cacheControl(CacheControl.noStore()).body(resource);
+
+		builder.lastModified(new ObjectId(gallery.getId()).getDate().getTime());
+
+		// hash 는 원본 파일의 md5 이므로 썸네일 등은 구분해 준다.
+		if (StringUtils.isNotBlank(gallery.getHash()))
+			builder.eTag(Objects.isNull(variant) ? gallery.getHash() : gallery.getHash() + "-" + variant);
+
+		return builder.body(resource);
 	}
 
 	// 회원 프로필 사진 가져오기.
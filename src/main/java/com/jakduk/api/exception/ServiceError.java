@@ -16,6 +16,7 @@ public enum ServiceError {
 	FORM_VALIDATION_FAILED(HttpStatus.SC_BAD_REQUEST, "exception.invalid.parameter"),
 	FEELING_YOU_ARE_WRITER(HttpStatus.SC_BAD_REQUEST, "exception.you.are.writer"),
 	FEELING_SELECT_ALREADY_LIKE(HttpStatus.SC_BAD_REQUEST, "exception.select.already.like"),
+	FEELING_CONFLICT(HttpStatus.SC_CONFLICT, "exception.feeling.conflict"),
 	ILLEGAL_ARGUMENT(HttpStatus.SC_INTERNAL_SERVER_ERROR, "exception.illegal.argument"),
 	NOT_FOUND(HttpStatus.SC_NOT_FOUND, "exception.no.such.element"),
 	FORBIDDEN(HttpStatus.SC_FORBIDDEN, "exception.forbidden"),
@@ -60,7 +61,8 @@ public enum ServiceError {
 	SEND_EMAIL_FAILED(HttpStatus.SC_INTERNAL_SERVER_ERROR, "exception.send.email.failed"),
 	GALLERY_IO_ERROR(HttpStatus.SC_INTERNAL_SERVER_ERROR, "exception.gallery.io"),
 	ELASTICSEARCH_NOT_FOUND_INDEX(HttpStatus.SC_INTERNAL_SERVER_ERROR, "exception.elasticsearch.not.found.index"),
-	ELASTICSEARCH_INDEX_FAILED(HttpStatus.SC_INTERNAL_SERVER_ERROR, "exception.elasticsearch.index.failed");
+	ELASTICSEARCH_INDEX_FAILED(HttpStatus.SC_INTERNAL_SERVER_ERROR, "exception.elasticsearch.index.failed"),
+	ELASTICSEARCH_REINDEX_ALREADY_RUNNING(HttpStatus.SC_CONFLICT, "exception.elasticsearch.reindex.already.running");
 
 	private final Integer httpStatus;
 	private final String code;
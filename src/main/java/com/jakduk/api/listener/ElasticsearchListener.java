@@ -1,94 +1,305 @@
 package com.jakduk.api.listener;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 import com.jakduk.api.common.rabbitmq.ElasticsearchRoutingKey;
 import com.jakduk.api.common.util.ObjectMapperUtils;
 import com.jakduk.api.configuration.JakdukProperties;
-import com.jakduk.api.exception.ServiceError;
-import com.jakduk.api.exception.ServiceException;
+import com.jakduk.api.configuration.rabbitmq.RabbitMQConfig;
 import com.jakduk.api.model.elasticsearch.EsArticle;
 import com.jakduk.api.model.elasticsearch.EsComment;
 import com.jakduk.api.model.elasticsearch.EsGallery;
 import com.jakduk.api.model.elasticsearch.EsSearchWord;
+import com.jakduk.api.service.SearchReindexService;
 import com.jakduk.api.service.SearchService;
+import com.rabbitmq.client.Channel;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Created by pyohwanjang on 2017. 6. 20..
+ *
+ * 메시지를 모아서 하나의 BulkRequest 로 색인한다.
+ * 같은 문서에 대한 메시지는 마지막 것만 보내고, bulk 항목 결과에 따라 메시지별로 ack 하거나
+ * 재시도 큐, dead letter 큐로 넘긴다.
  */
 
 @Slf4j
 @Component
 public class ElasticsearchListener {
 
+	public static final String RETRY_COUNT_HEADER = "retry-count";
+
 	@Resource
 	private JakdukProperties.Rabbitmq rabbitmqProperties;
 
 	@Autowired
 	private SearchService searchService;
 
-	@RabbitListener(queues = "${jakduk.rabbitmq.queues.elasticsearch.binding-queue-name}")
-	public void receive(Message message, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) throws IOException {
+	@Autowired
+	private SearchReindexService searchReindexService;
+
+	@Autowired
+	private RabbitTemplate rabbitTemplate;
+
+	// 실제 라우팅 키 -> ElasticsearchRoutingKey
+	private Map<String, ElasticsearchRoutingKey> routingKeyLookup = new HashMap<>();
+
+	@PostConstruct
+	public void buildRoutingKeyLookup() {
+		Map<String, ElasticsearchRoutingKey> lookup = new HashMap<>();
+		Map<String, String> routingKeys = rabbitmqProperties.getRoutingKeys();
+
+		if (routingKeys != null) {
+			for (ElasticsearchRoutingKey elasticsearchRoutingKey : ElasticsearchRoutingKey.values()) {
+				String routingKey = routingKeys.get(elasticsearchRoutingKey.getRoutingKey());
+
+				if (routingKey != null)
+					lookup.put(routingKey, elasticsearchRoutingKey);
+			}
+		}
+
+		routingKeyLookup = lookup;
+	}
+
+	@RabbitListener(queues = "${jakduk.rabbitmq.queues.elasticsearch.binding-queue-name}",
+		containerFactory = "elasticsearchBatchListenerContainerFactory")
+	public void receive(List<Message> messages, Channel channel) throws IOException {
+		this.handle(messages, new MessageAcknowledger() {
+			@Override
+			public void ack(long deliveryTag) throws IOException {
+				channel.basicAck(deliveryTag, false);
+			}
+
+			@Override
+			public void retry(Message message) throws IOException {
+				forward(channel, rabbitmqProperties.getExchangeName() + RabbitMQConfig.RETRY_SUFFIX, message);
+			}
+
+			@Override
+			public void deadLetter(Message message) throws IOException {
+				forward(channel, rabbitmqProperties.getExchangeName() + RabbitMQConfig.DEAD_LETTER_SUFFIX, message);
+			}
+		});
+	}
+
+	/**
+	 * 색인 메시지 배치를 처리한다. 브로커 없이 로컬로 전달할 때도 쓴다.
+	 */
+	public void handle(List<Message> messages, MessageAcknowledger acknowledger) throws IOException {
+
+		// 문서(index/id) 별로 마지막 요청만 남긴다. ID 가 없는 검색어는 그대로 쌓는다.
+		Map<String, BulkItem> bulkItems = new LinkedHashMap<>();
+		EnumMap<ElasticsearchRoutingKey, Integer> counts = new EnumMap<>(ElasticsearchRoutingKey.class);
+
+		for (Message message : messages) {
+			long deliveryTag = message.getMessageProperties().getDeliveryTag();
+			String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+			ElasticsearchRoutingKey elasticsearchRoutingKey = routingKeyLookup.get(routingKey);
+
+			if (elasticsearchRoutingKey == null) {
+				log.warn("unknown routing key {}. message is dead-lettered.", routingKey);
+				acknowledger.deadLetter(message);
+				continue;
+			}
+
+			DocWriteRequest<?> request;
+
+			try {
+				request = this.toRequest(elasticsearchRoutingKey, message.getBody());
+			} catch (IOException | RuntimeException e) {
+				log.warn("can't read message of {}. message is dead-lettered. {}", routingKey, e.getMessage());
+				acknowledger.deadLetter(message);
+				continue;
+			}
+
+			log.debug("received {} {}", elasticsearchRoutingKey, request.id());
+			counts.merge(elasticsearchRoutingKey, 1, Integer::sum);
+
+			String documentKey = Objects.isNull(request.id()) ? "tag:" + deliveryTag : request.index() + ":" + request.id();
+			BulkItem bulkItem = bulkItems.computeIfAbsent(documentKey, key -> new BulkItem());
+			bulkItem.request = request;
+			bulkItem.shadowRequest = this.getShadowRequest(request);
+			bulkItem.messages.add(message);
+		}
+
+		if (bulkItems.isEmpty())
+			return;
+
+		List<BulkItem> items = new ArrayList<>(bulkItems.values());
+		List<DeleteRequest> shadowDeleteRequests = new ArrayList<>();
+		BulkRequest bulkRequest = new BulkRequest();
+		items.forEach(item -> {
+			bulkRequest.add(item.request);
+
+			if (Objects.nonNull(item.shadowRequest))
+				bulkRequest.add(item.shadowRequest);
+
+			if (item.shadowRequest instanceof DeleteRequest)
+				shadowDeleteRequests.add((DeleteRequest)item.shadowRequest);
+		});
+
+		BulkResponse bulkResponse;
+
+		try {
+			// 재색인이 먼저 읽어 둔 문서를 다시 만들 수 있으므로, 지우기 전에 기록해서 별칭을 옮기기 전에 다시 지우게 한다.
+			searchReindexService.recordDeletions(shadowDeleteRequests);
+			bulkResponse = searchService.bulk(bulkRequest);
+		} catch (IOException | RuntimeException e) {
+			log.warn("bulk request of {} items failed. {}", items.size(), e.getMessage());
 
-		log.info("{}", message);
+			for (BulkItem item : items)
+				this.nack(acknowledger, item, true);
 
-		String findKey = rabbitmqProperties.getRoutingKeys().entrySet().stream()
-			.filter(entity -> entity.getValue().equals(routingKey))
-			.findFirst()
-			.map(Map.Entry::getKey)
-			.orElseThrow(() -> new ServiceException(ServiceError.ILLEGAL_ARGUMENT));
+			return;
+		}
+
+		log.info("bulk indexed {} messages as {} items in {}ms. {}", messages.size(), items.size(),
+			bulkResponse.getTook().getMillis(), counts);
+
+		BulkItemResponse[] itemResponses = bulkResponse.getItems();
+		int position = 0;
+
+		for (BulkItem item : items) {
+			BulkItemResponse itemResponse = itemResponses[position++];
+
+			// 재색인 중인 인덱스에 쓴 결과는 메시지 ack 에 영향을 주지 않는다.
+			if (Objects.nonNull(item.shadowRequest)) {
+				BulkItemResponse shadowResponse = itemResponses[position++];
+
+				if (shadowResponse.isFailed())
+					log.warn("reindexing index item {} {} failed. {}", shadowResponse.getOpType(),
+						shadowResponse.getId(), shadowResponse.getFailureMessage());
+			}
+
+			if (!itemResponse.isFailed()) {
+				if (itemResponse.getResponse() != null
+					&& itemResponse.getResponse().getResult() == DocWriteResponse.Result.NOT_FOUND)
+					log.warn("document {} is not found. so can't delete it!", itemResponse.getId());
+
+				for (Message message : item.messages)
+					acknowledger.ack(message.getMessageProperties().getDeliveryTag());
 
-		ElasticsearchRoutingKey elasticsearchRoutingKey = ElasticsearchRoutingKey.find(findKey);
+				continue;
+			}
+
+			RestStatus status = itemResponse.getFailure().getStatus();
+			boolean retryable = status == RestStatus.TOO_MANY_REQUESTS || status.getStatus() >= 500;
+
+			log.warn("bulk item {} {} failed. status={}, {}", itemResponse.getOpType(), itemResponse.getId(), status,
+				itemResponse.getFailureMessage());
+
+			this.nack(acknowledger, item, retryable);
+		}
+	}
+
+	private DocWriteRequest<?> toRequest(ElasticsearchRoutingKey elasticsearchRoutingKey, byte[] body)
+		throws IOException {
 
 		switch (elasticsearchRoutingKey) {
 			case ELASTICSEARCH_INDEX_DOCUMENT_ARTICLE:
-				EsArticle esArticle = ObjectMapperUtils.readValue(message.getBody(), EsArticle.class);
-				searchService.indexDocumentArticle(esArticle);
-				break;
+				return searchService.getIndexArticleRequest(ObjectMapperUtils.readValue(body, EsArticle.class));
 
 			case ELASTICSEARCH_DELETE_DOCUMENT_ARTICLE:
-				String boardId = ObjectMapperUtils.readValue(message.getBody(), String.class);
-				searchService.deleteDocumentBoard(boardId);
-				break;
+				return searchService.getDeleteBoardRequest(ObjectMapperUtils.readValue(body, String.class));
 
 			case ELASTICSEARCH_INDEX_DOCUMENT_ARTICLE_COMMENT:
-				EsComment esComment = ObjectMapperUtils.readValue(message.getBody(), EsComment.class);
-				searchService.indexDocumentBoardComment(esComment);
-				break;
+				return searchService.getIndexBoardCommentRequest(ObjectMapperUtils.readValue(body, EsComment.class));
 
 			case ELASTICSEARCH_DELETE_DOCUMENT_ARTICLE_COMMENT:
-				String commentId = ObjectMapperUtils.readValue(message.getBody(), String.class);
-				searchService.deleteDocumentBoardComment(commentId);
-				break;
+				return searchService.getDeleteBoardCommentRequest(ObjectMapperUtils.readValue(body, String.class));
 
 			case ELASTICSEARCH_INDEX_DOCUMENT_GALLERY:
-				EsGallery esGallery = ObjectMapperUtils.readValue(message.getBody(), EsGallery.class);
-				searchService.indexDocumentGallery(esGallery);
-				break;
+				return searchService.getIndexGalleryRequest(ObjectMapperUtils.readValue(body, EsGallery.class));
 
 			case ELASTICSEARCH_DELETE_DOCUMENT_GALLERY:
-				String galleryId = ObjectMapperUtils.readValue(message.getBody(), String.class);
-				searchService.deleteDocumentGallery(galleryId);
-				break;
+				return searchService.getDeleteGalleryRequest(ObjectMapperUtils.readValue(body, String.class));
 
 			case ELASTICSEARCH_INDEX_DOCUMENT_SEARCH_WORD:
-				EsSearchWord esSearchWord = ObjectMapperUtils.readValue(message.getBody(), EsSearchWord.class);
-				searchService.indexDocumentSearchWord(esSearchWord);
-				break;
+				return searchService.getIndexSearchWordRequest(ObjectMapperUtils.readValue(body, EsSearchWord.class));
+
+			default:
+				throw new IllegalArgumentException("unsupported routing key " + elasticsearchRoutingKey);
+		}
+	}
+
+	/**
+	 * 별칭이 재색인 중이면 새 인덱스에도 같은 요청을 쓴다.
+	 */
+	private DocWriteRequest<?> getShadowRequest(DocWriteRequest<?> request) {
+		String reindexingIndex = searchReindexService.getReindexingIndex(request.index());
+
+		return Objects.nonNull(reindexingIndex) ? searchService.copyRequest(request, reindexingIndex) : null;
+	}
+
+	/**
+	 * 일시적인 실패는 재시도 큐에서 기다렸다가 다시 받는다. 처리 횟수가 elasticsearchMaxAttempts 에 닿았거나
+	 * 다시 보내도 실패할 메시지는 dead letter 큐로 보낸다.
+	 * 합쳐진 앞선 메시지는 마지막 메시지가 대신하므로 ack 한다.
+	 */
+	private void nack(MessageAcknowledger acknowledger, BulkItem item, boolean retryable) throws IOException {
+		Message latest = item.messages.get(item.messages.size() - 1);
+
+		for (Message message : item.messages.subList(0, item.messages.size() - 1))
+			acknowledger.ack(message.getMessageProperties().getDeliveryTag());
+
+		Number retryCount = (Number)latest.getMessageProperties().getHeaders().get(RETRY_COUNT_HEADER);
+		int attempts = (Objects.isNull(retryCount) ? 0 : retryCount.intValue()) + 1;
 
+		if (retryable && attempts < rabbitmqProperties.getElasticsearchMaxAttempts()) {
+			latest.getMessageProperties().setHeader(RETRY_COUNT_HEADER, attempts);
+			acknowledger.retry(latest);
+		} else {
+			log.error("{} is dead-lettered after {} attempts.", item.request.id(), attempts);
+			acknowledger.deadLetter(latest);
 		}
 	}
 
+	/**
+	 * 받은 라우팅 키 그대로 다른 exchange 로 발행하고 ack 한다. 발행에 실패하면 바로 다시 받는다.
+	 */
+	private void forward(Channel channel, String exchange, Message message) throws IOException {
+		long deliveryTag = message.getMessageProperties().getDeliveryTag();
+
+		try {
+			rabbitTemplate.send(exchange, message.getMessageProperties().getReceivedRoutingKey(), message);
+		} catch (AmqpException e) {
+			log.warn("can't forward message to {}. requeue it. {}", exchange, e.getMessage());
+			channel.basicNack(deliveryTag, false, true);
+			return;
+		}
+
+		channel.basicAck(deliveryTag, false);
+	}
+
+	private static class BulkItem {
+		private DocWriteRequest<?> request;
+		private DocWriteRequest<?> shadowRequest;
+		private List<Message> messages = new ArrayList<>();
+	}
+
 }
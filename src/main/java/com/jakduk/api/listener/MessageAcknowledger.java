@@ -0,0 +1,25 @@
+package com.jakduk.api.listener;
+
+import org.springframework.amqp.core.Message;
+
+import java.io.IOException;
+
+/**
+ * 메시지 처리 결과를 전송 계층(RabbitMQ 채널, 로컬 큐)에 알린다.
+ */
+
+public interface MessageAcknowledger {
+
+	void ack(long deliveryTag) throws IOException;
+
+	/**
+	 * 잠시 뒤에 다시 받도록 넘긴다.
+	 */
+	void retry(Message message) throws IOException;
+
+	/**
+	 * 더 처리하지 않고 따로 보관한다.
+	 */
+	void deadLetter(Message message) throws IOException;
+
+}
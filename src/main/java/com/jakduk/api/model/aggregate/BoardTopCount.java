@@ -0,0 +1,25 @@
+package com.jakduk.api.model.aggregate;
+
+import com.jakduk.api.model.embedded.ArticleStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 주간 선두 글을 다시 만들 때 읽는 글의 좋아요 수, 댓글 수. 글에 저장된 수가 없으면 0 이다.
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BoardTopCount {
+	private String id;
+	private Integer seq;
+	private ArticleStatus status;
+	private String subject;
+	private Integer views;
+	private Integer likingCount;
+	private Integer commentCount;
+
+}
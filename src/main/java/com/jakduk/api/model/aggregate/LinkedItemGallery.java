@@ -0,0 +1,17 @@
+package com.jakduk.api.model.aggregate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 아이템(글, 댓글) 별 대표 사진
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class LinkedItemGallery {
+	private String id; // 아이템 ID
+	private String galleryId; // 사진 ID
+}
@@ -0,0 +1,20 @@
+package com.jakduk.api.model.aggregate;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 사이트맵 구간별 글 수와 가장 최근에 바뀐 시각. 둘 중 하나라도 달라지면 그 구간을 다시 만든다.
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SitemapShard {
+	private Integer id; // 구간의 첫 글 번호
+	private Integer count; // 글 수
+	private LocalDateTime lastUpdated; // 가장 최근에 바뀐 시각
+}
@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.jakduk.api.model.embedded.ArticleStatus;
@@ -31,6 +33,15 @@ import lombok.ToString;
 @ToString
 @Builder
 @Document
+@CompoundIndexes({
+	@CompoundIndex(name = "board_seq", def = "{'board': 1, 'seq': 1}"),
+	@CompoundIndex(name = "seq", def = "{'seq': 1}"),
+	@CompoundIndex(name = "board_id", def = "{'board': 1, '_id': -1}"),
+	@CompoundIndex(name = "board_category_id", def = "{'board': 1, 'category': 1, '_id': -1}"),
+	@CompoundIndex(name = "status_notice_id", def = "{'status.notice': 1, '_id': -1}"),
+	@CompoundIndex(name = "writer_userId_id", def = "{'writer.userId': 1, '_id': -1}"),
+	@CompoundIndex(name = "lastUpdated", def = "{'lastUpdated': 1}")
+})
 public class Article implements UsersFeeling {
 
 	@Id
@@ -50,6 +61,9 @@ public class Article implements UsersFeeling {
 	private String shortContent;
 	private LocalDateTime lastUpdated;
 	private Boolean linkedGallery;
+	private Integer commentCount; // 댓글 수
+	private Integer likingCount; // 좋아요 수
+	private Integer dislikingCount; // 싫어요 수
 
 	@Override
 	public List<CommonFeelingUser> getUsersLiking() {
@@ -3,6 +3,8 @@ package com.jakduk.api.model.db;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.jakduk.api.model.embedded.ArticleItem;
@@ -27,6 +29,10 @@ import lombok.NoArgsConstructor;
 @Data
 @Builder
 @Document
+@CompoundIndexes({
+	@CompoundIndex(name = "article_id", def = "{'article._id': 1}"),
+	@CompoundIndex(name = "article_seq_board_id", def = "{'article.seq': 1, 'article.board': 1, '_id': 1}")
+})
 public class ArticleComment implements UsersFeeling {
 
 	@Id
@@ -3,6 +3,8 @@ package com.jakduk.api.model.db;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.jakduk.api.model.embedded.CommonWriter;
@@ -26,6 +28,11 @@ import lombok.NoArgsConstructor;
 @Data
 @Builder
 @Document
+@CompoundIndexes({
+	@CompoundIndex(name = "linkedItems_id_from", def = "{'linkedItems._id': 1, 'linkedItems.from': 1}"),
+	@CompoundIndex(name = "hash_status", def = "{'hash': 1, 'status.status': 1}"),
+	@CompoundIndex(name = "status_id", def = "{'status.status': 1, '_id': -1}")
+})
 public class Gallery {
 
 	@Id
@@ -0,0 +1,39 @@
+package com.jakduk.api.model.db;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.jakduk.api.common.Constants;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 글, 댓글 편집 중에 지운 사진. 편집을 마칠 때 아이템과의 연결을 끊는다.
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Document
+@CompoundIndex(name = "userId_from_itemId", def = "{'userId': 1, 'from': 1, 'itemId': 1}", unique = true)
+public class GalleryRemoval {
+
+	@Id
+	private String id;
+	private String userId; // 편집하는 회원
+	private Constants.GALLERY_FROM_TYPE from;
+	private String itemId; // 글, 댓글 ID
+	private List<String> galleryIds;
+	@Indexed(name = "lastUpdated_ttl", expireAfter = "1h")
+	private Date lastUpdated; // 마지막으로 사진을 지운 때. 한시간 동안 편집을 마치지 않으면 지워진다.
+
+}
@@ -0,0 +1,35 @@
+package com.jakduk.api.model.db;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 재색인 중에 실시간으로 지운 문서. 재색인이 먼저 읽어 둔 문서를 나중에 CREATE 할 수 있으므로,
+ * 별칭을 옮기기 전에 새 인덱스에서 다시 지운다.
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Document
+@CompoundIndex(name = "index", def = "{'index': 1}")
+public class SearchReindexDeletion {
+
+	@Id
+	private String id; // 인덱스:문서 _id
+	private String index; // 재색인 중인 새 인덱스
+	private String documentId;
+	@Indexed(name = "deletedAt_ttl", expireAfter = "7d")
+	private LocalDateTime deletedAt; // 재색인이 끝나면 지운다. 끝난 뒤 늦게 기록된 것은 일주일 뒤 지워진다.
+
+}
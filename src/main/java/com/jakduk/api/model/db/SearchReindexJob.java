@@ -0,0 +1,39 @@
+package com.jakduk.api.model.db;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.jakduk.api.common.Constants;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 엘라스틱서치 재색인 작업과 체크포인트. 대상별로 하나만 둔다.
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Document
+public class SearchReindexJob {
+
+	@Id
+	private String id; // 대상 이름(SEARCH_REINDEX_TARGET_TYPE)
+	private Constants.SEARCH_REINDEX_TARGET_TYPE target;
+	private String alias; // 검색에서 쓰는 이름
+	private String index; // 새로 만드는 버전 인덱스
+	private Constants.SEARCH_REINDEX_STATUS_TYPE status;
+	private Constants.SEARCH_REINDEX_PHASE_TYPE phase;
+	private String lastId; // phase 에서 마지막으로 색인한 _id. 재시작하면 여기부터 이어간다.
+	private Long indexedCount;
+	private String error;
+	private LocalDateTime startedAt;
+	private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,34 @@
+package com.jakduk.api.model.db;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 날짜별 검색어 수. 서버마다 메모리에서 센 것을 주기적으로 더한다.
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Document
+@CompoundIndex(name = "bucket_word", def = "{'bucket': 1, 'word': 1}", unique = true)
+public class SearchWordCount {
+
+	@Id
+	private String id;
+	@Indexed(name = "bucket_ttl", expireAfter = "28d")
+	private Date bucket; // 검색한 날 0시. 4주가 지나면 지워진다.
+	private String word;
+	private Long count;
+
+}
@@ -18,4 +18,9 @@ import lombok.NoArgsConstructor;
 @Data
 public class GalleryStatus {
 	private Constants.GALLERY_STATUS_TYPE status;
+	private Constants.GALLERY_PROCESS_STATUS_TYPE process; // 없으면 처리 완료된 사진
+
+	public GalleryStatus(Constants.GALLERY_STATUS_TYPE status) {
+		this.status = status;
+	}
 }
@@ -1,5 +1,7 @@
 package com.jakduk.api.model.embedded;
 
+import java.io.Serializable;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,7 +15,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Data
 @Builder
-public class UserPictureInfo {
+public class UserPictureInfo implements Serializable {
 	private String id;
 	private String smallPictureUrl;
 	private String largePictureUrl;
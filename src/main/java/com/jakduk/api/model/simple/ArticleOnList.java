@@ -28,6 +28,10 @@ public class ArticleOnList {
 	private Integer views;
 	private String shortContent;
 	private Boolean linkedGallery;
+	private Integer commentCount;
+	private Integer likingCount;
+	private Integer dislikingCount;
+	private String thumbnailGalleryId; // 글 목록 aggregation 에서만 채워진다
 
 	public String getId() {
 		return id;
@@ -68,4 +72,20 @@ public class ArticleOnList {
 	public Boolean getLinkedGallery() {
 		return linkedGallery;
 	}
+
+	public Integer getCommentCount() {
+		return commentCount;
+	}
+
+	public Integer getLikingCount() {
+		return likingCount;
+	}
+
+	public Integer getDislikingCount() {
+		return dislikingCount;
+	}
+
+	public String getThumbnailGalleryId() {
+		return thumbnailGalleryId;
+	}
 }
@@ -0,0 +1,27 @@
+package com.jakduk.api.model.simple;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.embedded.CommonWriter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 사진 목록에 필요한 필드만 읽는다.
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Document(collection = Constants.COLLECTION_GALLERY)
+public class GalleryOnFeed {
+
+	private String id;
+	private String name;
+	private String fileName;
+	private CommonWriter writer;
+
+}
@@ -0,0 +1,30 @@
+package com.jakduk.api.model.simple;
+
+import com.jakduk.api.common.Constants;
+import com.mongodb.DBRef;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 로그인, remember-me 재인증에서 쓰인다. 지지구단, 프로필 사진 문서는 읽지 않는다.
+ */
+
+@Getter
+@Document(collection = Constants.COLLECTION_USER)
+public class UserOnAuthentication {
+
+	@Id
+	private String id;
+	private String email;
+	private String username;
+	private String password;
+	private Constants.ACCOUNT_TYPE providerId;
+	private List<Integer> roles;
+	private DBRef userPicture; // 프로필 사진 ID 만 쓴다
+
+}
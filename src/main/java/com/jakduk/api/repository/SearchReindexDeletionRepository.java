@@ -0,0 +1,12 @@
+package com.jakduk.api.repository;
+
+import com.jakduk.api.model.db.SearchReindexDeletion;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface SearchReindexDeletionRepository extends MongoRepository<SearchReindexDeletion, String> {
+	List<SearchReindexDeletion> findByIndex(String index);
+	void deleteByIndex(String index);
+}
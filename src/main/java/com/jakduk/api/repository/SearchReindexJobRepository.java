@@ -0,0 +1,13 @@
+package com.jakduk.api.repository;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.SearchReindexJob;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SearchReindexJobRepository extends MongoRepository<SearchReindexJob, String> {
+	List<SearchReindexJob> findByStatusIn(Collection<Constants.SEARCH_REINDEX_STATUS_TYPE> statuses);
+}
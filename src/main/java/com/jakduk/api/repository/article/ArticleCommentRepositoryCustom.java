@@ -3,6 +3,7 @@ package com.jakduk.api.repository.article;
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.model.db.ArticleComment;
 import com.jakduk.api.model.aggregate.CommonCount;
+import com.jakduk.api.model.embedded.CommonFeelingUser;
 import com.jakduk.api.model.simple.ArticleCommentSimple;
 
 import org.bson.types.ObjectId;
@@ -32,13 +33,16 @@ public interface ArticleCommentRepositoryCustom {
 	 */
 	List<ArticleComment> findByBoardSeqAndGTId(String board, Integer articleSeq, ObjectId commentId);
 
+	List<ArticleCommentSimple> findSimpleComments();
+
 	/**
-	 * boardItem의 objectId 기준 이상의 댓글 수를 가져온다
+	 * 댓글의 감정 표현을 조건부 갱신으로 바꾼다.
 	 *
-	 * @param boardId 기준이 되는 boardItem의 boardId
+	 * @param id 댓글 ID
+	 * @param feelingUser 감정 표현한 회원
+	 * @param feeling 감정 표현 종류
+	 * @return 갱신된 감정 표현 회원 목록만 채워진 댓글. 댓글이 없으면 null
 	 */
-	List<CommonCount> findCommentsCountGreaterThanBoardIdAndBoard(ObjectId boardId, Constants.BOARD_TYPE board);
-
-	List<ArticleCommentSimple> findSimpleComments();
+	ArticleComment setUsersFeeling(ObjectId id, CommonFeelingUser feelingUser, Constants.FEELING_TYPE feeling);
 
 }
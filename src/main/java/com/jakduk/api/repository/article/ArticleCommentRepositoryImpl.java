@@ -18,6 +18,7 @@ import org.springframework.util.ObjectUtils;
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.model.aggregate.CommonCount;
 import com.jakduk.api.model.db.ArticleComment;
+import com.jakduk.api.model.embedded.CommonFeelingUser;
 import com.jakduk.api.model.simple.ArticleCommentSimple;
 
 /**
@@ -90,25 +91,6 @@ public class ArticleCommentRepositoryImpl implements ArticleCommentRepositoryCus
 		return mongoTemplate.find(query, ArticleComment.class);
 	}
 
-	/**
-	 * boardItem의 boardId 기준 이상의 댓글 수를 가져온다
-	 *
-	 * @param boardId 기준이 되는 boardItem의 boardId
-	 */
-	@Override
-	public List<CommonCount> findCommentsCountGreaterThanBoardIdAndBoard(ObjectId boardId, Constants.BOARD_TYPE board) {
-		AggregationOperation match1 = Aggregation.match(
-			Criteria.where("article._id").gt(boardId).and("article.board").is(board.name()));
-		AggregationOperation group = Aggregation.group("article").count().as("count");
-		AggregationOperation sort = Aggregation.sort(Sort.Direction.DESC, "count");
-		//AggregationOperation limit = Aggregation.limit(Constants.BOARD_TOP_LIMIT);
-		Aggregation aggregation = Aggregation.newAggregation(match1, group, sort/*, limit*/);
-		AggregationResults<CommonCount> results = mongoTemplate.aggregate(aggregation,
-			Constants.COLLECTION_ARTICLE_COMMENT, CommonCount.class);
-
-		return results.getMappedResults();
-	}
-
 	@Override
 	public List<ArticleCommentSimple> findSimpleComments() {
 		Query query = new Query();
@@ -118,4 +100,12 @@ public class ArticleCommentRepositoryImpl implements ArticleCommentRepositoryCus
 		return mongoTemplate.find(query, ArticleCommentSimple.class);
 	}
 
+	/**
+	 * 댓글의 감정 표현을 조건부 갱신으로 바꾼다.
+	 */
+	@Override
+	public ArticleComment setUsersFeeling(ObjectId id, CommonFeelingUser feelingUser, Constants.FEELING_TYPE feeling) {
+		return UsersFeelingUpdater.update(mongoTemplate, ArticleComment.class, id, feelingUser, feeling, false);
+	}
+
 }
@@ -2,8 +2,11 @@ package com.jakduk.api.repository.article;
 
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.model.aggregate.BoardFeelingCount;
-import com.jakduk.api.model.aggregate.BoardTop;
+import com.jakduk.api.model.aggregate.BoardTopCount;
+import com.jakduk.api.model.aggregate.SitemapShard;
 import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.embedded.BoardLog;
+import com.jakduk.api.model.embedded.CommonFeelingUser;
 import com.jakduk.api.model.simple.ArticleOnList;
 import com.jakduk.api.model.simple.ArticleOnRSS;
 import com.jakduk.api.model.simple.ArticleOnSitemap;
@@ -12,14 +15,21 @@ import com.jakduk.api.model.simple.ArticleSimple;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Sort;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by pyohwan on 16. 10. 9.
  */
 public interface ArticleRepositoryCustom {
 
-	List<ArticleOnList> findByIdAndUserId(ObjectId id, String userId, Integer limit);
+	/**
+	 * 글쓴이의 최근 글 목록
+	 *
+	 * @param maxTimeMsec 몽고 서버가 조회를 멈추는 시간(ms)
+	 */
+	List<ArticleOnList> findByIdAndUserId(ObjectId id, String userId, Integer limit, Long maxTimeMsec);
 
 	/**
 	 * 기준 Article ID 이상의 Article 목록을 가져온다.
@@ -27,13 +37,12 @@ public interface ArticleRepositoryCustom {
 	List<Article> findPostsGreaterThanId(ObjectId objectId, Integer limit);
 
 	/**
-	 * RSS 용 게시물 목록
+	 * RSS 용 최근 게시물 목록
 	 *
-	 * @param objectId 해당 ID 이하의 조건 추가 (null 이면 검사 안함)
-	 * @param sort sort
+	 * @param board 게시판. null 이면 모든 게시판
 	 * @param limit limit
 	 */
-	List<ArticleOnRSS> findPostsOnRss(ObjectId objectId, Sort sort, Integer limit);
+	List<ArticleOnRSS> findRssArticles(Constants.BOARD_TYPE board, Integer limit);
 
 	/**
 	 * id 배열에 해당하는 Article 목록.
@@ -42,10 +51,40 @@ public interface ArticleRepositoryCustom {
 	List<ArticleSimple> findArticleSimplesByIds(List<ObjectId> ids);
 
 	/**
-	 * 공지 글 목록
+	 * 공지 글 목록. 대표 사진 ID 를 함께 가져온다.
 	 */
 	List<ArticleOnList> findNotices(Sort sort);
 
+	/**
+	 * 페이지 방식의 글 목록. ID 내림차순. 대표 사진 ID 를 함께 가져온다.
+	 *
+	 * @param board 게시판
+	 * @param category 말머리 (null 이면 검사 안함)
+	 * @param skip skip
+	 * @param limit limit
+	 */
+	List<ArticleOnList> findByBoardAndCategory(Constants.BOARD_TYPE board, String category, Integer skip,
+		Integer limit);
+
+	/**
+	 * 커서 방식의 글 목록. ID 내림차순. 대표 사진 ID 를 함께 가져온다.
+	 *
+	 * @param board 게시판
+	 * @param category 말머리 (null 이면 검사 안함)
+	 * @param id 해당 ID 미만의 조건 추가 (null 이면 검사 안함)
+	 * @param limit limit
+	 */
+	List<ArticleOnList> findByBoardAndCategoryLessThanId(Constants.BOARD_TYPE board, String category, ObjectId id,
+		Integer limit);
+
+	/**
+	 * 게시판(말머리)의 글 수
+	 *
+	 * @param board 게시판
+	 * @param category 말머리 (null 이면 검사 안함)
+	 */
+	Long countByBoardAndCategory(Constants.BOARD_TYPE board, String category);
+
 	/**
 	 * 홈에서 보여지는 최근글 목록
 	 */
@@ -60,10 +99,35 @@ public interface ArticleRepositoryCustom {
 	 */
 	List<ArticleOnSitemap> findSitemapArticles(ObjectId objectId, Sort sort, Integer limit);
 
+	/**
+	 * 사이트맵 용 게시물 목록. 글 번호 구간으로 가져온다.
+	 *
+	 * @param fromSeq 이 글 번호 이상
+	 * @param toSeq 이 글 번호 미만
+	 */
+	List<ArticleOnSitemap> findSitemapArticlesBySeq(Integer fromSeq, Integer toSeq);
+
+	/**
+	 * 사이트맵 구간별 글 수와 가장 최근에 바뀐 시각. 구간의 첫 글 번호 순.
+	 *
+	 * @param urlsEachShard 구간 하나의 글 번호 수
+	 */
+	List<SitemapShard> findSitemapShards(Integer urlsEachShard);
+
+	/**
+	 * 해당 시각 이후에 쓰거나 고치거나 내용을 지운 글의 글 번호. lastUpdated 인덱스를 탄다.
+	 *
+	 * @param lastUpdated 이 시각 초과
+	 */
+	List<Integer> findSeqsUpdatedAfter(LocalDateTime lastUpdated);
+
 	/**
 	 * 글 보기에서 앞 글, 뒷 글의 정보를 가져온다.
+	 *
+	 * @param maxTimeMsec 몽고 서버가 조회를 멈추는 시간(ms)
 	 */
-	ArticleSimple findByIdAndCategoryWithOperator(ObjectId id, String category, Constants.CRITERIA_OPERATOR operator);
+	ArticleSimple findByIdAndCategoryWithOperator(ObjectId id, String category, Constants.CRITERIA_OPERATOR operator,
+		Long maxTimeMsec);
 
 	/**
 	 * 게시물의 감정 갯수를 가져온다
@@ -71,11 +135,78 @@ public interface ArticleRepositoryCustom {
 	List<BoardFeelingCount> findUsersFeelingCount(List<ObjectId> ids);
 
 	/**
-	 * 인기있는 게시물 조회
+	 * 기준 Article ID 초과의 게시물 감정 갯수를 ID 오름차순으로 가져온다.
+	 *
+	 * @param id 해당 ID 초과의 조건 추가 (null 이면 검사 안함)
+	 * @param limit limit
+	 */
+	List<BoardFeelingCount> findUsersFeelingCountGreaterThanId(ObjectId id, Integer limit);
+
+	/**
+	 * 게시물의 댓글 수를 증감한다. 0 미만으로는 줄이지 않는다.
+	 *
+	 * @param id 게시물 ID
+	 * @param amount 증감할 수
+	 */
+	void increaseCommentCount(ObjectId id, Integer amount);
+
+	/**
+	 * 게시물들의 읽음 수를 한번에 올린다.
+	 *
+	 * @param views key는 게시물 ID, value는 올릴 읽음 수
+	 * @return 반영하지 못한 게시물 ID
+	 */
+	List<String> increaseViews(Map<String, Long> views);
+
+	/**
+	 * 게시물의 댓글 수, 감정 수를 한번에 맞춘다.
+	 *
+	 * @param feelingCounts 게시물의 감정 수
+	 * @param commentCounts key는 게시물 ID, value는 댓글 수
+	 */
+	void updateCounts(List<BoardFeelingCount> feelingCounts, Map<String, Integer> commentCounts);
+
+	/**
+	 * 글 고치기. 제목, 내용, 말머리, 사진 연동 여부, lastUpdated 만 바꾸고 기록을 덧붙인다.
+	 *
+	 * @param article 고친 내용이 담긴 게시물
+	 * @param boardLog 덧붙일 기록
+	 */
+	void updateContent(Article article, BoardLog boardLog);
+
+	/**
+	 * 댓글이 달린 글 지우기. 제목, 내용, 작성자를 지우고 지움 상태로 바꾸며 기록을 덧붙인다.
+	 *
+	 * @param article lastUpdated 가 담긴 게시물
+	 * @param boardLog 덧붙일 기록
+	 */
+	void deleteContent(Article article, BoardLog boardLog);
+
+	/**
+	 * 공지 여부를 바꾸고 기록을 덧붙인다.
+	 *
+	 * @param id 게시물 ID
+	 * @param notice 공지 여부
+	 * @param boardLog 덧붙일 기록
+	 */
+	void updateNotice(ObjectId id, Boolean notice, BoardLog boardLog);
+
+	/**
+	 * 게시물의 감정 표현을 조건부 갱신으로 바꾼다. 감정 수도 함께 증감한다.
+	 *
+	 * @param id 게시물 ID
+	 * @param feelingUser 감정 표현한 회원
+	 * @param feeling 감정 표현 종류
+	 * @return 갱신된 감정 표현 회원 목록만 채워진 게시물. 게시물이 없으면 null
+	 */
+	Article setUsersFeeling(ObjectId id, CommonFeelingUser feelingUser, Constants.FEELING_TYPE feeling);
+
+	/**
+	 * 기준 ID 이후에 쓴 모든 게시물의 좋아요 수, 댓글 수. 주간 선두 글을 다시 만들 때 쓴다.
 	 *
 	 * @param board 게시판
-	 * @param commentId 해당 ID 기준 이상
+	 * @param objectId 해당 ID 기준 이상
 	 */
-	List<BoardTop> findTopLikes(Constants.BOARD_TYPE board, ObjectId commentId);
+	List<BoardTopCount> findBoardTops(Constants.BOARD_TYPE board, ObjectId objectId);
 
 }
\ No newline at end of file
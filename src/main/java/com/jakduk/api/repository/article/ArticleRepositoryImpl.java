@@ -2,27 +2,40 @@ package com.jakduk.api.repository.article;
 
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.model.aggregate.BoardFeelingCount;
-import com.jakduk.api.model.aggregate.BoardTop;
+import com.jakduk.api.model.aggregate.BoardTopCount;
+import com.jakduk.api.model.aggregate.SitemapShard;
 import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.embedded.BoardLog;
+import com.jakduk.api.model.embedded.CommonFeelingUser;
 import com.jakduk.api.model.simple.ArticleOnList;
 import com.jakduk.api.model.simple.ArticleOnRSS;
 import com.jakduk.api.model.simple.ArticleOnSitemap;
 import com.jakduk.api.model.simple.ArticleSimple;
 
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.*;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.ObjectUtils;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * Created by pyohwan on 16. 10. 9.
@@ -35,12 +48,13 @@ public class ArticleRepositoryImpl implements ArticleRepositoryCustom {
 	private MongoTemplate mongoTemplate;
 
 	@Override
-	public List<ArticleOnList> findByIdAndUserId(ObjectId id, String userId, Integer limit) {
+	public List<ArticleOnList> findByIdAndUserId(ObjectId id, String userId, Integer limit, Long maxTimeMsec) {
 		AggregationOperation match1 = Aggregation.match(Criteria.where("writer.userId").is(userId));
 		AggregationOperation match2 = Aggregation.match(Criteria.where("_id").ne(id));
 		AggregationOperation sort1 = Aggregation.sort(Sort.Direction.DESC, "_id");
 		AggregationOperation limit1 = Aggregation.limit(limit);
-		Aggregation aggregation = Aggregation.newAggregation(match1, match2, sort1, limit1);
+		Aggregation aggregation = Aggregation.newAggregation(match1, match2, sort1, limit1)
+			.withOptions(AggregationOptions.builder().maxTime(Duration.ofMillis(maxTimeMsec)).build());
 		AggregationResults<ArticleOnList> results = mongoTemplate.aggregate(aggregation, Constants.COLLECTION_ARTICLE,
 			ArticleOnList.class);
 
@@ -72,23 +86,15 @@ public class ArticleRepositoryImpl implements ArticleRepositoryCustom {
 
 	}
 
-	/**
-	 * RSS 용 게시물 목록
-	 *
-	 * @param objectId 해당 ID 이하의 조건 추가 (null 이면 검사 안함)
-	 * @param sort sort
-	 * @param limit limit
-	 */
 	@Override
-	public List<ArticleOnRSS> findPostsOnRss(ObjectId objectId, Sort sort, Integer limit) {
-
+	public List<ArticleOnRSS> findRssArticles(Constants.BOARD_TYPE board, Integer limit) {
 		Query query = new Query();
 		query.addCriteria(Criteria.where("status.delete").ne(true));
 
-		if (Objects.nonNull(objectId))
-			query.addCriteria(Criteria.where("_id").lt(objectId));
+		if (Objects.nonNull(board))
+			query.addCriteria(Criteria.where("board").is(board.name()));
 
-		query.with(sort);
+		query.with(Constants.SORT_BY_ID_DESC);
 		query.limit(limit);
 
 		return mongoTemplate.find(query, ArticleOnRSS.class);
@@ -113,12 +119,117 @@ public class ArticleRepositoryImpl implements ArticleRepositoryCustom {
 	 */
 	@Override
 	public List<ArticleOnList> findNotices(Sort sort) {
+		return this.aggregateArticlesOnList(Criteria.where("status.notice").is(true), sort, null, 10);
+	}
+
+	@Override
+	public List<ArticleOnList> findByBoardAndCategory(Constants.BOARD_TYPE board, String category, Integer skip,
+		Integer limit) {
+
+		return this.aggregateArticlesOnList(this.getBoardCriteria(board, category, null), Constants.SORT_BY_ID_DESC,
+			skip, limit);
+	}
+
+	/**
+	 * 커서 방식의 글 목록. ID 내림차순
+	 *
+	 * @param board 게시판
+	 * @param category 말머리 (null 이면 검사 안함)
+	 * @param id 해당 ID 미만의 조건 추가 (null 이면 검사 안함)
+	 * @param limit limit
+	 */
+	@Override
+	public List<ArticleOnList> findByBoardAndCategoryLessThanId(Constants.BOARD_TYPE board, String category,
+		ObjectId id, Integer limit) {
+
+		return this.aggregateArticlesOnList(this.getBoardCriteria(board, category, id), Constants.SORT_BY_ID_DESC,
+			null, limit);
+	}
+
+	private Criteria getBoardCriteria(Constants.BOARD_TYPE board, String category, ObjectId id) {
+		Criteria criteria = Criteria.where("board").is(board.name());
+
+		if (StringUtils.isNotBlank(category))
+			criteria.and("category").is(category);
+
+		if (Objects.nonNull(id))
+			criteria.and("_id").lt(id);
+
+		return criteria;
+	}
+
+	/**
+	 * 글 목록과 글마다 가장 최근에 연결된 사진 ID 를 한번에 가져온다.
+	 * match, sort, limit 까지는 인덱스를 타고, 잘라낸 글에 대해서만 gallery 를 linkedItems._id 인덱스로 붙인다.
+	 * 댓글 수, 감정 수는 글에 저장된 값을 쓰고, 감정 수가 없는 예전 글은 배열 크기로 채운다.
+	 *
+	 * db.article.aggregate([
+	 *  {$match:{board:'FREE', _id:{$lt:ObjectId("...")}}}, {$sort:{_id:-1}}, {$limit:21},
+	 *  {$lookup:{from:'gallery', localField:'_id', foreignField:'linkedItems._id', as:'galleries'}},
+	 *  {$project:{..., thumbnailGalleryId:{$max:{$map:{input:{$filter:{input:'$galleries', as:'gallery',
+	 *    cond:{$eq:['$$gallery.status.status', 'ENABLE']}}}, as:'gallery', in:'$$gallery._id'}}}}}])
+	 */
+	private List<ArticleOnList> aggregateArticlesOnList(Criteria criteria, Sort sort, Integer skip, Integer limit) {
+		List<AggregationOperation> operations = new ArrayList<>();
+		operations.add(Aggregation.match(criteria));
+		operations.add(Aggregation.sort(sort));
+
+		if (Objects.nonNull(skip) && skip > 0)
+			operations.add(Aggregation.skip(skip.longValue()));
+
+		operations.add(Aggregation.limit(limit));
+		operations.add(Aggregation.lookup(Constants.COLLECTION_GALLERY, "_id", "linkedItems._id", "galleries"));
+
+		Document enabledGalleries = new Document("$filter", new Document("input", "$galleries")
+			.append("as", "gallery")
+			.append("cond", new Document("$eq",
+				Arrays.asList("$$gallery.status.status", Constants.GALLERY_STATUS_TYPE.ENABLE.name()))));
+
+		Document project = new Document();
+		Arrays.asList("seq", "board", "category", "status", "writer", "subject", "views", "shortContent",
+			"linkedGallery", "commentCount")
+			.forEach(field -> project.append(field, 1));
+
+		Document enabledGalleryIds = new Document("$map", new Document("input", enabledGalleries)
+			.append("as", "gallery")
+			.append("in", "$$gallery._id"));
+
+		project.append("likingCount", this.countOrSize("likingCount", "usersLiking"))
+			.append("dislikingCount", this.countOrSize("dislikingCount", "usersDisliking"))
+			.append("thumbnailGalleryId", new Document("$max", enabledGalleryIds));
+
+		operations.add(context -> new Document("$project", project));
+
+		Aggregation aggregation = Aggregation.newAggregation(operations);
+		AggregationResults<ArticleOnList> results = mongoTemplate.aggregate(aggregation, Constants.COLLECTION_ARTICLE,
+			ArticleOnList.class);
+
+		return results.getMappedResults();
+	}
+
+	// {$ifNull:['$likingCount', {$size:{$ifNull:['$usersLiking', []]}}]}
+	private Document countOrSize(String countField, String arrayField) {
+		Document size = new Document("$size", new Document("$ifNull", Arrays.asList("$" + arrayField,
+			new ArrayList<>())));
+
+		return new Document("$ifNull", Arrays.asList("$" + countField, size));
+	}
+
+	/**
+	 * 게시판(말머리)의 글 수
+	 *
+	 * @param board 게시판
+	 * @param category 말머리 (null 이면 검사 안함)
+	 */
+	@Override
+	public Long countByBoardAndCategory(Constants.BOARD_TYPE board, String category) {
 		Query query = new Query();
-		query.addCriteria(Criteria.where("status.notice").is(true))
-			.with(sort)
-			.limit(10);
+		query.addCriteria(Criteria.where("board").is(board.name()));
 
-		return mongoTemplate.find(query, ArticleOnList.class);
+		if (StringUtils.isNotBlank(category))
+			query.addCriteria(Criteria.where("category").is(category));
+
+		return mongoTemplate.count(query, Article.class);
 	}
 
 	/**
@@ -154,13 +265,63 @@ public class ArticleRepositoryImpl implements ArticleRepositoryCustom {
 		return mongoTemplate.find(query, ArticleOnSitemap.class);
 	}
 
+	@Override
+	public List<ArticleOnSitemap> findSitemapArticlesBySeq(Integer fromSeq, Integer toSeq) {
+		Query query = new Query();
+		query.addCriteria(Criteria.where("seq").gte(fromSeq).lt(toSeq));
+		query.addCriteria(Criteria.where("status.delete").ne(true));
+		query.with(Sort.by(Sort.Direction.ASC, "seq"));
+
+		return mongoTemplate.find(query, ArticleOnSitemap.class);
+	}
+
+	/**
+	 * 사이트맵 구간별 글 수와 가장 최근에 바뀐 시각. 모든 글을 읽으므로 기동 때와 주기적인 전체 점검에만 쓴다.
+	 *
+	 * db.article.aggregate([
+	 *  {$match:{'status.delete':{$ne:true}}},
+	 *  {$group:{_id:{$subtract:['$seq', {$mod:['$seq', 10000]}]}, count:{$sum:1}, lastUpdated:{$max:'$lastUpdated'}}},
+	 *  {$sort:{_id:1}}])
+	 */
+	@Override
+	public List<SitemapShard> findSitemapShards(Integer urlsEachShard) {
+		Document group = new Document("_id",
+			new Document("$subtract", Arrays.asList("$seq", new Document("$mod", Arrays.asList("$seq", urlsEachShard)))))
+			.append("count", new Document("$sum", 1))
+			.append("lastUpdated", new Document("$max", "$lastUpdated"));
+
+		Aggregation aggregation = Aggregation.newAggregation(
+			Aggregation.match(Criteria.where("status.delete").ne(true)),
+			context -> new Document("$group", group),
+			context -> new Document("$sort", new Document("_id", 1)));
+
+		AggregationResults<SitemapShard> results = mongoTemplate.aggregate(aggregation, Constants.COLLECTION_ARTICLE,
+			SitemapShard.class);
+
+		return results.getMappedResults();
+	}
+
+	/**
+	 * db.article.find({lastUpdated:{$gt:ISODate('...')}}, {seq:1})
+	 */
+	@Override
+	public List<Integer> findSeqsUpdatedAfter(LocalDateTime lastUpdated) {
+		Query query = new Query(Criteria.where("lastUpdated").gt(lastUpdated));
+		query.fields().include("seq");
+
+		return mongoTemplate.find(query, ArticleOnSitemap.class).stream()
+			.map(ArticleOnSitemap::getSeq)
+			.collect(Collectors.toList());
+	}
+
 	/**
 	 * 글 보기에서 앞 글, 뒷 글의 정보를 가져온다.
 	 */
 	@Override
 	public ArticleSimple findByIdAndCategoryWithOperator(ObjectId id, String category,
-		Constants.CRITERIA_OPERATOR operator) {
+		Constants.CRITERIA_OPERATOR operator, Long maxTimeMsec) {
 		Query query = new Query();
+		query.maxTime(Duration.ofMillis(maxTimeMsec));
 
 		if (StringUtils.isNotBlank(category))
 			query.addCriteria(Criteria.where("category").is(category));
@@ -205,32 +366,190 @@ public class ArticleRepositoryImpl implements ArticleRepositoryCustom {
 	}
 
 	/**
-	 * 인기있는 게시물 조회
+	 * 기준 Article ID 초과의 게시물 감정 갯수를 ID 오름차순으로 가져온다.
 	 *
-	 * db.boardFree.aggregate(
-	 *  {$match:{_id:{$gt:ObjectId("5947f1b8479fff0441f1b95b")}}},
-	 *  {$project:{_id:1, seq:1, status:1, subject:1, views:1, count:{$size:{'$ifNull':['$usersLiking', []]}}}},
-	 *  {$sort:{count:-1, views:-1}},
-	 *  {$limit:3})
+	 * @param id 해당 ID 초과의 조건 추가 (null 이면 검사 안함)
+	 * @param limit limit
 	 */
 	@Override
-	public List<BoardTop> findTopLikes(Constants.BOARD_TYPE board, ObjectId objectId) {
-		AggregationOperation match1 = Aggregation.match(
-			Criteria.where("_id").gt(objectId).and("board").is(board.name()));
+	public List<BoardFeelingCount> findUsersFeelingCountGreaterThanId(ObjectId id, Integer limit) {
+		List<AggregationOperation> operations = new ArrayList<>();
+
+		if (Objects.nonNull(id))
+			operations.add(Aggregation.match(Criteria.where("_id").gt(id)));
 
 		AggregationExpression usersLikingCount = ArrayOperators.Size.lengthOfArray(
 			ConditionalOperators.ifNull("usersLiking").then(new ArrayList<>()));
+		AggregationExpression usersDislikingCount = ArrayOperators.Size.lengthOfArray(
+			ConditionalOperators.ifNull("usersDisliking").then(new ArrayList<>()));
 
-		AggregationOperation project1 = Aggregation.project("_id", "seq", "status", "subject", "views")
-			.and(usersLikingCount).as("count");
+		operations.add(Aggregation.sort(Sort.Direction.ASC, "_id"));
+		operations.add(Aggregation.limit(limit));
+		operations.add(Aggregation.project("_id")
+			.and(usersLikingCount).as("usersLikingCount")
+			.and(usersDislikingCount).as("usersDislikingCount"));
+
+		Aggregation aggregation = Aggregation.newAggregation(operations);
+		AggregationResults<BoardFeelingCount> results = mongoTemplate.aggregate(aggregation,
+			Constants.COLLECTION_ARTICLE, BoardFeelingCount.class);
+
+		return results.getMappedResults();
+	}
+
+	/**
+	 * 게시물의 댓글 수를 증감한다. 줄일 때는 줄일 수 이상일 때만 줄여서 0 미만으로는 줄이지 않는다.
+	 *
+	 * db.article.updateOne({_id:ObjectId("..."), commentCount:{$gte:1}}, {$inc:{commentCount:-1}})
+	 */
+	@Override
+	public void increaseCommentCount(ObjectId id, Integer amount) {
+		Query query = new Query(Criteria.where("_id").is(id));
+
+		if (amount < 0)
+			query.addCriteria(Criteria.where("commentCount").gte(-amount));
+
+		mongoTemplate.updateFirst(query, new Update().inc("commentCount", amount), Article.class);
+	}
+
+	/**
+	 * 게시물들의 읽음 수를 한번에 올린다.
+	 * UNORDERED 라서 일부가 실패해도 나머지는 반영되므로, 실패한 요청의 순번으로 게시물 ID 를 찾아 돌려준다.
+	 *
+	 * @param views key는 게시물 ID, value는 올릴 읽음 수
+	 */
+	@Override
+	public List<String> increaseViews(Map<String, Long> views) {
+		if (views.isEmpty())
+			return Collections.emptyList();
+
+		BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Article.class);
+		List<String> ids = new ArrayList<>(views.size());
+
+		views.forEach((id, count) -> {
+			ids.add(id);
+			bulkOperations.updateOne(new Query(Criteria.where("_id").is(new ObjectId(id))),
+				new Update().inc("views", count));
+		});
+
+		try {
+			bulkOperations.execute();
+		} catch (BulkOperationException e) {
+			return e.getErrors().stream()
+				.map(error -> ids.get(error.getIndex()))
+				.collect(Collectors.toList());
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * 게시물의 댓글 수, 감정 수를 한번에 맞춘다.
+	 *
+	 * @param feelingCounts 게시물의 감정 수
+	 * @param commentCounts key는 게시물 ID, value는 댓글 수
+	 */
+	@Override
+	public void updateCounts(List<BoardFeelingCount> feelingCounts, Map<String, Integer> commentCounts) {
+		if (feelingCounts.isEmpty())
+			return;
 
-		AggregationOperation sort1 = Aggregation.sort(Sort.Direction.DESC, "count");
-		AggregationOperation sort2 = Aggregation.sort(Sort.Direction.DESC, "views");
-		AggregationOperation limit1 = Aggregation.limit(Constants.BOARD_TOP_LIMIT);
+		BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Article.class);
 
-		Aggregation aggregation = Aggregation.newAggregation(match1, project1, sort1, sort2, limit1);
-		AggregationResults<BoardTop> results = mongoTemplate.aggregate(aggregation, Constants.COLLECTION_ARTICLE,
-			BoardTop.class);
+		feelingCounts.forEach(feelingCount -> {
+			Update update = new Update()
+				.set("commentCount", commentCounts.getOrDefault(feelingCount.getId(), 0))
+				.set("likingCount", feelingCount.getUsersLikingCount())
+				.set("dislikingCount", feelingCount.getUsersDislikingCount());
+
+			bulkOperations.updateOne(new Query(Criteria.where("_id").is(new ObjectId(feelingCount.getId()))), update);
+		});
+
+		bulkOperations.execute();
+	}
+
+	/**
+	 * 글 고치기. 읽음 수, 댓글 수, 감정은 $inc 로 따로 바뀌므로 고친 필드만 $set 한다.
+	 */
+	@Override
+	public void updateContent(Article article, BoardLog boardLog) {
+		Update update = new Update()
+			.set("subject", article.getSubject())
+			.set("content", article.getContent())
+			.set("shortContent", article.getShortContent())
+			.set("linkedGallery", article.getLinkedGallery())
+			.set("lastUpdated", article.getLastUpdated())
+			.push("logs", boardLog);
+
+		if (Objects.isNull(article.getCategory()))
+			update.unset("category");
+		else
+			update.set("category", article.getCategory());
+
+		mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(new ObjectId(article.getId()))), update,
+			Article.class);
+	}
+
+	/**
+	 * 댓글이 달린 글 지우기. 글은 남기고 내용만 지운다.
+	 */
+	@Override
+	public void deleteContent(Article article, BoardLog boardLog) {
+		Update update = new Update()
+			.unset("subject")
+			.unset("content")
+			.unset("writer")
+			.set("status.delete", true)
+			.set("linkedGallery", false)
+			.set("lastUpdated", article.getLastUpdated())
+			.push("logs", boardLog);
+
+		mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(new ObjectId(article.getId()))), update,
+			Article.class);
+	}
+
+	/**
+	 * 공지 여부를 바꾼다. 공지가 아니면 status.notice 를 없앤다.
+	 */
+	@Override
+	public void updateNotice(ObjectId id, Boolean notice, BoardLog boardLog) {
+		Update update = new Update().push("logs", boardLog);
+
+		if (notice)
+			update.set("status.notice", true);
+		else
+			update.unset("status.notice");
+
+		mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), update, Article.class);
+	}
+
+	/**
+	 * 게시물의 감정 표현을 조건부 갱신으로 바꾼다. 감정 수도 함께 증감한다.
+	 */
+	@Override
+	public Article setUsersFeeling(ObjectId id, CommonFeelingUser feelingUser, Constants.FEELING_TYPE feeling) {
+		return UsersFeelingUpdater.update(mongoTemplate, Article.class, id, feelingUser, feeling, true);
+	}
+
+	/**
+	 * 글에 저장된 좋아요 수, 댓글 수를 읽는다. 아직 수가 없는 글은 0 으로 친다.
+	 *
+	 * db.article.aggregate(
+	 *  {$match:{_id:{$gt:ObjectId("5947f1b8479fff0441f1b95b")}, board:'FREE'}},
+	 *  {$project:{_id:1, seq:1, status:1, subject:1, views:1,
+	 *   likingCount:{'$ifNull':['$likingCount', 0]}, commentCount:{'$ifNull':['$commentCount', 0]}}})
+	 */
+	@Override
+	public List<BoardTopCount> findBoardTops(Constants.BOARD_TYPE board, ObjectId objectId) {
+		AggregationOperation match1 = Aggregation.match(
+			Criteria.where("_id").gt(objectId).and("board").is(board.name()));
+
+		AggregationOperation project1 = Aggregation.project("_id", "seq", "status", "subject", "views")
+			.and(ConditionalOperators.ifNull("likingCount").then(0)).as("likingCount")
+			.and(ConditionalOperators.ifNull("commentCount").then(0)).as("commentCount");
+
+		Aggregation aggregation = Aggregation.newAggregation(match1, project1);
+		AggregationResults<BoardTopCount> results = mongoTemplate.aggregate(aggregation, Constants.COLLECTION_ARTICLE,
+			BoardTopCount.class);
 
 		return results.getMappedResults();
 	}
@@ -0,0 +1,136 @@
+package com.jakduk.api.repository.article;
+
+import java.util.function.Supplier;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.UsersFeeling;
+import com.jakduk.api.model.embedded.CommonFeelingUser;
+
+/**
+ * 감정 표현을 조건부 갱신으로 처리한다. 문서 전체를 다시 쓰지 않는다.
+ *
+ * 같은 감정이면 취소, 반대 감정이면 바꿈, 아직 표현하지 않았으면 추가. 세 갱신은 서로 배타적인 조건이라
+ * 동시에 눌러도 하나만 반영된다. 조건이 모두 어긋나면(다른 요청이 먼저 바꿈) 다시 시도한다.
+ * 여러 번 다시 시도해도 엇갈리면 문서가 없는 것과 구분해서 OptimisticLockingFailureException 을 던진다.
+ */
+
+final class UsersFeelingUpdater {
+
+	private final static Integer MAX_ATTEMPTS = 5;
+
+	private UsersFeelingUpdater() {
+	}
+
+	/**
+	 * @param entityClass Article, ArticleComment
+	 * @param id 문서 ID
+	 * @param feelingUser 감정 표현한 회원
+	 * @param feeling 감정 표현 종류
+	 * @param countable likingCount, dislikingCount 를 함께 증감할지
+	 * @return 갱신된 감정 표현 회원 목록 (userId 만 채워짐). 문서가 없으면 null
+	 * @throws OptimisticLockingFailureException 다른 요청과 계속 엇갈려서 MAX_ATTEMPTS 안에 반영하지 못했을 때
+	 */
+	static <T extends UsersFeeling> T update(MongoTemplate mongoTemplate, Class<T> entityClass, ObjectId id,
+		CommonFeelingUser feelingUser, Constants.FEELING_TYPE feeling, Boolean countable) {
+
+		boolean isLike = Constants.FEELING_TYPE.LIKE.equals(feeling);
+
+		String field = isLike ? "usersLiking" : "usersDisliking";
+		String oppositeField = isLike ? "usersDisliking" : "usersLiking";
+		String countField = isLike ? "likingCount" : "dislikingCount";
+		String oppositeCountField = isLike ? "dislikingCount" : "likingCount";
+
+		String userId = feelingUser.getUserId();
+		Document byUserId = new Document("userId", userId);
+		FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+
+			// 이미 같은 감정을 표현했을 때, 취소
+			Criteria cancelCondition = Criteria.where(field + ".userId").is(userId);
+			Supplier<Update> cancel = () -> new Update().pull(field, byUserId);
+
+			T result = countable ?
+				decreaseAndModify(mongoTemplate, entityClass, id, cancelCondition, cancel, countField, options) :
+				mongoTemplate.findAndModify(newQuery(id).addCriteria(cancelCondition), cancel.get(), options,
+					entityClass);
+
+			if (result != null)
+				return result;
+
+			// 이미 반대 감정을 표현했을 때, 반대 감정을 없애고 바꿈
+			Criteria changeCondition = Criteria.where(oppositeField + ".userId").is(userId)
+				.and(field + ".userId").ne(userId);
+			Supplier<Update> change = () -> {
+				Update update = new Update().pull(oppositeField, byUserId).push(field, feelingUser);
+				return countable ? update.inc(countField, 1) : update;
+			};
+
+			result = countable ?
+				decreaseAndModify(mongoTemplate, entityClass, id, changeCondition, change, oppositeCountField, options) :
+				mongoTemplate.findAndModify(newQuery(id).addCriteria(changeCondition), change.get(), options,
+					entityClass);
+
+			if (result != null)
+				return result;
+
+			// 아직 감정 표현을 하지 않았을 때, 등록
+			Update add = new Update().push(field, feelingUser);
+
+			if (countable)
+				add.inc(countField, 1);
+
+			result = mongoTemplate.findAndModify(
+				newQuery(id).addCriteria(Criteria.where(field + ".userId").ne(userId)
+					.and(oppositeField + ".userId").ne(userId)), add, options, entityClass);
+
+			if (result != null)
+				return result;
+
+			if (!mongoTemplate.exists(newQuery(id), entityClass))
+				return null;
+		}
+
+		throw new OptimisticLockingFailureException(
+			String.format("feeling of %s %s is not applied after %d attempts.", entityClass.getSimpleName(), id,
+				MAX_ATTEMPTS));
+	}
+
+	/**
+	 * update 와 함께 countField 를 1 줄인다. countField 가 없거나(아직 채우지 않은 문서) 1 보다 작으면 줄이지 않고
+	 * update 만 한다. increaseCommentCount 처럼 0 미만으로 내려가지 않게 한다.
+	 */
+	private static <T> T decreaseAndModify(MongoTemplate mongoTemplate, Class<T> entityClass, ObjectId id,
+		Criteria condition, Supplier<Update> update, String countField, FindAndModifyOptions options) {
+
+		T result = mongoTemplate.findAndModify(
+			newQuery(id).addCriteria(condition).addCriteria(Criteria.where(countField).gte(1)),
+			update.get().inc(countField, -1), options, entityClass);
+
+		if (result != null)
+			return result;
+
+		return mongoTemplate.findAndModify(
+			newQuery(id).addCriteria(condition).addCriteria(Criteria.where(countField).not().gte(1)),
+			update.get(), options, entityClass);
+	}
+
+	private static Query newQuery(ObjectId id) {
+		Query query = new Query(Criteria.where("_id").is(id));
+		query.fields()
+			.include("usersLiking.userId")
+			.include("usersDisliking.userId");
+
+		return query;
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.jakduk.api.repository.gallery;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.GalleryRemoval;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Optional;
+
+public interface GalleryRemovalRepository extends MongoRepository<GalleryRemoval, String>,
+	GalleryRemovalRepositoryCustom {
+
+	Optional<GalleryRemoval> findOneByUserIdAndFromAndItemId(String userId, Constants.GALLERY_FROM_TYPE from,
+		String itemId);
+}
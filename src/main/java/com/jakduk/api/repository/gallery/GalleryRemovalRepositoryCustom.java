@@ -0,0 +1,18 @@
+package com.jakduk.api.repository.gallery;
+
+import com.jakduk.api.common.Constants;
+
+import java.util.List;
+
+public interface GalleryRemovalRepositoryCustom {
+
+	/**
+	 * 아이템의 지워질 사진 ID 를 더한다. 없으면 만들고, 만료 시간을 늦춘다.
+	 */
+	void addGalleryId(String userId, Constants.GALLERY_FROM_TYPE from, String itemId, String galleryId);
+
+	/**
+	 * 아이템의 지워질 사진 ID 중 주어진 것만 뺀다. 남은 ID 가 없으면 지운다.
+	 */
+	void pullGalleryIds(String userId, Constants.GALLERY_FROM_TYPE from, String itemId, List<String> galleryIds);
+}
@@ -0,0 +1,55 @@
+package com.jakduk.api.repository.gallery;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.GalleryRemoval;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public class GalleryRemovalRepositoryImpl implements GalleryRemovalRepositoryCustom {
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	/**
+	 * db.galleryRemoval.updateOne({userId:'...', from:'ARTICLE', itemId:'...'},
+	 *  {$addToSet:{galleryIds:'...'}, $set:{lastUpdated:new Date()}}, {upsert:true})
+	 */
+	@Override
+	public void addGalleryId(String userId, Constants.GALLERY_FROM_TYPE from, String itemId, String galleryId) {
+		Query query = new Query();
+		query.addCriteria(Criteria.where("userId").is(userId).and("from").is(from.name()).and("itemId").is(itemId));
+
+		Update update = new Update()
+			.addToSet("galleryIds", galleryId)
+			.set("lastUpdated", new Date());
+
+		mongoTemplate.upsert(query, update, GalleryRemoval.class);
+	}
+
+	/**
+	 * db.galleryRemoval.updateOne({userId:'...', from:'ARTICLE', itemId:'...'}, {$pullAll:{galleryIds:[...]}})
+	 * db.galleryRemoval.deleteOne({userId:'...', from:'ARTICLE', itemId:'...', galleryIds:{$size:0}})
+	 */
+	@Override
+	public void pullGalleryIds(String userId, Constants.GALLERY_FROM_TYPE from, String itemId,
+		List<String> galleryIds) {
+
+		Criteria criteria = Criteria.where("userId").is(userId).and("from").is(from.name()).and("itemId").is(itemId);
+
+		mongoTemplate.updateFirst(new Query(criteria), new Update().pullAll("galleryIds", galleryIds.toArray()),
+			GalleryRemoval.class);
+
+		// 빼는 사이에 다른 요청이 ID 를 더했으면 남겨 둔다.
+		mongoTemplate.remove(new Query(criteria.and("galleryIds").size(0)), GalleryRemoval.class);
+	}
+
+}
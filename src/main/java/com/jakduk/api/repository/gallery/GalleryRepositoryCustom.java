@@ -1,7 +1,10 @@
 package com.jakduk.api.repository.gallery;
 
 import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.aggregate.LinkedItemGallery;
 import com.jakduk.api.model.db.Gallery;
+import com.jakduk.api.model.embedded.LinkedItem;
+import com.jakduk.api.model.simple.GalleryOnFeed;
 import com.jakduk.api.model.simple.GallerySimple;
 
 import org.bson.types.ObjectId;
@@ -23,9 +26,72 @@ public interface GalleryRepositoryCustom {
 	 */
 	List<Gallery> findByItemIdAndFromType(ObjectId itemId, Constants.GALLERY_FROM_TYPE fromType, Integer limit);
 
+	/**
+	 * ItemID와 FromType에 해당하는 Gallery 목록을 가져온다.
+	 *
+	 * @param maxTimeMsec 몽고 서버가 조회를 멈추는 시간(ms)
+	 */
+	List<Gallery> findByItemIdAndFromType(ObjectId itemId, Constants.GALLERY_FROM_TYPE fromType, Integer limit,
+		Long maxTimeMsec);
+
+	/**
+	 * ItemID 배열과 FromType에 해당하는 아이템 별 가장 최근 Gallery ID를 한번에 가져온다.
+	 */
+	List<LinkedItemGallery> findFirstByItemIdsAndFromType(List<ObjectId> itemIds, Constants.GALLERY_FROM_TYPE fromType);
+
+	/**
+	 * ItemID 배열과 FromType에 해당하는 아이템 별 가장 최근 Gallery ID를 한번에 가져온다.
+	 *
+	 * @param maxTimeMsec 몽고 서버가 조회를 멈추는 시간(ms)
+	 */
+	List<LinkedItemGallery> findFirstByItemIdsAndFromType(List<ObjectId> itemIds, Constants.GALLERY_FROM_TYPE fromType,
+		Long maxTimeMsec);
+
+	/**
+	 * ItemID 배열과 FromType에 연결된 Gallery 목록을 가져온다. id와 linkedItems만 채운다.
+	 */
+	List<Gallery> findByItemIdsAndFromType(List<ObjectId> itemIds, Constants.GALLERY_FROM_TYPE fromType);
+
+	/**
+	 * 기준 Gallery ID 보다 큰 Gallery 목록을 _id 순으로 가져온다.
+	 */
+	List<Gallery> findGalleriesGreaterThanId(ObjectId objectId, Integer limit);
+
 	/**
 	 * ItemID이 있으면 그 이전부터 최신순으로 GallerySimple 목록을 가져온다.
 	 */
 	List<GallerySimple> findSimpleById(ObjectId id, Integer limit);
 
+	/**
+	 * 사진 목록. ID가 있으면 그 이전부터 최신순으로 가져온다. status_id 인덱스를 타고, 목록에 필요한 필드만 읽는다.
+	 */
+	List<GalleryOnFeed> findGalleryFeed(ObjectId id, Integer limit);
+
+	/**
+	 * 사진 파일 처리 상태를 바꾼다. 리사이즈 된 경우 size도 함께 바꾼다.
+	 *
+	 * @param id 사진 ID
+	 * @param process 처리 상태
+	 * @param size 리사이즈 된 파일 크기. 없으면 null
+	 */
+	void updateProcessStatus(ObjectId id, Constants.GALLERY_PROCESS_STATUS_TYPE process, Long size);
+
+	/**
+	 * 사진을 아이템과 엮는다. 처리 상태(status.process)는 건드리지 않는다.
+	 *
+	 * @param id 사진 ID
+	 * @param linkedItem 엮을 아이템
+	 * @param name 바꿀 사진 이름. null 이면 그대로 둔다
+	 * @param status 사진 상태
+	 */
+	void linkItem(ObjectId id, LinkedItem linkedItem, String name, Constants.GALLERY_STATUS_TYPE status);
+
+	/**
+	 * 사진과 아이템의 연결을 끊는다.
+	 *
+	 * @param id 사진 ID
+	 * @param linkedItem 끊을 아이템
+	 */
+	void unlinkItem(ObjectId id, LinkedItem linkedItem);
+
 }
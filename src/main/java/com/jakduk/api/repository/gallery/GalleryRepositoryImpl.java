@@ -1,16 +1,26 @@
 package com.jakduk.api.repository.gallery;
 
 import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.aggregate.LinkedItemGallery;
 import com.jakduk.api.model.db.Gallery;
+import com.jakduk.api.model.embedded.LinkedItem;
+import com.jakduk.api.model.simple.GalleryOnFeed;
 import com.jakduk.api.model.simple.GallerySimple;
 
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
@@ -54,17 +64,94 @@ public class GalleryRepositoryImpl implements GalleryRepositoryCustom {
 	 */
 	@Override
 	public List<Gallery> findByItemIdAndFromType(ObjectId itemId, Constants.GALLERY_FROM_TYPE fromType, Integer limit) {
+		return this.findByItemIdAndFromType(itemId, fromType, limit, null);
+	}
+
+	@Override
+	public List<Gallery> findByItemIdAndFromType(ObjectId itemId, Constants.GALLERY_FROM_TYPE fromType, Integer limit,
+		Long maxTimeMsec) {
+
 		Query query = new Query();
 		query.addCriteria(Criteria.where("status.status").is(Constants.GALLERY_STATUS_TYPE.ENABLE.name()));
 		query.addCriteria(Criteria.where("linkedItems._id").is(itemId));
 		query.addCriteria(Criteria.where("linkedItems.from").is(fromType));
 		query.limit(limit);
 
+		if (Objects.nonNull(maxTimeMsec))
+			query.maxTime(Duration.ofMillis(maxTimeMsec));
+
 		query.with(Constants.SORT_BY_ID_DESC);
 
 		return mongoTemplate.find(query, Gallery.class);
 	}
 
+	/**
+	 * ItemID 배열과 FromType에 해당하는 아이템 별 가장 최근 Gallery ID를 한번에 가져온다.
+	 *
+	 * db.gallery.aggregate([
+	 *  {$match:{'status.status':'ENABLE', 'linkedItems._id':{$in:[...]}, 'linkedItems.from':'ARTICLE'}},
+	 *  {$unwind:'$linkedItems'},
+	 *  {$match:{'linkedItems._id':{$in:[...]}, 'linkedItems.from':'ARTICLE'}},
+	 *  {$sort:{_id:-1}},
+	 *  {$group:{_id:'$linkedItems._id', galleryId:{$first:'$_id'}}}])
+	 */
+	@Override
+	public List<LinkedItemGallery> findFirstByItemIdsAndFromType(List<ObjectId> itemIds,
+		Constants.GALLERY_FROM_TYPE fromType) {
+
+		return this.findFirstByItemIdsAndFromType(itemIds, fromType, null);
+	}
+
+	@Override
+	public List<LinkedItemGallery> findFirstByItemIdsAndFromType(List<ObjectId> itemIds,
+		Constants.GALLERY_FROM_TYPE fromType, Long maxTimeMsec) {
+
+		AggregationOperation match1 = Aggregation.match(
+			Criteria.where("status.status").is(Constants.GALLERY_STATUS_TYPE.ENABLE.name())
+				.and("linkedItems._id").in(itemIds)
+				.and("linkedItems.from").is(fromType.name()));
+		AggregationOperation unwind1 = Aggregation.unwind("linkedItems");
+		AggregationOperation match2 = Aggregation.match(
+			Criteria.where("linkedItems._id").in(itemIds).and("linkedItems.from").is(fromType.name()));
+		AggregationOperation sort1 = Aggregation.sort(Sort.Direction.DESC, "_id");
+		AggregationOperation group1 = Aggregation.group("linkedItems._id").first("_id").as("galleryId");
+
+		Aggregation aggregation = Aggregation.newAggregation(match1, unwind1, match2, sort1, group1);
+
+		if (Objects.nonNull(maxTimeMsec))
+			aggregation = aggregation.withOptions(
+				AggregationOptions.builder().maxTime(Duration.ofMillis(maxTimeMsec)).build());
+
+		AggregationResults<LinkedItemGallery> results = mongoTemplate.aggregate(aggregation,
+			Constants.COLLECTION_GALLERY, LinkedItemGallery.class);
+
+		return results.getMappedResults();
+	}
+
+	@Override
+	public List<Gallery> findByItemIdsAndFromType(List<ObjectId> itemIds, Constants.GALLERY_FROM_TYPE fromType) {
+		Query query = new Query();
+		query.addCriteria(Criteria.where("status.status").is(Constants.GALLERY_STATUS_TYPE.ENABLE.name()));
+		query.addCriteria(Criteria.where("linkedItems._id").in(itemIds).and("linkedItems.from").is(fromType.name()));
+		query.fields().include("linkedItems");
+
+		return mongoTemplate.find(query, Gallery.class);
+	}
+
+	@Override
+	public List<Gallery> findGalleriesGreaterThanId(ObjectId objectId, Integer limit) {
+		Query query = new Query();
+		query.addCriteria(Criteria.where("status.status").is(Constants.GALLERY_STATUS_TYPE.ENABLE.name()));
+
+		if (Objects.nonNull(objectId))
+			query.addCriteria(Criteria.where("_id").gt(objectId));
+
+		query.with(Sort.by(Sort.Direction.ASC, "_id"));
+		query.limit(limit);
+
+		return mongoTemplate.find(query, Gallery.class);
+	}
+
 	@Override
 	public List<GallerySimple> findSimpleById(ObjectId id, Integer limit) {
 
@@ -80,4 +167,48 @@ public class GalleryRepositoryImpl implements GalleryRepositoryCustom {
 
 		return mongoTemplate.find(query, GallerySimple.class);
 	}
+
+	@Override
+	public List<GalleryOnFeed> findGalleryFeed(ObjectId id, Integer limit) {
+
+		Query query = new Query();
+		query.addCriteria(Criteria.where("status.status").is(Constants.GALLERY_STATUS_TYPE.ENABLE.name()));
+
+		if (Objects.nonNull(id))
+			query.addCriteria(Criteria.where("_id").lt(id));
+
+		query.fields().include("name").include("fileName").include("writer");
+		query.with(Constants.SORT_BY_ID_DESC);
+		query.limit(limit);
+
+		return mongoTemplate.find(query, GalleryOnFeed.class);
+	}
+
+	@Override
+	public void updateProcessStatus(ObjectId id, Constants.GALLERY_PROCESS_STATUS_TYPE process, Long size) {
+		Update update = new Update().set("status.process", process.name());
+
+		if (Objects.nonNull(size))
+			update.set("size", size);
+
+		mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), update, Gallery.class);
+	}
+
+	@Override
+	public void linkItem(ObjectId id, LinkedItem linkedItem, String name, Constants.GALLERY_STATUS_TYPE status) {
+		Update update = new Update()
+			.addToSet("linkedItems", linkedItem)
+			.set("status.status", status.name());
+
+		if (Objects.nonNull(name))
+			update.set("name", name);
+
+		mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)), update, Gallery.class);
+	}
+
+	@Override
+	public void unlinkItem(ObjectId id, LinkedItem linkedItem) {
+		mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+			new Update().pull("linkedItems", linkedItem), Gallery.class);
+	}
 }
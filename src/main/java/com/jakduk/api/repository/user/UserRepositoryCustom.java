@@ -1,10 +1,20 @@
 package com.jakduk.api.repository.user;
 
+import com.jakduk.api.model.simple.UserOnAuthentication;
 import com.jakduk.api.model.simple.UserSimple;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface UserRepositoryCustom {
 
 	List<UserSimple> findSimpleUsers();
+
+	/**
+	 * 인증에 필요한 필드만 가져온다. DBRef 는 풀지 않는다.
+	 */
+	Optional<UserOnAuthentication> findUserOnAuthenticationByEmail(String email);
+
+	void updateLastLogged(String id, LocalDateTime lastLogged);
 }
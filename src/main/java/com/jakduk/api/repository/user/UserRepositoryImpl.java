@@ -1,14 +1,20 @@
 package com.jakduk.api.repository.user;
 
 import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.User;
+import com.jakduk.api.model.simple.UserOnAuthentication;
 import com.jakduk.api.model.simple.UserSimple;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public class UserRepositoryImpl implements UserRepositoryCustom {
@@ -25,4 +31,21 @@ public class UserRepositoryImpl implements UserRepositoryCustom {
 		return mongoTemplate.find(query, UserSimple.class);
 	}
 
+	@Override
+	public Optional<UserOnAuthentication> findUserOnAuthenticationByEmail(String email) {
+		Query query = new Query(Criteria.where("email").is(email));
+
+		return Optional.ofNullable(mongoTemplate.findOne(query, UserOnAuthentication.class));
+	}
+
+	/**
+	 * 문서를 다시 읽고 통째로 저장하지 않고 lastLogged 만 바꾼다.
+	 */
+	@Override
+	public void updateLastLogged(String id, LocalDateTime lastLogged) {
+		Query query = new Query(Criteria.where("_id").is(id));
+
+		mongoTemplate.updateFirst(query, new Update().set("lastLogged", lastLogged), User.class);
+	}
+
 }
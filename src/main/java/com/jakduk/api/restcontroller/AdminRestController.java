@@ -1,19 +1,27 @@
 package com.jakduk.api.restcontroller;
 
 import com.jakduk.api.common.Constants;
+import com.jakduk.api.common.rabbitmq.PublisherMetrics;
+import com.jakduk.api.common.rabbitmq.RabbitMQPublisher;
 import com.jakduk.api.model.db.*;
 import com.jakduk.api.model.embedded.LocalName;
 import com.jakduk.api.restcontroller.vo.EmptyJsonResponse;
 import com.jakduk.api.restcontroller.vo.admin.*;
 import com.jakduk.api.service.AdminService;
+import com.jakduk.api.service.ArticleService;
 import com.jakduk.api.service.CommonService;
 import com.jakduk.api.service.CompetitionService;
+import com.jakduk.api.service.MongoIndexService;
+import com.jakduk.api.service.SearchReindexService;
+import com.jakduk.api.service.SearchService;
 import com.jakduk.api.service.StatsService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.*;
 
@@ -43,9 +51,24 @@ public class AdminRestController {
 	@Autowired
 	private StatsService statsService;
 
+	@Autowired
+	private ArticleService articleService;
+
 	@Autowired
 	private CompetitionService competitionService;
 
+	@Autowired
+	private MongoIndexService mongoIndexService;
+
+	@Autowired
+	private SearchReindexService searchReindexService;
+
+	@Autowired
+	private SearchService searchService;
+
+	@Autowired
+	private RabbitMQPublisher rabbitMQPublisher;
+
 	// 알림판 목록
 	@RequestMapping(value = "/home/descriptions", method = RequestMethod.GET)
 	public Map<String, Object> getHomeDescriptions() {
@@ -526,6 +549,16 @@ public class AdminRestController {
 		return EmptyJsonResponse.newInstance();
 	}
 
+	// 게시물의 댓글 수, 감정 수 다시 맞춤
+	@RequestMapping(value = "/article/counts", method = RequestMethod.PUT)
+	public Map<String, Object> reconcileArticleCounts() {
+
+		Map<String, Object> response = new HashMap<>();
+		response.put("count", articleService.reconcileArticleCounts());
+
+		return response;
+	}
+
 	@RequestMapping(value = "/thumbnail/size", method = RequestMethod.GET)
 	public Map<String, Object> thumbnailSizeWrite() {
 
@@ -647,6 +680,52 @@ public class AdminRestController {
 		return data;
 	}
 
+	// 몽고 인덱스 상태. 등록된 쿼리 모양 중 COLLSCAN 이 있으면 503
+	@RequestMapping(value = "/mongo/indexes/health", method = RequestMethod.GET)
+	public ResponseEntity<MongoIndexHealthResponse> getMongoIndexHealth() {
+
+		MongoIndexHealthResponse response = mongoIndexService.getIndexHealth();
+
+		HttpStatus httpStatus = "UP".equals(response.getStatus()) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+
+		return new ResponseEntity<>(response, httpStatus);
+	}
+
+	// 엔티티에 선언한 몽고 인덱스 생성
+	@RequestMapping(value = "/mongo/indexes", method = RequestMethod.POST)
+	public MongoIndexHealthResponse ensureMongoIndexes() {
+
+		mongoIndexService.ensureIndexes();
+
+		return mongoIndexService.getIndexHealth();
+	}
+
+	// 엘라스틱서치 재색인 시작. 끝나지 않은 작업이 있으면 이어서 한다. body 에 새 인덱스의 settings, mappings 를 줄 수 있다.
+	@RequestMapping(value = "/search/reindex/{target}", method = RequestMethod.POST)
+	public SearchReindexJob startSearchReindex(@PathVariable Constants.SEARCH_REINDEX_TARGET_TYPE target,
+		@RequestBody(required = false) Map<String, Object> indexSource) {
+
+		return searchReindexService.startReindex(target, indexSource);
+	}
+
+	// 엘라스틱서치 재색인 진행 상황
+	@RequestMapping(value = "/search/reindex/{target}", method = RequestMethod.GET)
+	public SearchReindexJob getSearchReindex(@PathVariable Constants.SEARCH_REINDEX_TARGET_TYPE target) {
+		return searchReindexService.getReindexJob(target);
+	}
+
+	// 통합 검색 결과 캐시 적중률 등
+	@RequestMapping(value = "/search/cache/metrics", method = RequestMethod.GET)
+	public SearchCacheMetrics getSearchCacheMetrics() {
+		return searchService.getSearchCacheMetrics();
+	}
+
+	// RabbitMQ 발행 버퍼 깊이, confirm 지연 등
+	@RequestMapping(value = "/rabbitmq/publisher/metrics", method = RequestMethod.GET)
+	public PublisherMetrics getRabbitMQPublisherMetrics() {
+		return rabbitMQPublisher.getMetrics();
+	}
+
 	private FootballClub buildFootballClub(String id, FootballClubRequest request) {
 		FootballClubOrigin footballClubOrigin = adminService.findOriginFootballClubById(request.getOrigin());
 
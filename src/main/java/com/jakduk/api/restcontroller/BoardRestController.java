@@ -5,7 +5,6 @@ import com.jakduk.api.common.board.category.BoardCategory;
 import com.jakduk.api.common.board.category.BoardCategoryGenerator;
 import com.jakduk.api.common.rabbitmq.RabbitMQPublisher;
 import com.jakduk.api.common.util.AuthUtils;
-import com.jakduk.api.common.util.DateUtils;
 import com.jakduk.api.common.util.JakdukUtils;
 import com.jakduk.api.exception.ServiceError;
 import com.jakduk.api.exception.ServiceException;
@@ -13,16 +12,15 @@ import com.jakduk.api.model.aggregate.BoardTop;
 import com.jakduk.api.model.db.Article;
 import com.jakduk.api.model.db.ArticleComment;
 import com.jakduk.api.model.db.Gallery;
-import com.jakduk.api.model.embedded.CommonFeelingUser;
 import com.jakduk.api.model.embedded.CommonWriter;
 import com.jakduk.api.restcontroller.vo.EmptyJsonResponse;
 import com.jakduk.api.restcontroller.vo.UserFeelingResponse;
 import com.jakduk.api.restcontroller.vo.board.*;
 import com.jakduk.api.service.ArticleService;
+import com.jakduk.api.service.ArticleTopsService;
 import com.jakduk.api.service.GalleryService;
 
 import org.apache.commons.lang3.StringUtils;
-import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,8 +34,8 @@ import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import java.beans.PropertyEditorSupport;
-import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +54,8 @@ public class BoardRestController {
 	@Autowired
 	private ArticleService articleService;
 	@Autowired
+	private ArticleTopsService articleTopsService;
+	@Autowired
 	private GalleryService galleryService;
 	@Autowired
 	private RabbitMQPublisher rabbitMQPublisher;
@@ -66,9 +66,13 @@ public class BoardRestController {
 		@PathVariable Constants.BOARD_TYPE board, // 게시판
 		@RequestParam(required = false, defaultValue = "1") Integer page, // 페이지 번호(1부터 시작)
 		@RequestParam(required = false, defaultValue = "20") Integer size, // 페이지 사이즈
-		@RequestParam(required = false, defaultValue = "ALL") String categoryCode // 말머리
+		@RequestParam(required = false, defaultValue = "ALL") String categoryCode, // 말머리
+		@RequestParam(required = false) String cursor // 커서 방식일 때 nextCursor. 첫 목록은 빈 값
 	) {
 
+		if (Objects.nonNull(cursor))
+			return articleService.getArticlesByCursor(board, categoryCode, cursor, size);
+
 		return articleService.getArticles(board, categoryCode, page, size);
 	}
 
@@ -78,11 +82,8 @@ public class BoardRestController {
 		@PathVariable Constants.BOARD_TYPE board // 게시판
 	) {
 
-		LocalDate localDate = LocalDate.now().minusWeeks(1);
-		ObjectId objectId = new ObjectId(DateUtils.localDateToDate(localDate));
-
-		List<BoardTop> topLikes = articleService.getArticlesTopLikes(board, objectId);
-		List<BoardTop> topComments = articleService.getArticlesTopComments(board, objectId);
+		List<BoardTop> topLikes = articleTopsService.getTopLikes(board);
+		List<BoardTop> topComments = articleTopsService.getTopComments(board);
 
 		return new GetArticlesTopsResponse(topLikes, topComments);
 	}
@@ -162,8 +163,7 @@ public class BoardRestController {
 	public WriteArticleResponse editArticle(
 		@PathVariable Constants.BOARD_TYPE board,
 		@PathVariable Integer seq,
-		@Valid @RequestBody WriteArticle form,
-		HttpServletRequest request) {
+		@Valid @RequestBody WriteArticle form) {
 
 		CommonWriter commonWriter = AuthUtils.getCommonWriterFromSession();
 
@@ -188,15 +188,15 @@ public class BoardRestController {
 			form.getContent().trim(),
 			form.getCategoryCode(), !galleries.isEmpty());
 
-		List<String> galleryIdsForRemoval = JakdukUtils.getSessionOfGalleryIdsForRemoval(request,
-			Constants.GALLERY_FROM_TYPE.ARTICLE,
-			article.getId());
+		List<String> galleryIdsForRemoval = galleryService.getGalleryIdsForRemoval(commonWriter.getUserId(),
+			Constants.GALLERY_FROM_TYPE.ARTICLE, article.getId());
 
 		galleryService.processLinkedGalleries(commonWriter.getUserId(), galleries, form.getGalleries(),
 			galleryIdsForRemoval,
 			Constants.GALLERY_FROM_TYPE.ARTICLE, article.getId());
 
-		JakdukUtils.removeSessionOfGalleryIdsForRemoval(request, Constants.GALLERY_FROM_TYPE.ARTICLE, article.getId());
+		galleryService.removeGalleryIdsForRemoval(commonWriter.getUserId(), Constants.GALLERY_FROM_TYPE.ARTICLE,
+			article.getId(), galleryIdsForRemoval);
 
 		// 엘라스틱서치 색인 요청
 		rabbitMQPublisher.indexDocumentArticle(article.getId(), article.getSeq(), article.getBoard(),
@@ -270,8 +270,7 @@ public class BoardRestController {
 	public ArticleComment editArticleComment(
 		@PathVariable Constants.BOARD_TYPE board,
 		@PathVariable String id,
-		@Valid @RequestBody WriteArticleComment form,
-		HttpServletRequest request) {
+		@Valid @RequestBody WriteArticleComment form) {
 
 		CommonWriter commonWriter = AuthUtils.getCommonWriterFromSession();
 
@@ -295,15 +294,15 @@ public class BoardRestController {
 		ArticleComment articleComment = articleService.updateArticleComment(commonWriter, board, id,
 			form.getContent().trim(), galleryIds);
 
-		List<String> galleryIdsForRemoval = JakdukUtils.getSessionOfGalleryIdsForRemoval(request,
+		List<String> galleryIdsForRemoval = galleryService.getGalleryIdsForRemoval(commonWriter.getUserId(),
 			Constants.GALLERY_FROM_TYPE.ARTICLE_COMMENT, articleComment.getId());
 
 		galleryService.processLinkedGalleries(commonWriter.getUserId(), galleries, form.getGalleries(),
 			galleryIdsForRemoval,
 			Constants.GALLERY_FROM_TYPE.ARTICLE_COMMENT, articleComment.getId());
 
-		JakdukUtils.removeSessionOfGalleryIdsForRemoval(request, Constants.GALLERY_FROM_TYPE.ARTICLE_COMMENT,
-			articleComment.getId());
+		galleryService.removeGalleryIdsForRemoval(commonWriter.getUserId(), Constants.GALLERY_FROM_TYPE.ARTICLE_COMMENT,
+			articleComment.getId(), galleryIdsForRemoval);
 
 		return articleComment;
 
@@ -332,16 +331,7 @@ public class BoardRestController {
 
 		CommonWriter commonWriter = AuthUtils.getCommonWriterFromSession();
 
-		Article article = articleService.setArticleFeelings(commonWriter, board, seq, feeling);
-
-		List<CommonFeelingUser> usersLiking = article.getUsersLiking();
-		List<CommonFeelingUser> usersDisliking = article.getUsersDisliking();
-
-		return new UserFeelingResponse() {{
-			setMyFeeling(JakdukUtils.getMyFeeling(commonWriter, usersLiking, usersDisliking));
-			setNumberOfLike(CollectionUtils.isEmpty(usersLiking) ? 0 : usersLiking.size());
-			setNumberOfDislike(CollectionUtils.isEmpty(usersDisliking) ? 0 : usersDisliking.size());
-		}};
+		return articleService.setArticleFeelings(commonWriter, board, seq, feeling);
 	}
 
 	// 자유게시판 글의 감정 표현 회원 목록
@@ -364,16 +354,7 @@ public class BoardRestController {
 
 		CommonWriter commonWriter = AuthUtils.getCommonWriterFromSession();
 
-		ArticleComment boardComment = articleService.setArticleCommentFeeling(commonWriter, commentId, feeling);
-
-		List<CommonFeelingUser> usersLiking = boardComment.getUsersLiking();
-		List<CommonFeelingUser> usersDisliking = boardComment.getUsersDisliking();
-
-		return new UserFeelingResponse() {{
-			setMyFeeling(JakdukUtils.getMyFeeling(commonWriter, usersLiking, usersDisliking));
-			setNumberOfLike(CollectionUtils.isEmpty(usersLiking) ? 0 : usersLiking.size());
-			setNumberOfDislike(CollectionUtils.isEmpty(usersDisliking) ? 0 : usersDisliking.size());
-		}};
+		return articleService.setArticleCommentFeeling(commonWriter, commentId, feeling);
 	}
 
 	// 게시판 글의 공지 활성화
@@ -2,7 +2,6 @@ package com.jakduk.api.restcontroller;
 
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.common.util.AuthUtils;
-import com.jakduk.api.common.util.JakdukUtils;
 import com.jakduk.api.common.util.UrlGenerationUtils;
 import com.jakduk.api.exception.ServiceError;
 import com.jakduk.api.exception.ServiceException;
@@ -19,8 +18,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.servlet.http.HttpServletRequest;
-
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
@@ -56,6 +53,19 @@ public class GalleryRestController {
 		return new GalleriesResponse(galleries);
 	}
 
+	// 사진 목록 무한 스크롤
+	@GetMapping("/galleries/feed")
+	public GalleryFeedResponse getGalleryFeed(
+		@RequestParam(required = false) String cursor, // 이전 응답의 nextCursor
+		@RequestParam(required = false, defaultValue = "0") Integer size // 페이지 사이즈
+	) {
+
+		if (size < Constants.GALLERY_SIZE)
+			size = Constants.GALLERY_SIZE;
+
+		return galleryService.getGalleryFeed(cursor, size);
+	}
+
 	// 사진 올리기
 	@PostMapping("/gallery")
 	public GalleryUploadResponse uploadImage(@RequestParam MultipartFile file) throws IOException {
@@ -71,7 +81,7 @@ public class GalleryRestController {
 		CommonWriter commonWriter = AuthUtils.getCommonWriterFromSession();
 
 		Gallery gallery = galleryService.uploadImage(commonWriter, file.getOriginalFilename(), file.getSize(),
-			contentType, file.getBytes());
+			contentType, file.getInputStream());
 
 		GalleryUploadResponse response = new GalleryUploadResponse();
 
@@ -87,8 +97,7 @@ public class GalleryRestController {
 	@DeleteMapping("/gallery/{id}")
 	public EmptyJsonResponse removeImage(
 		@PathVariable String id, // 사진 ID"
-		@RequestBody(required = false) LinkedItemForm form,
-		HttpServletRequest request) {
+		@RequestBody(required = false) LinkedItemForm form) {
 
 		if (!AuthUtils.isSessionUserRole())
 			throw new ServiceException(ServiceError.UNAUTHORIZED_ACCESS);
@@ -98,9 +107,9 @@ public class GalleryRestController {
 		galleryService.deleteGallery(id, sessionUser.getId());
 
 		// form이 null이 아니면 글, 댓글 편집시 호출 했기 때문에 gallery를 바로 지우면 안된다. 글/댓글 편집 완료 시 실제로 gallery를 지워야 한다.
-		// session에 저장해 두자.
+		// DB에 저장해 두자.
 		if (Objects.nonNull(form))
-			JakdukUtils.setSessionOfGalleryIdsForRemoval(request, form.getFrom(), form.getItemId(), id);
+			galleryService.addGalleryIdForRemoval(sessionUser.getId(), form.getFrom(), form.getItemId(), id);
 
 		return EmptyJsonResponse.newInstance();
 	}
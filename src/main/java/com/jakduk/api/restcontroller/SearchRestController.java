@@ -1,10 +1,9 @@
 package com.jakduk.api.restcontroller;
 
-import com.jakduk.api.common.rabbitmq.RabbitMQPublisher;
-import com.jakduk.api.common.util.AuthUtils;
 import com.jakduk.api.restcontroller.vo.search.PopularSearchWordResult;
 import com.jakduk.api.restcontroller.vo.search.SearchUnifiedResponse;
 import com.jakduk.api.service.SearchService;
+import com.jakduk.api.service.SearchWordService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -19,7 +18,6 @@ import org.springframework.web.bind.annotation.RestController;
 import javax.validation.constraints.NotEmpty;
 
 import java.io.IOException;
-import java.time.LocalDate;
 
 /**
  * 찾기 API
@@ -37,10 +35,10 @@ public class SearchRestController {
 
 	private final Logger log = LoggerFactory.getLogger(this.getClass());
 
-	@Autowired
-	private RabbitMQPublisher rabbitMQPublisher;
 	@Autowired
 	private SearchService searchService;
+	@Autowired
+	private SearchWordService searchWordService;
 
 	// 통합 찾기
 	@GetMapping("")
@@ -74,7 +72,7 @@ public class SearchRestController {
 
 		SearchUnifiedResponse searchUnifiedResponse = searchService.searchUnified(q, w, from, size, preTags, postTags);
 
-		rabbitMQPublisher.indexDocumentSearchWord(StringUtils.lowerCase(q), AuthUtils.getCommonWriterFromSession());
+		searchWordService.countSearchWord(q);
 
 		return searchUnifiedResponse;
 	}
@@ -83,12 +81,8 @@ public class SearchRestController {
 	@GetMapping("/popular-words")
 	public PopularSearchWordResult searchPopularWords(
 		@RequestParam(required = false, defaultValue = "5") Integer size // 크기
-	) throws IOException {
-
-		// 3 주전
-		LocalDate threeWeeksAgo = LocalDate.now().minusWeeks(3);
-
-		return searchService.aggregateSearchWord(threeWeeksAgo, size);
+	) {
+		return searchWordService.getPopularSearchWords(size);
 	}
 
 }
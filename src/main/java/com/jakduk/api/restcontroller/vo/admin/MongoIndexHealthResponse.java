@@ -0,0 +1,19 @@
+package com.jakduk.api.restcontroller.vo.admin;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 몽고 인덱스 상태
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class MongoIndexHealthResponse {
+	private String status; // UP, DEGRADED
+	private List<MongoQueryPlan> queryPlans;
+}
@@ -0,0 +1,24 @@
+package com.jakduk.api.restcontroller.vo.admin;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 등록된 쿼리 모양의 실행 계획 요약
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+public class MongoQueryPlan {
+	private String name; // 쿼리 모양 이름
+	private String collection;
+	private List<String> stages; // winningPlan 에 포함된 stage 목록
+	private Boolean collectionScan; // COLLSCAN 여부
+	private String error; // explain 실패 사유
+}
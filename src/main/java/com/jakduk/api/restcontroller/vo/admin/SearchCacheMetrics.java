@@ -0,0 +1,23 @@
+package com.jakduk.api.restcontroller.vo.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 통합 검색 결과 캐시 지표
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+public class SearchCacheMetrics {
+	private Integer size; // 캐시된 검색 조건 수
+	private Long hits; // 캐시에서 바로 돌려준 수
+	private Long misses; // msearch 를 보낸 수
+	private Long coalesced; // 같은 검색이 실행 중이라 그 결과를 기다린 수
+	private Long evictions; // 크기 제한으로 밀려난 수
+	private Double hitRatio; // (hits + coalesced) / 전체 요청
+}
@@ -8,6 +8,7 @@ public class BoardGallerySimple {
 
 	private String id; // 사진 ID
 	private String thumbnailUrl; // 썸네일 URL
+	private String srcset; // 너비별 사진 URL. img 태그의 srcset 형식
 
 	public String getId() {
 		return id;
@@ -24,4 +25,12 @@ public class BoardGallerySimple {
 	public void setThumbnailUrl(String thumbnailUrl) {
 		this.thumbnailUrl = thumbnailUrl;
 	}
+
+	public String getSrcset() {
+		return srcset;
+	}
+
+	public void setSrcset(String srcset) {
+		this.srcset = srcset;
+	}
 }
@@ -0,0 +1,19 @@
+package com.jakduk.api.restcontroller.vo.gallery;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 사진 목록 무한 스크롤 응답 객체
+ */
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class GalleryFeedResponse {
+	private List<GalleryOnList> galleries; // 사진 목록
+	private String nextCursor; // 다음 페이지를 가져올 커서. 마지막 페이지면 null
+}
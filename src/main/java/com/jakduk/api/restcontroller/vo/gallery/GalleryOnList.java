@@ -13,6 +13,7 @@ public class GalleryOnList {
 	private CommonWriter writer; // 올린이
 	private String imageUrl; // 사진 풀 URL
 	private String thumbnailUrl; // 사진 썸네일 URL
+	private String srcset; // 너비별 사진 URL. img 태그의 srcset 형식
 
 	public String getId() {
 		return id;
@@ -53,4 +54,12 @@ public class GalleryOnList {
 	public void setThumbnailUrl(String thumbnailUrl) {
 		this.thumbnailUrl = thumbnailUrl;
 	}
+
+	public String getSrcset() {
+		return srcset;
+	}
+
+	public void setSrcset(String srcset) {
+		this.srcset = srcset;
+	}
 }
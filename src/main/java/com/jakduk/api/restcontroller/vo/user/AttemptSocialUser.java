@@ -2,6 +2,8 @@ package com.jakduk.api.restcontroller.vo.user;
 
 import com.jakduk.api.common.Constants;
 
+import java.io.Serializable;
+
 /**
  * SNS로 회원 가입시 임시로 회원 정보를 담는 객체
  *
@@ -9,7 +11,7 @@ import com.jakduk.api.common.Constants;
  *         16. 7. 30 오후 9:54
  */
 
-public class AttemptSocialUser {
+public class AttemptSocialUser implements Serializable {
 
 	private String email;
 	private String username;
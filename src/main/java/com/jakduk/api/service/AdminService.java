@@ -27,6 +27,7 @@ import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
@@ -83,6 +84,8 @@ public class AdminService {
 	private JakduScheduleGroupRepository jakduScheduleGroupRepository;
 	@Autowired
 	private CompetitionRepository competitionRepository; // 리팩토링 할때 없애자.
+	@Autowired
+	private ApplicationEventPublisher applicationEventPublisher;
 
 	// 알림판 목록.
 	public List<HomeDescription> findHomeDescriptions() {
@@ -98,11 +101,13 @@ public class AdminService {
 	// 알림판 저장.
 	public void saveHomeDescription(HomeDescription homeDescription) {
 		homeDescriptionReposotiry.save(homeDescription);
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("homeDescription"));
 	}
 
 	// 알림판 삭제.
 	public void deleteHomeDescriptionById(String id) {
 		homeDescriptionReposotiry.deleteById(id);
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("homeDescription"));
 	}
 
 	// 백과사전 하나.
@@ -119,11 +124,13 @@ public class AdminService {
 	// 백과사전 저장.
 	public void saveEncyclopedia(Encyclopedia encyclopedia) {
 		encyclopediaRepository.save(encyclopedia);
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("encyclopedia"));
 	}
 
 	// 백과사전 삭제.
 	public void deleteEncyclopediaById(String id) {
 		encyclopediaRepository.deleteById(id);
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("encyclopedia"));
 	}
 
 	// 부모 추구단 목록.
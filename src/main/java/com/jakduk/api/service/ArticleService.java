@@ -3,33 +3,47 @@ package com.jakduk.api.service;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.Resource;
+
+import com.mongodb.MongoExecutionTimeoutException;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.ObjectUtils;
 
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.common.board.category.BoardCategory;
@@ -38,11 +52,12 @@ import com.jakduk.api.common.rabbitmq.RabbitMQPublisher;
 import com.jakduk.api.common.util.DateUtils;
 import com.jakduk.api.common.util.JakdukUtils;
 import com.jakduk.api.common.util.UrlGenerationUtils;
+import com.jakduk.api.configuration.JakdukProperties;
 import com.jakduk.api.exception.ServiceError;
 import com.jakduk.api.exception.ServiceException;
 import com.jakduk.api.model.aggregate.BoardFeelingCount;
-import com.jakduk.api.model.aggregate.BoardTop;
 import com.jakduk.api.model.aggregate.CommonCount;
+import com.jakduk.api.model.aggregate.LinkedItemGallery;
 import com.jakduk.api.model.db.Article;
 import com.jakduk.api.model.db.ArticleComment;
 import com.jakduk.api.model.db.Gallery;
@@ -55,13 +70,11 @@ import com.jakduk.api.model.embedded.CommonWriter;
 import com.jakduk.api.model.embedded.SimpleWriter;
 import com.jakduk.api.model.simple.ArticleCommentSimple;
 import com.jakduk.api.model.simple.ArticleOnList;
-import com.jakduk.api.model.simple.ArticleOnRSS;
-import com.jakduk.api.model.simple.ArticleOnSitemap;
 import com.jakduk.api.model.simple.ArticleSimple;
 import com.jakduk.api.repository.article.ArticleCommentRepository;
-import com.jakduk.api.repository.article.ArticleOnListRepository;
 import com.jakduk.api.repository.article.ArticleRepository;
 import com.jakduk.api.repository.gallery.GalleryRepository;
+import com.jakduk.api.restcontroller.vo.UserFeelingResponse;
 import com.jakduk.api.restcontroller.vo.board.ArticleCommentLog;
 import com.jakduk.api.restcontroller.vo.board.ArticleDetail;
 import com.jakduk.api.restcontroller.vo.board.ArticleGallery;
@@ -81,13 +94,16 @@ public class ArticleService {
 
 	private final Logger log = LoggerFactory.getLogger(this.getClass());
 
+	// 커서 방식 글 목록의 전체 글 수. key는 게시판:말머리
+	private final ConcurrentHashMap<String, Long> articleCounts = new ConcurrentHashMap<>();
+	// 글 목록에 함께 나오는 공지글. 비울 때마다 새 객체로 바꿔서, 비우기 전에 읽은 목록이 다시 들어오지 않게 한다.
+	private final AtomicReference<CachedNotices> notices = new AtomicReference<>(new CachedNotices(null));
+
 	@Autowired
 	private UrlGenerationUtils urlGenerationUtils;
 	@Autowired
 	private ArticleRepository articleRepository;
 	@Autowired
-	private ArticleOnListRepository articleOnListRepository;
-	@Autowired
 	private ArticleCommentRepository articleCommentRepository;
 	@Autowired
 	private GalleryRepository galleryRepository;
@@ -97,6 +113,18 @@ public class ArticleService {
 	private CommonGalleryService commonGalleryService;
 	@Autowired
 	private RabbitMQPublisher rabbitMQPublisher;
+	@Autowired
+	private ArticleViewsService articleViewsService;
+	@Autowired
+	private RssFeedService rssFeedService;
+	@Autowired
+	private ArticleTopsService articleTopsService;
+	@Autowired
+	private ApplicationEventPublisher applicationEventPublisher;
+	@Resource
+	private JakdukProperties jakdukProperties;
+	@Resource
+	private ThreadPoolTaskExecutor articleQueryExecutor;
 
 	public Article findOneBySeq(Constants.BOARD_TYPE board, Integer seq) {
 		return articleRepository.findOneByBoardAndSeq(board.name(), seq)
@@ -135,11 +163,18 @@ public class ArticleService {
 		article.setLogs(this.initBoardLogs(objectId, Constants.ARTICLE_LOG_TYPE.CREATE.name(), writer));
 		article.setLastUpdated(LocalDateTime.ofInstant(objectId.getDate().toInstant(), ZoneId.systemDefault()));
 		article.setLinkedGallery(linkedGallery);
+		article.setCommentCount(0);
+		article.setLikingCount(0);
+		article.setDislikingCount(0);
 
 		articleRepository.save(article);
 
 		log.info("new post created. post seq={}, subject={}", article.getSeq(), article.getSubject());
 
+		articleTopsService.putArticle(article);
+		rssFeedService.evictFeeds();
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("article"));
+
 		return article;
 	}
 
@@ -183,17 +218,24 @@ public class ArticleService {
 			logs = new ArrayList<>();
 
 		ObjectId logId = new ObjectId();
-		logs.add(new BoardLog(logId.toString(), Constants.ARTICLE_LOG_TYPE.EDIT.name(),
-			new SimpleWriter(writer.getUserId(), writer.getUsername())));
+		BoardLog boardLog = new BoardLog(logId.toString(), Constants.ARTICLE_LOG_TYPE.EDIT.name(),
+			new SimpleWriter(writer.getUserId(), writer.getUsername()));
+		logs.add(boardLog);
 		article.setLogs(logs);
 
 		// lastUpdated
 		article.setLastUpdated(LocalDateTime.ofInstant(logId.getDate().toInstant(), ZoneId.systemDefault()));
 
-		articleRepository.save(article);
+		// 읽음 수, 댓글 수, 감정은 따로 $inc 되므로 고친 필드만 바꾼다.
+		articleRepository.updateContent(article, boardLog);
 
 		log.info("post was edited. post seq={}, subject={}", article.getSeq(), article.getSubject());
 
+		articleTopsService.putArticle(article);
+		rssFeedService.evictFeeds();
+		this.evictNotices();
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("article"));
+
 		return article;
 	}
 
@@ -246,13 +288,15 @@ public class ArticleService {
 			article.setLastUpdated(
 				LocalDateTime.ofInstant(boardHistoryId.getDate().toInstant(), ZoneId.systemDefault()));
 
-			articleRepository.save(article);
+			articleRepository.deleteContent(article, history);
+			articleTopsService.putArticle(article);
 
 			log.info("A post was deleted(post only). post seq={}, subject={}", article.getSeq(), article.getSubject());
 		}
 		// 몽땅 지우기
 		else {
 			articleRepository.delete(article);
+			articleTopsService.removeArticle(article);
 
 			log.info("A post was deleted(all). post seq={}, subject={}", article.getSeq(), article.getSubject());
 		}
@@ -264,6 +308,10 @@ public class ArticleService {
 		// 색인 지움
 		rabbitMQPublisher.deleteDocumentArticle(article.getId());
 
+		rssFeedService.evictFeeds();
+		this.evictNotices();
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("article"));
+
 		return count > 0 ? Constants.ARTICLE_DELETE_TYPE.CONTENT : Constants.ARTICLE_DELETE_TYPE.ALL;
 	}
 
@@ -273,112 +321,73 @@ public class ArticleService {
 	public GetArticlesResponse getArticles(Constants.BOARD_TYPE board, String categoryCode, Integer page,
 		Integer size) {
 
-		Sort sort = Constants.SORT_BY_ID_DESC;
-		Pageable pageable = PageRequest.of(page - 1, size, sort);
-		Page<ArticleOnList> articlePages;
+		Pageable pageable = PageRequest.of(page - 1, size, Constants.SORT_BY_ID_DESC);
+		String category = "ALL".equals(categoryCode) ? null : categoryCode;
 
-		if ("ALL".equals(categoryCode)) {
-			articlePages = articleOnListRepository.findByBoard(board, pageable);
-		} else {
-			articlePages = articleOnListRepository.findByBoardAndCategory(board, categoryCode, pageable);
-		}
+		List<ArticleOnList> articles = articleRepository.findByBoardAndCategory(board, category,
+			(int)pageable.getOffset(), size);
 
-		// 자유 게시판 공지글 목록
-		List<ArticleOnList> notices = articleRepository.findNotices(sort);
+		Page<ArticleOnList> articlePages = new PageImpl<>(articles, pageable,
+			articleRepository.countByBoardAndCategory(board, category));
 
-		// 게시물 VO 변환 및 썸네일 URL 추가
-		Function<ArticleOnList, GetArticle> convertToGetArticle = article -> {
-			GetArticle getArticle = new GetArticle();
-			BeanUtils.copyProperties(article, getArticle);
-
-			if (article.getLinkedGallery()) {
-				List<Gallery> galleries = galleryRepository.findByItemIdAndFromType(
-					new ObjectId(article.getId()), Constants.GALLERY_FROM_TYPE.ARTICLE, 1);
-
-				if (!CollectionUtils.isEmpty(galleries)) {
-					List<BoardGallerySimple> boardGalleries = galleries.stream()
-						.map(gallery -> new BoardGallerySimple() {{
-							setId(gallery.getId());
-							setThumbnailUrl(urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL,
-								gallery.getId()));
-						}})
-						.collect(Collectors.toList());
-
-					getArticle.setGalleries(boardGalleries);
-				}
-			}
-
-			return getArticle;
-		};
-
-		List<GetArticle> getArticles = articlePages.getContent().stream()
-			.map(convertToGetArticle)
-			.collect(Collectors.toList());
-
-		List<GetArticle> getNotices = notices.stream()
-			.map(convertToGetArticle)
-			.collect(Collectors.toList());
-
-		// Board ID 뽑아내기.
-		ArrayList<ObjectId> ids = new ArrayList<>();
-
-		getArticles.forEach(article -> ids.add(new ObjectId(article.getId())));
-		getNotices.forEach(article -> ids.add(new ObjectId(article.getId())));
-
-		// 게시물의 댓글수
-		Map<String, Integer> commentCounts = articleCommentRepository.findCommentsCountByIds(ids).stream()
-			.collect(Collectors.toMap(commonCount -> commonCount.getId().getId(), CommonCount::getCount));
+		GetArticlesResponse response = this.toGetArticlesResponse(board, articlePages.getContent());
+		response.setFirst(articlePages.isFirst());
+		response.setLast(articlePages.isLast());
+		response.setTotalPages(articlePages.getTotalPages());
+		response.setTotalElements(articlePages.getTotalElements());
+		response.setNumberOfElements(articlePages.getNumberOfElements());
+		response.setSize(articlePages.getSize());
+		response.setNumber(articlePages.getNumber());
 
-		// 게시물의 감정수
-		Map<String, BoardFeelingCount> feelingCounts = articleRepository.findUsersFeelingCount(ids).stream()
-			.collect(Collectors.toMap(BoardFeelingCount::getId, Function.identity()));
+		return response;
+	}
 
-		// 댓글수, 감정 표현수 합치기.
-		Consumer<GetArticle> applyCounts = article -> {
-			String boardId = article.getId();
-			Integer commentCount = commentCounts.get(boardId);
+	/**
+	 * 자유게시판 글 목록 (커서 방식)
+	 *
+	 * skip 없이 마지막으로 본 글 ID 미만을 가져오므로 페이지가 깊어져도 비용이 같다.
+	 * 전체 글 수는 캐시된 값을 쓴다.
+	 *
+	 * @param cursor 이전 응답의 nextCursor. 비어 있으면 처음부터
+	 */
+	public GetArticlesResponse getArticlesByCursor(Constants.BOARD_TYPE board, String categoryCode, String cursor,
+		Integer size) {
 
-			if (Objects.nonNull(commentCount))
-				article.setCommentCount(commentCount);
+		ObjectId lastArticleId = StringUtils.isBlank(cursor) ? null : this.decodeArticleCursor(cursor);
+		String category = "ALL".equals(categoryCode) ? null : categoryCode;
 
-			BoardFeelingCount feelingCount = feelingCounts.get(boardId);
+		// 다음 목록이 있는지 알기 위해 하나 더 가져온다.
+		List<ArticleOnList> articles = articleRepository.findByBoardAndCategoryLessThanId(board, category,
+			lastArticleId, size + 1);
 
-			if (Objects.nonNull(feelingCount)) {
-				article.setLikingCount(feelingCount.getUsersLikingCount());
-				article.setDislikingCount(feelingCount.getUsersDislikingCount());
-			}
-		};
+		Boolean hasNext = articles.size() > size;
 
-		getArticles.forEach(applyCounts);
-		getNotices.forEach(applyCounts);
+		if (hasNext)
+			articles = articles.subList(0, size);
 
-		// 말머리
-		List<BoardCategory> categories = BoardCategoryGenerator.getCategories(board, JakdukUtils.getLocale());
-		Map<String, String> categoriesMap = null;
+		GetArticlesResponse response = this.toGetArticlesResponse(board, articles);
+		response.setFirst(Objects.isNull(lastArticleId));
+		response.setLast(!hasNext);
+		response.setSize(size);
+		response.setNumberOfElements(articles.size());
+		response.setTotalElements(articleCounts.computeIfAbsent(board.name() + ":" + categoryCode,
+			key -> articleRepository.countByBoardAndCategory(board, category)));
 
-		if (!CollectionUtils.isEmpty(categories)) {
-			categoriesMap = categories.stream()
-				.collect(Collectors.toMap(BoardCategory::getCode,
-					boardCategory -> boardCategory.getNames().get(0).getName()));
-
-			categoriesMap.put("ALL", JakdukUtils.getMessageSource("board.category.all"));
-		}
-
-		GetArticlesResponse response = new GetArticlesResponse();
-		response.setCategories(categoriesMap);
-		response.setArticles(getArticles);
-		response.setNotices(getNotices);
-		response.setFirst(articlePages.isFirst());
-		response.setLast(articlePages.isLast());
-		response.setTotalPages(articlePages.getTotalPages());
-		response.setTotalElements(articlePages.getTotalElements());
-		response.setNumberOfElements(articlePages.getNumberOfElements());
-		response.setSize(articlePages.getSize());
-		response.setNumber(articlePages.getNumber());
+		if (hasNext)
+			response.setNextCursor(this.encodeArticleCursor(articles.get(articles.size() - 1).getId()));
 
 		return response;
 	}
 
+	/**
+	 * 캐시된 게시판 글 수, 공지글을 비운다.
+	 */
+	@Scheduled(fixedDelayString = "${jakduk.article-count-cache-ttl:60000}")
+	public void evictArticleListCaches() {
+		articleCounts.clear();
+		this.evictNotices();
+	}
+
 	/**
 	 * 최근 글 가져오기
 	 */
@@ -386,28 +395,16 @@ public class ArticleService {
 		List<ArticleOnList> articles = articleRepository.findLatest(Constants.SORT_BY_ID_DESC,
 			Constants.HOME_SIZE_POST);
 
+		Map<String, List<BoardGallerySimple>> thumbnailGalleries = this.getThumbnailGalleries(articles, null);
+
 		// 게시물 VO 변환 및 썸네일 URL 추가
 		return articles.stream()
 			.map(post -> {
 				HomeArticle homeArticle = new HomeArticle();
 				BeanUtils.copyProperties(post, homeArticle);
 
-				if (post.getLinkedGallery()) {
-					List<Gallery> galleries = galleryRepository.findByItemIdAndFromType(
-						new ObjectId(post.getId()), Constants.GALLERY_FROM_TYPE.ARTICLE, 1);
-
-					List<BoardGallerySimple> boardGalleries = galleries.stream()
-						.sorted(Comparator.comparing(Gallery::getId))
-						.limit(1)
-						.map(gallery -> new BoardGallerySimple() {{
-							setId(gallery.getId());
-							setThumbnailUrl(urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL,
-								gallery.getId()));
-						}})
-						.collect(Collectors.toList());
-
-					homeArticle.setGalleries(boardGalleries);
-				}
+				if (BooleanUtils.isTrue(post.getLinkedGallery()))
+					homeArticle.setGalleries(thumbnailGalleries.getOrDefault(post.getId(), new ArrayList<>()));
 
 				return homeArticle;
 			})
@@ -461,8 +458,10 @@ public class ArticleService {
 
 	/**
 	 * 글 감정 표현.
+	 *
+	 * @return 나의 감정 표현과 감정 수
 	 */
-	public Article setArticleFeelings(CommonWriter writer, Constants.BOARD_TYPE board, Integer seq,
+	public UserFeelingResponse setArticleFeelings(CommonWriter writer, Constants.BOARD_TYPE board, Integer seq,
 		Constants.FEELING_TYPE feeling) {
 
 		Article article = articleRepository.findOneByBoardAndSeq(board.name(), seq)
@@ -477,11 +476,23 @@ public class ArticleService {
 		if (userId.equals(articleWriter.getUserId()))
 			throw new ServiceException(ServiceError.FEELING_YOU_ARE_WRITER);
 
-		this.setUsersFeeling(userId, username, feeling, article);
+		Article updatedArticle;
 
-		articleRepository.save(article);
+		try {
+			updatedArticle = articleRepository.setUsersFeeling(new ObjectId(article.getId()),
+				new CommonFeelingUser(new ObjectId().toString(), userId, username), feeling);
+		} catch (OptimisticLockingFailureException e) {
+			throw new ServiceException(ServiceError.FEELING_CONFLICT, e);
+		}
 
-		return article;
+		if (Objects.isNull(updatedArticle))
+			throw new ServiceException(ServiceError.NOT_FOUND_ARTICLE);
+
+		articleTopsService.setLikingCount(article, CollectionUtils.isEmpty(updatedArticle.getUsersLiking()) ? 0 :
+			updatedArticle.getUsersLiking().size());
+		this.evictNotice(article.getId());
+
+		return this.toUserFeelingResponse(writer, updatedArticle);
 	}
 
 	/**
@@ -508,11 +519,17 @@ public class ArticleService {
 
 		articleCommentRepository.save(articleComment);
 
+		articleRepository.increaseCommentCount(new ObjectId(article.getId()), 1);
+		articleTopsService.increaseCommentCount(board, article.getId(), 1);
+		this.evictNotice(article.getId());
+
 		// 엘라스틱서치 색인 요청
 		rabbitMQPublisher.indexDocumentComment(articleComment.getId(), articleComment.getArticle(),
 			articleComment.getWriter(),
 			articleComment.getContent(), galleryIds);
 
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("articleComment"));
+
 		return articleComment;
 	}
 
@@ -548,6 +565,8 @@ public class ArticleService {
 			articleComment.getWriter(),
 			articleComment.getContent(), galleryIds);
 
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("articleComment"));
+
 		return articleComment;
 	}
 
@@ -564,10 +583,17 @@ public class ArticleService {
 
 		articleCommentRepository.deleteById(id);
 
+		articleRepository.increaseCommentCount(new ObjectId(articleComment.getArticle().getId()), -1);
+		articleTopsService.increaseCommentCount(Constants.BOARD_TYPE.valueOf(articleComment.getArticle().getBoard()),
+			articleComment.getArticle().getId(), -1);
+		this.evictNotice(articleComment.getArticle().getId());
+
 		// 색인 지움
 		rabbitMQPublisher.deleteDocumentComment(id);
 
 		commonGalleryService.unlinkGalleries(id, Constants.GALLERY_FROM_TYPE.ARTICLE_COMMENT);
+
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("articleComment"));
 	}
 
 	/**
@@ -599,9 +625,9 @@ public class ArticleService {
 	 *
 	 * @param commentId 댓글 ID
 	 * @param feeling 감정표현 종류
-	 * @return 자유게시판 댓글 객체
+	 * @return 나의 감정 표현과 감정 수
 	 */
-	public ArticleComment setArticleCommentFeeling(CommonWriter writer, String commentId,
+	public UserFeelingResponse setArticleCommentFeeling(CommonWriter writer, String commentId,
 		Constants.FEELING_TYPE feeling) {
 
 		ArticleComment boardComment = articleCommentRepository.findOneById(commentId)
@@ -616,11 +642,19 @@ public class ArticleService {
 		if (userId.equals(postWriter.getUserId()))
 			throw new ServiceException(ServiceError.FEELING_YOU_ARE_WRITER);
 
-		this.setUsersFeeling(userId, username, feeling, boardComment);
+		ArticleComment updatedComment;
 
-		articleCommentRepository.save(boardComment);
+		try {
+			updatedComment = articleCommentRepository.setUsersFeeling(new ObjectId(boardComment.getId()),
+				new CommonFeelingUser(new ObjectId().toString(), userId, username), feeling);
+		} catch (OptimisticLockingFailureException e) {
+			throw new ServiceException(ServiceError.FEELING_CONFLICT, e);
+		}
+
+		if (Objects.isNull(updatedComment))
+			throw new ServiceException(ServiceError.NOT_FOUND_COMMENT);
 
-		return boardComment;
+		return this.toUserFeelingResponse(writer, updatedComment);
 	}
 
 	public void enableArticleNotice(CommonWriter writer, Constants.BOARD_TYPE board, Integer seq) {
@@ -671,69 +705,56 @@ public class ArticleService {
 
 		String historyType = isEnable ? Constants.ARTICLE_LOG_TYPE.ENABLE_NOTICE.name() :
 			Constants.ARTICLE_LOG_TYPE.DISABLE_NOTICE.name();
-		histories.add(new BoardLog(new ObjectId().toString(), historyType,
-			new SimpleWriter(writer.getUserId(), writer.getUsername())));
+		BoardLog history = new BoardLog(new ObjectId().toString(), historyType,
+			new SimpleWriter(writer.getUserId(), writer.getUsername()));
+		histories.add(history);
 
 		article.setLogs(histories);
 
-		articleRepository.save(article);
+		articleRepository.updateNotice(new ObjectId(article.getId()), isEnable, history);
+		articleTopsService.putArticle(article);
+		this.evictNotices();
 
 		if (log.isInfoEnabled())
 			log.info("Set notice for article. seq={}, type={}", article.getSeq(), status.getNotice());
 	}
 
 	/**
-	 * 자유게시판 주간 좋아요수 선두
+	 * 게시물에 저장된 댓글 수, 감정 수를 다시 계산해서 맞춘다.
+	 *
+	 * @return 맞춘 게시물 수
 	 */
-	public List<BoardTop> getArticlesTopLikes(Constants.BOARD_TYPE board, ObjectId objectId) {
-		return articleRepository.findTopLikes(board, objectId);
-	}
+	public Integer reconcileArticleCounts() {
 
-	/**
-	 * 자유게시판 주간 댓글수 선두
-	 */
-	public List<BoardTop> getArticlesTopComments(Constants.BOARD_TYPE board, ObjectId objectId) {
+		ObjectId lastArticleId = null;
+		Integer total = 0;
 
-		// 게시물의 댓글수
-		Map<String, Integer> commentCounts = articleCommentRepository.findCommentsCountGreaterThanBoardIdAndBoard(
-				objectId, board).stream()
-			.collect(Collectors.toMap(commonCount -> commonCount.getId().getId(), CommonCount::getCount));
+		while (true) {
+			List<BoardFeelingCount> feelingCounts = articleRepository.findUsersFeelingCountGreaterThanId(lastArticleId,
+				Constants.NUMBER_OF_ITEMS_EACH_PAGES);
 
-		List<String> postIds = commentCounts.entrySet().stream()
-			.map(Entry::getKey)
-			.collect(Collectors.toList());
+			if (CollectionUtils.isEmpty(feelingCounts))
+				break;
 
-		// commentIds를 파라미터로 다시 글을 가져온다.
-		List<Article> posts = articleRepository.findByIdInAndBoard(postIds, board.name());
+			List<ObjectId> ids = feelingCounts.stream()
+				.map(feelingCount -> new ObjectId(feelingCount.getId()))
+				.collect(Collectors.toList());
 
-		// sort
-		Comparator<BoardTop> byCount = (b1, b2) -> b2.getCount() - b1.getCount();
-		Comparator<BoardTop> byView = (b1, b2) -> b2.getViews() - b1.getViews();
+			Map<String, Integer> commentCounts = articleCommentRepository.findCommentsCountByIds(ids).stream()
+				.collect(Collectors.toMap(commonCount -> commonCount.getId().getId(), CommonCount::getCount,
+					Integer::sum));
 
-		return posts.stream()
-			.map(boardFree -> {
-				BoardTop boardTop = new BoardTop();
-				BeanUtils.copyProperties(boardFree, boardTop);
-				boardTop.setCount(commentCounts.get(boardTop.getId()));
-				return boardTop;
-			})
-			.sorted(byCount.thenComparing(byView))
-			.limit(Constants.BOARD_TOP_LIMIT)
-			.collect(Collectors.toList());
-	}
+			articleRepository.updateCounts(feelingCounts, commentCounts);
 
-	/**
-	 * RSS 용 게시물 목록
-	 */
-	public List<ArticleOnRSS> getBoardFreeOnRss(ObjectId objectId, Integer limit) {
-		return articleRepository.findPostsOnRss(objectId, Constants.SORT_BY_ID_DESC, limit);
-	}
+			total += feelingCounts.size();
+			lastArticleId = ids.get(ids.size() - 1);
+		}
 
-	/**
-	 * 사이트맵 용 게시물 목록
-	 */
-	public List<ArticleOnSitemap> getBoardFreeOnSitemap(ObjectId objectId, Integer limit) {
-		return articleRepository.findSitemapArticles(objectId, Constants.SORT_BY_ID_DESC, limit);
+		this.evictNotices();
+
+		log.info("Article counts were reconciled. total={}", total);
+
+		return total;
 	}
 
 	/**
@@ -752,12 +773,49 @@ public class ArticleService {
 		}
 
 		if (isAddCookie)
-			this.increaseViews(article);
+			articleViewsService.increaseViews(article.getId());
+
+		BoardCategory boardCategory = BoardCategoryGenerator.getCategory(board, article.getCategory(),
+			JakdukUtils.getLocale());
+
+		ObjectId articleId = new ObjectId(article.getId());
+		String categoryCode = Objects.nonNull(boardCategory) ? boardCategory.getCode() : null;
+		// 조회마다 몽고 서버에 maxTimeMS 를 걸어서, 시간을 넘기면 서버가 조회를 멈춘다.
+		Long queryTimeout = jakdukProperties.getArticleDetailQueryTimeout();
+		Long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queryTimeout);
+
+		// 글을 가져온 뒤의 조회들은 서로 독립적이라 동시에 돌린다.
+		CompletableFuture<List<ArticleGallery>> galleriesFuture = BooleanUtils.isTrue(article.getLinkedGallery())
+			? CompletableFuture.supplyAsync(() -> this.getArticleGalleries(articleId, queryTimeout),
+				articleQueryExecutor)
+			: CompletableFuture.completedFuture(null);
+
+		// 앞, 뒤 글
+		CompletableFuture<ArticleSimple> prevArticleFuture = CompletableFuture.supplyAsync(() ->
+				articleRepository.findByIdAndCategoryWithOperator(articleId, categoryCode, Constants.CRITERIA_OPERATOR.GT,
+					queryTimeout),
+			articleQueryExecutor);
+		CompletableFuture<ArticleSimple> nextArticleFuture = CompletableFuture.supplyAsync(() ->
+				articleRepository.findByIdAndCategoryWithOperator(articleId, categoryCode, Constants.CRITERIA_OPERATOR.LT,
+					queryTimeout),
+			articleQueryExecutor);
+
+		// 글쓴이의 최근 글
+		CompletableFuture<List<LatestArticle>> latestArticlesFuture =
+			Objects.isNull(article.getStatus()) || BooleanUtils.isNotTrue(article.getStatus().getDelete())
+				? CompletableFuture.supplyAsync(() ->
+					this.getLatestArticlesByWriter(articleId, article.getWriter().getUserId(), queryTimeout),
+					articleQueryExecutor)
+				: CompletableFuture.completedFuture(null);
 
 		// 글 상세
 		ArticleDetail articleDetail = new ArticleDetail();
 		BeanUtils.copyProperties(article, articleDetail);
 
+		// 아직 반영되지 않은 읽음 수를 더해서 보여준다.
+		articleDetail.setViews(Optional.ofNullable(article.getViews()).orElse(0)
+			+ articleViewsService.getPendingViews(article.getId()));
+
 		if (!CollectionUtils.isEmpty(article.getLogs())) {
 			List<ArticleLog> logs = article.getLogs().stream()
 				.map(boardLog -> {
@@ -775,9 +833,6 @@ public class ArticleService {
 			articleDetail.setLogs(logs);
 		}
 
-		BoardCategory boardCategory = BoardCategoryGenerator.getCategory(board, article.getCategory(),
-			JakdukUtils.getLocale());
-
 		articleDetail.setBoard(board.name());
 		articleDetail.setCategory(boardCategory);
 		articleDetail.setNumberOfLike(
@@ -785,76 +840,17 @@ public class ArticleService {
 		articleDetail.setNumberOfDislike(
 			CollectionUtils.isEmpty(article.getUsersDisliking()) ? 0 : article.getUsersDisliking().size());
 
-		// 엮인 사진들
-		if (article.getLinkedGallery()) {
-			List<Gallery> galleries = galleryRepository.findByItemIdAndFromType(
-				new ObjectId(article.getId()), Constants.GALLERY_FROM_TYPE.ARTICLE, 100);
-
-			if (!CollectionUtils.isEmpty(galleries)) {
-				List<ArticleGallery> postDetailGalleries = galleries.stream()
-					.map(gallery -> new ArticleGallery() {{
-						setId(gallery.getId());
-						setName(StringUtils.isNoneBlank(gallery.getName()) ? gallery.getName() : gallery.getFileName());
-						setImageUrl(
-							urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.LARGE, gallery.getId()));
-						setThumbnailUrl(
-							urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL, gallery.getId()));
-					}})
-					.collect(Collectors.toList());
-
-				articleDetail.setGalleries(postDetailGalleries);
-			}
-		}
-
 		// 나의 감정 상태
 		if (Objects.nonNull(commonWriter))
 			articleDetail.setMyFeeling(
 				JakdukUtils.getMyFeeling(commonWriter, article.getUsersLiking(), article.getUsersDisliking()));
 
-		// 앞, 뒤 글
-		ArticleSimple prevPost = articleRepository.findByIdAndCategoryWithOperator(new ObjectId(articleDetail.getId()),
-			Objects.nonNull(boardCategory) ? boardCategory.getCode() : null, Constants.CRITERIA_OPERATOR.GT);
-		ArticleSimple nextPost = articleRepository.findByIdAndCategoryWithOperator(new ObjectId(articleDetail.getId()),
-			Objects.nonNull(boardCategory) ? boardCategory.getCode() : null, Constants.CRITERIA_OPERATOR.LT);
-
-		// 글쓴이의 최근 글
-		List<LatestArticle> latestArticles = null;
-
-		if (Objects.isNull(articleDetail.getStatus()) || BooleanUtils.isNotTrue(
-			articleDetail.getStatus().getDelete())) {
-
-			List<ArticleOnList> latestPostsByWriter = articleRepository.findByIdAndUserId(
-				new ObjectId(articleDetail.getId()), articleDetail.getWriter().getUserId(), 3);
-
-			// 게시물 VO 변환 및 썸네일 URL 추가
-			latestArticles = latestPostsByWriter.stream()
-				.map(post -> {
-					LatestArticle latestArticle = new LatestArticle();
-					BeanUtils.copyProperties(post, latestArticle);
-
-					if (!post.getLinkedGallery()) {
-						List<Gallery> latestPostGalleries = galleryRepository.findByItemIdAndFromType(
-							new ObjectId(post.getId()),
-							Constants.GALLERY_FROM_TYPE.ARTICLE, 1);
-
-						if (!ObjectUtils.isEmpty(latestPostGalleries)) {
-							List<BoardGallerySimple> boardGalleries = latestPostGalleries.stream()
-								.map(gallery -> new BoardGallerySimple() {{
-									setId(gallery.getId());
-									setThumbnailUrl(
-										urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL,
-											gallery.getId()));
-								}})
-								.collect(Collectors.toList());
-
-							latestArticle.setGalleries(boardGalleries);
-						}
-					}
+		// 엮인 사진들
+		articleDetail.setGalleries(this.getQueryResult(galleriesFuture, deadline, null));
 
-					return latestArticle;
-				})
-				.collect(Collectors.toList());
-		}
+		ArticleSimple prevPost = this.getQueryResult(prevArticleFuture, deadline, null);
+		ArticleSimple nextPost = this.getQueryResult(nextArticleFuture, deadline, null);
+		List<LatestArticle> latestArticles = this.getQueryResult(latestArticlesFuture, deadline, null);
 
 		GetArticleDetailResponse response = new GetArticleDetailResponse();
 		response.setArticle(articleDetail);
@@ -867,12 +863,89 @@ public class ArticleService {
 	}
 
 	/**
-	 * 읽음수 1 증가
+	 * 글에 엮인 사진 목록
+	 *
+	 * @param articleId 글 ID
+	 * @param maxTimeMsec 몽고 서버가 조회를 멈추는 시간(ms)
+	 * @return 없으면 null
 	 */
-	private void increaseViews(Article article) {
-		int views = article.getViews();
-		article.setViews(++views);
-		articleRepository.save(article);
+	private List<ArticleGallery> getArticleGalleries(ObjectId articleId, Long maxTimeMsec) {
+		List<Gallery> galleries = galleryRepository.findByItemIdAndFromType(articleId,
+			Constants.GALLERY_FROM_TYPE.ARTICLE, 100, maxTimeMsec);
+
+		if (CollectionUtils.isEmpty(galleries))
+			return null;
+
+		return galleries.stream()
+			.map(gallery -> new ArticleGallery() {{
+				setId(gallery.getId());
+				setName(StringUtils.isNoneBlank(gallery.getName()) ? gallery.getName() : gallery.getFileName());
+				setImageUrl(
+					urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.LARGE, gallery.getId()));
+				setThumbnailUrl(
+					urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL, gallery.getId()));
+			}})
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * 글쓴이의 최근 글 목록
+	 *
+	 * @param articleId 제외할 글 ID
+	 * @param userId 글쓴이 ID
+	 * @param maxTimeMsec 몽고 서버가 조회를 멈추는 시간(ms)
+	 */
+	private List<LatestArticle> getLatestArticlesByWriter(ObjectId articleId, String userId, Long maxTimeMsec) {
+		List<ArticleOnList> latestPostsByWriter = articleRepository.findByIdAndUserId(articleId, userId, 3,
+			maxTimeMsec);
+
+		Map<String, List<BoardGallerySimple>> thumbnailGalleries = this.getThumbnailGalleries(latestPostsByWriter,
+			maxTimeMsec);
+
+		// 게시물 VO 변환 및 썸네일 URL 추가
+		return latestPostsByWriter.stream()
+			.map(post -> {
+				LatestArticle latestArticle = new LatestArticle();
+				BeanUtils.copyProperties(post, latestArticle);
+				latestArticle.setGalleries(thumbnailGalleries.get(post.getId()));
+
+				return latestArticle;
+			})
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * 비동기 조회 결과를 기다린다. 제한 시간을 넘기면 기본값을 쓴다.
+	 *
+	 * 조회마다의 제한 시간은 몽고 서버의 maxTimeMS 가 지킨다. 조회들은 한꺼번에 시작하므로 여기서는 같은 제한 시각까지만
+	 * 기다리고, 그 뒤에도 끝나지 않은 조회는 결과를 버릴 뿐 서버에서는 maxTimeMS 에 걸려 멈춘다.
+	 *
+	 * @param deadline System.nanoTime() 기준 제한 시각
+	 * @param defaultValue 제한 시간을 넘겼을 때 값
+	 */
+	private <T> T getQueryResult(CompletableFuture<T> future, Long deadline, T defaultValue) {
+		try {
+			return future.get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			log.warn("Article detail query timed out.");
+
+			return defaultValue;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			return defaultValue;
+		} catch (ExecutionException e) {
+			if (ExceptionUtils.indexOfType(e, MongoExecutionTimeoutException.class) >= 0) {
+				log.warn("Article detail query exceeded maxTimeMS.");
+
+				return defaultValue;
+			}
+
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException)e.getCause();
+
+			throw new ServiceException(ServiceError.INTERNAL_SERVER_ERROR, e.getCause());
+		}
 	}
 
 	/**
@@ -888,81 +961,151 @@ public class ArticleService {
 	}
 
 	/**
-	 * 감정 표현 CRUD
+	 * 감정 표현 결과 응답
 	 *
-	 * @param userId 회원 ID
-	 * @param username 회원 별명
-	 * @param feeling 입력받은 감정
-	 * @param usersFeeling 편집할 객체
+	 * @param writer 감정 표현한 회원
+	 * @param usersFeeling 갱신된 감정 표현 회원 목록
 	 */
-	private void setUsersFeeling(String userId, String username, Constants.FEELING_TYPE feeling,
-		UsersFeeling usersFeeling) {
-
+	private UserFeelingResponse toUserFeelingResponse(CommonWriter writer, UsersFeeling usersFeeling) {
 		List<CommonFeelingUser> usersLiking = usersFeeling.getUsersLiking();
 		List<CommonFeelingUser> usersDisliking = usersFeeling.getUsersDisliking();
 
-		if (CollectionUtils.isEmpty(usersLiking))
-			usersLiking = new ArrayList<>();
-		if (CollectionUtils.isEmpty(usersDisliking))
-			usersDisliking = new ArrayList<>();
+		UserFeelingResponse response = new UserFeelingResponse();
+		response.setMyFeeling(JakdukUtils.getMyFeeling(writer, usersLiking, usersDisliking));
+		response.setNumberOfLike(CollectionUtils.isEmpty(usersLiking) ? 0 : usersLiking.size());
+		response.setNumberOfDislike(CollectionUtils.isEmpty(usersDisliking) ? 0 : usersDisliking.size());
 
-		// 해당 회원이 좋아요를 이미 했는지 검사
-		Optional<CommonFeelingUser> alreadyLike = usersLiking.stream()
-			.filter(commonFeelingUser -> commonFeelingUser.getUserId().equals(userId))
-			.findFirst();
+		return response;
+	}
 
-		// 해당 회원이 싫어요를 이미 했는지 검사
-		Optional<CommonFeelingUser> alreadyDislike = usersDisliking.stream()
-			.filter(commonFeelingUser -> commonFeelingUser.getUserId().equals(userId))
-			.findFirst();
+	/**
+	 * 캐시된 공지글이면 비워서 다음 목록 요청 때 다시 읽게 한다. 댓글 수, 감정 수처럼 자주 바뀌는 값은 공지글일 때만 비운다.
+	 */
+	private void evictNotice(String articleId) {
+		List<ArticleOnList> articles = notices.get().articles;
 
-		CommonFeelingUser feelingUser = new CommonFeelingUser(new ObjectId().toString(), userId, username);
+		// 읽는 중인 목록은 바뀌기 전 값일 수 있으니 함께 버린다.
+		if (Objects.isNull(articles) || articles.stream().anyMatch(notice -> articleId.equals(notice.getId())))
+			this.evictNotices();
+	}
 
-		switch (feeling) {
-			case LIKE:
-				// 이미 좋아요를 했을 때, 좋아요를 취소
-				if (alreadyLike.isPresent()) {
-					usersLiking.remove(alreadyLike.get());
-				}
-				// 이미 싫어요를 했을 때, 싫어요를 없애고 좋아요로 바꿈
-				else if (alreadyDislike.isPresent()) {
-					usersDisliking.remove(alreadyDislike.get());
-					usersLiking.add(feelingUser);
+	/**
+	 * 공지글 캐시를 비운다. 이미 읽고 있던 요청은 결과를 캐시에 넣지 못한다.
+	 */
+	private void evictNotices() {
+		notices.set(new CachedNotices(null));
+	}
 
-					usersFeeling.setUsersDisliking(usersDisliking);
-				}
-				// 아직 감정 표현을 하지 않아 좋아요로 등록
-				else {
-					usersLiking.add(feelingUser);
-				}
+	/**
+	 * 글 목록 응답 만들기. 공지글, 썸네일, 말머리를 채운다.
+	 */
+	private GetArticlesResponse toGetArticlesResponse(Constants.BOARD_TYPE board, List<ArticleOnList> articles) {
 
-				usersFeeling.setUsersLiking(usersLiking);
+		// 자유 게시판 공지글 목록
+		CachedNotices cachedNotices = this.notices.get();
+		List<ArticleOnList> notices = cachedNotices.articles;
 
-				break;
+		if (Objects.isNull(notices)) {
+			notices = articleRepository.findNotices(Constants.SORT_BY_ID_DESC);
 
-			case DISLIKE:
-				// 이미 싫어요를 했을 때, 싫어요를 취소
-				if (alreadyDislike.isPresent()) {
-					usersDisliking.remove(alreadyDislike.get());
-				}
-				// 이미 좋아요를 했을 때, 좋아요를 없애고 싫어요로 바꿈
-				else if (alreadyLike.isPresent()) {
-					usersLiking.remove(alreadyLike.get());
-					usersDisliking.add(feelingUser);
+			// 읽는 동안 캐시가 비워졌으면 넣지 않는다.
+			this.notices.compareAndSet(cachedNotices, new CachedNotices(notices));
+		}
 
-					usersFeeling.setUsersLiking(usersLiking);
-				}
-				// 아직 감정 표현을 하지 않아 싫어요로 등록
-				else {
-					usersDisliking.add(feelingUser);
-				}
+		// 게시물 VO 변환 및 썸네일 URL 추가. 썸네일 사진 ID 는 목록을 가져올 때 함께 온다.
+		Function<ArticleOnList, GetArticle> convertToGetArticle = article -> {
+			GetArticle getArticle = new GetArticle();
+			BeanUtils.copyProperties(article, getArticle);
 
-				usersFeeling.setUsersDisliking(usersDisliking);
+			if (BooleanUtils.isTrue(article.getLinkedGallery()) && Objects.nonNull(article.getThumbnailGalleryId())) {
+				BoardGallerySimple boardGallerySimple = new BoardGallerySimple();
+				boardGallerySimple.setId(article.getThumbnailGalleryId());
+				boardGallerySimple.setThumbnailUrl(urlGenerationUtils.generateGalleryUrl(
+					Constants.IMAGE_SIZE_TYPE.SMALL, article.getThumbnailGalleryId()));
+				boardGallerySimple.setSrcset(urlGenerationUtils.generateGallerySrcset(article.getThumbnailGalleryId()));
 
-				break;
+				getArticle.setGalleries(Collections.singletonList(boardGallerySimple));
+			}
+
+			return getArticle;
+		};
+
+		List<GetArticle> getArticles = articles.stream()
+			.map(convertToGetArticle)
+			.collect(Collectors.toList());
+
+		List<GetArticle> getNotices = notices.stream()
+			.map(convertToGetArticle)
+			.collect(Collectors.toList());
+
+		// 말머리
+		List<BoardCategory> categories = BoardCategoryGenerator.getCategories(board, JakdukUtils.getLocale());
+		Map<String, String> categoriesMap = null;
+
+		if (!CollectionUtils.isEmpty(categories)) {
+			categoriesMap = categories.stream()
+				.collect(Collectors.toMap(BoardCategory::getCode,
+					boardCategory -> boardCategory.getNames().get(0).getName()));
+
+			categoriesMap.put("ALL", JakdukUtils.getMessageSource("board.category.all"));
+		}
+
+		GetArticlesResponse response = new GetArticlesResponse();
+		response.setCategories(categoriesMap);
+		response.setArticles(getArticles);
+		response.setNotices(getNotices);
+
+		return response;
+	}
+
+	/**
+	 * 글 목록 커서. 글 ID를 감춘다.
+	 */
+	private String encodeArticleCursor(String articleId) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(new ObjectId(articleId).toByteArray());
+	}
+
+	private ObjectId decodeArticleCursor(String cursor) {
+		try {
+			return new ObjectId(Base64.getUrlDecoder().decode(cursor));
+		} catch (IllegalArgumentException e) {
+			throw new ServiceException(ServiceError.INVALID_PARAMETER, e);
 		}
 	}
 
+	/**
+	 * 글 목록의 썸네일 사진을 한번의 조회로 가져온다. 글마다 가장 최근 사진 하나만 가져온다.
+	 *
+	 * @param articles 글 목록
+	 * @param maxTimeMsec 몽고 서버가 조회를 멈추는 시간(ms). null 이면 제한하지 않는다.
+	 * @return key는 글 ID, value는 썸네일 사진 목록
+	 */
+	private Map<String, List<BoardGallerySimple>> getThumbnailGalleries(List<ArticleOnList> articles,
+		Long maxTimeMsec) {
+
+		List<ObjectId> articleIds = articles.stream()
+			.filter(article -> BooleanUtils.isTrue(article.getLinkedGallery()))
+			.map(article -> new ObjectId(article.getId()))
+			.distinct()
+			.collect(Collectors.toList());
+
+		if (CollectionUtils.isEmpty(articleIds))
+			return new HashMap<>();
+
+		return galleryRepository.findFirstByItemIdsAndFromType(articleIds, Constants.GALLERY_FROM_TYPE.ARTICLE,
+				maxTimeMsec)
+			.stream()
+			.collect(Collectors.toMap(LinkedItemGallery::getId, linkedItemGallery -> {
+				BoardGallerySimple boardGallerySimple = new BoardGallerySimple();
+				boardGallerySimple.setId(linkedItemGallery.getGalleryId());
+				boardGallerySimple.setThumbnailUrl(urlGenerationUtils.generateGalleryUrl(
+					Constants.IMAGE_SIZE_TYPE.SMALL, linkedItemGallery.getGalleryId()));
+				boardGallerySimple.setSrcset(urlGenerationUtils.generateGallerySrcset(linkedItemGallery.getGalleryId()));
+
+				return Collections.singletonList(boardGallerySimple);
+			}));
+	}
+
 	/**
 	 * 게시물 댓글에서 연관된 그림 목록을 가져온다.
 	 *
@@ -979,6 +1122,7 @@ public class ArticleService {
 					setId(gallery.getId());
 					setThumbnailUrl(
 						urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL, gallery.getId()));
+					setSrcset(urlGenerationUtils.generateGallerySrcset(gallery.getId()));
 				}})
 				.collect(Collectors.toList());
 		}
@@ -1054,4 +1198,12 @@ public class ArticleService {
 			.collect(Collectors.toList());
 	}
 
+	private static class CachedNotices {
+		private final List<ArticleOnList> articles;
+
+		private CachedNotices(List<ArticleOnList> articles) {
+			this.articles = articles;
+		}
+	}
+
 }
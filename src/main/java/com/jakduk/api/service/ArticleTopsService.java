@@ -0,0 +1,270 @@
+package com.jakduk.api.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.common.util.DateUtils;
+import com.jakduk.api.model.aggregate.BoardTop;
+import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.embedded.ArticleStatus;
+import com.jakduk.api.repository.article.ArticleRepository;
+
+/**
+ * 게시판별 주간 좋아요수, 댓글수 선두 글.
+ *
+ * 최근 일주일 동안 쓴 글을 쓴 날짜별로 나눠 메모리에 두고, 글쓰기, 감정 표현, 댓글 달기 때마다 바로 고친다.
+ * 일주일이 지난 날짜는 통째로 버린다. 다른 서버에서 생긴 변경은 주기적으로 DB에서 다시 읽어 맞춘다.
+ */
+
+@Service
+public class ArticleTopsService {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	private final Map<Constants.BOARD_TYPE, Leaderboard> leaderboards = new EnumMap<>(Constants.BOARD_TYPE.class);
+
+	public ArticleTopsService() {
+		for (Constants.BOARD_TYPE board : Constants.BOARD_TYPE.values())
+			leaderboards.put(board, new Leaderboard());
+	}
+
+	/**
+	 * 주간 좋아요수 선두
+	 */
+	public List<BoardTop> getTopLikes(Constants.BOARD_TYPE board) {
+		return leaderboards.get(board).getTops(getWindowStartDate(), false);
+	}
+
+	/**
+	 * 주간 댓글수 선두. 댓글이 없는 글은 빠진다.
+	 */
+	public List<BoardTop> getTopComments(Constants.BOARD_TYPE board) {
+		return leaderboards.get(board).getTops(getWindowStartDate(), true);
+	}
+
+	/**
+	 * 글을 쓰거나 고치거나 지웠을 때. 이미 있으면 좋아요수, 댓글수는 그대로 둔다.
+	 */
+	public void putArticle(Article article) {
+		this.update(article, top -> {
+		});
+	}
+
+	/**
+	 * 댓글이 있어서 글을 몽땅 지우지 못한 경우는 putArticle 을 쓴다.
+	 */
+	public void removeArticle(Article article) {
+		leaderboards.get(Constants.BOARD_TYPE.valueOf(article.getBoard())).remove(article.getId());
+	}
+
+	public void setLikingCount(Article article, Integer likingCount) {
+		this.update(article, top -> top.likingCount = likingCount);
+	}
+
+	/**
+	 * 메모리에 있는 글만 고친다. 없으면 다음 rebuild 때 맞춰진다.
+	 */
+	public void increaseCommentCount(Constants.BOARD_TYPE board, String articleId, Integer amount) {
+		leaderboards.get(board).updateIfPresent(articleId,
+			top -> top.commentCount = Math.max(top.commentCount + amount, 0));
+	}
+
+	/**
+	 * DB 에서 최근 일주일 글의 좋아요수, 댓글수를 다시 읽는다. 글에 저장된 수를 쓴다.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${jakduk.article-tops-rebuild-delay:600000}",
+		fixedDelayString = "${jakduk.article-tops-rebuild-delay:600000}")
+	public void rebuild() {
+		LocalDate windowStartDate = getWindowStartDate();
+		ObjectId objectId = new ObjectId(DateUtils.localDateToDate(windowStartDate));
+
+		for (Constants.BOARD_TYPE board : Constants.BOARD_TYPE.values()) {
+			try {
+				List<TopArticle> articles = articleRepository.findBoardTops(board, objectId).stream()
+					.map(boardTop -> {
+						TopArticle top = new TopArticle(boardTop.getId());
+						top.seq = boardTop.getSeq();
+						top.status = boardTop.getStatus();
+						top.subject = boardTop.getSubject();
+						top.views = Objects.isNull(boardTop.getViews()) ? 0 : boardTop.getViews();
+						top.likingCount = boardTop.getLikingCount();
+						top.commentCount = boardTop.getCommentCount();
+
+						return top;
+					})
+					.collect(Collectors.toList());
+
+				leaderboards.get(board).replace(articles);
+
+				log.debug("Article tops were rebuilt. board={}, articles={}", board, articles.size());
+			} catch (Exception e) {
+				log.warn("Failed to rebuild article tops. board={}", board, e);
+			}
+		}
+	}
+
+	private void update(Article article, Consumer<TopArticle> updater) {
+		LocalDate createdDate = getCreatedDate(article.getId());
+
+		if (createdDate.isBefore(getWindowStartDate()))
+			return;
+
+		leaderboards.get(Constants.BOARD_TYPE.valueOf(article.getBoard())).update(article.getId(), createdDate, top -> {
+			top.seq = article.getSeq();
+			top.status = article.getStatus();
+			top.subject = article.getSubject();
+			top.views = Math.max(top.views, Objects.isNull(article.getViews()) ? 0 : article.getViews());
+
+			if (top.isNew) {
+				top.likingCount = CollectionUtils.isEmpty(article.getUsersLiking()) ? 0 : article.getUsersLiking().size();
+				top.commentCount = Objects.isNull(article.getCommentCount()) ? 0 : article.getCommentCount();
+				top.isNew = false;
+			}
+
+			updater.accept(top);
+		});
+	}
+
+	// 예전처럼 일주일 전 0시부터 쓴 글
+	private static LocalDate getWindowStartDate() {
+		return LocalDate.now().minusWeeks(1);
+	}
+
+	private static LocalDate getCreatedDate(String id) {
+		return new ObjectId(id).getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
+	/**
+	 * 게시판 하나의 선두 글. 글은 쓴 날짜별로 나뉘어 있고, 선두 목록은 바뀐 경우에만 다시 계산한다.
+	 */
+	private static class Leaderboard {
+
+		private TreeMap<LocalDate, Map<String, TopArticle>> buckets = new TreeMap<>();
+		private Map<String, LocalDate> createdDates = new HashMap<>();
+
+		private List<BoardTop> topLikes = Collections.emptyList();
+		private List<BoardTop> topComments = Collections.emptyList();
+		private LocalDate computedWindowStartDate;
+		private boolean dirty = true;
+
+		synchronized List<BoardTop> getTops(LocalDate windowStartDate, boolean byComments) {
+			if (dirty || !windowStartDate.equals(computedWindowStartDate)) {
+				// 일주일이 지난 날짜는 버린다.
+				Map<LocalDate, Map<String, TopArticle>> expired = buckets.headMap(windowStartDate);
+				expired.values().forEach(articles -> articles.keySet().forEach(createdDates::remove));
+				expired.clear();
+
+				topLikes = compute(top -> top.likingCount, false);
+				topComments = compute(top -> top.commentCount, true);
+				computedWindowStartDate = windowStartDate;
+				dirty = false;
+			}
+
+			return byComments ? topComments : topLikes;
+		}
+
+		synchronized void update(String id, LocalDate createdDate, Consumer<TopArticle> updater) {
+			TopArticle top = buckets.computeIfAbsent(createdDate, date -> new HashMap<>())
+				.computeIfAbsent(id, TopArticle::new);
+			createdDates.put(id, createdDate);
+
+			updater.accept(top);
+			dirty = true;
+		}
+
+		synchronized void updateIfPresent(String id, Consumer<TopArticle> updater) {
+			LocalDate createdDate = createdDates.get(id);
+
+			if (Objects.nonNull(createdDate)) {
+				updater.accept(buckets.get(createdDate).get(id));
+				dirty = true;
+			}
+		}
+
+		synchronized void remove(String id) {
+			LocalDate createdDate = createdDates.remove(id);
+
+			if (Objects.nonNull(createdDate)) {
+				buckets.get(createdDate).remove(id);
+				dirty = true;
+			}
+		}
+
+		/**
+		 * DB 에서 다시 읽은 글로 통째로 바꾼다.
+		 */
+		synchronized void replace(List<TopArticle> articles) {
+			buckets = new TreeMap<>();
+			createdDates = new HashMap<>();
+
+			for (TopArticle top : articles) {
+				LocalDate createdDate = getCreatedDate(top.id);
+				top.isNew = false;
+				buckets.computeIfAbsent(createdDate, date -> new HashMap<>()).put(top.id, top);
+				createdDates.put(top.id, createdDate);
+			}
+
+			dirty = true;
+		}
+
+		private List<BoardTop> compute(ToIntFunction<TopArticle> count, boolean excludeZero) {
+			Comparator<TopArticle> byCount = Comparator.comparingInt(count).reversed();
+			Comparator<TopArticle> byViews = Comparator.comparingInt((TopArticle top) -> top.views).reversed();
+
+			List<BoardTop> tops = new ArrayList<>();
+
+			buckets.values().stream()
+				.flatMap(articles -> articles.values().stream())
+				.filter(top -> !excludeZero || count.applyAsInt(top) > 0)
+				.sorted(byCount.thenComparing(byViews))
+				.limit(Constants.BOARD_TOP_LIMIT)
+				.forEach(top -> tops.add(
+					new BoardTop(top.id, top.seq, top.status, top.subject, count.applyAsInt(top), top.views)));
+
+			return Collections.unmodifiableList(tops);
+		}
+	}
+
+	private static class TopArticle {
+		private final String id;
+		private Integer seq;
+		private ArticleStatus status;
+		private String subject;
+		private int views;
+		private int likingCount;
+		private int commentCount;
+		private boolean isNew = true; // 아직 DB 의 수를 반영하지 않은 글
+
+		TopArticle(String id) {
+			this.id = id;
+		}
+	}
+
+}
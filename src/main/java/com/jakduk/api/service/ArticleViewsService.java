@@ -0,0 +1,91 @@
+package com.jakduk.api.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.jakduk.api.repository.article.ArticleRepository;
+
+/**
+ * 글 읽음 수를 메모리에 모았다가 주기적으로 한번에 반영한다.
+ *
+ * 글 마다 따로 쌓기 때문에 서로 다른 글의 읽음 수는 경합하지 않는다.
+ */
+
+@Service
+public class ArticleViewsService {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	// key는 글 ID, value는 아직 DB에 반영되지 않은 읽음 수
+	private final ConcurrentHashMap<String, Long> pendingViews = new ConcurrentHashMap<>();
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	/**
+	 * 글 읽음 수를 하나 올린다.
+	 *
+	 * @param articleId 글 ID
+	 */
+	public void increaseViews(String articleId) {
+		pendingViews.merge(articleId, 1L, Long::sum);
+	}
+
+	/**
+	 * 아직 DB에 반영되지 않은 읽음 수
+	 *
+	 * @param articleId 글 ID
+	 */
+	public Integer getPendingViews(String articleId) {
+		return pendingViews.getOrDefault(articleId, 0L).intValue();
+	}
+
+	/**
+	 * 모아둔 읽음 수를 DB에 반영한다. 실패하면 다음 반영 때 다시 시도한다.
+	 */
+	@Scheduled(fixedDelayString = "${jakduk.article-views-flush-delay:5000}")
+	@PreDestroy
+	public void flushViews() {
+
+		if (pendingViews.isEmpty())
+			return;
+
+		Map<String, Long> views = new HashMap<>();
+
+		// remove 는 글 단위로 원자적이라, 이후에 들어온 읽음 수는 새로 쌓인다.
+		pendingViews.keySet().forEach(articleId -> {
+			Long count = pendingViews.remove(articleId);
+
+			if (count != null)
+				views.put(articleId, count);
+		});
+
+		try {
+			List<String> failedArticleIds = articleRepository.increaseViews(views);
+
+			// 일부만 실패하면 반영된 읽음 수는 두고, 실패한 글의 읽음 수만 되돌린다.
+			failedArticleIds.forEach(articleId -> pendingViews.merge(articleId, views.get(articleId), Long::sum));
+
+			if (failedArticleIds.isEmpty())
+				log.debug("Article views were flushed. articles={}", views.size());
+			else
+				log.warn("Failed to flush some article views. articles={}, failed={}", views.size(),
+					failedArticleIds.size());
+		} catch (Exception e) {
+			views.forEach((articleId, count) -> pendingViews.merge(articleId, count, Long::sum));
+
+			log.warn("Failed to flush article views. articles={}", views.size(), e);
+		}
+	}
+
+}
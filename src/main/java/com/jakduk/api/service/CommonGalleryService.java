@@ -32,6 +32,8 @@ public class CommonGalleryService {
 	private GalleryRepository galleryRepository;
 	@Autowired
 	private RabbitMQPublisher rabbitMQPublisher;
+	@Autowired
+	private GalleryDerivedImageService galleryDerivedImageService;
 
 	/**
 	 * Gallery와 사진 파일 지움
@@ -49,6 +51,7 @@ public class CommonGalleryService {
 
 		FileUtils.removeImageFile(storageProperties.getImagePath(), localDate, fileName);
 		FileUtils.removeImageFile(storageProperties.getThumbnailPath(), localDate, fileName);
+		galleryDerivedImageService.evict(id);
 
 		galleryRepository.deleteById(id);
 	}
@@ -1,7 +1,7 @@
 package com.jakduk.api.service;
 
+import com.jakduk.api.configuration.JakdukProperties;
 import com.jakduk.api.model.db.Sequence;
-import com.jakduk.api.repository.SequenceRepository;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +13,12 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * @author <a href="mailto:phjang1983@daum.net">Jang,Pyohwan</a>
  * @company  : http://jakduk.com
@@ -27,40 +33,67 @@ public class CommonService {
 
 	@Autowired
 	private MongoTemplate mongoTemplate;
-	@Autowired
-	private SequenceRepository sequenceRepository;
+	@Resource
+	private JakdukProperties jakdukProperties;
+
+	// 이름별로 예약해 둔 SEQUENCE 구간
+	private final ConcurrentHashMap<String, AtomicReference<SequenceBlock>> sequenceBlocks = new ConcurrentHashMap<>();
 
 	/**
 	 * 차기 SEQUENCE를 가져온다.
 	 *
+	 * 이름별로 sequence-block-sizes 만큼의 구간을 한번의 $inc 로 예약해 두고, 그 안에서는 DB 없이 나눠준다.
+	 * 서버가 여러 대면 번호가 섞여서 나가고, 재시작하면 남은 구간은 버려지므로 번호가 건너뛸 수 있다.
+	 *
 	 * @param name 게시판 ID
 	 * @return 다음 글번호
 	 */
 	public Integer getNextSequence(String name) {
+		AtomicReference<SequenceBlock> current = sequenceBlocks.computeIfAbsent(name,
+			key -> new AtomicReference<>(new SequenceBlock(1, 0)));
+
+		while (true) {
+			SequenceBlock block = current.get();
+			long seq = block.next.getAndIncrement();
 
-		Integer nextSeq = 1;
+			if (seq <= block.max)
+				return (int)seq;
+
+			// 구간을 다 썼으면 한 스레드만 새 구간을 예약한다.
+			synchronized (current) {
+				if (current.get() == block)
+					current.set(this.reserveSequenceBlock(name));
+			}
+		}
+	}
+
+	private SequenceBlock reserveSequenceBlock(String name) {
+		int blockSize = Math.max(jakdukProperties.getSequenceBlockSizes().getOrDefault(name, 1), 1);
 
 		Query query = new Query();
 		query.addCriteria(Criteria.where("name").is(name));
 
 		Update update = new Update();
-		update.inc("seq", 1);
+		update.inc("seq", blockSize);
 
 		FindAndModifyOptions options = new FindAndModifyOptions();
 		options.returnNew(true);
+		options.upsert(true);
 
 		Sequence sequence = mongoTemplate.findAndModify(query, update, options, Sequence.class);
 
-		if (sequence == null) {
-			Sequence newSequence = new Sequence();
-			newSequence.setName(name);
-			sequenceRepository.save(newSequence);
-			log.debug("sequence is Null. Insert new Sequence.");
+		log.debug("Reserved sequence block. name={}, seq={}, size={}", name, sequence.getSeq(), blockSize);
+
+		return new SequenceBlock(sequence.getSeq() - blockSize + 1, sequence.getSeq());
+	}
+
+	private static class SequenceBlock {
+		private final AtomicLong next;
+		private final long max;
 
-			return nextSeq;
-		} else {
-			nextSeq = sequence.getSeq();
-			return nextSeq;
+		SequenceBlock(long first, long max) {
+			this.next = new AtomicLong(first);
+			this.max = max;
 		}
 	}
 
@@ -0,0 +1,272 @@
+package com.jakduk.api.service;
+
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.exception.ServiceError;
+import com.jakduk.api.exception.ServiceException;
+
+import net.coobird.thumbnailator.Thumbnails;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 사진의 여러 크기 파생 이미지.
+ * 처음 요청될 때 만들어서 디스크에 두고, 전체 크기가 넘치면 오래 안 쓰인 것부터 지운다.
+ * 방금 준 파일은 응답을 보내는 동안 지우지 않도록 derivedImageEvictionGrace 가 지나야 지운다.
+ * 같은 파생 이미지를 동시에 요청하면 한 번만 만든다.
+ */
+
+@Service
+public class GalleryDerivedImageService {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	@Resource
+	private JakdukProperties.Storage storageProperties;
+
+	// key는 사진ID/너비.포맷. 접근 순서로 정렬된다.
+	private final LinkedHashMap<String, CachedImage> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalSize = 0;
+
+	// 만들고 있는 파생 이미지
+	private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * 디스크에 남아있는 파생 이미지를 읽어 캐시 목록을 다시 만든다.
+	 */
+	@PostConstruct
+	public void loadEntries() {
+		if (StringUtils.isBlank(storageProperties.getDerivedImagePath()))
+			return;
+
+		Path rootPath = getRootPath();
+
+		if (Files.notExists(rootPath))
+			return;
+
+		try (Stream<Path> paths = Files.walk(rootPath, 2)) {
+			List<Path> files = paths
+				.filter(Files::isRegularFile)
+				.sorted(Comparator.comparing(path -> path.toFile().lastModified()))
+				.collect(Collectors.toList());
+
+			synchronized (this) {
+				for (Path path : files) {
+					// 만들다 만 파일
+					if (path.getFileName().toString().endsWith(".tmp")) {
+						Files.deleteIfExists(path);
+						continue;
+					}
+
+					long size = Files.size(path);
+					entries.put(rootPath.relativize(path).toString(), new CachedImage(size, false));
+					totalSize += size;
+				}
+			}
+
+			log.info("derived gallery images loaded. count={}, size={}", entries.size(), totalSize);
+		} catch (IOException e) {
+			log.warn("failed to load derived gallery images. " + e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * 원본을 요청한 너비로 줄인 파일. 원본이 더 작거나 gif 이면 원본을 준다.
+	 *
+	 * @param id 사진 ID
+	 * @param formatName 사진 포맷
+	 * @param sourcePath 원본 파일 경로
+	 * @param width 너비
+	 */
+	public Path getDerivedImage(String id, String formatName, Path sourcePath, Integer width) {
+
+		if ("gif".equals(formatName))
+			return sourcePath;
+
+		String key = id + "/" + width + "." + formatName;
+		Path derivedPath = getRootPath().resolve(key);
+
+		CachedImage cachedImage = touch(key);
+
+		if (Objects.nonNull(cachedImage)) {
+			if (cachedImage.original)
+				return sourcePath;
+
+			if (Files.isRegularFile(derivedPath))
+				return derivedPath;
+		}
+
+		CompletableFuture<Path> created = new CompletableFuture<>();
+		CompletableFuture<Path> running = inFlight.putIfAbsent(key, created);
+
+		// 다른 요청이 만들고 있으면 기다린다.
+		if (running != null) {
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				throw new ServiceException(ServiceError.GALLERY_IO_ERROR, e.getCause());
+			}
+		}
+
+		try {
+			Path path = render(key, sourcePath, derivedPath, formatName, width);
+			created.complete(path);
+
+			return path;
+		} catch (IOException | RuntimeException e) {
+			created.completeExceptionally(e);
+			throw new ServiceException(ServiceError.GALLERY_IO_ERROR, e);
+		} finally {
+			inFlight.remove(key, created);
+		}
+	}
+
+	/**
+	 * 사진의 파생 이미지를 모두 지운다.
+	 */
+	public synchronized void evict(String id) {
+		Iterator<Map.Entry<String, CachedImage>> iterator = entries.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+			Map.Entry<String, CachedImage> entry = iterator.next();
+
+			if (entry.getKey().startsWith(id + "/")) {
+				iterator.remove();
+				totalSize -= entry.getValue().size;
+				deleteFile(getRootPath().resolve(entry.getKey()));
+			}
+		}
+
+		deleteFile(getRootPath().resolve(id));
+	}
+
+	private Path render(String key, Path sourcePath, Path derivedPath, String formatName, Integer width)
+		throws IOException {
+
+		// 원본이 더 작다는 것도 기억해서 다음 요청에 원본을 다시 읽지 않는다.
+		if (readWidth(sourcePath) <= width) {
+			record(key, 0L, true);
+			return sourcePath;
+		}
+
+		Files.createDirectories(derivedPath.getParent());
+
+		// 다 만든 뒤에 옮겨서 읽는 쪽이 만들다 만 파일을 보지 않게 한다.
+		Path tempPath = derivedPath.resolveSibling(derivedPath.getFileName() + ".tmp");
+
+		try (OutputStream out = Files.newOutputStream(tempPath)) {
+			Thumbnails.of(sourcePath.toFile())
+				.width(width)
+				.outputFormat(formatName)
+				.toOutputStream(out);
+		}
+
+		Files.move(tempPath, derivedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		record(key, Files.size(derivedPath), false);
+
+		return derivedPath;
+	}
+
+	private int readWidth(Path sourcePath) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(sourcePath.toFile())) {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+
+			if (!readers.hasNext())
+				throw new IOException("unsupported image. path=" + sourcePath);
+
+			ImageReader reader = readers.next();
+
+			try {
+				reader.setInput(in);
+				return reader.getWidth(0);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	private synchronized CachedImage touch(String key) {
+		CachedImage cachedImage = entries.get(key);
+
+		if (Objects.nonNull(cachedImage))
+			cachedImage.accessedAt = System.currentTimeMillis();
+
+		return cachedImage;
+	}
+
+	private synchronized void record(String key, long size, boolean original) {
+		CachedImage previous = entries.put(key, new CachedImage(size, original));
+		totalSize += size - (previous != null ? previous.size : 0);
+
+		long accessedBefore = System.currentTimeMillis() - storageProperties.getDerivedImageEvictionGrace();
+		Iterator<Map.Entry<String, CachedImage>> iterator = entries.entrySet().iterator();
+
+		while (totalSize > storageProperties.getDerivedImageCacheSize() && iterator.hasNext()) {
+			Map.Entry<String, CachedImage> eldest = iterator.next();
+
+			if (eldest.getKey().equals(key))
+				continue;
+
+			// 뒤에 있는 것은 더 최근에 쓰였다. 잠깐 크기를 넘더라도 다음 기록 때 지운다.
+			if (eldest.getValue().accessedAt > accessedBefore)
+				break;
+
+			iterator.remove();
+			totalSize -= eldest.getValue().size;
+
+			if (!eldest.getValue().original)
+				deleteFile(getRootPath().resolve(eldest.getKey()));
+		}
+	}
+
+	private void deleteFile(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.warn("failed to delete derived gallery image. path={}", path, e);
+		}
+	}
+
+	private Path getRootPath() {
+		return Paths.get(storageProperties.getDerivedImagePath());
+	}
+
+	private static class CachedImage {
+		private final long size; // 파일 크기
+		private final boolean original; // 원본이 더 작아서 원본을 준다
+		private long accessedAt = System.currentTimeMillis(); // 마지막으로 준 시각
+
+		private CachedImage(long size, boolean original) {
+			this.size = size;
+			this.original = original;
+		}
+	}
+
+}
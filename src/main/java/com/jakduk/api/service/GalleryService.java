@@ -12,10 +12,13 @@ import com.jakduk.api.model.embedded.CommonWriter;
 import com.jakduk.api.model.embedded.GalleryStatus;
 import com.jakduk.api.model.embedded.LinkedItem;
 import com.jakduk.api.model.simple.ArticleSimple;
+import com.jakduk.api.model.simple.GalleryOnFeed;
 import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.repository.gallery.GalleryRemovalRepository;
 import com.jakduk.api.repository.gallery.GalleryRepository;
 import com.jakduk.api.restcontroller.vo.board.GalleryOnBoard;
 import com.jakduk.api.restcontroller.vo.gallery.GalleryDetail;
+import com.jakduk.api.restcontroller.vo.gallery.GalleryFeedResponse;
 import com.jakduk.api.restcontroller.vo.gallery.GalleryOnList;
 import com.jakduk.api.restcontroller.vo.gallery.GalleryResponse;
 import com.jakduk.api.restcontroller.vo.gallery.SurroundingsGallery;
@@ -30,23 +33,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.DigestUtils;
 import org.springframework.util.ObjectUtils;
 
 import javax.annotation.Resource;
 
 import java.io.*;
+import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.time.Instant;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -73,11 +82,19 @@ public class GalleryService {
 	@Autowired
 	private GalleryRepository galleryRepository;
 	@Autowired
+	private GalleryRemovalRepository galleryRemovalRepository;
+	@Autowired
 	private ArticleRepository articleRepository;
 	@Autowired
 	private CommonGalleryService commonGalleryService;
 	@Autowired
+	private GalleryDerivedImageService galleryDerivedImageService;
+	@Autowired
 	private RabbitMQPublisher rabbitMQPublisher;
+	@Autowired
+	private ApplicationEventPublisher applicationEventPublisher;
+	@Resource
+	private ThreadPoolTaskExecutor galleryImageExecutor;
 
 	public Gallery findOneById(String id) {
 		return galleryRepository.findOneById(id)
@@ -110,21 +127,35 @@ public class GalleryService {
 		if (StringUtils.isNotBlank(id))
 			objectId = new ObjectId(id);
 
-		return galleryRepository.findGalleriesById(objectId, Constants.CRITERIA_OPERATOR.LT, size).stream()
-			.map(gallery -> {
-				GalleryOnList galleryOnList = new GalleryOnList();
-				BeanUtils.copyProperties(gallery, galleryOnList);
+		return galleryRepository.findGalleryFeed(objectId, size).stream()
+			.map(this::toGalleryOnList)
+			.collect(Collectors.toList());
+	}
 
-				galleryOnList.setName(
-					StringUtils.isNotBlank(gallery.getName()) ? gallery.getName() : gallery.getFileName());
-				galleryOnList.setImageUrl(
-					urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.LARGE, gallery.getId()));
-				galleryOnList.setThumbnailUrl(
-					urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL, gallery.getId()));
+	/**
+	 * 사진 목록 무한 스크롤. 한 개를 더 읽어서 다음 페이지가 있는지 알아낸다.
+	 * 커서는 상태가 없어서 클라이언트가 다음 페이지를 미리 받아도 된다.
+	 *
+	 * @param cursor 이전 응답의 nextCursor. 없으면 처음부터
+	 * @param size 페이지 크기
+	 */
+	public GalleryFeedResponse getGalleryFeed(String cursor, Integer size) {
 
-				return galleryOnList;
-			})
-			.collect(Collectors.toList());
+		ObjectId objectId = StringUtils.isNotBlank(cursor) ? decodeGalleryCursor(cursor) : null;
+
+		List<GalleryOnFeed> galleries = galleryRepository.findGalleryFeed(objectId, size + 1);
+		boolean hasNext = galleries.size() > size;
+
+		if (hasNext)
+			galleries = galleries.subList(0, size);
+
+		String nextCursor = hasNext ? encodeGalleryCursor(galleries.get(galleries.size() - 1).getId()) : null;
+
+		return new GalleryFeedResponse(
+			galleries.stream()
+				.map(this::toGalleryOnList)
+				.collect(Collectors.toList()),
+			nextCursor);
 	}
 
 	public GalleryResponse getGalleryDetail(String id) {
@@ -238,44 +269,122 @@ public class GalleryService {
 
 	/**
 	 * 사진 올리기
+	 * 파일을 임시 경로로 내려 받으면서 md5를 구하고, TEMP 사진을 바로 응답한다.
+	 * 리사이즈와 썸네일은 galleryImageExecutor 에서 처리한다.
 	 */
-	public Gallery uploadImage(CommonWriter writer, String fileName, long size, String contentType, byte[] bytes) {
+	public Gallery uploadImage(CommonWriter writer, String fileName, long size, String contentType,
+		InputStream inputStream) {
+
+		// 사진 포맷.
+		String formatName = StringUtils.split(contentType, "/")[1];
+
+		ObjectId objId = new ObjectId();
+		Path uploadFilePath = getUploadFilePath(objId.toString(), formatName);
+		String hash;
+
+		try {
+			if (Files.notExists(uploadFilePath.getParent(), LinkOption.NOFOLLOW_LINKS))
+				Files.createDirectories(uploadFilePath.getParent());
+
+			MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+
+			try (InputStream in = new DigestInputStream(inputStream, messageDigest)) {
+				Files.copy(in, uploadFilePath, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			hash = String.format("%032x", new BigInteger(1, messageDigest.digest()));
+		} catch (IOException | NoSuchAlgorithmException e) {
+			deleteUploadFile(uploadFilePath);
+			throw new ServiceException(ServiceError.GALLERY_IO_ERROR, e);
+		}
 
-		// hash를 뽑아 DB에 같은게 있는지 찾아보고, 있으면 찾은걸 응답.
-		String hash = DigestUtils.md5DigestAsHex(bytes);
+		// DB에 같은 hash가 있으면 찾은걸 응답.
 		Optional<Gallery> oGallery = galleryRepository.findOneByHashAndStatusStatus(hash,
 			Constants.GALLERY_STATUS_TYPE.ENABLE);
 
-		if (oGallery.isPresent())
+		if (oGallery.isPresent()) {
+			deleteUploadFile(uploadFilePath);
 			return oGallery.get();
+		}
 
 		Gallery gallery = new Gallery();
+		gallery.setId(objId.toString());
 		gallery.setContentType(contentType);
 		gallery.setWriter(writer);
-		gallery.setStatus(new GalleryStatus(Constants.GALLERY_STATUS_TYPE.TEMP));
+		gallery.setStatus(new GalleryStatus(Constants.GALLERY_STATUS_TYPE.TEMP,
+			Constants.GALLERY_PROCESS_STATUS_TYPE.PROCESSING));
 		gallery.setFileName(fileName);
 		gallery.setSize(size);
 		gallery.setFileSize(size);
-		gallery.setHash(DigestUtils.md5DigestAsHex(bytes));
+		gallery.setHash(hash);
 
 		galleryRepository.save(gallery);
 
-		// 사진 포맷.
-		String splitContentType[] = StringUtils.split(contentType, "/");
-		String formatName = splitContentType[1];
+		galleryImageExecutor.execute(() -> processImage(objId, formatName, size, uploadFilePath));
 
-		try {
-			// 폴더 생성.
-			ObjectId objId = new ObjectId(gallery.getId());
-			Instant instant = Instant.ofEpochMilli(objId.getDate().getTime());
-			LocalDateTime timePoint = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+		log.debug("gallery=\n{}", gallery);
+
+		return gallery;
+	}
+
+	/**
+	 * 이미지 파일 가져오기.
+	 * 파일을 메모리에 올리지 않고 Resource 로 넘겨서 응답 시 스트리밍(Range 포함) 되도록 한다.
+	 * 아직 처리 중인 사진은 올린 원본 파일을 준다.
+	 */
+	public FileSystemResource getGalleryResource(String id, String contentType, Constants.IMAGE_TYPE imageType) {
+
+		ObjectId objId = new ObjectId(id);
+
+		String imagePath = null;
+
+		switch (imageType) {
+			case FULL:
+				imagePath = storageProperties.getImagePath();
+				break;
+			case THUMBNAIL:
+				imagePath = storageProperties.getThumbnailPath();
+				break;
+		}
+
+		String formatName = StringUtils.split(contentType, "/")[1];
+
+		Path filePath = getDatePath(imagePath, objId).resolve(id + "." + formatName);
+
+		if (!Files.isRegularFile(filePath, LinkOption.NOFOLLOW_LINKS))
+			filePath = getUploadFilePath(id, formatName);
 
-			Path imageDirPath = Paths.get(storageProperties.getImagePath(), String.valueOf(timePoint.getYear()),
-				String.valueOf(timePoint.getMonthValue()), String.valueOf(timePoint.getDayOfMonth()));
+		if (!Files.isRegularFile(filePath, LinkOption.NOFOLLOW_LINKS))
+			throw new ServiceException(ServiceError.NOT_FOUND_GALLERY);
+
+		return new FileSystemResource(filePath);
+	}
+
+	/**
+	 * 요청한 너비로 줄인 이미지 파일 가져오기. 처음 요청될 때 만들어서 캐시한다.
+	 */
+	public FileSystemResource getGalleryResource(String id, String contentType, Integer width) {
+
+		if (!Constants.GALLERY_DERIVED_IMAGE_WIDTHS.contains(width))
+			throw new ServiceException(ServiceError.INVALID_PARAMETER);
 
-			Path thumbDirPath = Paths.get(storageProperties.getThumbnailPath(), String.valueOf(timePoint.getYear()),
-				String.valueOf(timePoint.getMonthValue()), String.valueOf(timePoint.getDayOfMonth()));
+		FileSystemResource original = getGalleryResource(id, contentType, Constants.IMAGE_TYPE.FULL);
+		String formatName = StringUtils.split(contentType, "/")[1];
+
+		return new FileSystemResource(
+			galleryDerivedImageService.getDerivedImage(id, formatName, Paths.get(original.getPath()), width));
+	}
 
+	/**
+	 * 올린 사진의 리사이즈, 썸네일 만들기. 끝나면 임시 파일을 지우고 처리 상태를 바꾼다.
+	 */
+	private void processImage(ObjectId objId, String formatName, long size, Path uploadFilePath) {
+
+		Path imageDirPath = getDatePath(storageProperties.getImagePath(), objId);
+		Path thumbDirPath = getDatePath(storageProperties.getThumbnailPath(), objId);
+
+		try {
+			// 폴더 생성.
 			if (Files.notExists(imageDirPath, LinkOption.NOFOLLOW_LINKS))
 				Files.createDirectories(imageDirPath);
 
@@ -283,95 +392,74 @@ public class GalleryService {
 				Files.createDirectories(thumbDirPath);
 
 			// 사진 경로.
-			Path imageFilePath = imageDirPath.resolve(gallery.getId() + "." + formatName);
-			Path thumbFilePath = thumbDirPath.resolve(gallery.getId() + "." + formatName);
+			Path imageFilePath = imageDirPath.resolve(objId.toString() + "." + formatName);
+			Path thumbFilePath = thumbDirPath.resolve(objId.toString() + "." + formatName);
+
+			// 썸네일 만들기.
+			if (Files.notExists(thumbFilePath, LinkOption.NOFOLLOW_LINKS)) {
+				writeImage(Thumbnails.of(uploadFilePath.toFile())
+					.size(Constants.GALLERY_THUMBNAIL_SIZE_WIDTH, Constants.GALLERY_THUMBNAIL_SIZE_HEIGHT)
+					.crop(Positions.TOP_CENTER), formatName, thumbFilePath);
+			}
+
+			Long resizedSize = null;
 
 			// 사진 저장.
 			if (Files.notExists(imageFilePath, LinkOption.NOFOLLOW_LINKS)) {
 				if ("gif".equals(formatName)) {
-					Files.write(imageFilePath, bytes);
+					Files.move(uploadFilePath, imageFilePath);
 				} else {
-
 					double scale = Constants.GALLERY_MAXIMUM_CAPACITY < size ?
 						Constants.GALLERY_MAXIMUM_CAPACITY / (double)size : 1;
 
-					InputStream originalInputStream = new ByteArrayInputStream(bytes);
-
-					Thumbnails.of(originalInputStream)
-						.scale(scale)
-						.toFile(imageFilePath.toFile());
+					writeImage(Thumbnails.of(uploadFilePath.toFile()).scale(scale), formatName, imageFilePath);
 
-					BasicFileAttributes attr = Files.readAttributes(imageFilePath, BasicFileAttributes.class);
-
-					gallery.setSize(attr.size());
-
-					galleryRepository.save(gallery);
+					resizedSize = Files.size(imageFilePath);
 				}
 			}
 
-			// 썸네일 만들기.
-			if (Files.notExists(thumbFilePath, LinkOption.NOFOLLOW_LINKS)) {
-				InputStream thumbInputStream = new ByteArrayInputStream(bytes);
+			galleryRepository.updateProcessStatus(objId, Constants.GALLERY_PROCESS_STATUS_TYPE.COMPLETED, resizedSize);
 
-				Thumbnails.of(thumbInputStream)
-					.size(Constants.GALLERY_THUMBNAIL_SIZE_WIDTH, Constants.GALLERY_THUMBNAIL_SIZE_HEIGHT)
-					.crop(Positions.TOP_CENTER)
-					.toFile(thumbFilePath.toFile());
-			}
-
-		} catch (IOException e) {
-			throw new ServiceException(ServiceError.GALLERY_IO_ERROR, e);
+		} catch (IOException | RuntimeException e) {
+			log.error("failed to process gallery image. id={}", objId, e);
+			galleryRepository.updateProcessStatus(objId, Constants.GALLERY_PROCESS_STATUS_TYPE.FAILED, null);
+		} finally {
+			deleteUploadFile(uploadFilePath);
 		}
-
-		log.debug("gallery=\n{}", gallery);
-
-		return gallery;
-
 	}
 
-	// 이미지 가져오기.
-	public ByteArrayOutputStream getGalleryOutStream(String id, String contentType, Constants.IMAGE_TYPE imageType) {
+	// 같은 폴더의 임시 파일에 다 쓴 뒤 옮겨서, 읽는 쪽이 만들다 만 파일을 보지 않게 한다.
+	private void writeImage(Thumbnails.Builder<File> builder, String formatName, Path filePath) throws IOException {
+		Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
 
-		ObjectId objId = new ObjectId(id);
-		Instant instant = Instant.ofEpochMilli(objId.getDate().getTime());
-		LocalDateTime timePoint = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
-
-		String imagePath = null;
-
-		switch (imageType) {
-			case FULL:
-				imagePath = storageProperties.getImagePath();
-				break;
-			case THUMBNAIL:
-				imagePath = storageProperties.getThumbnailPath();
-				break;
+		try (OutputStream out = Files.newOutputStream(tempPath)) {
+			builder.outputFormat(formatName).toOutputStream(out);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tempPath);
+			throw e;
 		}
 
-		String formatName = StringUtils.split(contentType, "/")[1];
-
-		Path filePath = Paths.get(imagePath, String.valueOf(timePoint.getYear()),
-			String.valueOf(timePoint.getMonthValue()),
-			String.valueOf(timePoint.getDayOfMonth()), id + "." + formatName);
-
-		if (Files.exists(filePath, LinkOption.NOFOLLOW_LINKS)) {
-			try {
-				BufferedInputStream in = new BufferedInputStream(new FileInputStream(filePath.toString()));
-				ByteArrayOutputStream byteStream = new ByteArrayOutputStream(512);
+		Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
 
-				int imageByte;
+	// 사진이 올라간 날짜별 폴더.
+	private Path getDatePath(String rootPath, ObjectId objId) {
+		LocalDateTime timePoint = LocalDateTime.ofInstant(objId.getDate().toInstant(), ZoneId.systemDefault());
 
-				while ((imageByte = in.read()) != -1) {
-					byteStream.write(imageByte);
-				}
+		return Paths.get(rootPath, String.valueOf(timePoint.getYear()), String.valueOf(timePoint.getMonthValue()),
+			String.valueOf(timePoint.getDayOfMonth()));
+	}
 
-				in.close();
-				return byteStream;
+	// 처리 전에 올린 파일을 잠시 두는 경로.
+	private Path getUploadFilePath(String id, String formatName) {
+		return Paths.get(storageProperties.getImagePath(), "upload", id + "." + formatName);
+	}
 
-			} catch (IOException e) {
-				throw new ServiceException(ServiceError.GALLERY_IO_ERROR, e);
-			}
-		} else {
-			throw new ServiceException(ServiceError.NOT_FOUND_GALLERY);
+	private void deleteUploadFile(Path uploadFilePath) {
+		try {
+			Files.deleteIfExists(uploadFilePath);
+		} catch (IOException e) {
+			log.warn("failed to delete upload file. path={}", uploadFilePath, e);
 		}
 	}
 
@@ -395,6 +483,44 @@ public class GalleryService {
 		}
 	}
 
+	/**
+	 * 글, 댓글 편집 중에 지운 사진을 저장해 둔다. 편집 완료 시 실제로 연결을 끊는다.
+	 * 서버 어디서 편집을 마쳐도 되도록 DB 에 두고, 한시간이 지나면 지워진다.
+	 *
+	 * @param userId 편집하는 회원 ID
+	 * @param fromType 아이템 타입
+	 * @param itemId 아이템 ID
+	 * @param galleryId 지운 사진 ID
+	 */
+	public void addGalleryIdForRemoval(String userId, Constants.GALLERY_FROM_TYPE fromType, String itemId,
+		String galleryId) {
+
+		galleryRemovalRepository.addGalleryId(userId, fromType, itemId, galleryId);
+	}
+
+	/**
+	 * 해당 아이템의 지워질 사진 ID 목록. 없으면 null
+	 */
+	public List<String> getGalleryIdsForRemoval(String userId, Constants.GALLERY_FROM_TYPE fromType, String itemId) {
+		return galleryRemovalRepository.findOneByUserIdAndFromAndItemId(userId, fromType, itemId)
+			.map(galleryRemoval -> (List<String>)new ArrayList<>(galleryRemoval.getGalleryIds()))
+			.orElse(null);
+	}
+
+	/**
+	 * 처리한 사진 ID 만 목록에서 뺀다. 그 사이 다른 요청이 더한 ID 는 남기고, 목록이 비면 지운다.
+	 *
+	 * @param galleryIds getGalleryIdsForRemoval 로 읽은 사진 ID 목록
+	 */
+	public void removeGalleryIdsForRemoval(String userId, Constants.GALLERY_FROM_TYPE fromType, String itemId,
+		List<String> galleryIds) {
+
+		if (CollectionUtils.isEmpty(galleryIds))
+			return;
+
+		galleryRemovalRepository.pullGalleryIds(userId, fromType, itemId, galleryIds);
+	}
+
 	/**
 	 * 글/댓글과 엮인 사진들을 업데이트/삭제 한다.
 	 * 색인도 포함
@@ -425,13 +551,17 @@ public class GalleryService {
 			}
 
 			// 사용자가 입력한 이름이 있다면 그걸 입력. 그림 글쓴이만 이름을 고칠 수 있다.
+			String name = null;
+
 			if (userId.equals(gallery.getWriter().getUserId())) {
-				galleriesForInsertion.stream()
+				name = galleriesForInsertion.stream()
 					.filter(galleryOnBoard -> galleryOnBoard.getId().equals(gallery.getId()))
 					.findFirst()
-					.ifPresent(galleryOnBoard -> {
-						gallery.setName(galleryOnBoard.getName());
-					});
+					.map(GalleryOnBoard::getName)
+					.orElse(null);
+
+				if (Objects.nonNull(name))
+					gallery.setName(name);
 			}
 
 			GalleryStatus status = gallery.getStatus();
@@ -441,18 +571,21 @@ public class GalleryService {
 				gallery.setStatus(status);
 			}
 
-			galleryRepository.save(gallery);
+			// status.process 는 processImage 가 따로 바꾸므로 통째로 저장하지 않는다.
+			galleryRepository.linkItem(new ObjectId(gallery.getId()), linkedItem, name, status.getStatus());
 
 			// 엘라스틱서치 색인 요청
 			rabbitMQPublisher.indexDocumentGallery(gallery.getId(), gallery.getWriter(), gallery.getName());
-
-			if (!CollectionUtils.isEmpty(galleryIdsForRemoval) && galleryIdsForRemoval.contains(gallery.getId()))
-				galleryIdsForRemoval.remove(gallery.getId());
 		});
 
+		// 다시 엮은 사진은 빼고 연결을 끊는다. 받은 목록은 galleryRemoval 에서 뺄 때 그대로 써야 하므로 고치지 않는다.
+		List<String> galleryIdsForUnlink = Optional.ofNullable(galleryIdsForRemoval).orElseGet(ArrayList::new).stream()
+			.filter(galleryId -> galleries.stream().noneMatch(gallery -> gallery.getId().equals(galleryId)))
+			.collect(Collectors.toList());
+
 		// Galleries 와 해당 Item을 연결 해제한다. Gallery 가 지워질 수도 있음.
-		if (!CollectionUtils.isEmpty(galleryIdsForRemoval)) {
-			List<Gallery> galleriesForRemoval = galleryRepository.findByIdIn(galleryIdsForRemoval);
+		if (!CollectionUtils.isEmpty(galleryIdsForUnlink)) {
+			List<Gallery> galleriesForRemoval = galleryRepository.findByIdIn(galleryIdsForUnlink);
 
 			galleriesForRemoval.forEach(gallery -> {
 				List<LinkedItem> linkedItems = gallery.getLinkedItems();
@@ -474,12 +607,39 @@ public class GalleryService {
 					}
 					// 업데이트 처리
 					else {
-						gallery.setLinkedItems(linkedItems);
-						galleryRepository.save(gallery);
+						galleryRepository.unlinkItem(new ObjectId(gallery.getId()), linkedItem);
 					}
 				}
 			});
 		}
+
+		applicationEventPublisher.publishEvent(new HomeItemsChangedEvent("gallery"));
+	}
+
+	private GalleryOnList toGalleryOnList(GalleryOnFeed gallery) {
+		GalleryOnList galleryOnList = new GalleryOnList();
+		galleryOnList.setId(gallery.getId());
+		galleryOnList.setName(StringUtils.isNotBlank(gallery.getName()) ? gallery.getName() : gallery.getFileName());
+		galleryOnList.setWriter(gallery.getWriter());
+		galleryOnList.setImageUrl(urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.LARGE, gallery.getId()));
+		galleryOnList.setThumbnailUrl(
+			urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL, gallery.getId()));
+		galleryOnList.setSrcset(urlGenerationUtils.generateGallerySrcset(gallery.getId()));
+
+		return galleryOnList;
+	}
+
+	// 커서는 마지막 사진 ID 12바이트를 URL-safe Base64 로 감싼 것이다.
+	private String encodeGalleryCursor(String id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(new ObjectId(id).toByteArray());
+	}
+
+	private ObjectId decodeGalleryCursor(String cursor) {
+		try {
+			return new ObjectId(Base64.getUrlDecoder().decode(cursor));
+		} catch (IllegalArgumentException e) {
+			throw new ServiceException(ServiceError.INVALID_PARAMETER, e);
+		}
 	}
 
 }
@@ -0,0 +1,19 @@
+package com.jakduk.api.service;
+
+/**
+ * 홈 화면에 보여질 데이터(글, 댓글, 사진, 알림판, 백과사전)가 바뀌었음을 알리는 이벤트
+ */
+
+public class HomeItemsChangedEvent {
+
+	private final String source; // 이벤트를 발생시킨 곳
+
+	public HomeItemsChangedEvent(String source) {
+		this.source = source;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+}
@@ -1,17 +1,28 @@
 package com.jakduk.api.service;
 
+import com.jakduk.api.common.Constants;
 import com.jakduk.api.exception.ServiceError;
 import com.jakduk.api.exception.ServiceException;
 import com.jakduk.api.model.db.Encyclopedia;
 import com.jakduk.api.model.db.HomeDescription;
 import com.jakduk.api.repository.EncyclopediaRepository;
 import com.jakduk.api.repository.HomeDescriptionRepository;
+import com.jakduk.api.restcontroller.vo.home.HomeLatestItemsResponse;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * @author <a href="mailto:phjang1983@daum.net">Jang,Pyohwan</a>
@@ -23,24 +34,34 @@ import java.util.List;
 @Service
 public class HomeService {
 
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
 	@Autowired
 	private EncyclopediaRepository encyclopediaRepository;
 	@Autowired
 	private HomeDescriptionRepository homeDescriptionRepository;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ArticleService articleService;
+	@Autowired
+	private GalleryService galleryService;
+
+	// 요청은 이 스냅샷만 읽는다. 갱신은 통째로 교체한다.
+	private volatile HomeSnapshot snapshot;
+	private final AtomicBoolean stale = new AtomicBoolean(true);
 
 	/**
 	 * 랜덤하게 백과 사전 하나를 가져온다.
 	 */
 	public Encyclopedia getEncyclopediaWithRandom(String language) {
 
-		List<Encyclopedia> encyclopedias = encyclopediaRepository.findListByLanguage(language);
+		List<Encyclopedia> encyclopedias = getSnapshot().encyclopedias.get(language);
 
 		if (CollectionUtils.isEmpty(encyclopedias))
 			throw new ServiceException(ServiceError.NOT_FOUND_ENCYCLOPEDIA);
 
-		Integer random = (int)(Math.random() * encyclopedias.size());
-
-		return encyclopedias.get(random);
+		return encyclopedias.get(ThreadLocalRandom.current().nextInt(encyclopedias.size()));
 	}
 
 	// 알림판 가져오기.
@@ -49,4 +70,80 @@ public class HomeService {
 			.orElseGet(HomeDescription::new);
 	}
 
+	/**
+	 * 홈에서 보여줄 각종 최근 데이터. 미리 만들어 둔 스냅샷을 그대로 응답한다.
+	 */
+	public HomeLatestItemsResponse getLatestItems() {
+		return getSnapshot().latestItems;
+	}
+
+	// 글, 댓글, 사진 등이 바뀌면 다음 점검 때 스냅샷을 다시 만든다. 연속된 쓰기는 한 번의 갱신으로 합쳐진다.
+	@EventListener
+	public void onHomeItemsChanged(HomeItemsChangedEvent event) {
+		stale.set(true);
+	}
+
+	@Scheduled(fixedDelayString = "${jakduk.home-snapshot-check-delay:1000}")
+	public void refreshSnapshotIfStale() {
+		if (stale.getAndSet(false))
+			refreshSnapshot();
+	}
+
+	// 쓰기 이벤트가 없더라도 신규 회원, 읽음 수 등을 반영하기 위해 주기적으로 다시 만든다.
+	@Scheduled(fixedDelayString = "${jakduk.home-snapshot-refresh-delay:30000}")
+	public synchronized void refreshSnapshot() {
+		try {
+			snapshot = buildSnapshot();
+		} catch (RuntimeException e) {
+			// 이전 스냅샷을 계속 응답하고 다음 점검 때 다시 시도한다.
+			stale.set(true);
+			log.warn("failed to refresh home snapshot. " + e.getLocalizedMessage());
+		}
+	}
+
+	private HomeSnapshot getSnapshot() {
+		HomeSnapshot current = snapshot;
+
+		// 첫 스냅샷이 만들어지기 전에 들어온 요청
+		if (current == null) {
+			synchronized (this) {
+				if (snapshot == null)
+					snapshot = buildSnapshot();
+
+				current = snapshot;
+			}
+		}
+
+		return current;
+	}
+
+	private HomeSnapshot buildSnapshot() {
+		HomeLatestItemsResponse latestItems = new HomeLatestItemsResponse();
+		latestItems.setHomeDescription(getHomeDescription());
+		latestItems.setUsers(Collections.unmodifiableList(userService.findSimpleUsers()));
+		latestItems.setComments(Collections.unmodifiableList(articleService.getLatestComments()));
+		latestItems.setArticles(Collections.unmodifiableList(articleService.getLatestArticles()));
+		latestItems.setGalleries(
+			Collections.unmodifiableList(galleryService.findSimpleById(null, Constants.HOME_SIZE_GALLERY)));
+
+		Map<String, List<Encyclopedia>> encyclopedias = encyclopediaRepository.findAll().stream()
+			.filter(encyclopedia -> encyclopedia.getLanguage() != null)
+			.collect(Collectors.collectingAndThen(
+				Collectors.groupingBy(Encyclopedia::getLanguage,
+					Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList)),
+				Collections::unmodifiableMap));
+
+		return new HomeSnapshot(latestItems, encyclopedias);
+	}
+
+	private static final class HomeSnapshot {
+		private final HomeLatestItemsResponse latestItems;
+		private final Map<String, List<Encyclopedia>> encyclopedias; // 언어별 백과사전
+
+		private HomeSnapshot(HomeLatestItemsResponse latestItems, Map<String, List<Encyclopedia>> encyclopedias) {
+			this.latestItems = latestItems;
+			this.encyclopedias = encyclopedias;
+		}
+	}
+
 }
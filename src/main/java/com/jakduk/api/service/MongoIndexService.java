@@ -0,0 +1,215 @@
+package com.jakduk.api.service;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.db.ArticleComment;
+import com.jakduk.api.model.db.Gallery;
+import com.jakduk.api.model.db.GalleryRemoval;
+import com.jakduk.api.model.db.SearchWordCount;
+import com.jakduk.api.restcontroller.vo.admin.MongoIndexHealthResponse;
+import com.jakduk.api.restcontroller.vo.admin.MongoQueryPlan;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 몽고 인덱스 관리.
+ * 엔티티에 선언한 인덱스를 기동 시 생성하고, 자주 쓰는 쿼리 모양의 실행 계획을 explain 하여 COLLSCAN 여부를 알려준다.
+ */
+
+@Service
+public class MongoIndexService {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	// @CompoundIndexes 를 선언한 엔티티
+	private static final List<Class<?>> INDEXED_ENTITIES = Arrays.asList(Article.class, ArticleComment.class,
+		Gallery.class, GalleryRemoval.class, SearchWordCount.class);
+
+	private static final String STAGE_COLLSCAN = "COLLSCAN";
+
+	// explain 할 쿼리 모양. 값은 실행 계획에 영향이 없는 샘플이다.
+	private static final List<QueryShape> QUERY_SHAPES = Arrays.asList(
+		new QueryShape("article.findOneByBoardAndSeq", Article.class,
+			new Document("board", Constants.BOARD_TYPE.FREE.name()).append("seq", 1), null),
+		new QueryShape("article.findOneBySeq", Article.class,
+			new Document("seq", 1), null),
+		new QueryShape("article.findSitemapArticlesBySeq", Article.class,
+			new Document("seq", new Document("$gte", 1).append("$lt", Constants.SITEMAP_URLS_EACH_SHARD))
+				.append("status.delete", new Document("$ne", true)),
+			new Document("seq", 1)),
+		new QueryShape("article.findSeqsUpdatedAfter", Article.class,
+			new Document("lastUpdated", new Document("$gt", new Date())), null),
+		new QueryShape("article.findArticles", Article.class,
+			new Document("board", Constants.BOARD_TYPE.FREE.name()).append("_id", new Document("$lt", new ObjectId())),
+			new Document("_id", -1)),
+		new QueryShape("article.findArticlesByCategory", Article.class,
+			new Document("board", Constants.BOARD_TYPE.FREE.name()).append("category", "CLASSIC")
+				.append("_id", new Document("$lt", new ObjectId())),
+			new Document("_id", -1)),
+		new QueryShape("article.findNotices", Article.class,
+			new Document("status.notice", true), new Document("_id", -1)),
+		new QueryShape("article.findByIdAndUserId", Article.class,
+			new Document("writer.userId", new ObjectId().toHexString()).append("_id", new Document("$ne", new ObjectId())),
+			new Document("_id", -1)),
+		new QueryShape("articleComment.findCommentsCountByIds", ArticleComment.class,
+			new Document("article._id", new Document("$in", Collections.singletonList(new ObjectId()))), null),
+		new QueryShape("articleComment.findByBoardSeqAndGTId", ArticleComment.class,
+			new Document("article.seq", 1).append("article.board", Constants.BOARD_TYPE.FREE.name())
+				.append("_id", new Document("$gt", new ObjectId())),
+			new Document("_id", 1)),
+		new QueryShape("gallery.findByItemIdAndFromType", Gallery.class,
+			new Document("status.status", Constants.GALLERY_STATUS_TYPE.ENABLE.name())
+				.append("linkedItems._id", new ObjectId())
+				.append("linkedItems.from", Constants.GALLERY_FROM_TYPE.ARTICLE.name()),
+			new Document("_id", -1)),
+		new QueryShape("gallery.findOneByHashAndStatusStatus", Gallery.class,
+			new Document("hash", "d41d8cd98f00b204e9800998ecf8427e")
+				.append("status.status", Constants.GALLERY_STATUS_TYPE.ENABLE.name()), null),
+		new QueryShape("gallery.findGalleriesById", Gallery.class,
+			new Document("status.status", Constants.GALLERY_STATUS_TYPE.ENABLE.name())
+				.append("_id", new Document("$lt", new ObjectId())),
+			new Document("_id", -1))
+	);
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		this.ensureIndexes();
+
+		this.getQueryPlans().stream()
+			.filter(plan -> plan.getCollectionScan() || plan.getError() != null)
+			.forEach(plan -> log.warn("query shape {} on {} is not covered by an index. stages={}, error={}",
+				plan.getName(), plan.getCollection(), plan.getStages(), plan.getError()));
+	}
+
+	/**
+	 * 엔티티에 선언한 인덱스를 만든다. 이미 있으면 아무것도 하지 않는다.
+	 */
+	public void ensureIndexes() {
+		IndexResolver indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+
+		for (Class<?> entityClass : INDEXED_ENTITIES) {
+			IndexOperations indexOperations = mongoTemplate.indexOps(entityClass);
+
+			for (IndexDefinition indexDefinition : indexResolver.resolveIndexFor(entityClass)) {
+				try {
+					String name = indexOperations.ensureIndex(indexDefinition);
+					log.debug("ensured index {} on {}", name, mongoTemplate.getCollectionName(entityClass));
+				} catch (RuntimeException e) {
+					// 같은 키로 이름이 다른 인덱스가 이미 있는 경우 등. 기동은 계속한다.
+					log.warn("failed to ensure index {} on {}. {}", indexDefinition.getIndexKeys(),
+						mongoTemplate.getCollectionName(entityClass), e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * 등록된 쿼리 모양의 실행 계획
+	 */
+	public List<MongoQueryPlan> getQueryPlans() {
+		return QUERY_SHAPES.stream()
+			.map(this::explain)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * 인덱스 상태. COLLSCAN 이나 explain 실패가 하나라도 있으면 DEGRADED.
+	 */
+	public MongoIndexHealthResponse getIndexHealth() {
+		List<MongoQueryPlan> queryPlans = this.getQueryPlans();
+
+		boolean degraded = queryPlans.stream()
+			.anyMatch(plan -> plan.getCollectionScan() || plan.getError() != null);
+
+		return new MongoIndexHealthResponse(degraded ? "DEGRADED" : "UP", queryPlans);
+	}
+
+	private MongoQueryPlan explain(QueryShape shape) {
+		String collection = mongoTemplate.getCollectionName(shape.getEntityClass());
+
+		Document find = new Document("find", collection).append("filter", shape.getFilter());
+
+		if (shape.getSort() != null)
+			find.append("sort", shape.getSort());
+
+		try {
+			Document result = mongoTemplate.getDb().runCommand(
+				new Document("explain", find).append("verbosity", "queryPlanner"));
+
+			Document queryPlanner = result.get("queryPlanner", Document.class);
+			Set<String> stages = new LinkedHashSet<>();
+
+			if (queryPlanner != null)
+				collectStages(queryPlanner.get("winningPlan"), stages);
+
+			return MongoQueryPlan.builder()
+				.name(shape.getName())
+				.collection(collection)
+				.stages(new ArrayList<>(stages))
+				.collectionScan(stages.contains(STAGE_COLLSCAN))
+				.build();
+
+		} catch (RuntimeException e) {
+			return MongoQueryPlan.builder()
+				.name(shape.getName())
+				.collection(collection)
+				.stages(Collections.emptyList())
+				.collectionScan(false)
+				.error(e.getMessage())
+				.build();
+		}
+	}
+
+	/**
+	 * 실행 계획 트리(inputStage, inputStages, queryPlan 등)를 따라가며 stage 를 모은다.
+	 */
+	private void collectStages(Object node, Set<String> stages) {
+		if (node instanceof Document) {
+			Document document = (Document) node;
+
+			if (document.get("stage") instanceof String)
+				stages.add(document.getString("stage"));
+
+			document.values().forEach(value -> collectStages(value, stages));
+
+		} else if (node instanceof List) {
+			((List<?>) node).forEach(value -> collectStages(value, stages));
+		}
+	}
+
+	@AllArgsConstructor
+	@Getter
+	private static class QueryShape {
+		private String name;
+		private Class<?> entityClass;
+		private Document filter;
+		private Document sort;
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.jakduk.api.service;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.common.util.JakdukUtils;
+import com.jakduk.api.common.util.UrlGenerationUtils;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.exception.ServiceError;
+import com.jakduk.api.exception.ServiceException;
+import com.jakduk.api.model.simple.ArticleOnRSS;
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.feed.rss.Content;
+import com.rometools.rome.feed.rss.Description;
+import com.rometools.rome.feed.rss.Item;
+import com.rometools.rome.io.FeedException;
+import com.rometools.rome.io.WireFeedOutput;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.Resource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * RSS 피드.
+ * 최근 글 Constants.RSS_FEED_SIZE 개만 담고, 만든 XML 을 게시판, 언어별로 캐시한다.
+ * 글이 써지거나 고쳐지거나 지워지면 캐시를 비운다.
+ */
+
+@Service
+public class RssFeedService {
+
+	@Resource
+	private JakdukProperties jakdukProperties;
+
+	@Autowired
+	private UrlGenerationUtils urlGenerationUtils;
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	// key는 게시판:언어. 게시판이 null 이면 전체
+	private final ConcurrentHashMap<String, RssFeed> feeds = new ConcurrentHashMap<>();
+
+	/**
+	 * RSS 피드
+	 *
+	 * @param board 게시판. null 이면 모든 게시판
+	 */
+	public RssFeed getFeed(Constants.BOARD_TYPE board) {
+		String language = JakdukUtils.getLanguageCode();
+
+		return feeds.computeIfAbsent(board + ":" + language, key -> buildFeed(board));
+	}
+
+	// 다른 서버에서 써진 글도 반영하기 위해 주기적으로도 비운다.
+	@Scheduled(fixedDelayString = "${jakduk.rss-cache-ttl:600000}")
+	public void evictFeeds() {
+		feeds.clear();
+	}
+
+	private RssFeed buildFeed(Constants.BOARD_TYPE board) {
+		Channel channel = new Channel("rss_2.0");
+		channel.setLink(String.format("%s/%s", jakdukProperties.getWebServerUrl(), "/rss"));
+		channel.setTitle(JakdukUtils.getMessageSource("common.jakduk"));
+		channel.setDescription(JakdukUtils.getMessageSource("common.jakduk.rss.description"));
+		channel.setEncoding(StandardCharsets.UTF_8.name());
+
+		List<ArticleOnRSS> posts = articleRepository.findRssArticles(board, Constants.RSS_FEED_SIZE);
+
+		channel.setItems(posts.stream()
+			.map(post -> {
+				String url = urlGenerationUtils.generateArticleDetailUrl(post.getBoard(), post.getSeq());
+
+				Item item = new Item();
+				item.setAuthor(post.getWriter().getUsername());
+				item.setTitle(post.getSubject());
+				item.setUri(url);
+				item.setLink(url);
+				item.setDescription(createDescription(JakdukUtils.stripHtmlTag(post.getContent())));
+				item.setPubDate(new ObjectId(post.getId()).getDate());
+
+				return item;
+			})
+			.collect(Collectors.toList()));
+
+		try {
+			byte[] body = new WireFeedOutput().outputString(channel).getBytes(StandardCharsets.UTF_8);
+
+			return new RssFeed(body, DigestUtils.md5DigestAsHex(body), System.currentTimeMillis());
+		} catch (FeedException e) {
+			throw new ServiceException(ServiceError.INTERNAL_SERVER_ERROR, e);
+		}
+	}
+
+	private Description createDescription(String content) {
+		Description description = new Description();
+		description.setType(Content.HTML);
+		description.setValue(content);
+
+		return description;
+	}
+
+	@AllArgsConstructor
+	@Getter
+	public static class RssFeed {
+		private final byte[] body; // 만들어진 XML
+		private final String eTag; // body 의 md5
+		private final long lastModified; // 만든 시각
+	}
+
+}
@@ -0,0 +1,486 @@
+package com.jakduk.api.service;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.common.util.JakdukUtils;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.exception.ServiceError;
+import com.jakduk.api.exception.ServiceException;
+import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.db.ArticleComment;
+import com.jakduk.api.model.db.Gallery;
+import com.jakduk.api.model.db.SearchReindexDeletion;
+import com.jakduk.api.model.db.SearchReindexJob;
+import com.jakduk.api.model.elasticsearch.EsArticle;
+import com.jakduk.api.model.elasticsearch.EsComment;
+import com.jakduk.api.model.elasticsearch.EsGallery;
+import com.jakduk.api.repository.SearchReindexDeletionRepository;
+import com.jakduk.api.repository.SearchReindexJobRepository;
+import com.jakduk.api.repository.article.ArticleCommentRepository;
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.repository.gallery.GalleryRepository;
+
+import org.bson.types.ObjectId;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * 엘라스틱서치 재색인.
+ * 몽고의 글, 댓글, 사진을 _id 순으로 읽어 버전을 붙인 새 인덱스에 bulk 로 넣고, 마지막에 별칭을 한번에 옮긴다.
+ * bulk 가 끝날 때마다 마지막 _id 를 체크포인트로 남겨서, 중간에 죽어도 다시 요청하면 이어서 한다.
+ * 재색인 중에 들어온 실시간 색인 메시지는 새 인덱스에도 함께 쓴다. 몽고에서 읽어 쓰는 문서는 CREATE 로만 넣어서
+ * 그 사이 실시간 변경이 먼저 쓴 문서를 예전 내용으로 덮지 않는다.
+ * 지운 문서는 CREATE 가 다시 만들 수 있으므로 기록해 두었다가 별칭을 옮기기 전에 새 인덱스에서 다시 지운다.
+ */
+
+@Service
+public class SearchReindexService {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	// RUNNING 인데 이 시간 동안 체크포인트가 없으면 죽은 작업으로 보고 이어서 할 수 있다.
+	private static final long STALE_JOB_MINUTES = 5;
+
+	private static final DateTimeFormatter INDEX_VERSION_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+	@Resource
+	private JakdukProperties.Elasticsearch elasticsearchProperties;
+
+	@Resource
+	private ThreadPoolTaskExecutor searchReindexExecutor;
+
+	@Autowired
+	private SearchService searchService;
+
+	@Autowired
+	private SearchReindexJobRepository searchReindexJobRepository;
+
+	@Autowired
+	private SearchReindexDeletionRepository searchReindexDeletionRepository;
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	@Autowired
+	private ArticleCommentRepository articleCommentRepository;
+
+	@Autowired
+	private GalleryRepository galleryRepository;
+
+	// 이 인스턴스에서 돌고 있는 대상
+	private final Set<Constants.SEARCH_REINDEX_TARGET_TYPE> runningTargets = ConcurrentHashMap.newKeySet();
+
+	// 별칭 -> 재색인 중인 새 인덱스
+	private volatile Map<String, String> reindexingIndices = Collections.emptyMap();
+
+	/**
+	 * 재색인을 시작한다. 끝나지 않은 작업이 있으면 체크포인트부터 이어서 한다.
+	 *
+	 * @param target 대상
+	 * @param indexSource 새 인덱스의 settings, mappings. 없으면 지금 인덱스의 것을 복사한다.
+	 */
+	public SearchReindexJob startReindex(Constants.SEARCH_REINDEX_TARGET_TYPE target, Map<String, Object> indexSource) {
+
+		if (!runningTargets.add(target))
+			throw new ServiceException(ServiceError.ELASTICSEARCH_REINDEX_ALREADY_RUNNING);
+
+		try {
+			Optional<SearchReindexJob> unfinishedJob = searchReindexJobRepository.findById(target.name())
+				.filter(job -> job.getStatus() != Constants.SEARCH_REINDEX_STATUS_TYPE.COMPLETED);
+
+			unfinishedJob
+				.filter(job -> job.getStatus() == Constants.SEARCH_REINDEX_STATUS_TYPE.RUNNING)
+				.filter(job -> job.getUpdatedAt().isAfter(LocalDateTime.now().minusMinutes(STALE_JOB_MINUTES)))
+				.ifPresent(job -> {
+					throw new ServiceException(ServiceError.ELASTICSEARCH_REINDEX_ALREADY_RUNNING);
+				});
+
+			SearchReindexJob job;
+
+			if (unfinishedJob.isPresent()) {
+				job = unfinishedJob.get();
+				log.info("resume reindex {} into {} from {} {}", target, job.getIndex(), job.getPhase(),
+					job.getLastId());
+			} else {
+				String alias = this.getAlias(target);
+				String index = alias + "_" + LocalDateTime.now().format(INDEX_VERSION_FORMATTER);
+
+				searchService.createIndexLike(alias, index, indexSource);
+
+				job = SearchReindexJob.builder()
+					.id(target.name())
+					.target(target)
+					.alias(alias)
+					.index(index)
+					.phase(this.getPhases(target).get(0))
+					.indexedCount(0L)
+					.startedAt(LocalDateTime.now())
+					.build();
+
+				log.info("start reindex {} into {}", target, index);
+			}
+
+			job.setStatus(Constants.SEARCH_REINDEX_STATUS_TYPE.RUNNING);
+			job.setError(null);
+			job.setUpdatedAt(LocalDateTime.now());
+			searchReindexJobRepository.save(job);
+
+			this.refreshReindexingIndices();
+
+			SearchReindexJob runningJob = job;
+			searchReindexExecutor.execute(() -> this.runReindex(runningJob));
+
+			return job;
+
+		} catch (IOException e) {
+			runningTargets.remove(target);
+			throw new ServiceException(ServiceError.ELASTICSEARCH_INDEX_FAILED, e);
+		} catch (RuntimeException e) {
+			runningTargets.remove(target);
+			throw e;
+		}
+	}
+
+	public SearchReindexJob getReindexJob(Constants.SEARCH_REINDEX_TARGET_TYPE target) {
+		return searchReindexJobRepository.findById(target.name())
+			.orElseThrow(() -> new ServiceException(ServiceError.NOT_FOUND));
+	}
+
+	/**
+	 * 별칭으로 재색인 중인 새 인덱스. 없으면 null.
+	 */
+	public String getReindexingIndex(String alias) {
+		return reindexingIndices.get(alias);
+	}
+
+	/**
+	 * 다른 인스턴스에서 시작한 재색인도 실시간 색인에 반영되도록 주기적으로 다시 읽는다.
+	 * 실패한 작업도 이어서 할 수 있도록 새 인덱스에 계속 쓴다.
+	 */
+	@PostConstruct
+	@Scheduled(fixedDelayString = "${jakduk.search-reindex-check-delay:5000}")
+	public void refreshReindexingIndices() {
+		try {
+			reindexingIndices = searchReindexJobRepository.findByStatusIn(Arrays.asList(
+				Constants.SEARCH_REINDEX_STATUS_TYPE.RUNNING, Constants.SEARCH_REINDEX_STATUS_TYPE.FAILED))
+				.stream()
+				.collect(Collectors.toMap(SearchReindexJob::getAlias, SearchReindexJob::getIndex));
+		} catch (RuntimeException e) {
+			log.warn("failed to refresh reindexing indices. {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * 재색인 중인 인덱스에서 실시간으로 지운 문서를 기록한다. 삭제 요청을 보내기 전에 부른다.
+	 *
+	 * @param deleteRequests 재색인 중인 인덱스에 보낼 삭제 요청
+	 */
+	public void recordDeletions(List<DeleteRequest> deleteRequests) {
+		if (deleteRequests.isEmpty())
+			return;
+
+		LocalDateTime now = LocalDateTime.now();
+
+		searchReindexDeletionRepository.saveAll(deleteRequests.stream()
+			.map(request -> SearchReindexDeletion.builder()
+				.id(request.index() + ":" + request.id())
+				.index(request.index())
+				.documentId(request.id())
+				.deletedAt(now)
+				.build())
+			.collect(Collectors.toList()));
+	}
+
+	private void runReindex(SearchReindexJob job) {
+		try {
+			for (Constants.SEARCH_REINDEX_PHASE_TYPE phase : this.getPhases(job.getTarget())) {
+				if (phase.ordinal() < job.getPhase().ordinal())
+					continue;
+
+				if (phase != job.getPhase()) {
+					job.setPhase(phase);
+					job.setLastId(null);
+				}
+
+				this.reindexPhase(job);
+			}
+
+			job.setPhase(Constants.SEARCH_REINDEX_PHASE_TYPE.SWAP_ALIAS);
+			job.setLastId(null);
+			job.setUpdatedAt(LocalDateTime.now());
+			searchReindexJobRepository.save(job);
+
+			this.replayDeletions(job);
+
+			searchService.swapAlias(job.getAlias(), job.getIndex());
+
+			job.setStatus(Constants.SEARCH_REINDEX_STATUS_TYPE.COMPLETED);
+			job.setUpdatedAt(LocalDateTime.now());
+			searchReindexJobRepository.save(job);
+
+			searchReindexDeletionRepository.deleteByIndex(job.getIndex());
+
+			log.info("reindex {} completed. alias {} -> {}, {} documents", job.getTarget(), job.getAlias(),
+				job.getIndex(), job.getIndexedCount());
+
+		} catch (Exception e) {
+			log.error("reindex {} failed at {} {}", job.getTarget(), job.getPhase(), job.getLastId(), e);
+
+			job.setStatus(Constants.SEARCH_REINDEX_STATUS_TYPE.FAILED);
+			job.setError(e.getMessage());
+			job.setUpdatedAt(LocalDateTime.now());
+			searchReindexJobRepository.save(job);
+
+		} finally {
+			runningTargets.remove(job.getTarget());
+			this.refreshReindexingIndices();
+		}
+	}
+
+	/**
+	 * 한 단계를 _id 순으로 색인한다. bulk 요청은 bulkConcurrentRequests 개까지 동시에 보내고,
+	 * 앞선 요청부터 차례로 끝난 것만 체크포인트로 남긴다.
+	 */
+	private void reindexPhase(SearchReindexJob job) throws IOException, InterruptedException, ExecutionException {
+		int parallelism = Optional.ofNullable(elasticsearchProperties.getBulkConcurrentRequests()).orElse(1);
+		Deque<PendingBulk> pendingBulks = new ArrayDeque<>();
+		String lastId = job.getLastId();
+
+		while (true) {
+			ReindexPage page = this.readPage(job.getPhase(), job.getIndex(), lastId);
+
+			if (page.requests.isEmpty())
+				break;
+
+			BulkRequest bulkRequest = new BulkRequest();
+			page.requests.forEach(bulkRequest::add);
+
+			pendingBulks.add(new PendingBulk(searchService.bulkAsync(bulkRequest), page.lastId, page.requests.size()));
+			lastId = page.lastId;
+
+			while (pendingBulks.size() >= parallelism)
+				this.completeOldestBulk(job, pendingBulks);
+		}
+
+		while (!pendingBulks.isEmpty())
+			this.completeOldestBulk(job, pendingBulks);
+	}
+
+	private void completeOldestBulk(SearchReindexJob job, Deque<PendingBulk> pendingBulks)
+		throws InterruptedException, ExecutionException {
+
+		PendingBulk pendingBulk = pendingBulks.poll();
+		this.checkFailures(pendingBulk.future.get());
+
+		job.setLastId(pendingBulk.lastId);
+		job.setIndexedCount(job.getIndexedCount() + pendingBulk.size);
+		job.setUpdatedAt(LocalDateTime.now());
+		searchReindexJobRepository.save(job);
+
+		log.debug("reindex {} {} checkpoint {}", job.getTarget(), job.getPhase(), pendingBulk.lastId);
+	}
+
+	/**
+	 * 재색인 중에 지운 문서를 새 인덱스에서 다시 지운다. 모든 단계를 마친 뒤에 부르므로
+	 * 이후에 몽고에서 읽은 문서가 다시 만들어지지 않는다.
+	 */
+	private void replayDeletions(SearchReindexJob job) throws IOException {
+		List<SearchReindexDeletion> deletions = searchReindexDeletionRepository.findByIndex(job.getIndex());
+
+		for (int from = 0; from < deletions.size(); from += Constants.SEARCH_REINDEX_BULK_SIZE) {
+			BulkRequest bulkRequest = new BulkRequest();
+
+			deletions.subList(from, Math.min(from + Constants.SEARCH_REINDEX_BULK_SIZE, deletions.size()))
+				.forEach(deletion -> bulkRequest.add(new DeleteRequest(job.getIndex(), deletion.getDocumentId())));
+
+			this.checkFailures(searchService.bulk(bulkRequest));
+		}
+
+		log.info("reindex {} replayed {} deletions into {}", job.getTarget(), deletions.size(), job.getIndex());
+	}
+
+	private void checkFailures(BulkResponse bulkResponse) {
+
+		// 실시간 변경이 먼저 쓴 문서는 CREATE 가 409 로 실패한다. 그쪽이 더 새 것이므로 넘어간다.
+		List<String> failures = Arrays.stream(bulkResponse.getItems())
+			.filter(BulkItemResponse::isFailed)
+			.filter(itemResponse -> itemResponse.getFailure().getStatus() != RestStatus.CONFLICT)
+			.map(BulkItemResponse::getFailureMessage)
+			.collect(Collectors.toList());
+
+		if (!failures.isEmpty())
+			throw new IllegalStateException(failures.size() + " items failed. " + failures.get(0));
+	}
+
+	private ReindexPage readPage(Constants.SEARCH_REINDEX_PHASE_TYPE phase, String index, String lastId)
+		throws IOException {
+
+		ObjectId objectId = Objects.nonNull(lastId) ? new ObjectId(lastId) : null;
+		List<DocWriteRequest<?>> requests = new ArrayList<>();
+		String pageLastId = lastId;
+
+		switch (phase) {
+			case ARTICLE:
+				List<Article> articles = articleRepository.findPostsGreaterThanId(objectId,
+					Constants.SEARCH_REINDEX_BULK_SIZE);
+				Map<String, List<String>> articleGalleries = this.getLinkedGalleryIds(
+					articles.stream().map(Article::getId).collect(Collectors.toList()),
+					Constants.GALLERY_FROM_TYPE.ARTICLE);
+
+				for (Article article : articles) {
+					EsArticle esArticle = new EsArticle();
+					esArticle.setId(article.getId());
+					esArticle.setSeq(article.getSeq());
+					esArticle.setBoard(article.getBoard());
+					esArticle.setCategory(article.getCategory());
+					esArticle.setWriter(article.getWriter());
+					esArticle.setSubject(JakdukUtils.stripHtmlTag(article.getSubject()));
+					esArticle.setContent(JakdukUtils.stripHtmlTag(article.getContent()));
+					esArticle.setGalleries(articleGalleries.get(article.getId()));
+
+					requests.add(searchService.getIndexArticleRequest(index, esArticle).opType(DocWriteRequest.OpType.CREATE));
+					pageLastId = article.getId();
+				}
+				break;
+
+			case ARTICLE_COMMENT:
+				List<ArticleComment> comments = articleCommentRepository.findCommentsGreaterThanId(objectId,
+					Constants.SEARCH_REINDEX_BULK_SIZE);
+				Map<String, List<String>> commentGalleries = this.getLinkedGalleryIds(
+					comments.stream().map(ArticleComment::getId).collect(Collectors.toList()),
+					Constants.GALLERY_FROM_TYPE.ARTICLE_COMMENT);
+
+				for (ArticleComment comment : comments) {
+					EsComment esComment = new EsComment();
+					esComment.setId(comment.getId());
+					esComment.setArticle(comment.getArticle());
+					esComment.setWriter(comment.getWriter());
+					esComment.setContent(JakdukUtils.stripHtmlTag(comment.getContent()));
+					esComment.setGalleries(commentGalleries.get(comment.getId()));
+
+					requests.add(
+						searchService.getIndexBoardCommentRequest(index, esComment).opType(DocWriteRequest.OpType.CREATE));
+					pageLastId = comment.getId();
+				}
+				break;
+
+			case GALLERY:
+				List<Gallery> galleries = galleryRepository.findGalleriesGreaterThanId(objectId,
+					Constants.SEARCH_REINDEX_BULK_SIZE);
+
+				for (Gallery gallery : galleries) {
+					EsGallery esGallery = new EsGallery();
+					esGallery.setId(gallery.getId());
+					esGallery.setName(gallery.getName());
+					esGallery.setWriter(gallery.getWriter());
+
+					requests.add(searchService.getIndexGalleryRequest(index, esGallery).opType(DocWriteRequest.OpType.CREATE));
+					pageLastId = gallery.getId();
+				}
+				break;
+		}
+
+		return new ReindexPage(requests, pageLastId);
+	}
+
+	/**
+	 * 아이템 ID 별로 연결된 사진 ID 목록
+	 */
+	private Map<String, List<String>> getLinkedGalleryIds(List<String> itemIds,
+		Constants.GALLERY_FROM_TYPE fromType) {
+
+		Map<String, List<String>> linkedGalleryIds = new HashMap<>();
+
+		if (itemIds.isEmpty())
+			return linkedGalleryIds;
+
+		Set<String> itemIdSet = new HashSet<>(itemIds);
+		List<ObjectId> objectIds = itemIds.stream().map(ObjectId::new).collect(Collectors.toList());
+
+		galleryRepository.findByItemIdsAndFromType(objectIds, fromType)
+			.forEach(gallery -> gallery.getLinkedItems().stream()
+				.filter(linkedItem -> linkedItem.getFrom() == fromType && itemIdSet.contains(linkedItem.getId()))
+				.forEach(linkedItem -> linkedGalleryIds.computeIfAbsent(linkedItem.getId(), key -> new ArrayList<>())
+					.add(gallery.getId())));
+
+		return linkedGalleryIds;
+	}
+
+	private String getAlias(Constants.SEARCH_REINDEX_TARGET_TYPE target) {
+		switch (target) {
+			case BOARD:
+				return elasticsearchProperties.getIndexBoard();
+			case GALLERY:
+				return elasticsearchProperties.getIndexGallery();
+			default:
+				throw new ServiceException(ServiceError.ILLEGAL_ARGUMENT);
+		}
+	}
+
+	private List<Constants.SEARCH_REINDEX_PHASE_TYPE> getPhases(Constants.SEARCH_REINDEX_TARGET_TYPE target) {
+		switch (target) {
+			case BOARD:
+				return Arrays.asList(Constants.SEARCH_REINDEX_PHASE_TYPE.ARTICLE,
+					Constants.SEARCH_REINDEX_PHASE_TYPE.ARTICLE_COMMENT);
+			case GALLERY:
+				return Collections.singletonList(Constants.SEARCH_REINDEX_PHASE_TYPE.GALLERY);
+			default:
+				throw new ServiceException(ServiceError.ILLEGAL_ARGUMENT);
+		}
+	}
+
+	private static class ReindexPage {
+		private final List<DocWriteRequest<?>> requests;
+		private final String lastId;
+
+		private ReindexPage(List<DocWriteRequest<?>> requests, String lastId) {
+			this.requests = requests;
+			this.lastId = lastId;
+		}
+	}
+
+	private static class PendingBulk {
+		private final CompletableFuture<BulkResponse> future;
+		private final String lastId;
+		private final int size;
+
+		private PendingBulk(CompletableFuture<BulkResponse> future, String lastId, int size) {
+			this.future = future;
+			this.lastId = lastId;
+			this.size = size;
+		}
+	}
+
+}
@@ -1,40 +1,54 @@
 package com.jakduk.api.service;
 
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
 import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
-import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.MultiSearchRequest;
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.GetAliasesResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.GetIndexResponse;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.InnerHitBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.join.query.JoinQueryBuilders;
-import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
-import org.elasticsearch.search.aggregations.AggregationBuilders;
-import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
@@ -45,6 +59,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 
+import lombok.AllArgsConstructor;
+
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.common.util.ObjectMapperUtils;
 import com.jakduk.api.common.util.UrlGenerationUtils;
@@ -58,10 +74,9 @@ import com.jakduk.api.model.elasticsearch.EsGallerySource;
 import com.jakduk.api.model.elasticsearch.EsJakduComment;
 import com.jakduk.api.model.elasticsearch.EsParentArticle;
 import com.jakduk.api.model.elasticsearch.EsSearchWord;
-import com.jakduk.api.model.elasticsearch.EsTermsBucket;
+import com.jakduk.api.restcontroller.vo.admin.SearchCacheMetrics;
 import com.jakduk.api.restcontroller.vo.board.BoardGallerySimple;
 import com.jakduk.api.restcontroller.vo.search.ArticleSource;
-import com.jakduk.api.restcontroller.vo.search.PopularSearchWordResult;
 import com.jakduk.api.restcontroller.vo.search.SearchArticleResult;
 import com.jakduk.api.restcontroller.vo.search.SearchCommentResult;
 import com.jakduk.api.restcontroller.vo.search.SearchGalleryResult;
@@ -79,13 +94,31 @@ public class SearchService {
 	@Resource
 	private JakdukProperties.Elasticsearch elasticsearchProperties;
 
+	// 새 인덱스를 만들 때 복사하면 안 되는 설정
+	private static final List<String> INTERNAL_INDEX_SETTINGS = Arrays.asList("index.uuid", "index.creation_date",
+		"index.provided_name", "index.version.created", "index.version.upgraded",
+		"index.routing.allocation.initial_recovery._id", "index.resize.source.name", "index.resize.source.uuid");
+
 	@Autowired
 	private UrlGenerationUtils urlGenerationUtils;
 	@Autowired
 	private RestHighLevelClient highLevelClient;
 
+	// 통합 검색 결과. key 는 정규화한 검색 조건이고, 접근 순서로 정렬되어 오래 안 쓴 것부터 밀려난다.
+	private final LinkedHashMap<String, CachedSearch> searchCache = new LinkedHashMap<>(16, 0.75f, true);
+
+	// 실행 중인 통합 검색
+	private final ConcurrentHashMap<String, CompletableFuture<SearchUnifiedResponse>> inFlightSearches =
+		new ConcurrentHashMap<>();
+
+	private final LongAdder searchCacheHits = new LongAdder();
+	private final LongAdder searchCacheMisses = new LongAdder();
+	private final LongAdder searchCoalesced = new LongAdder();
+	private final LongAdder searchCacheEvictions = new LongAdder();
+
 	/**
 	 * 통합 검색
+	 * 같은 조건의 결과는 잠시 캐시하고, 같은 조건으로 동시에 들어온 검색은 msearch 한 번의 결과를 함께 쓴다.
 	 *
 	 * @param query    검색어
 	 * @param from    페이지 시작 위치
@@ -95,6 +128,129 @@ public class SearchService {
 	public SearchUnifiedResponse searchUnified(String query, String include, Integer from, Integer size, String preTags,
 		String postTags) throws IOException {
 
+		String key = this.getSearchCacheKey(query, include, from, size, preTags, postTags);
+		SearchUnifiedResponse cached = this.getCachedSearch(key);
+
+		if (cached != null) {
+			searchCacheHits.increment();
+			return cached;
+		}
+
+		CompletableFuture<SearchUnifiedResponse> created = new CompletableFuture<>();
+		CompletableFuture<SearchUnifiedResponse> running = inFlightSearches.putIfAbsent(key, created);
+
+		// 다른 요청이 같은 검색을 하고 있으면 기다린다.
+		if (running != null) {
+			searchCoalesced.increment();
+
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof IOException)
+					throw (IOException) e.getCause();
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+
+				throw e;
+			}
+		}
+
+		try {
+			// 자리를 잡는 사이에 끝난 검색이 있을 수 있다.
+			SearchUnifiedResponse searchUnifiedResponse = this.getCachedSearch(key);
+
+			if (searchUnifiedResponse != null) {
+				searchCacheHits.increment();
+			} else {
+				searchCacheMisses.increment();
+				searchUnifiedResponse = this.multiSearch(key, query, include, from, size, preTags, postTags);
+			}
+
+			created.complete(searchUnifiedResponse);
+
+			return searchUnifiedResponse;
+		} catch (IOException | RuntimeException e) {
+			created.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightSearches.remove(key, created);
+		}
+	}
+
+	public SearchCacheMetrics getSearchCacheMetrics() {
+		long hits = searchCacheHits.sum();
+		long misses = searchCacheMisses.sum();
+		long coalesced = searchCoalesced.sum();
+		long total = hits + misses + coalesced;
+		int cacheSize;
+
+		synchronized (searchCache) {
+			cacheSize = searchCache.size();
+		}
+
+		return SearchCacheMetrics.builder()
+			.size(cacheSize)
+			.hits(hits)
+			.misses(misses)
+			.coalesced(coalesced)
+			.evictions(searchCacheEvictions.sum())
+			.hitRatio(total == 0 ? 0D : (double) (hits + coalesced) / total)
+			.build();
+	}
+
+	/**
+	 * 검색어의 대소문자, 공백과 include 의 순서, 구분자 차이는 같은 검색으로 본다.
+	 */
+	private String getSearchCacheKey(String query, String include, Integer from, Integer size, String preTags,
+		String postTags) {
+
+		String includeTypes = Arrays.stream(Constants.SEARCH_INCLUDE_TYPE.values())
+			.filter(type -> StringUtils.contains(include, type.name()))
+			.map(Enum::name)
+			.collect(Collectors.joining(","));
+
+		return String.join("|", StringUtils.normalizeSpace(StringUtils.lowerCase(query)), includeTypes,
+			String.valueOf(from), String.valueOf(size), String.valueOf(preTags), String.valueOf(postTags));
+	}
+
+	private SearchUnifiedResponse getCachedSearch(String key) {
+		synchronized (searchCache) {
+			CachedSearch cachedSearch = searchCache.get(key);
+
+			if (cachedSearch == null)
+				return null;
+
+			if (cachedSearch.expireAt < System.currentTimeMillis()) {
+				searchCache.remove(key);
+				return null;
+			}
+
+			return cachedSearch.response;
+		}
+	}
+
+	private void putCachedSearch(String key, SearchUnifiedResponse response) {
+		long ttl = elasticsearchProperties.getSearchCacheTtl();
+
+		if (ttl <= 0)
+			return;
+
+		synchronized (searchCache) {
+			searchCache.put(key, new CachedSearch(response, System.currentTimeMillis() + ttl));
+
+			Iterator<String> keys = searchCache.keySet().iterator();
+
+			while (searchCache.size() > elasticsearchProperties.getSearchCacheSize() && keys.hasNext()) {
+				keys.next();
+				keys.remove();
+				searchCacheEvictions.increment();
+			}
+		}
+	}
+
+	private SearchUnifiedResponse multiSearch(String key, String query, String include, Integer from, Integer size,
+		String preTags, String postTags) throws IOException {
+
 		SearchUnifiedResponse searchUnifiedResponse = new SearchUnifiedResponse();
 		Queue<Constants.SEARCH_INCLUDE_TYPE> searchOrder = new LinkedList<>();
 		MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
@@ -119,13 +275,16 @@ public class SearchService {
 		}
 
 		MultiSearchResponse multiSearchResponse = highLevelClient.msearch(multiSearchRequest, RequestOptions.DEFAULT);
+		boolean completed = true;
 
 		for (MultiSearchResponse.Item item : multiSearchResponse.getResponses()) {
 			SearchResponse searchResponse = item.getResponse();
 			Constants.SEARCH_INCLUDE_TYPE order = searchOrder.poll();
 
-			if (item.isFailure())
+			if (item.isFailure()) {
+				completed = false;
 				continue;
+			}
 
 			if (!ObjectUtils.isEmpty(order)) {
 				switch (order) {
@@ -145,105 +304,176 @@ public class SearchService {
 			}
 		}
 
+		// 일부 인덱스만 실패한 결과는 캐시하지 않는다.
+		if (completed)
+			this.putCachedSearch(key, searchUnifiedResponse);
+
 		return searchUnifiedResponse;
 	}
 
-	public PopularSearchWordResult aggregateSearchWord(LocalDate gteDate, Integer size) throws IOException {
-		SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-		searchSourceBuilder.size(0);
-		searchSourceBuilder.query(
-			QueryBuilders.rangeQuery("registerDate").gte(gteDate.toString())
-		);
-		searchSourceBuilder.aggregation(
-			AggregationBuilders
-				.terms("popular_word_aggs")
-				.field("word")
-				.size(size)
-		);
+	/**
+	 * 색인 요청을 한번에 보낸다. 항목별 결과는 응답의 items 순서가 요청 순서와 같다.
+	 */
+	public BulkResponse bulk(BulkRequest bulkRequest) throws IOException {
+		return highLevelClient.bulk(bulkRequest, RequestOptions.DEFAULT);
+	}
 
-		SearchRequest searchRequest = new SearchRequest(elasticsearchProperties.getIndexSearchWord());
-		searchRequest.source(searchSourceBuilder);
+	public CompletableFuture<BulkResponse> bulkAsync(BulkRequest bulkRequest) {
+		CompletableFuture<BulkResponse> future = new CompletableFuture<>();
 
-		SearchResponse searchResponse = highLevelClient.search(searchRequest, RequestOptions.DEFAULT);
-		Terms popularWordTerms = searchResponse.getAggregations().get("popular_word_aggs");
+		highLevelClient.bulkAsync(bulkRequest, RequestOptions.DEFAULT, new ActionListener<BulkResponse>() {
+			@Override
+			public void onResponse(BulkResponse bulkResponse) {
+				future.complete(bulkResponse);
+			}
 
-		List<EsTermsBucket> popularWords = popularWordTerms.getBuckets().stream()
-			.map(entry -> {
-				EsTermsBucket esTermsBucket = new EsTermsBucket();
-				esTermsBucket.setKey(entry.getKeyAsString());
-				esTermsBucket.setCount(entry.getDocCount());
-				return esTermsBucket;
-			})
+			@Override
+			public void onFailure(Exception e) {
+				future.completeExceptionally(e);
+			}
+		});
+
+		return future;
+	}
+
+	/**
+	 * 같은 문서를 다른 인덱스에 쓰는 요청으로 복사한다. 재색인 중인 인덱스에 실시간 변경을 함께 쓸 때 쓴다.
+	 * 실시간 변경이 재색인보다 새 것이므로 덮어쓴다. 재색인 쪽은 CREATE 로 써서 이 문서를 덮지 않는다.
+	 */
+	public DocWriteRequest<?> copyRequest(DocWriteRequest<?> request, String index) {
+		if (request instanceof IndexRequest) {
+			IndexRequest indexRequest = (IndexRequest)request;
+
+			return new IndexRequest(index)
+				.id(indexRequest.id())
+				.routing(indexRequest.routing())
+				.source(indexRequest.source(), indexRequest.getContentType());
+		}
+
+		return new DeleteRequest(index, request.id()).routing(request.routing());
+	}
+
+	/**
+	 * 현재 별칭(또는 같은 이름의 인덱스)과 같은 설정, 매핑으로 새 인덱스를 만든다.
+	 * source 가 있으면 그것으로 만든다. 색인하는 동안은 refresh 를 끈다.
+	 */
+	public void createIndexLike(String alias, String index, Map<String, Object> source) throws IOException {
+		CreateIndexRequest createIndexRequest = new CreateIndexRequest(index);
+
+		if (!ObjectUtils.isEmpty(source)) {
+			createIndexRequest.source(source);
+		} else if (highLevelClient.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT)) {
+			GetIndexResponse getIndexResponse = highLevelClient.indices()
+				.get(new GetIndexRequest(alias), RequestOptions.DEFAULT);
+			String currentIndex = getIndexResponse.getIndices()[0];
+
+			Settings.Builder settings = Settings.builder().put(getIndexResponse.getSettings().get(currentIndex));
+			INTERNAL_INDEX_SETTINGS.forEach(settings::remove);
+
+			createIndexRequest.settings(settings);
+			createIndexRequest.mapping(getIndexResponse.getMappings().get(currentIndex).getSourceAsMap());
+		}
+
+		highLevelClient.indices().create(createIndexRequest, RequestOptions.DEFAULT);
+
+		this.updateIndexSettings(index, Settings.builder().put("index.refresh_interval", "-1"));
+	}
+
+	/**
+	 * 색인을 마친 인덱스의 refresh 를 되돌리고, 별칭을 새 인덱스로 한번에 옮긴다.
+	 * 별칭과 같은 이름의 인덱스가 있으면 그 인덱스는 지운다.
+	 */
+	public void swapAlias(String alias, String index) throws IOException {
+		this.updateIndexSettings(index, Settings.builder().putNull("index.refresh_interval"));
+		highLevelClient.indices().refresh(new RefreshRequest(index), RequestOptions.DEFAULT);
+
+		IndicesAliasesRequest indicesAliasesRequest = new IndicesAliasesRequest();
+
+		GetAliasesResponse getAliasesResponse = highLevelClient.indices()
+			.getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT);
+
+		List<String> oldIndices = getAliasesResponse.getAliases().entrySet().stream()
+			.filter(entry -> !entry.getValue().isEmpty())
+			.map(Map.Entry::getKey)
 			.collect(Collectors.toList());
 
-		return new PopularSearchWordResult() {{
-			setTook(searchResponse.getTook().getMillis());
-			setPopularSearchWords(popularWords);
-		}};
+		oldIndices.forEach(oldIndex -> indicesAliasesRequest.addAliasAction(
+			IndicesAliasesRequest.AliasActions.remove().index(oldIndex).alias(alias)));
+
+		if (oldIndices.isEmpty()
+			&& highLevelClient.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT)) {
+			indicesAliasesRequest.addAliasAction(IndicesAliasesRequest.AliasActions.removeIndex().index(alias));
+		}
+
+		indicesAliasesRequest.addAliasAction(IndicesAliasesRequest.AliasActions.add().index(index).alias(alias));
+
+		highLevelClient.indices().updateAliases(indicesAliasesRequest, RequestOptions.DEFAULT);
 	}
 
-	public void indexDocumentArticle(EsArticle esArticle) throws IOException {
-		String id = esArticle.getId();
+	private void updateIndexSettings(String index, Settings.Builder settings) throws IOException {
+		UpdateSettingsRequest updateSettingsRequest = new UpdateSettingsRequest(index).settings(settings);
+		highLevelClient.indices().putSettings(updateSettingsRequest, RequestOptions.DEFAULT);
+	}
 
-		IndexRequest indexRequest = new IndexRequest(elasticsearchProperties.getIndexBoard());
-		indexRequest.id(id);
-		indexRequest.source(ObjectMapperUtils.writeValueAsString(esArticle), XContentType.JSON);
-		highLevelClient.index(indexRequest, RequestOptions.DEFAULT);
+	public IndexRequest getIndexArticleRequest(EsArticle esArticle) throws IOException {
+		return this.getIndexArticleRequest(elasticsearchProperties.getIndexBoard(), esArticle);
 	}
 
-	public void deleteDocumentBoard(String id) throws IOException {
-		DeleteRequest request = new DeleteRequest(elasticsearchProperties.getIndexBoard(), id);
-		DeleteResponse response = highLevelClient.delete(request, RequestOptions.DEFAULT);
+	public IndexRequest getIndexArticleRequest(String index, EsArticle esArticle) throws IOException {
+		IndexRequest indexRequest = new IndexRequest(index);
+		indexRequest.id(esArticle.getId());
+		indexRequest.source(ObjectMapperUtils.writeValueAsString(esArticle), XContentType.JSON);
 
-		if (!response.status().equals(RestStatus.OK))
-			log.warn("board id {} is not found. so can't delete it!", id);
+		return indexRequest;
 	}
 
-	public void indexDocumentBoardComment(EsComment esComment) throws IOException {
-		String id = esComment.getId();
-		String parentBoardId = esComment.getArticle().getId();
+	public DeleteRequest getDeleteBoardRequest(String id) {
+		return new DeleteRequest(elasticsearchProperties.getIndexBoard(), id);
+	}
 
-		IndexRequest indexRequest = new IndexRequest(elasticsearchProperties.getIndexBoard());
-		indexRequest.id(id);
-		indexRequest.routing(parentBoardId);
-		indexRequest.source(ObjectMapperUtils.writeValueAsString(indexRequest), XContentType.JSON);
-		highLevelClient.index(indexRequest, RequestOptions.DEFAULT);
+	public IndexRequest getIndexBoardCommentRequest(EsComment esComment) throws IOException {
+		return this.getIndexBoardCommentRequest(elasticsearchProperties.getIndexBoard(), esComment);
 	}
 
-	public void deleteDocumentBoardComment(String id) throws IOException {
+	public IndexRequest getIndexBoardCommentRequest(String index, EsComment esComment) throws IOException {
+		IndexRequest indexRequest = new IndexRequest(index);
+		indexRequest.id(esComment.getId());
+		indexRequest.routing(esComment.getArticle().getId());
+		indexRequest.source(ObjectMapperUtils.writeValueAsString(esComment), XContentType.JSON);
 
-		DeleteRequest deleteRequest = new DeleteRequest(elasticsearchProperties.getIndexBoard(), id);
-		DeleteResponse response = highLevelClient.delete(deleteRequest, RequestOptions.DEFAULT);
+		return indexRequest;
+	}
 
-		if (!response.status().equals(RestStatus.OK))
-			log.warn("comment id {} is not found. so can't delete it!", id);
+	public DeleteRequest getDeleteBoardCommentRequest(String id) {
+		return new DeleteRequest(elasticsearchProperties.getIndexBoard(), id);
 	}
 
 	// TODO : 구현 해야 함
 	public void createDocumentJakduComment(EsJakduComment EsJakduComment) {
 	}
 
-	public void indexDocumentGallery(EsGallery esGallery) throws IOException {
-		String id = esGallery.getId();
-
-		IndexRequest indexRequest = new IndexRequest(elasticsearchProperties.getIndexGallery());
-		indexRequest.id(id);
-		indexRequest.source(ObjectMapperUtils.writeValueAsString(indexRequest), XContentType.JSON);
-		highLevelClient.index(indexRequest, RequestOptions.DEFAULT);
+	public IndexRequest getIndexGalleryRequest(EsGallery esGallery) throws IOException {
+		return this.getIndexGalleryRequest(elasticsearchProperties.getIndexGallery(), esGallery);
 	}
 
-	public void deleteDocumentGallery(String id) throws IOException {
-		DeleteRequest request = new DeleteRequest(elasticsearchProperties.getIndexGallery(), id);
-		DeleteResponse response = highLevelClient.delete(request, RequestOptions.DEFAULT);
+	public IndexRequest getIndexGalleryRequest(String index, EsGallery esGallery) throws IOException {
+		IndexRequest indexRequest = new IndexRequest(index);
+		indexRequest.id(esGallery.getId());
+		indexRequest.source(ObjectMapperUtils.writeValueAsString(esGallery), XContentType.JSON);
+
+		return indexRequest;
+	}
 
-		if (!response.status().equals(RestStatus.OK))
-			log.warn("gallery id {} is not found. so can't delete it!", id);
+	public DeleteRequest getDeleteGalleryRequest(String id) {
+		return new DeleteRequest(elasticsearchProperties.getIndexGallery(), id);
 	}
 
-	public void indexDocumentSearchWord(EsSearchWord esSearchWord) throws IOException {
+	// 검색어는 ID 없이 쌓기만 한다.
+	public IndexRequest getIndexSearchWordRequest(EsSearchWord esSearchWord) throws IOException {
 		IndexRequest request = new IndexRequest(elasticsearchProperties.getIndexSearchWord());
 		request.source(ObjectMapperUtils.writeValueAsString(esSearchWord), XContentType.JSON);
-		highLevelClient.index(request, RequestOptions.DEFAULT);
+
+		return request;
 	}
 
 	private SearchRequest getArticleSearchRequestBuilder(String query, Integer from, Integer size, String preTags,
@@ -303,6 +533,7 @@ public class SearchService {
 							setId(galleryId);
 							setThumbnailUrl(
 								urlGenerationUtils.generateGalleryUrl(Constants.IMAGE_SIZE_TYPE.SMALL, galleryId));
+							setSrcset(urlGenerationUtils.generateGallerySrcset(galleryId));
 						}})
 						.collect(Collectors.toList());
 
@@ -450,4 +681,10 @@ public class SearchService {
 		return highlight;
 	}
 
+	@AllArgsConstructor
+	private static class CachedSearch {
+		private final SearchUnifiedResponse response;
+		private final long expireAt;
+	}
+
 }
@@ -0,0 +1,143 @@
+package com.jakduk.api.service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.common.SpaceSavingCounter;
+import com.jakduk.api.model.db.SearchWordCount;
+import com.jakduk.api.model.elasticsearch.EsTermsBucket;
+import com.jakduk.api.restcontroller.vo.search.PopularSearchWordResult;
+
+/**
+ * 검색어를 날짜별로 메모리에서 세다가 주기적으로 DB에 더하고, 인기 검색어는 미리 계산해 둔다.
+ *
+ * 하루에 세는 검색어 수는 SEARCH_WORD_COUNTER_CAPACITY 로 정해져 있어서 검색이 늘어도 저장할 양은 늘지 않는다.
+ */
+
+@Service
+public class SearchWordService {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	// key는 검색한 날, value는 아직 DB에 더하지 않은 검색어 수
+	private final ConcurrentHashMap<LocalDate, SpaceSavingCounter> pendingCounters = new ConcurrentHashMap<>();
+
+	private volatile List<EsTermsBucket> popularWords = Collections.emptyList();
+
+	/**
+	 * 검색어를 하나 센다.
+	 *
+	 * @param word 검색어
+	 */
+	public void countSearchWord(String word) {
+		String normalizedWord = StringUtils.normalizeSpace(StringUtils.lowerCase(word));
+
+		if (StringUtils.isEmpty(normalizedWord))
+			return;
+
+		pendingCounters.computeIfAbsent(LocalDate.now(), date -> new SpaceSavingCounter(
+			Constants.SEARCH_WORD_COUNTER_CAPACITY)).offer(normalizedWord);
+	}
+
+	/**
+	 * 인기 검색어. 미리 계산해 둔 목록에서 앞부분을 준다.
+	 *
+	 * @param size 개수
+	 */
+	public PopularSearchWordResult getPopularSearchWords(Integer size) {
+		List<EsTermsBucket> words = popularWords;
+
+		return new PopularSearchWordResult() {{
+			setTook(0L);
+			setPopularSearchWords(words.subList(0, Math.min(Math.max(size, 0), words.size())));
+		}};
+	}
+
+	/**
+	 * 모아둔 검색어 수를 DB에 더한다. 실패하면 버린다.
+	 */
+	@Scheduled(fixedDelayString = "${jakduk.search-word-flush-delay:60000}")
+	@PreDestroy
+	public void flushSearchWords() {
+		for (LocalDate date : pendingCounters.keySet()) {
+			// 이후에 들어온 검색어는 새 카운터에 쌓인다. 꺼내는 순간과 겹친 검색어 몇 개는 빠질 수 있다.
+			SpaceSavingCounter counter = pendingCounters.remove(date);
+
+			if (counter == null || counter.isEmpty())
+				continue;
+
+			List<SpaceSavingCounter.Count> counts = counter.getCounts();
+			Date bucket = Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+			try {
+				BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+					SearchWordCount.class);
+
+				counts.forEach(count ->
+					bulkOperations.upsert(new Query(Criteria.where("bucket").is(bucket).and("word").is(count.getKey())),
+						new Update().inc("count", count.getCount())));
+
+				bulkOperations.execute();
+
+				log.debug("Search words were flushed. date={}, words={}", date, counts.size());
+			} catch (Exception e) {
+				log.warn("Failed to flush search words. date={}, words={}", date, counts.size(), e);
+			}
+		}
+	}
+
+	/**
+	 * 최근 SEARCH_WORD_POPULAR_DAYS 일 동안의 인기 검색어를 다시 계산한다.
+	 */
+	@Scheduled(fixedDelayString = "${jakduk.search-word-top-refresh-delay:300000}")
+	public void refreshPopularWords() {
+		Date from = Date.from(LocalDate.now().minusDays(Constants.SEARCH_WORD_POPULAR_DAYS)
+			.atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+		Aggregation aggregation = Aggregation.newAggregation(
+			Aggregation.match(Criteria.where("bucket").gte(from)),
+			Aggregation.group("word").sum("count").as("count"),
+			Aggregation.sort(Sort.Direction.DESC, "count").and(Sort.Direction.ASC, "_id"),
+			Aggregation.limit(Constants.SEARCH_WORD_TOP_SIZE)
+		);
+
+		try {
+			AggregationResults<Document> results = mongoTemplate.aggregate(aggregation, SearchWordCount.class,
+				Document.class);
+
+			popularWords = Collections.unmodifiableList(results.getMappedResults().stream()
+				.map(result -> new EsTermsBucket(result.getString("_id"), ((Number) result.get("count")).longValue()))
+				.collect(Collectors.toList()));
+		} catch (Exception e) {
+			log.warn("Failed to refresh popular search words.", e);
+		}
+	}
+
+}
@@ -0,0 +1,283 @@
+package com.jakduk.api.service;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.common.util.DateUtils;
+import com.jakduk.api.common.util.UrlGenerationUtils;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.exception.ServiceError;
+import com.jakduk.api.exception.ServiceException;
+import com.jakduk.api.model.aggregate.SitemapShard;
+import com.jakduk.api.model.simple.ArticleOnSitemap;
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.redfin.sitemapgenerator.ChangeFreq;
+import com.redfin.sitemapgenerator.SitemapIndexGenerator;
+import com.redfin.sitemapgenerator.W3CDateFormat;
+import com.redfin.sitemapgenerator.WebSitemapGenerator;
+import com.redfin.sitemapgenerator.WebSitemapUrl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 사이트맵.
+ * 글 번호(seq) 구간별로 나눈 사이트맵 파일과 사이트맵 인덱스를 디스크에 만들어 두고, 달라진 구간만 다시 만든다.
+ * 평소에는 지난 실행 이후 lastUpdated 가 바뀐 글만 인덱스로 찾아서 그 구간을 다시 만든다.
+ * 띄운 직후와 sitemapFullCheckInterval 마다 구간별 글 수와 최근 시각을 DB 에서 집계해 전체를 맞춘다.
+ * 통째로 지운 글은 lastUpdated 로 찾을 수 없어서 이때 빠진다.
+ * 어느 서버에서 글이 바뀌었든 모든 서버가 같은 DB 를 보고 자기 파일을 맞춘다.
+ */
+
+@Service
+public class SitemapService {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	private static final String INDEX_FILE_NAME = "sitemap.xml";
+	private static final Pattern SHARD_FILE_NAME = Pattern.compile("sitemap-(\\d+)\\.xml");
+	// 늦게 저장된 글, 서버 간 시계 차이를 놓치지 않도록 지난 실행 시각보다 이만큼 앞에서부터 찾는다.
+	private static final Duration UPDATED_AFTER_OVERLAP = Duration.ofMinutes(1);
+
+	@Resource
+	private JakdukProperties jakdukProperties;
+	@Resource
+	private JakdukProperties.Storage storageProperties;
+
+	@Autowired
+	private UrlGenerationUtils urlGenerationUtils;
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	// 이 서버가 마지막 전체 점검에서 만든 구간별 글 수, 최근 시각. key는 구간 번호
+	private final Map<Integer, SitemapShard> writtenShards = new HashMap<>();
+	// 마지막 전체 점검 시각. null 이면 아직 하지 않았다.
+	private Long fullCheckedAt;
+	// 마지막으로 성공한 실행의 시작 시각. 다음 실행은 이 이후에 바뀐 글을 찾는다.
+	private LocalDateTime checkedAt;
+
+	/**
+	 * 사이트맵 인덱스 파일. 파일은 스케줄러가 만든다.
+	 */
+	public FileSystemResource getSitemapIndex() {
+		Path indexPath = getSitemapPath().resolve(INDEX_FILE_NAME);
+
+		if (Files.notExists(indexPath))
+			throw new ServiceException(ServiceError.NOT_FOUND);
+
+		return new FileSystemResource(indexPath);
+	}
+
+	/**
+	 * 구간별 사이트맵 파일
+	 *
+	 * @param shard 구간 번호
+	 */
+	public FileSystemResource getSitemap(Integer shard) {
+		Path shardPath = getShardPath(shard);
+
+		if (Files.notExists(shardPath))
+			throw new ServiceException(ServiceError.NOT_FOUND);
+
+		return new FileSystemResource(shardPath);
+	}
+
+	/**
+	 * 지난 실행 이후 글이 바뀐 구간의 사이트맵 파일과 사이트맵 인덱스를 다시 만든다.
+	 * 띄운 직후 첫 실행과 sitemapFullCheckInterval 마다는 전체 점검을 한다.
+	 */
+	@Scheduled(fixedDelayString = "${jakduk.sitemap-regenerate-delay:60000}")
+	public synchronized void regenerate() {
+
+		LocalDateTime startedAt = LocalDateTime.now();
+
+		try {
+			Files.createDirectories(getSitemapPath());
+
+			boolean fullCheck = Objects.isNull(fullCheckedAt) || Objects.isNull(checkedAt)
+				|| System.currentTimeMillis() - fullCheckedAt >= jakdukProperties.getSitemapFullCheckInterval();
+
+			if (fullCheck)
+				this.regenerateAll();
+			else
+				this.regenerateUpdatedAfter(checkedAt.minus(UPDATED_AFTER_OVERLAP));
+
+			// 실패하면 시각을 그대로 둬서 다음 번에 같은 범위를 다시 찾는다.
+			checkedAt = startedAt;
+
+			if (fullCheck)
+				fullCheckedAt = System.currentTimeMillis();
+		} catch (IOException | RuntimeException e) {
+			log.warn("failed to regenerate sitemap. " + e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * 전체 점검. DB 의 구간별 글 수, 최근 시각이 마지막으로 만든 것과 다른 구간을 다시 만든다.
+	 */
+	private void regenerateAll() throws IOException {
+		Map<Integer, SitemapShard> shards = articleRepository.findSitemapShards(Constants.SITEMAP_URLS_EACH_SHARD)
+			.stream()
+			.collect(Collectors.toMap(shard -> shard.getId() / Constants.SITEMAP_URLS_EACH_SHARD,
+				Function.identity()));
+
+		// 글이 다 지워진 구간도 파일을 지우도록 포함한다.
+		Set<Integer> staleShards = new TreeSet<>(writtenShards.keySet());
+		staleShards.addAll(listShardsOnDisk());
+		staleShards.addAll(shards.keySet());
+		staleShards.removeIf(shard -> Objects.equals(shards.get(shard), writtenShards.get(shard)) &&
+			Files.exists(getShardPath(shard)));
+
+		if (staleShards.isEmpty() && Files.exists(getSitemapPath().resolve(INDEX_FILE_NAME)))
+			return;
+
+		// 만들지 못한 구간은 writtenShards 가 그대로라 다음 번에 다시 시도한다.
+		for (Integer shard : staleShards) {
+			writeShard(shard);
+
+			if (shards.containsKey(shard))
+				writtenShards.put(shard, shards.get(shard));
+			else
+				writtenShards.remove(shard);
+		}
+
+		writeIndex();
+
+		log.info("sitemap regenerated. shards={}", staleShards);
+	}
+
+	/**
+	 * 해당 시각 이후에 바뀐 글이 있는 구간만 다시 만든다.
+	 */
+	private void regenerateUpdatedAfter(LocalDateTime updatedAfter) throws IOException {
+		Set<Integer> staleShards = articleRepository.findSeqsUpdatedAfter(updatedAfter).stream()
+			.map(seq -> seq / Constants.SITEMAP_URLS_EACH_SHARD)
+			.collect(Collectors.toCollection(TreeSet::new));
+
+		if (staleShards.isEmpty())
+			return;
+
+		for (Integer shard : staleShards) {
+			writeShard(shard);
+
+			// 글 수, 최근 시각을 모르므로 다음 전체 점검에서 한 번 더 맞춘다.
+			writtenShards.remove(shard);
+		}
+
+		writeIndex();
+
+		log.info("sitemap regenerated. shards={}", staleShards);
+	}
+
+	private void writeShard(Integer shard) throws IOException {
+		Integer fromSeq = shard * Constants.SITEMAP_URLS_EACH_SHARD;
+		List<ArticleOnSitemap> articles = articleRepository.findSitemapArticlesBySeq(fromSeq,
+			fromSeq + Constants.SITEMAP_URLS_EACH_SHARD);
+
+		Path shardPath = getShardPath(shard);
+
+		if (articles.isEmpty()) {
+			Files.deleteIfExists(shardPath);
+			return;
+		}
+
+		WebSitemapGenerator wsg = WebSitemapGenerator.builder(jakdukProperties.getWebServerUrl(), null)
+			.dateFormat(new W3CDateFormat(W3CDateFormat.Pattern.SECOND))
+			.build();
+
+		for (ArticleOnSitemap article : articles) {
+			WebSitemapUrl url = new WebSitemapUrl
+				.Options(urlGenerationUtils.generateArticleDetailUrl(article.getBoard(), article.getSeq()))
+				.lastMod(DateUtils.localDateTimeToDate(article.getLastUpdated()))
+				.priority(0.5)
+				.changeFreq(ChangeFreq.DAILY)
+				.build();
+
+			wsg.addUrl(url);
+		}
+
+		// 한 구간은 사이트맵 파일 하나의 한도(50,000)보다 작다.
+		Path tempPath = shardPath.resolveSibling(shardPath.getFileName() + ".tmp");
+		Files.write(tempPath, wsg.writeAsStrings().get(0).getBytes(StandardCharsets.UTF_8));
+		Files.move(tempPath, shardPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void writeIndex() throws IOException {
+		Path indexPath = getSitemapPath().resolve(INDEX_FILE_NAME);
+
+		List<Path> shardPaths;
+
+		try (Stream<Path> paths = Files.list(getSitemapPath())) {
+			shardPaths = paths
+				.filter(path -> SHARD_FILE_NAME.matcher(path.getFileName().toString()).matches())
+				.sorted(Comparator.comparing(this::getShard))
+				.collect(Collectors.toList());
+		}
+
+		if (shardPaths.isEmpty()) {
+			Files.deleteIfExists(indexPath);
+			return;
+		}
+
+		Path tempPath = indexPath.resolveSibling(INDEX_FILE_NAME + ".tmp");
+		SitemapIndexGenerator sig = new SitemapIndexGenerator(jakdukProperties.getWebServerUrl(), tempPath.toFile());
+
+		for (Path shardPath : shardPaths)
+			sig.addUrl(urlGenerationUtils.generateSitemapUrl(shardPath.getFileName().toString()),
+				new Date(Files.getLastModifiedTime(shardPath).toMillis()));
+
+		sig.write();
+
+		Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private List<Integer> listShardsOnDisk() throws IOException {
+		try (Stream<Path> paths = Files.list(getSitemapPath())) {
+			return paths
+				.map(this::getShard)
+				.filter(shard -> shard >= 0)
+				.collect(Collectors.toList());
+		}
+	}
+
+	private Integer getShard(Path shardPath) {
+		Matcher matcher = SHARD_FILE_NAME.matcher(shardPath.getFileName().toString());
+
+		return matcher.matches() ? Integer.valueOf(matcher.group(1)) : -1;
+	}
+
+	private Path getShardPath(Integer shard) {
+		return getSitemapPath().resolve("sitemap-" + shard + ".xml");
+	}
+
+	private Path getSitemapPath() {
+		return Paths.get(storageProperties.getSitemapPath());
+	}
+
+}
@@ -427,12 +427,7 @@ public class UserService {
 	 * 마지막 로그인 날짜 갱신
 	 */
 	public void updateLastLogged(String id) {
-
-		User user = userRepository.findOneById(id)
-			.orElseThrow(() -> new ServiceException(ServiceError.NOT_FOUND_USER));
-
-		user.setLastLogged(LocalDateTime.now());
-		userRepository.save(user);
+		userRepository.updateLastLogged(id, LocalDateTime.now());
 	}
 
 	public void deleteUser(String id) {
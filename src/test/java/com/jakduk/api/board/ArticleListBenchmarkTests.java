@@ -0,0 +1,184 @@
+package com.jakduk.api.board;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.db.Gallery;
+import com.jakduk.api.model.embedded.ArticleStatus;
+import com.jakduk.api.model.embedded.CommonWriter;
+import com.jakduk.api.model.embedded.GalleryStatus;
+import com.jakduk.api.model.embedded.LinkedItem;
+import com.jakduk.api.model.simple.ArticleOnList;
+import com.jakduk.api.repository.article.ArticleOnListRepository;
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.repository.gallery.GalleryRepository;
+
+/**
+ * 글 목록을 예전 방식(페이지, 전체 수, 공지글, 썸네일을 따로 조회)과
+ * 한번의 aggregation 으로 가져오는 방식으로 비교한다. 글 10만개를 넣으므로 직접 실행할 때만 켠다.
+ */
+
+@Disabled
+@DataMongoTest
+public class ArticleListBenchmarkTests {
+
+	private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+	private static final String WRITER_ID = "benchmark";
+	private static final int NUMBER_OF_ARTICLES = 100_000;
+	private static final int SIZE = 20;
+	private static final int ITERATIONS = 50;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	@Autowired
+	private ArticleOnListRepository articleOnListRepository;
+
+	@Autowired
+	private GalleryRepository galleryRepository;
+
+	@BeforeEach
+	public void before() {
+		IndexResolver indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+		indexResolver.resolveIndexFor(Article.class).forEach(mongoTemplate.indexOps(Article.class)::ensureIndex);
+		indexResolver.resolveIndexFor(Gallery.class).forEach(mongoTemplate.indexOps(Gallery.class)::ensureIndex);
+
+		List<Article> articles = new ArrayList<>();
+		List<Gallery> galleries = new ArrayList<>();
+
+		for (int i = 0; i < NUMBER_OF_ARTICLES; i++) {
+			String id = new ObjectId().toString();
+			boolean linkedGallery = i % 10 == 0;
+
+			articles.add(Article.builder()
+				.id(id)
+				.seq(i + 1)
+				.board(Constants.BOARD_TYPE.values()[i % Constants.BOARD_TYPE.values().length].name())
+				.status(i % 10_000 == 0 ? new ArticleStatus(true, false) : null)
+				.writer(CommonWriter.builder().userId(WRITER_ID).username(WRITER_ID).build())
+				.subject("제목 " + i)
+				.content("내용 " + i)
+				.shortContent("내용 " + i)
+				.views(i % 100)
+				.commentCount(i % 7)
+				.likingCount(i % 5)
+				.dislikingCount(0)
+				.linkedGallery(linkedGallery)
+				.build());
+
+			if (linkedGallery) {
+				galleries.add(Gallery.builder()
+					.status(new GalleryStatus(Constants.GALLERY_STATUS_TYPE.ENABLE))
+					.writer(CommonWriter.builder().userId(WRITER_ID).username(WRITER_ID).build())
+					.name(WRITER_ID)
+					.linkedItems(new ArrayList<LinkedItem>() {{
+						add(LinkedItem.builder().id(id).from(Constants.GALLERY_FROM_TYPE.ARTICLE).build());
+					}})
+					.build());
+			}
+
+			if (articles.size() == 5_000) {
+				mongoTemplate.insert(articles, Article.class);
+				articles.clear();
+			}
+		}
+
+		mongoTemplate.insert(articles, Article.class);
+		mongoTemplate.insert(galleries, Gallery.class);
+	}
+
+	@Test
+	public void compareArticleLists() {
+		Constants.BOARD_TYPE board = Constants.BOARD_TYPE.FREE;
+
+		for (int page : new int[] {1, 100, 1_000}) {
+			Map<String, String> before = this.measure("separate queries, page " + page, () -> {
+				Page<ArticleOnList> articlePages = articleOnListRepository.findByBoard(board,
+					PageRequest.of(page - 1, SIZE, Constants.SORT_BY_ID_DESC));
+
+				List<ArticleOnList> articlesOnPage = new ArrayList<>(articlePages.getContent());
+				articlesOnPage.addAll(mongoTemplate.find(new Query(Criteria.where("status.notice").is(true))
+					.with(Constants.SORT_BY_ID_DESC).limit(10), ArticleOnList.class));
+
+				List<ObjectId> ids = articlesOnPage.stream()
+					.filter(article -> BooleanUtils.isTrue(article.getLinkedGallery()))
+					.map(article -> new ObjectId(article.getId()))
+					.collect(Collectors.toList());
+
+				Map<String, String> thumbnails = new HashMap<>();
+				articlePages.getContent().forEach(article -> thumbnails.put(article.getId(), null));
+
+				galleryRepository.findFirstByItemIdsAndFromType(ids, Constants.GALLERY_FROM_TYPE.ARTICLE).stream()
+					.filter(linkedItemGallery -> thumbnails.containsKey(linkedItemGallery.getId()))
+					.forEach(linkedItemGallery -> thumbnails.put(linkedItemGallery.getId(),
+						linkedItemGallery.getGalleryId()));
+
+				return thumbnails;
+			});
+
+			Map<String, String> after = this.measure("single aggregation, page " + page, () -> {
+				List<ArticleOnList> articles = articleRepository.findByBoardAndCategory(board, null, (page - 1) * SIZE,
+					SIZE);
+				articleRepository.countByBoardAndCategory(board, null);
+				articleRepository.findNotices(Constants.SORT_BY_ID_DESC);
+
+				Map<String, String> thumbnails = new HashMap<>();
+				articles.forEach(article -> thumbnails.put(article.getId(), article.getThumbnailGalleryId()));
+
+				return thumbnails;
+			});
+
+			assertEquals(SIZE, after.size());
+			assertEquals(before, after);
+		}
+	}
+
+	private Map<String, String> measure(String name, Supplier<Map<String, String>> supplier) {
+		Map<String, String> result = supplier.get(); // warm up
+
+		long startTime = System.nanoTime();
+
+		for (int i = 0; i < ITERATIONS; i++)
+			result = supplier.get();
+
+		log.info("{}: {}us per list", name, (System.nanoTime() - startTime) / ITERATIONS / 1_000);
+
+		return result;
+	}
+
+	@AfterEach
+	public void after() {
+		mongoTemplate.remove(new Query(Criteria.where("writer.userId").is(WRITER_ID)), Article.class);
+		mongoTemplate.remove(new Query(Criteria.where("writer.userId").is(WRITER_ID)), Gallery.class);
+	}
+
+}
@@ -20,6 +20,7 @@ import com.jakduk.api.restcontroller.vo.EmptyJsonResponse;
 import com.jakduk.api.restcontroller.vo.UserFeelingResponse;
 import com.jakduk.api.restcontroller.vo.board.*;
 import com.jakduk.api.service.ArticleService;
+import com.jakduk.api.service.ArticleTopsService;
 import com.jakduk.api.service.GalleryService;
 
 import org.bson.types.ObjectId;
@@ -82,6 +83,8 @@ public class ArticleMvcTests {
 	@MockBean
 	private ArticleService articleService;
 	@MockBean
+	private ArticleTopsService articleTopsService;
+	@MockBean
 	private GalleryService galleryService;
 	@MockBean
 	private RabbitMQPublisher rabbitMQPublisher;
@@ -210,7 +213,9 @@ public class ArticleMvcTests {
 					parameterWithName("page").description("(optional, default 1) 페이지 번호. 1부터 시작.").optional(),
 					parameterWithName("size").description("(optional, default 20) 페이지 크기.").optional(),
 					parameterWithName("categoryCode").description(
-						"(optional, default ALL) 말머리. board가 FREE 일때에는 무시된다. FOOTBALL, DEVELOPER 일 때에는 필수다.").optional()
+						"(optional, default ALL) 말머리. board가 FREE 일때에는 무시된다. FOOTBALL, DEVELOPER 일 때에는 필수다.").optional(),
+					parameterWithName("cursor").description(
+						"(optional) 값이 있으면 커서 방식으로 가져온다. 첫 목록은 빈 값, 다음 목록은 이전 응답의 nextCursor.").optional()
 				),
 				responseFields(
 					subsectionWithPath("categories").type(JsonFieldType.OBJECT)
@@ -242,6 +247,62 @@ public class ArticleMvcTests {
 			));
 	}
 
+	@Test
+	@WithMockUser
+	public void getArticlesByCursorTest() throws Exception {
+
+		GetArticle getArticle = new GetArticle();
+		BeanUtils.copyProperties(article, getArticle);
+		getArticle.setGalleries(simpleGalleries);
+		getArticle.setCommentCount(5);
+		getArticle.setLikingCount(article.getUsersLiking().size());
+		getArticle.setDislikingCount(article.getUsersDisliking().size());
+
+		GetArticlesResponse expectResponse = new GetArticlesResponse();
+		expectResponse.setCategories(categoriesMap);
+		expectResponse.setArticles(Arrays.asList(getArticle));
+		expectResponse.setNotices(Arrays.asList());
+		expectResponse.setLast(false);
+		expectResponse.setFirst(false);
+		expectResponse.setSize(20);
+		expectResponse.setNumberOfElements(20);
+		expectResponse.setTotalElements(1011L);
+		expectResponse.setNextCursor("WLe53XFtzga1DkSb");
+
+		when(articleService.getArticlesByCursor(any(Constants.BOARD_TYPE.class), anyString(), anyString(), anyInt()))
+			.thenReturn(expectResponse);
+
+		mvc.perform(
+				get("/api/board/{board}/articles", Constants.BOARD_TYPE.FOOTBALL.name().toLowerCase())
+					.param("cursor", "WLe53XFtzga1DkSa")
+					.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+			.andExpect(content().json(ObjectMapperUtils.writeValueAsString(expectResponse)))
+			.andDo(document("getArticlesByCursor",
+				requestParameters(
+					parameterWithName("size").description("(optional, default 20) 페이지 크기.").optional(),
+					parameterWithName("categoryCode").description("(optional, default ALL) 말머리.").optional(),
+					parameterWithName("cursor").description("첫 목록은 빈 값, 다음 목록은 이전 응답의 nextCursor.")
+				),
+				responseFields(
+					subsectionWithPath("categories").type(JsonFieldType.OBJECT)
+						.description("말머리 맵. key는 말머리코드, value는 표시되는 이름(Locale 지원)"),
+					subsectionWithPath("articles").type(JsonFieldType.ARRAY)
+						.description("글 목록. json 형식은 커서 없는 글 목록과 같음."),
+					subsectionWithPath("notices").type(JsonFieldType.ARRAY)
+						.description("공지글 목록. json 형식은 articles와 같음."),
+					fieldWithPath("last").type(JsonFieldType.BOOLEAN).description("마지막 목록 여부"),
+					fieldWithPath("first").type(JsonFieldType.BOOLEAN).description("첫 목록 여부"),
+					fieldWithPath("size").type(JsonFieldType.NUMBER).description("페이지당 글 수"),
+					fieldWithPath("numberOfElements").type(JsonFieldType.NUMBER).description("현제 목록에서 글 수"),
+					fieldWithPath("totalElements").type(JsonFieldType.NUMBER).description("전체 글 수 (캐시된 값)"),
+					fieldWithPath("nextCursor").type(JsonFieldType.STRING).description("다음 목록 커서. 마지막이면 없음")
+						.optional()
+				)
+			));
+	}
+
 	@Test
 	@WithMockUser
 	public void getTopsTest() throws Exception {
@@ -256,7 +317,7 @@ public class ArticleMvcTests {
 			}}
 		);
 
-		when(articleService.getArticlesTopLikes(any(Constants.BOARD_TYPE.class), any(ObjectId.class)))
+		when(articleTopsService.getTopLikes(any(Constants.BOARD_TYPE.class)))
 			.thenReturn(expectTopLikes);
 
 		List<BoardTop> expectTopComments = Arrays.asList(
@@ -269,7 +330,7 @@ public class ArticleMvcTests {
 			}}
 		);
 
-		when(articleService.getArticlesTopComments(any(Constants.BOARD_TYPE.class), any(ObjectId.class)))
+		when(articleTopsService.getTopComments(any(Constants.BOARD_TYPE.class)))
 			.thenReturn(expectTopComments);
 
 		GetArticlesTopsResponse expectResponse = new GetArticlesTopsResponse(expectTopLikes, expectTopComments);
@@ -595,10 +656,6 @@ public class ArticleMvcTests {
 	@WithMockJakdukUser
 	public void setArticleFeeling() throws Exception {
 
-		when(articleService.setArticleFeelings(any(CommonWriter.class), any(Constants.BOARD_TYPE.class), anyInt(),
-			any(Constants.FEELING_TYPE.class)))
-			.thenReturn(article);
-
 		List<CommonFeelingUser> usersLiking = article.getUsersLiking();
 		List<CommonFeelingUser> usersDisliking = article.getUsersDisliking();
 
@@ -607,6 +664,10 @@ public class ArticleMvcTests {
 		expectResponse.setNumberOfLike(CollectionUtils.isEmpty(usersLiking) ? 0 : usersLiking.size());
 		expectResponse.setNumberOfDislike(CollectionUtils.isEmpty(usersDisliking) ? 0 : usersDisliking.size());
 
+		when(articleService.setArticleFeelings(any(CommonWriter.class), any(Constants.BOARD_TYPE.class), anyInt(),
+			any(Constants.FEELING_TYPE.class)))
+			.thenReturn(expectResponse);
+
 		mvc.perform(
 				post("/api/board/{board}/{seq}/{feeling}", article.getBoard().toLowerCase(), article.getSeq(),
 					Constants.FEELING_TYPE.LIKE.name().toLowerCase())
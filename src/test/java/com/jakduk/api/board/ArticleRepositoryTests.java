@@ -6,32 +6,44 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.data.domain.Sort;
+import org.springframework.util.CollectionUtils;
 
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.common.util.DateUtils;
 import com.jakduk.api.model.aggregate.BoardFeelingCount;
-import com.jakduk.api.model.aggregate.BoardTop;
+import com.jakduk.api.model.aggregate.BoardTopCount;
+import com.jakduk.api.model.aggregate.SitemapShard;
 import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.db.Gallery;
 import com.jakduk.api.model.embedded.ArticleStatus;
 import com.jakduk.api.model.embedded.BoardLog;
 import com.jakduk.api.model.embedded.CommonFeelingUser;
 import com.jakduk.api.model.embedded.CommonWriter;
+import com.jakduk.api.model.embedded.GalleryStatus;
+import com.jakduk.api.model.embedded.LinkedItem;
 import com.jakduk.api.model.embedded.SimpleWriter;
 import com.jakduk.api.model.embedded.UserPictureInfo;
 import com.jakduk.api.model.simple.ArticleOnList;
 import com.jakduk.api.model.simple.ArticleOnRSS;
 import com.jakduk.api.model.simple.ArticleOnSitemap;
 import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.repository.gallery.GalleryRepository;
 
 @DataMongoTest
 public class ArticleRepositoryTests {
@@ -39,6 +51,9 @@ public class ArticleRepositoryTests {
 	@Autowired
 	private ArticleRepository repository;
 
+	@Autowired
+	private GalleryRepository galleryRepository;
+
 	private Article normalArticle;
 	private Article deletedArticle;
 	private Article noticeArticle;
@@ -191,9 +206,13 @@ public class ArticleRepositoryTests {
 	}
 
 	@Test
-	public void findPostsOnRss() {
-		List<ArticleOnRSS> articles = repository.findPostsOnRss(null, Constants.SORT_BY_ID_DESC, 10);
-		assertEquals(3, articles.size());
+	public void findRssArticles() {
+		List<ArticleOnRSS> articles = repository.findRssArticles(null, 2);
+		assertEquals(2, articles.size());
+		assertEquals(linkedGalleryArticle.getId(), articles.get(0).getId());
+
+		assertEquals(3, repository.findRssArticles(Constants.BOARD_TYPE.FREE, 10).size());
+		assertEquals(0, repository.findRssArticles(Constants.BOARD_TYPE.FOOTBALL, 10).size());
 	}
 
 	@Test
@@ -202,12 +221,58 @@ public class ArticleRepositoryTests {
 		assertEquals(1, articles.size());
 	}
 
+	@Test
+	public void findByBoardAndCategoryWithThumbnail() {
+		Gallery enabledGallery = galleryRepository.save(newLinkedGallery(Constants.GALLERY_STATUS_TYPE.ENABLE));
+		Gallery tempGallery = galleryRepository.save(newLinkedGallery(Constants.GALLERY_STATUS_TYPE.TEMP));
+
+		try {
+			List<ArticleOnList> articles = repository.findByBoardAndCategory(Constants.BOARD_TYPE.FREE, null, 1, 2);
+
+			assertEquals(2, articles.size());
+			assertEquals(noticeArticle.getId(), articles.get(0).getId());
+			assertEquals(1, articles.get(0).getLikingCount());
+
+			ArticleOnList linkedArticle = repository.findByBoardAndCategoryLessThanId(Constants.BOARD_TYPE.FREE, null,
+				null, 1).get(0);
+
+			// 사용 중인 사진만 썸네일이 된다.
+			assertEquals(linkedGalleryArticle.getId(), linkedArticle.getId());
+			assertEquals(enabledGallery.getId(), linkedArticle.getThumbnailGalleryId());
+			assertNull(articles.get(0).getThumbnailGalleryId());
+		} finally {
+			galleryRepository.deleteById(enabledGallery.getId());
+			galleryRepository.deleteById(tempGallery.getId());
+		}
+	}
+
 	@Test
 	public void findPostsOnSitemap() {
 		List<ArticleOnSitemap> articles = repository.findSitemapArticles(null, Sort.by(Sort.Direction.DESC, "_id"), 10);
 		assertEquals(3, articles.size());
 	}
 
+	@Test
+	public void findSitemapArticlesBySeq() {
+		List<ArticleOnSitemap> articles = repository.findSitemapArticlesBySeq(300, 370);
+		assertEquals(2, articles.size());
+		assertEquals(noticeArticle.getSeq(), articles.get(0).getSeq());
+		assertEquals(linkedGalleryArticle.getSeq(), articles.get(1).getSeq());
+	}
+
+	@Test
+	public void findSitemapShards() {
+		List<SitemapShard> shards = repository.findSitemapShards(10);
+
+		// 지워진 글(325)은 빠진다.
+		assertEquals(2, shards.size());
+		assertEquals(360, shards.get(0).getId());
+		assertEquals(2, shards.get(0).getCount());
+		assertNotNull(shards.get(0).getLastUpdated());
+		assertEquals(370, shards.get(1).getId());
+		assertEquals(1, shards.get(1).getCount());
+	}
+
 	@Test
 	public void findByIdInAndLinkedGalleryIsTrue() {
 		List<Article> articles = repository.findByIdInAndLinkedGalleryIsTrue(Arrays.asList(normalArticle.getId(), normalArticle.getId(), linkedGalleryArticle.getId()));
@@ -230,16 +295,211 @@ public class ArticleRepositoryTests {
 	}
 
 	@Test
-	public void findTopLikes() {
-		LocalDate localDate = LocalDate.now().minusWeeks(1);
+	public void increaseCommentCount() {
+		ObjectId id = new ObjectId(normalArticle.getId());
 
-		List<BoardTop> articles = repository.findTopLikes(Constants.BOARD_TYPE.FREE,
-			new ObjectId(DateUtils.localDateToDate(localDate)));
+		repository.increaseCommentCount(id, 1);
+		repository.increaseCommentCount(id, 1);
+		repository.increaseCommentCount(id, -1);
+		assertEquals(1, repository.findOneById(normalArticle.getId()).get().getCommentCount());
 
-		assertEquals(3, articles.size());
+		// 0 미만으로 줄지 않는다.
+		repository.increaseCommentCount(id, -1);
+		repository.increaseCommentCount(id, -1);
+		assertEquals(0, repository.findOneById(normalArticle.getId()).get().getCommentCount());
+	}
+
+	@Test
+	public void updateCounts() {
+		List<BoardFeelingCount> feelingCounts = repository.findUsersFeelingCountGreaterThanId(null, 10);
+		assertEquals(4, feelingCounts.size());
+
+		repository.updateCounts(feelingCounts, Collections.singletonMap(noticeArticle.getId(), 2));
+
+		Article article = repository.findOneById(noticeArticle.getId()).get();
+		assertEquals(2, article.getCommentCount());
+		assertEquals(1, article.getLikingCount());
+		assertEquals(0, article.getDislikingCount());
+		assertEquals(0, repository.findOneById(normalArticle.getId()).get().getCommentCount());
+	}
+
+	@Test
+	public void setUsersFeeling() {
+		ObjectId id = new ObjectId(normalArticle.getId());
+		CommonFeelingUser feelingUser = new CommonFeelingUser(new ObjectId().toString(), "54abd1c63d96d076dd18d401", "admin");
+
+		Article article = repository.setUsersFeeling(id, feelingUser, Constants.FEELING_TYPE.LIKE);
+		assertEquals(1, article.getUsersLiking().size());
+		assertTrue(CollectionUtils.isEmpty(article.getUsersDisliking()));
+
+		// 좋아요 -> 싫어요
+		article = repository.setUsersFeeling(id, feelingUser, Constants.FEELING_TYPE.DISLIKE);
+		assertTrue(CollectionUtils.isEmpty(article.getUsersLiking()));
+		assertEquals(1, article.getUsersDisliking().size());
+
+		// 싫어요 취소
+		article = repository.setUsersFeeling(id, feelingUser, Constants.FEELING_TYPE.DISLIKE);
+		assertTrue(CollectionUtils.isEmpty(article.getUsersLiking()));
+		assertTrue(CollectionUtils.isEmpty(article.getUsersDisliking()));
+
+		Article savedArticle = repository.findOneById(normalArticle.getId()).get();
+		assertEquals(0, savedArticle.getLikingCount());
+		assertEquals(0, savedArticle.getDislikingCount());
+		assertEquals(normalArticle.getContent(), savedArticle.getContent());
+	}
+
+	@DisplayName("좋아요 수가 아직 채워지지 않은 글에서 취소해도 음수가 되지 않는다")
+	@Test
+	public void setUsersFeelingWithoutCount() {
+		CommonFeelingUser feelingUser = new CommonFeelingUser(new ObjectId().toString(), "54abd1c63d96d076dd18d401", "admin");
+
+		normalArticle.setUsersLiking(new ArrayList<>(Collections.singletonList(feelingUser)));
+		normalArticle.setLikingCount(null);
+		repository.save(normalArticle);
+
+		ObjectId id = new ObjectId(normalArticle.getId());
+
+		// 좋아요 취소
+		Article article = repository.setUsersFeeling(id, feelingUser, Constants.FEELING_TYPE.LIKE);
+		assertTrue(CollectionUtils.isEmpty(article.getUsersLiking()));
+		assertNull(repository.findOneById(normalArticle.getId()).get().getLikingCount());
+
+		// 다시 좋아요를 누른 뒤 싫어요로 바꾸면 채워진 수만큼만 줄인다.
+		repository.setUsersFeeling(id, feelingUser, Constants.FEELING_TYPE.LIKE);
+		repository.setUsersFeeling(id, feelingUser, Constants.FEELING_TYPE.DISLIKE);
+
+		Article savedArticle = repository.findOneById(normalArticle.getId()).get();
+		assertEquals(0, savedArticle.getLikingCount());
+		assertEquals(1, savedArticle.getDislikingCount());
+	}
 
-		assertEquals(normalArticle.getId(), articles.get(0).getId());
-		assertEquals(noticeArticle.getId(), articles.get(1).getId());
+	@Test
+	public void setUsersFeelingConcurrently() throws InterruptedException {
+		ObjectId id = new ObjectId(normalArticle.getId());
+		int numberOfUsers = 50;
+
+		ExecutorService executorService = Executors.newFixedThreadPool(10);
+		CountDownLatch latch = new CountDownLatch(numberOfUsers);
+
+		for (int i = 0; i < numberOfUsers; i++) {
+			String userId = new ObjectId().toString();
+
+			executorService.execute(() -> {
+				try {
+					repository.setUsersFeeling(id, new CommonFeelingUser(new ObjectId().toString(), userId, "user"),
+						Constants.FEELING_TYPE.LIKE);
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+		executorService.shutdown();
+
+		Article article = repository.findOneById(normalArticle.getId()).get();
+		assertEquals(numberOfUsers, article.getUsersLiking().size());
+		assertEquals(numberOfUsers, article.getLikingCount());
+	}
+
+	@Test
+	public void updateContent() {
+		ObjectId id = new ObjectId(normalArticle.getId());
+		BoardLog boardLog = new BoardLog(new ObjectId().toString(), Constants.ARTICLE_LOG_TYPE.EDIT.name(),
+			new SimpleWriter("571ccf50ccbfc325b20711c5", "test07"));
+
+		// 글을 읽어온 뒤에 늘어난 댓글 수는 고친 글을 저장해도 남아 있어야 한다.
+		Article article = repository.findOneById(normalArticle.getId()).get();
+		repository.increaseCommentCount(id, 1);
+
+		article.setSubject("고친 제목");
+		article.setContent("고친 내용");
+		repository.updateContent(article, boardLog);
+
+		Article savedArticle = repository.findOneById(normalArticle.getId()).get();
+		assertEquals("고친 제목", savedArticle.getSubject());
+		assertEquals("고친 내용", savedArticle.getContent());
+		assertEquals(1, savedArticle.getCommentCount());
+		assertEquals(normalArticle.getViews(), savedArticle.getViews());
+		assertEquals(2, savedArticle.getLogs().size());
+		assertEquals(boardLog.getId(), savedArticle.getLogs().get(1).getId());
+	}
+
+	@Test
+	public void deleteContent() {
+		BoardLog boardLog = new BoardLog(new ObjectId().toString(), Constants.ARTICLE_LOG_TYPE.DELETE.name(),
+			new SimpleWriter("579b6c10807d715e1f833749", "test1"));
+
+		repository.deleteContent(noticeArticle, boardLog);
+
+		Article savedArticle = repository.findOneById(noticeArticle.getId()).get();
+		assertNull(savedArticle.getSubject());
+		assertNull(savedArticle.getContent());
+		assertNull(savedArticle.getWriter());
+		assertTrue(savedArticle.getStatus().getDelete());
+		assertTrue(savedArticle.getStatus().getNotice());
+		assertEquals(1, savedArticle.getUsersLiking().size());
+		assertEquals(3, savedArticle.getLogs().size());
+	}
+
+	@Test
+	public void updateNotice() {
+		ObjectId id = new ObjectId(normalArticle.getId());
+		SimpleWriter admin = new SimpleWriter("54abd1c63d96d076dd18d401", "admin");
+
+		repository.updateNotice(id, true, new BoardLog(new ObjectId().toString(),
+			Constants.ARTICLE_LOG_TYPE.ENABLE_NOTICE.name(), admin));
+		assertEquals(2, repository.findNotices(Constants.SORT_BY_ID_DESC).size());
+
+		repository.updateNotice(id, false, new BoardLog(new ObjectId().toString(),
+			Constants.ARTICLE_LOG_TYPE.DISABLE_NOTICE.name(), admin));
+
+		Article savedArticle = repository.findOneById(normalArticle.getId()).get();
+		assertNull(savedArticle.getStatus().getNotice());
+		assertEquals(3, savedArticle.getLogs().size());
+		assertEquals(1, repository.findNotices(Constants.SORT_BY_ID_DESC).size());
+	}
+
+	@DisplayName("주간 선두 글은 글에 저장된 좋아요 수, 댓글 수를 읽고, 수가 없으면 0 으로 친다")
+	@Test
+	public void findBoardTops() {
+		noticeArticle.setLikingCount(1);
+		noticeArticle.setCommentCount(2);
+		repository.save(noticeArticle);
+
+		List<BoardTopCount> articles = repository.findBoardTops(Constants.BOARD_TYPE.FREE,
+			new ObjectId(DateUtils.localDateToDate(LocalDate.now().minusWeeks(1))));
+
+		assertEquals(4, articles.size());
+
+		BoardTopCount notice = articles.stream()
+			.filter(article -> article.getId().equals(noticeArticle.getId()))
+			.findFirst()
+			.get();
+		assertEquals(Integer.valueOf(1), notice.getLikingCount());
+		assertEquals(Integer.valueOf(2), notice.getCommentCount());
+
+		BoardTopCount normal = articles.stream()
+			.filter(article -> article.getId().equals(normalArticle.getId()))
+			.findFirst()
+			.get();
+		assertEquals(Integer.valueOf(0), normal.getLikingCount());
+		assertEquals(Integer.valueOf(0), normal.getCommentCount());
+		assertEquals(normalArticle.getSubject(), normal.getSubject());
+	}
+
+	private Gallery newLinkedGallery(Constants.GALLERY_STATUS_TYPE status) {
+		return Gallery.builder()
+			.status(new GalleryStatus(status))
+			.name("S__3751942.jpg")
+			.fileName("S__3751942.jpg")
+			.linkedItems(new ArrayList<LinkedItem>() {{
+				add(LinkedItem.builder()
+					.id(linkedGalleryArticle.getId())
+					.from(Constants.GALLERY_FROM_TYPE.ARTICLE)
+					.build());
+			}})
+			.build();
 	}
 
 	@AfterEach
@@ -0,0 +1,86 @@
+package com.jakduk.api.board;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.common.util.DateUtils;
+import com.jakduk.api.model.aggregate.BoardTop;
+import com.jakduk.api.model.aggregate.BoardTopCount;
+import com.jakduk.api.model.db.Article;
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.service.ArticleTopsService;
+
+public class ArticleTopsServiceTests {
+
+	private ArticleTopsService sut;
+
+	private String popularArticleId = new ObjectId().toString();
+	private String talkativeArticleId = new ObjectId().toString();
+
+	@BeforeEach
+	public void setUp() {
+		ArticleRepository articleRepository = mock(ArticleRepository.class);
+
+		when(articleRepository.findBoardTops(any(Constants.BOARD_TYPE.class), any(ObjectId.class)))
+			.thenReturn(Collections.emptyList());
+		when(articleRepository.findBoardTops(eq(Constants.BOARD_TYPE.FREE), any(ObjectId.class)))
+			.thenReturn(Arrays.asList(
+				new BoardTopCount(popularArticleId, 1, null, "좋아요 많은 글", 10, 5, 0),
+				new BoardTopCount(talkativeArticleId, 2, null, "댓글 많은 글", 20, 1, 3)));
+
+		sut = new ArticleTopsService();
+		ReflectionTestUtils.setField(sut, "articleRepository", articleRepository);
+		sut.rebuild();
+	}
+
+	@DisplayName("DB 에서 다시 만든 선두 글에 댓글, 감정 표현, 새 글이 바로 반영된다")
+	@Test
+	public void updateIncrementally() {
+		assertEquals(popularArticleId, sut.getTopLikes(Constants.BOARD_TYPE.FREE).get(0).getId());
+		assertEquals(1, sut.getTopComments(Constants.BOARD_TYPE.FREE).size());
+
+		sut.increaseCommentCount(Constants.BOARD_TYPE.FREE, talkativeArticleId, 1);
+		assertEquals(Integer.valueOf(4), sut.getTopComments(Constants.BOARD_TYPE.FREE).get(0).getCount());
+
+		Article article = new Article();
+		article.setId(new ObjectId().toString());
+		article.setBoard(Constants.BOARD_TYPE.FREE.name());
+		article.setSeq(3);
+		article.setSubject("새 글");
+		article.setViews(0);
+		sut.putArticle(article);
+		sut.setLikingCount(article, 7);
+
+		List<BoardTop> topLikes = sut.getTopLikes(Constants.BOARD_TYPE.FREE);
+		assertEquals(3, topLikes.size());
+		assertEquals(article.getId(), topLikes.get(0).getId());
+		assertEquals(Integer.valueOf(7), topLikes.get(0).getCount());
+
+		sut.removeArticle(article);
+		assertEquals(popularArticleId, sut.getTopLikes(Constants.BOARD_TYPE.FREE).get(0).getId());
+	}
+
+	@DisplayName("일주일 전에 쓴 글은 선두 글에 넣지 않는다")
+	@Test
+	public void ignoreOldArticle() {
+		Article article = new Article();
+		article.setId(new ObjectId(DateUtils.localDateToDate(LocalDate.now().minusDays(8))).toString());
+		article.setBoard(Constants.BOARD_TYPE.FREE.name());
+		sut.setLikingCount(article, 100);
+
+		assertNotEquals(article.getId(), sut.getTopLikes(Constants.BOARD_TYPE.FREE).get(0).getId());
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.jakduk.api.board;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.util.Collections;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.service.ArticleViewsService;
+
+public class ArticleViewsServiceTests {
+
+	private ArticleViewsService sut;
+	private ArticleRepository articleRepository;
+
+	private String appliedArticleId = new ObjectId().toString();
+	private String failedArticleId = new ObjectId().toString();
+
+	@BeforeEach
+	public void setUp() {
+		articleRepository = mock(ArticleRepository.class);
+
+		sut = new ArticleViewsService();
+		ReflectionTestUtils.setField(sut, "articleRepository", articleRepository);
+
+		sut.increaseViews(appliedArticleId);
+		sut.increaseViews(appliedArticleId);
+		sut.increaseViews(failedArticleId);
+	}
+
+	@DisplayName("일부 글만 반영에 실패하면 그 글의 읽음 수만 다음 반영으로 넘긴다")
+	@Test
+	public void flushViewsPartially() {
+		when(articleRepository.increaseViews(anyMap())).thenReturn(Collections.singletonList(failedArticleId));
+
+		sut.flushViews();
+
+		assertEquals(0, sut.getPendingViews(appliedArticleId));
+		assertEquals(1, sut.getPendingViews(failedArticleId));
+
+		// 다음 반영에는 실패한 글만 간다.
+		when(articleRepository.increaseViews(anyMap())).thenReturn(Collections.emptyList());
+		sut.flushViews();
+
+		verify(articleRepository).increaseViews(Collections.singletonMap(failedArticleId, 1L));
+		assertEquals(0, sut.getPendingViews(failedArticleId));
+	}
+
+	@DisplayName("반영 자체가 실패하면 모든 읽음 수를 다음 반영으로 넘긴다")
+	@Test
+	public void flushViewsFailed() {
+		when(articleRepository.increaseViews(anyMap())).thenThrow(new IllegalStateException("timeout"));
+
+		sut.flushViews();
+
+		assertEquals(2, sut.getPendingViews(appliedArticleId));
+		assertEquals(1, sut.getPendingViews(failedArticleId));
+	}
+
+}
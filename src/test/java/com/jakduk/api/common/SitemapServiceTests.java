@@ -0,0 +1,162 @@
+package com.jakduk.api.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.common.util.UrlGenerationUtils;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.exception.ServiceException;
+import com.jakduk.api.model.aggregate.SitemapShard;
+import com.jakduk.api.model.simple.ArticleOnSitemap;
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.service.SitemapService;
+
+public class SitemapServiceTests {
+
+	private static final int SHARD_SIZE = Constants.SITEMAP_URLS_EACH_SHARD;
+
+	private SitemapService sut;
+	private JakdukProperties jakdukProperties;
+	private ArticleRepository articleRepository;
+
+	@TempDir
+	Path sitemapPath;
+
+	private LocalDateTime lastUpdated = LocalDateTime.parse("2026-10-01T10:00:00");
+
+	@BeforeEach
+	public void setUp() {
+		jakdukProperties = new JakdukProperties();
+		jakdukProperties.setWebServerUrl("https://jakduk.com");
+
+		JakdukProperties.Storage storageProperties = jakdukProperties.new Storage();
+		storageProperties.setSitemapPath(sitemapPath.toString());
+
+		UrlGenerationUtils urlGenerationUtils = new UrlGenerationUtils();
+		ReflectionTestUtils.setField(urlGenerationUtils, "jakdukProperties", jakdukProperties);
+
+		articleRepository = mock(ArticleRepository.class);
+		when(articleRepository.findSitemapShards(SHARD_SIZE)).thenReturn(Arrays.asList(
+			new SitemapShard(0, 2, lastUpdated),
+			new SitemapShard(SHARD_SIZE, 1, lastUpdated)));
+		when(articleRepository.findSitemapArticlesBySeq(0, SHARD_SIZE)).thenReturn(Arrays.asList(
+			new ArticleOnSitemap("5991c456acd2b30380b6b3e4", "FREE", 1, lastUpdated),
+			new ArticleOnSitemap("5991c456acd2b30380b6b3e5", "FREE", 2, lastUpdated)));
+		when(articleRepository.findSitemapArticlesBySeq(SHARD_SIZE, SHARD_SIZE * 2)).thenReturn(
+			Collections.singletonList(new ArticleOnSitemap("5991c456acd2b30380b6b3e6", "FOOTBALL", SHARD_SIZE + 1,
+				lastUpdated)));
+
+		sut = new SitemapService();
+		ReflectionTestUtils.setField(sut, "jakdukProperties", jakdukProperties);
+		ReflectionTestUtils.setField(sut, "storageProperties", storageProperties);
+		ReflectionTestUtils.setField(sut, "urlGenerationUtils", urlGenerationUtils);
+		ReflectionTestUtils.setField(sut, "articleRepository", articleRepository);
+	}
+
+	@DisplayName("요청에서는 사이트맵을 만들지 않는다")
+	@Test
+	public void getSitemapIndexBeforeGenerated() {
+		assertThrows(ServiceException.class, () -> sut.getSitemapIndex());
+		verifyNoInteractions(articleRepository);
+	}
+
+	@DisplayName("첫 실행에서 모든 구간과 인덱스를 만든다")
+	@Test
+	public void regenerate() throws IOException {
+		sut.regenerate();
+
+		assertTrue(read(sut.getSitemap(0).getFile().toPath()).contains("https://jakduk.com/board/free/2"));
+		assertTrue(read(sut.getSitemap(1).getFile().toPath()).contains("https://jakduk.com/board/football/10001"));
+
+		String index = read(sut.getSitemapIndex().getFile().toPath());
+		assertTrue(index.contains("https://jakduk.com/sitemap-0.xml"));
+		assertTrue(index.contains("https://jakduk.com/sitemap-1.xml"));
+	}
+
+	@DisplayName("전체 점검 사이에는 구간 집계 없이 lastUpdated 가 바뀐 글의 구간만 다시 만든다")
+	@Test
+	public void regenerateUpdatedShards() {
+		sut.regenerate();
+
+		// 바뀐 게 없으면 아무것도 만들지 않는다.
+		when(articleRepository.findSeqsUpdatedAfter(any(LocalDateTime.class))).thenReturn(Collections.emptyList());
+		sut.regenerate();
+
+		verify(articleRepository, times(1)).findSitemapShards(SHARD_SIZE);
+		verify(articleRepository, times(1)).findSitemapArticlesBySeq(0, SHARD_SIZE);
+		verify(articleRepository, times(1)).findSitemapArticlesBySeq(SHARD_SIZE, SHARD_SIZE * 2);
+
+		// 다른 서버에서 두 번째 구간의 글이 고쳐졌다.
+		when(articleRepository.findSeqsUpdatedAfter(any(LocalDateTime.class)))
+			.thenReturn(Collections.singletonList(SHARD_SIZE + 1));
+		sut.regenerate();
+
+		verify(articleRepository, times(1)).findSitemapShards(SHARD_SIZE);
+		verify(articleRepository, times(1)).findSitemapArticlesBySeq(0, SHARD_SIZE);
+		verify(articleRepository, times(2)).findSitemapArticlesBySeq(SHARD_SIZE, SHARD_SIZE * 2);
+	}
+
+	@DisplayName("전체 점검에서는 DB 의 글 수, 최근 시각이 바뀐 구간만 다시 만든다")
+	@Test
+	public void regenerateChangedShards() {
+		jakdukProperties.setSitemapFullCheckInterval(0L);
+
+		sut.regenerate();
+
+		// 바뀐 게 없으면 아무것도 만들지 않는다.
+		sut.regenerate();
+
+		verify(articleRepository, times(1)).findSitemapArticlesBySeq(0, SHARD_SIZE);
+		verify(articleRepository, times(1)).findSitemapArticlesBySeq(SHARD_SIZE, SHARD_SIZE * 2);
+
+		// 다른 서버에서 두 번째 구간의 글이 고쳐졌다.
+		when(articleRepository.findSitemapShards(SHARD_SIZE)).thenReturn(Arrays.asList(
+			new SitemapShard(0, 2, lastUpdated),
+			new SitemapShard(SHARD_SIZE, 1, lastUpdated.plusMinutes(1))));
+
+		sut.regenerate();
+
+		verify(articleRepository, times(1)).findSitemapArticlesBySeq(0, SHARD_SIZE);
+		verify(articleRepository, times(2)).findSitemapArticlesBySeq(SHARD_SIZE, SHARD_SIZE * 2);
+		verify(articleRepository, never()).findSeqsUpdatedAfter(any(LocalDateTime.class));
+	}
+
+	@DisplayName("글이 모두 지워진 구간은 전체 점검에서 파일과 인덱스에서 빠진다")
+	@Test
+	public void regenerateRemovedShard() throws IOException {
+		jakdukProperties.setSitemapFullCheckInterval(0L);
+
+		sut.regenerate();
+
+		when(articleRepository.findSitemapShards(SHARD_SIZE)).thenReturn(Collections.singletonList(
+			new SitemapShard(SHARD_SIZE, 1, lastUpdated)));
+		when(articleRepository.findSitemapArticlesBySeq(0, SHARD_SIZE)).thenReturn(Collections.emptyList());
+
+		sut.regenerate();
+
+		assertThrows(ServiceException.class, () -> sut.getSitemap(0));
+
+		String index = read(sut.getSitemapIndex().getFile().toPath());
+		assertFalse(index.contains("https://jakduk.com/sitemap-0.xml"));
+		assertTrue(index.contains("https://jakduk.com/sitemap-1.xml"));
+	}
+
+	private String read(Path path) throws IOException {
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+
+}
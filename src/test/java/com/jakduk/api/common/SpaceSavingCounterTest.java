@@ -0,0 +1,37 @@
+package com.jakduk.api.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpaceSavingCounterTest {
+
+	@DisplayName("자리가 모자라도 자주 나온 검색어는 남고, 확실히 센 수만 돌려준다")
+	@Test
+	public void keepHeavyHitters() {
+		SpaceSavingCounter counter = new SpaceSavingCounter(3);
+
+		for (int i = 0; i < 10; i++)
+			counter.offer("수원");
+
+		for (int i = 0; i < 5; i++)
+			counter.offer("서울");
+
+		counter.offer("전북");
+		counter.offer("울산");
+		counter.offer("포항");
+
+		List<SpaceSavingCounter.Count> counts = counter.getCounts();
+
+		assertEquals(3, counts.size());
+		assertEquals("수원", counts.get(0).getKey());
+		assertEquals(10, counts.get(0).getCount());
+		assertEquals("서울", counts.get(1).getKey());
+		assertEquals(5, counts.get(1).getCount());
+		assertEquals(1, counts.get(2).getCount());
+	}
+
+}
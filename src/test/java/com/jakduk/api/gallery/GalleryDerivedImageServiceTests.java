@@ -0,0 +1,166 @@
+package com.jakduk.api.gallery;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.exception.ServiceException;
+import com.jakduk.api.service.GalleryDerivedImageService;
+
+public class GalleryDerivedImageServiceTests {
+
+	private static final int WIDTH = 100;
+
+	private GalleryDerivedImageService sut;
+	private JakdukProperties.Storage storageProperties;
+	private ExecutorService executorService;
+
+	@TempDir
+	Path tempDir;
+
+	private Path sourcePath;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		storageProperties = new JakdukProperties().new Storage();
+		storageProperties.setDerivedImagePath(tempDir.resolve("derived").toString());
+		storageProperties.setDerivedImageEvictionGrace(0L);
+
+		sut = new GalleryDerivedImageService();
+		ReflectionTestUtils.setField(sut, "storageProperties", storageProperties);
+
+		sourcePath = tempDir.resolve("source.png");
+		ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB), "png", sourcePath.toFile());
+
+		executorService = Executors.newSingleThreadExecutor();
+	}
+
+	@DisplayName("전체 크기가 넘치면 가장 오래 안 쓰인 파생 이미지부터 지운다")
+	@Test
+	public void evictLeastRecentlyUsed() throws IOException {
+		String id01 = new ObjectId().toString();
+		String id02 = new ObjectId().toString();
+		String id03 = new ObjectId().toString();
+
+		Path path01 = sut.getDerivedImage(id01, "png", sourcePath, WIDTH);
+		long size = Files.size(path01);
+
+		// 두 개 반이 들어가는 크기
+		storageProperties.setDerivedImageCacheSize(size * 5 / 2);
+
+		Path path02 = sut.getDerivedImage(id02, "png", sourcePath, WIDTH);
+
+		// 첫 번째를 다시 쓰면 두 번째가 가장 오래 안 쓰인 것이 된다.
+		assertEquals(path01, sut.getDerivedImage(id01, "png", sourcePath, WIDTH));
+
+		Path path03 = sut.getDerivedImage(id03, "png", sourcePath, WIDTH);
+
+		assertTrue(Files.isRegularFile(path01));
+		assertFalse(Files.exists(path02));
+		assertTrue(Files.isRegularFile(path03));
+	}
+
+	@DisplayName("방금 준 파생 이미지는 전체 크기가 넘쳐도 derivedImageEvictionGrace 가 지나기 전에는 지우지 않는다")
+	@Test
+	public void evictAfterGrace() throws IOException {
+		storageProperties.setDerivedImageEvictionGrace(60000L);
+
+		Path path01 = sut.getDerivedImage(new ObjectId().toString(), "png", sourcePath, WIDTH);
+		storageProperties.setDerivedImageCacheSize(Files.size(path01));
+
+		Path path02 = sut.getDerivedImage(new ObjectId().toString(), "png", sourcePath, WIDTH);
+
+		assertTrue(Files.isRegularFile(path01));
+		assertTrue(Files.isRegularFile(path02));
+
+		storageProperties.setDerivedImageEvictionGrace(0L);
+
+		Path path03 = sut.getDerivedImage(new ObjectId().toString(), "png", sourcePath, WIDTH);
+
+		assertFalse(Files.exists(path01));
+		assertFalse(Files.exists(path02));
+		assertTrue(Files.isRegularFile(path03));
+	}
+
+	@DisplayName("원본이 요청한 너비보다 작으면 원본을 주고, 다음 요청에는 원본을 다시 읽지 않는다")
+	@Test
+	public void getDerivedImageSmallerSource() throws IOException {
+		String id = new ObjectId().toString();
+
+		assertEquals(sourcePath, sut.getDerivedImage(id, "png", sourcePath, 800));
+
+		// 원본을 읽으면 실패한다.
+		Files.write(sourcePath, new byte[] {0, 1, 2});
+
+		assertEquals(sourcePath, sut.getDerivedImage(id, "png", sourcePath, 800));
+		assertFalse(Files.exists(tempDir.resolve("derived").resolve(id)));
+	}
+
+	@DisplayName("같은 파생 이미지를 만들고 있으면 다시 만들지 않고 그 결과를 기다린다")
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getDerivedImageSingleFlight() throws Exception {
+		String id = new ObjectId().toString();
+		String key = id + "/" + WIDTH + ".png";
+		Path renderedPath = tempDir.resolve("rendered.png");
+
+		Map<String, CompletableFuture<Path>> inFlight =
+			(Map<String, CompletableFuture<Path>>)ReflectionTestUtils.getField(sut, "inFlight");
+
+		CompletableFuture<Path> running = new CompletableFuture<>();
+		inFlight.put(key, running);
+
+		Future<Path> waiting = executorService.submit(() -> sut.getDerivedImage(id, "png", sourcePath, WIDTH));
+
+		// 먼저 만들고 있는 요청이 끝날 때까지 기다린다.
+		Thread.sleep(200);
+		assertFalse(waiting.isDone());
+
+		running.complete(renderedPath);
+
+		assertEquals(renderedPath, waiting.get(5, TimeUnit.SECONDS));
+		assertFalse(Files.exists(tempDir.resolve("derived").resolve(key)));
+	}
+
+	@DisplayName("먼저 만들던 요청이 실패하면 기다리던 요청도 실패한다")
+	@Test
+	@SuppressWarnings("unchecked")
+	public void getDerivedImageSingleFlightFailed() {
+		String id = new ObjectId().toString();
+
+		Map<String, CompletableFuture<Path>> inFlight =
+			(Map<String, CompletableFuture<Path>>)ReflectionTestUtils.getField(sut, "inFlight");
+
+		CompletableFuture<Path> running = new CompletableFuture<>();
+		running.completeExceptionally(new IOException("disk full"));
+		inFlight.put(id + "/" + WIDTH + ".png", running);
+
+		assertThrows(ServiceException.class, () -> sut.getDerivedImage(id, "png", sourcePath, WIDTH));
+	}
+
+	@AfterEach
+	public void after() {
+		executorService.shutdownNow();
+	}
+
+}
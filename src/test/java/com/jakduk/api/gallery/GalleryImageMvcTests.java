@@ -0,0 +1,122 @@
+package com.jakduk.api.gallery;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jakduk.api.TestMvcConfig;
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.controller.DefaultViewController;
+import com.jakduk.api.model.db.Gallery;
+import com.jakduk.api.model.embedded.GalleryStatus;
+import com.jakduk.api.service.GalleryService;
+import com.jakduk.api.service.RssFeedService;
+import com.jakduk.api.service.SitemapService;
+import com.jakduk.api.service.UserPictureService;
+
+@WebMvcTest(DefaultViewController.class)
+@Import({TestMvcConfig.class})
+public class GalleryImageMvcTests {
+
+	private static final String IMAGE = "0123456789";
+	private static final String HASH = "8f7d88e901a5ad3a05d8cc0de93313fd";
+
+	@Autowired
+	private MockMvc mvc;
+	@MockBean
+	private GalleryService galleryService;
+	@MockBean
+	private UserPictureService userPictureService;
+	@MockBean
+	private SitemapService sitemapService;
+	@MockBean
+	private RssFeedService rssFeedService;
+
+	@TempDir
+	Path tempDir;
+
+	private Gallery gallery;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		Path imagePath = Files.write(tempDir.resolve("image.png"), IMAGE.getBytes(StandardCharsets.UTF_8));
+
+		gallery = Gallery.builder()
+			.id(new ObjectId().toString())
+			.status(new GalleryStatus(Constants.GALLERY_STATUS_TYPE.ENABLE))
+			.contentType("image/png")
+			.hash(HASH)
+			.build();
+
+		when(galleryService.findOneById(gallery.getId())).thenReturn(gallery);
+		when(galleryService.getGalleryResource(eq(gallery.getId()), anyString(), any(Constants.IMAGE_TYPE.class)))
+			.thenReturn(new FileSystemResource(imagePath));
+	}
+
+	@Test
+	@WithMockUser
+	public void getGallery() throws Exception {
+		mvc.perform(get("/gallery/{id}", gallery.getId()))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+			.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+			.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+			.andExpect(content().string(IMAGE));
+	}
+
+	@Test
+	@WithMockUser
+	public void getGalleryRange() throws Exception {
+		mvc.perform(get("/gallery/{id}", gallery.getId())
+			.header(HttpHeaders.RANGE, "bytes=2-5"))
+			.andExpect(status().isPartialContent())
+			.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+			.andExpect(content().string("2345"));
+	}
+
+	@Test
+	@WithMockUser
+	public void getGalleryNotModified() throws Exception {
+		mvc.perform(get("/gallery/{id}", gallery.getId())
+			.header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+			.andExpect(status().isNotModified());
+
+		// 썸네일은 원본과 ETag 가 다르다.
+		mvc.perform(get("/gallery/thumbnail/{id}", gallery.getId())
+			.header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "-thumbnail\""));
+	}
+
+	@Test
+	@WithMockUser
+	public void getGalleryProcessing() throws Exception {
+		gallery.setStatus(new GalleryStatus(Constants.GALLERY_STATUS_TYPE.ENABLE,
+			Constants.GALLERY_PROCESS_STATUS_TYPE.PROCESSING));
+
+		mvc.perform(get("/gallery/{id}", gallery.getId()))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+			.andExpect(header().doesNotExist(HttpHeaders.ETAG))
+			.andExpect(content().string(IMAGE));
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.jakduk.api.gallery;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.db.GalleryRemoval;
+import com.jakduk.api.repository.gallery.GalleryRemovalRepository;
+
+@DataMongoTest
+public class GalleryRemovalRepositoryTests {
+
+	@Autowired
+	private GalleryRemovalRepository repository;
+
+	private String userId = "571ccf50ccbfc325b20711c5";
+	private String articleId = new ObjectId().toString();
+
+	@Test
+	public void addGalleryId() {
+		String galleryId01 = new ObjectId().toString();
+		String galleryId02 = new ObjectId().toString();
+
+		repository.addGalleryId(userId, Constants.GALLERY_FROM_TYPE.ARTICLE, articleId, galleryId01);
+		repository.addGalleryId(userId, Constants.GALLERY_FROM_TYPE.ARTICLE, articleId, galleryId02);
+		repository.addGalleryId(userId, Constants.GALLERY_FROM_TYPE.ARTICLE, articleId, galleryId01);
+
+		GalleryRemoval galleryRemoval = repository.findOneByUserIdAndFromAndItemId(userId,
+			Constants.GALLERY_FROM_TYPE.ARTICLE, articleId).get();
+
+		assertEquals(Arrays.asList(galleryId01, galleryId02), galleryRemoval.getGalleryIds());
+		assertNotNull(galleryRemoval.getLastUpdated());
+
+		// 다른 회원, 다른 출처의 목록과는 섞이지 않는다.
+		assertFalse(repository.findOneByUserIdAndFromAndItemId("579b6c10807d715e1f833749",
+			Constants.GALLERY_FROM_TYPE.ARTICLE, articleId).isPresent());
+		assertFalse(repository.findOneByUserIdAndFromAndItemId(userId,
+			Constants.GALLERY_FROM_TYPE.ARTICLE_COMMENT, articleId).isPresent());
+
+		repository.pullGalleryIds(userId, Constants.GALLERY_FROM_TYPE.ARTICLE, articleId,
+			Arrays.asList(galleryId01, galleryId02));
+		assertFalse(repository.findOneByUserIdAndFromAndItemId(userId, Constants.GALLERY_FROM_TYPE.ARTICLE,
+			articleId).isPresent());
+	}
+
+	@Test
+	public void pullGalleryIds() {
+		String galleryId01 = new ObjectId().toString();
+		String galleryId02 = new ObjectId().toString();
+
+		repository.addGalleryId(userId, Constants.GALLERY_FROM_TYPE.ARTICLE, articleId, galleryId01);
+
+		// 편집을 마치는 사이에 다른 요청이 사진을 더 지웠다.
+		repository.addGalleryId(userId, Constants.GALLERY_FROM_TYPE.ARTICLE, articleId, galleryId02);
+		repository.pullGalleryIds(userId, Constants.GALLERY_FROM_TYPE.ARTICLE, articleId,
+			Collections.singletonList(galleryId01));
+
+		GalleryRemoval galleryRemoval = repository.findOneByUserIdAndFromAndItemId(userId,
+			Constants.GALLERY_FROM_TYPE.ARTICLE, articleId).get();
+
+		assertEquals(Collections.singletonList(galleryId02), galleryRemoval.getGalleryIds());
+	}
+
+	@AfterEach
+	public void after() {
+		repository.deleteAll();
+	}
+
+}
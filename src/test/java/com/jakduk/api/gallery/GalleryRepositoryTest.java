@@ -15,11 +15,13 @@ import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.util.CollectionUtils;
 
 import com.jakduk.api.common.Constants;
+import com.jakduk.api.model.aggregate.LinkedItemGallery;
 import com.jakduk.api.model.db.Gallery;
 import com.jakduk.api.model.embedded.CommonWriter;
 import com.jakduk.api.model.embedded.GalleryStatus;
 import com.jakduk.api.model.embedded.LinkedItem;
 import com.jakduk.api.model.embedded.UserPictureInfo;
+import com.jakduk.api.model.simple.GalleryOnFeed;
 import com.jakduk.api.repository.gallery.GalleryRepository;
 
 /**
@@ -144,6 +146,80 @@ public class GalleryRepositoryTest {
 		assertTrue(CollectionUtils.contains(galleries.iterator(), articleGallery02));
 	}
 
+	@Test
+	public void findFirstByItemIdsAndFromType() {
+		List<LinkedItemGallery> linkedItemGalleries = repository.findFirstByItemIdsAndFromType(
+			Arrays.asList(new ObjectId(articleId), new ObjectId("58ee422be846b60526cd3382")),
+			Constants.GALLERY_FROM_TYPE.ARTICLE);
+		assertEquals(1, linkedItemGalleries.size());
+		assertEquals(articleId, linkedItemGalleries.get(0).getId());
+		assertEquals(articleGallery02.getId(), linkedItemGalleries.get(0).getGalleryId());
+	}
+
+	@Test
+	public void findByItemIdsAndFromType() {
+		List<Gallery> galleries = repository.findByItemIdsAndFromType(
+			Arrays.asList(new ObjectId(articleId), new ObjectId("58ee422be846b60526cd3382")),
+			Constants.GALLERY_FROM_TYPE.ARTICLE);
+		assertEquals(2, galleries.size());
+		assertTrue(galleries.stream().allMatch(gallery -> gallery.getLinkedItems().get(0).getId().equals(articleId)));
+	}
+
+	@Test
+	public void findGalleriesGreaterThanId() {
+		List<Gallery> galleries = repository.findGalleriesGreaterThanId(new ObjectId(articleGallery01.getId()), 10);
+		assertEquals(2, galleries.size());
+		assertEquals(articleGallery02.getId(), galleries.get(0).getId());
+		assertEquals(articleCommentGallery.getId(), galleries.get(1).getId());
+	}
+
+	@Test
+	public void findGalleryFeed() {
+		List<GalleryOnFeed> galleries = repository.findGalleryFeed(new ObjectId(articleCommentGallery.getId()), 10);
+		assertEquals(2, galleries.size());
+		assertEquals(articleGallery02.getId(), galleries.get(0).getId());
+		assertEquals(articleGallery01.getId(), galleries.get(1).getId());
+		assertEquals("S__3751939.jpg", galleries.get(0).getFileName());
+		assertEquals("test07", galleries.get(0).getWriter().getUsername());
+	}
+
+	@Test
+	public void updateProcessStatus() {
+		repository.updateProcessStatus(new ObjectId(tempGallery.getId()),
+			Constants.GALLERY_PROCESS_STATUS_TYPE.COMPLETED, 1024L);
+
+		Gallery gallery = repository.findOneById(tempGallery.getId()).get();
+		assertEquals(Constants.GALLERY_STATUS_TYPE.TEMP, gallery.getStatus().getStatus());
+		assertEquals(Constants.GALLERY_PROCESS_STATUS_TYPE.COMPLETED, gallery.getStatus().getProcess());
+		assertEquals(Long.valueOf(1024L), gallery.getSize());
+		assertEquals(Long.valueOf(292652L), gallery.getFileSize());
+	}
+
+	@Test
+	public void linkItemAndUnlinkItem() {
+		ObjectId id = new ObjectId(tempGallery.getId());
+		LinkedItem linkedItem = new LinkedItem(articleId, Constants.GALLERY_FROM_TYPE.ARTICLE);
+
+		// 처리가 먼저 끝나도 엮을 때 처리 상태가 되돌아가지 않는다.
+		repository.updateProcessStatus(id, Constants.GALLERY_PROCESS_STATUS_TYPE.COMPLETED, null);
+		repository.linkItem(id, linkedItem, "공차는사진", Constants.GALLERY_STATUS_TYPE.ENABLE);
+		repository.linkItem(id, linkedItem, null, Constants.GALLERY_STATUS_TYPE.ENABLE);
+
+		Gallery gallery = repository.findOneById(tempGallery.getId()).get();
+		assertEquals(Constants.GALLERY_STATUS_TYPE.ENABLE, gallery.getStatus().getStatus());
+		assertEquals(Constants.GALLERY_PROCESS_STATUS_TYPE.COMPLETED, gallery.getStatus().getProcess());
+		assertEquals("공차는사진", gallery.getName());
+		assertEquals(1, gallery.getLinkedItems().size());
+		assertEquals(3, repository.findByItemIdAndFromType(new ObjectId(articleId),
+			Constants.GALLERY_FROM_TYPE.ARTICLE, 10).size());
+
+		repository.unlinkItem(id, linkedItem);
+
+		assertTrue(CollectionUtils.isEmpty(repository.findOneById(tempGallery.getId()).get().getLinkedItems()));
+		assertEquals(Constants.GALLERY_PROCESS_STATUS_TYPE.COMPLETED,
+			repository.findOneById(tempGallery.getId()).get().getStatus().getProcess());
+	}
+
 	@AfterEach
 	public void after() {
 		repository.deleteById(articleGallery01.getId());
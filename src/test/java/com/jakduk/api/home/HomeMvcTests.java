@@ -10,7 +10,6 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.util.Arrays;
 import java.util.List;
 
-import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.BeanUtils;
@@ -44,10 +43,7 @@ import com.jakduk.api.restcontroller.vo.home.HomeArticle;
 import com.jakduk.api.restcontroller.vo.home.HomeArticleComment;
 import com.jakduk.api.restcontroller.vo.home.HomeGallery;
 import com.jakduk.api.restcontroller.vo.home.HomeLatestItemsResponse;
-import com.jakduk.api.service.ArticleService;
-import com.jakduk.api.service.GalleryService;
 import com.jakduk.api.service.HomeService;
-import com.jakduk.api.service.UserService;
 
 @WebMvcTest(HomeRestController.class)
 @Import({TestMvcConfig.class})
@@ -60,12 +56,6 @@ public class HomeMvcTests {
 	private MockMvc mvc;
 	@MockBean
 	private HomeService homeService;
-	@MockBean
-	private UserService userService;
-	@MockBean
-	private ArticleService articleService;
-	@MockBean
-	private GalleryService galleryService;
 
 	@BeforeAll
 	public static void setUp() {
@@ -170,21 +160,6 @@ public class HomeMvcTests {
 			}}
 		);
 
-		when(homeService.getHomeDescription())
-			.thenReturn(homeDescription);
-
-		when(userService.findSimpleUsers())
-			.thenReturn(users);
-
-		when(articleService.getLatestComments())
-			.thenReturn(comments);
-
-		when(articleService.getLatestArticles())
-			.thenReturn(articles);
-
-		when(galleryService.findSimpleById(nullable(ObjectId.class), anyInt()))
-			.thenReturn(galleries);
-
 		HomeLatestItemsResponse response = new HomeLatestItemsResponse();
 		response.setHomeDescription(homeDescription);
 		response.setUsers(users);
@@ -192,6 +167,9 @@ public class HomeMvcTests {
 		response.setArticles(articles);
 		response.setGalleries(galleries);
 
+		when(homeService.getLatestItems())
+			.thenReturn(response);
+
 		mvc.perform(
 				get("/api/home/latest")
 					.accept(MediaType.APPLICATION_JSON))
@@ -1,55 +1,87 @@
 package com.jakduk.api.listener;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-
+import java.util.List;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
-import org.springframework.amqp.rabbit.connection.Connection;
-import org.springframework.amqp.rabbit.connection.ConnectionFactory;
-import org.springframework.amqp.rabbit.test.TestRabbitTemplate;
-import org.springframework.amqp.rabbit.test.context.SpringRabbitTest;
-import org.springframework.amqp.support.AmqpHeaders;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
-import org.springframework.amqp.support.converter.MessageConverter;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.TestConfiguration;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.Bean;
-import org.springframework.test.context.TestPropertySource;
-import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.common.util.ObjectMapperUtils;
 import com.jakduk.api.configuration.JakdukProperties;
 import com.jakduk.api.model.elasticsearch.EsComment;
 import com.jakduk.api.model.embedded.ArticleItem;
+import com.jakduk.api.service.SearchReindexService;
 import com.jakduk.api.service.SearchService;
 import com.rabbitmq.client.Channel;
 
-@SpringJUnitConfig(ElasticsearchListenerTests.Config.class)
-@SpringRabbitTest
-@TestPropertySource(properties = "jakduk.rabbitmq.queues.elasticsearch.binding-queue-name = " + ElasticsearchListenerTests.ROUTING_KEY)
 public class ElasticsearchListenerTests {
 
-	@Autowired
-	private TestRabbitTemplate rabbitTemplate;
-
-	@MockBean
-	private JakdukProperties.Rabbitmq rabbitmqProperties;
+	private static final String INDEX_COMMENT_ROUTING_KEY = "dev.elasticsearch.index-document-article-comment";
+	private static final String DELETE_COMMENT_ROUTING_KEY = "dev.elasticsearch.delete-document-article-comment";
 
-	@MockBean
+	private ElasticsearchListener listener;
 	private SearchService searchService;
+	private SearchReindexService searchReindexService;
+	private RabbitTemplate rabbitTemplate;
+	private Channel channel;
 
-	public final static String ROUTING_KEY = "dev.elasticsearch.index-document-article-comment";
+	@BeforeEach
+	public void setUp() throws IOException {
+		JakdukProperties.Rabbitmq rabbitmqProperties = mock(JakdukProperties.Rabbitmq.class);
+		when(rabbitmqProperties.getRoutingKeys())
+			.thenReturn(new HashMap<String, String>() {{
+				put("email-welcome", "dev.email.welcome");
+				put("elasticsearch-index-document-article-comment", INDEX_COMMENT_ROUTING_KEY);
+				put("elasticsearch-delete-document-article-comment", DELETE_COMMENT_ROUTING_KEY);
+			}});
+		when(rabbitmqProperties.getExchangeName()).thenReturn("jakduk-dev");
+		when(rabbitmqProperties.getElasticsearchMaxAttempts()).thenReturn(3);
+
+		searchService = mock(SearchService.class);
+		searchReindexService = mock(SearchReindexService.class);
+		rabbitTemplate = mock(RabbitTemplate.class);
+		channel = mock(Channel.class);
+
+		when(searchService.getIndexBoardCommentRequest(any(EsComment.class)))
+			.thenAnswer(invocation -> new IndexRequest("board").id(((EsComment)invocation.getArgument(0)).getId()));
+		when(searchService.getDeleteBoardCommentRequest(anyString()))
+			.thenAnswer(invocation -> new DeleteRequest("board", invocation.getArgument(0)));
+
+		listener = new ElasticsearchListener();
+		ReflectionTestUtils.setField(listener, "rabbitmqProperties", rabbitmqProperties);
+		ReflectionTestUtils.setField(listener, "searchService", searchService);
+		ReflectionTestUtils.setField(listener, "searchReindexService", searchReindexService);
+		ReflectionTestUtils.setField(listener, "rabbitTemplate", rabbitTemplate);
+		listener.buildRoutingKeyLookup();
+	}
 
-	@DisplayName("MQ 메시지 send 할때 __TypeId__ 가 receive 쪽에서 일치 하지 않으면 에러가 발생하는데 RabbitTemplate 에서 헤더를 지워 준다")
+	@DisplayName("같은 문서에 대한 메시지는 마지막 요청 하나로 합쳐서 bulk 로 보내고, 모두 ack 한다")
 	@Test
-	public void indexDocumentBoardCommentWithTypeIdHeaderValidation() throws IOException {
+	public void collapseSameDocument() throws IOException {
 		EsComment esComment = new EsComment();
 		esComment.setId("test-comment-id");
 		esComment.setArticle(new ArticleItem("test-article-id", 10, Constants.BOARD_TYPE.FREE.name()));
@@ -58,63 +90,128 @@ public class ElasticsearchListenerTests {
 			add("test-gallery-id");
 		}});
 
-		when(rabbitmqProperties.getRoutingKeys())
-			.thenReturn(new HashMap<String, String>() {{
-				put("elasticsearch-index-document-article-comment", ElasticsearchListenerTests.ROUTING_KEY);
-			}});
+		BulkItemResponse itemResponse = mock(BulkItemResponse.class);
+		when(itemResponse.isFailed()).thenReturn(false);
+		mockBulkResponse(itemResponse);
+
+		listener.receive(Arrays.asList(
+			newMessage(1L, INDEX_COMMENT_ROUTING_KEY, esComment),
+			newMessage(2L, DELETE_COMMENT_ROUTING_KEY, esComment.getId())), channel);
+
+		ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+		verify(searchService, times(1)).bulk(captor.capture());
+		assertEquals(1, captor.getValue().requests().size());
+		assertEquals(DocWriteRequest.OpType.DELETE, captor.getValue().requests().get(0).opType());
+
+		verify(channel).basicAck(1L, false);
+		verify(channel).basicAck(2L, false);
+	}
+
+	@DisplayName("재색인 중인 인덱스에 함께 보내는 삭제는 bulk 를 보내기 전에 기록한다")
+	@Test
+	@SuppressWarnings("unchecked")
+	public void recordShadowDeletion() throws IOException {
+		when(searchReindexService.getReindexingIndex("board")).thenReturn("board_new");
+		when(searchService.copyRequest(any(DocWriteRequest.class), anyString()))
+			.thenAnswer(invocation -> new DeleteRequest(invocation.getArgument(1),
+				((DocWriteRequest<?>)invocation.getArgument(0)).id()));
+
+		BulkItemResponse itemResponse = mock(BulkItemResponse.class);
+		when(itemResponse.isFailed()).thenReturn(false);
+		mockBulkResponse(itemResponse, itemResponse);
+
+		listener.receive(Collections.singletonList(newMessage(1L, DELETE_COMMENT_ROUTING_KEY, "test-comment-id")),
+			channel);
+
+		ArgumentCaptor<List<DeleteRequest>> captor = ArgumentCaptor.forClass(List.class);
+		InOrder inOrder = inOrder(searchReindexService, searchService);
+		inOrder.verify(searchReindexService).recordDeletions(captor.capture());
+		inOrder.verify(searchService).bulk(any(BulkRequest.class));
+
+		assertEquals(1, captor.getValue().size());
+		assertEquals("board_new", captor.getValue().get(0).index());
+		assertEquals("test-comment-id", captor.getValue().get(0).id());
+		verify(channel).basicAck(1L, false);
+	}
+
+	@DisplayName("일시적으로 실패한 항목은 재시도 큐로, 알 수 없는 라우팅 키는 dead letter 큐로 보낸다")
+	@Test
+	public void nackFailedItem() throws IOException {
+		mockFailedBulkResponse(RestStatus.TOO_MANY_REQUESTS);
+
+		Message unknownMessage = newMessage(1L, "dev.email.welcome", "test");
+		Message failedMessage = newMessage(2L, DELETE_COMMENT_ROUTING_KEY, "test-comment-id");
+
+		listener.receive(Arrays.asList(unknownMessage, failedMessage), channel);
+
+		verify(rabbitTemplate).send("jakduk-dev.dead", "dev.email.welcome", unknownMessage);
+		verify(rabbitTemplate).send("jakduk-dev.retry", DELETE_COMMENT_ROUTING_KEY, failedMessage);
+		assertEquals(1, failedMessage.getMessageProperties().getHeaders().get(ElasticsearchListener.RETRY_COUNT_HEADER));
 
-		rabbitTemplate.convertAndSend(ElasticsearchListenerTests.ROUTING_KEY, esComment, message -> {
-			message.getMessageProperties().getHeaders().put(AmqpHeaders.RECEIVED_ROUTING_KEY, ElasticsearchListenerTests.ROUTING_KEY);
-			message.getMessageProperties().getHeaders().put("__TypeId__", "com.jakduk.api.model.notexists.elasticsearch"); // 일부러 존재 하지 않는 package 를 넣는다.
-			return message;
-		});
+		verify(channel).basicAck(1L, false);
+		verify(channel).basicAck(2L, false);
+		verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+	}
+
+	@DisplayName("처리 횟수를 다 쓴 메시지와 다시 보내도 실패할 메시지는 dead letter 큐로 보낸다")
+	@Test
+	public void deadLetterFailedItem() throws IOException {
+		mockFailedBulkResponse(RestStatus.SERVICE_UNAVAILABLE);
+
+		Message exhaustedMessage = newMessage(1L, DELETE_COMMENT_ROUTING_KEY, "test-comment-id");
+		exhaustedMessage.getMessageProperties().setHeader(ElasticsearchListener.RETRY_COUNT_HEADER, 2);
+
+		listener.receive(Collections.singletonList(exhaustedMessage), channel);
+
+		verify(rabbitTemplate).send("jakduk-dev.dead", DELETE_COMMENT_ROUTING_KEY, exhaustedMessage);
 
-		verify(searchService, times(1)).indexDocumentBoardComment(eq(esComment));
+		mockFailedBulkResponse(RestStatus.BAD_REQUEST);
+
+		Message badMessage = newMessage(2L, DELETE_COMMENT_ROUTING_KEY, "test-comment-id");
+
+		listener.receive(Collections.singletonList(badMessage), channel);
+
+		verify(rabbitTemplate).send("jakduk-dev.dead", DELETE_COMMENT_ROUTING_KEY, badMessage);
+		verify(rabbitTemplate, never()).send(eq("jakduk-dev.retry"), anyString(), any(Message.class));
 	}
 
-	@TestConfiguration
-	public static class Config {
-
-		@Bean
-		public TestRabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
-			TestRabbitTemplate rabbitTemplate = new TestRabbitTemplate(connectionFactory);
-			rabbitTemplate.setMessageConverter(messageConverter);
-			rabbitTemplate.addBeforePublishPostProcessors(message -> {
-				message.getMessageProperties().getHeaders().remove("__TypeId__");
-				return message;
-			});
-			return rabbitTemplate;
-		}
-
-		@Bean
-		public ConnectionFactory connectionFactory() {
-			ConnectionFactory factory = mock(ConnectionFactory.class);
-			Connection connection = mock(Connection.class);
-			Channel channel = mock(Channel.class);
-			willReturn(connection).given(factory).createConnection();
-			willReturn(channel).given(connection).createChannel(anyBoolean());
-			given(channel.isOpen()).willReturn(true);
-			return factory;
-		}
-
-		@Bean
-		public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
-			MessageConverter messageConverter) {
-
-			SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
-			factory.setConnectionFactory(connectionFactory);
-			factory.setMessageConverter(messageConverter);
-			return factory;
-		}
-
-		@Bean
-		public MessageConverter messageConverter() {
-			return new Jackson2JsonMessageConverter(ObjectMapperUtils.getObjectMapper());
-		}
-
-		@Bean
-		public ElasticsearchListener listener() {
-			return new ElasticsearchListener();
-		}
+	@DisplayName("재시도 큐로 보내지 못하면 바로 다시 받는다")
+	@Test
+	public void requeueWhenForwardFailed() throws IOException {
+		mockFailedBulkResponse(RestStatus.TOO_MANY_REQUESTS);
+		doThrow(new AmqpConnectException(new IOException("connection refused")))
+			.when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+		listener.receive(Collections.singletonList(newMessage(1L, DELETE_COMMENT_ROUTING_KEY, "test-comment-id")),
+			channel);
+
+		verify(channel).basicNack(1L, false, true);
+		verify(channel, never()).basicAck(anyLong(), anyBoolean());
+	}
+
+	private void mockFailedBulkResponse(RestStatus status) throws IOException {
+		BulkItemResponse.Failure failure = mock(BulkItemResponse.Failure.class);
+		when(failure.getStatus()).thenReturn(status);
+
+		BulkItemResponse itemResponse = mock(BulkItemResponse.class);
+		when(itemResponse.isFailed()).thenReturn(true);
+		when(itemResponse.getFailure()).thenReturn(failure);
+		mockBulkResponse(itemResponse);
+	}
+
+	private void mockBulkResponse(BulkItemResponse... itemResponses) throws IOException {
+		BulkResponse bulkResponse = mock(BulkResponse.class);
+		when(bulkResponse.getItems()).thenReturn(itemResponses);
+		when(bulkResponse.getTook()).thenReturn(TimeValue.timeValueMillis(1));
+		when(searchService.bulk(any(BulkRequest.class))).thenReturn(bulkResponse);
 	}
+
+	private Message newMessage(long deliveryTag, String routingKey, Object body) throws IOException {
+		MessageProperties messageProperties = new MessageProperties();
+		messageProperties.setDeliveryTag(deliveryTag);
+		messageProperties.setReceivedRoutingKey(routingKey);
+
+		return new Message(ObjectMapperUtils.writeValueAsString(body).getBytes(), messageProperties);
+	}
+
 }
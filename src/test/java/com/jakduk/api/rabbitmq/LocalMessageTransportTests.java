@@ -0,0 +1,154 @@
+package com.jakduk.api.rabbitmq;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.common.rabbitmq.LocalMessageTransport;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.listener.ElasticsearchListener;
+import com.jakduk.api.listener.EmailListener;
+import com.jakduk.api.listener.MessageAcknowledger;
+
+public class LocalMessageTransportTests {
+
+	private static final String ROUTING_KEY = "dev.elasticsearch.delete-document-article";
+
+	private LocalMessageTransport sut;
+	private JakdukProperties.Rabbitmq rabbitmqProperties;
+	private ElasticsearchListener elasticsearchListener;
+
+	// 리스너가 받은 배치. 문서 ID 목록으로 남긴다.
+	private BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+	// 첫 배치를 처리하는 동안 작업 스레드를 붙잡아 둔다.
+	private CountDownLatch firstBatchLatch = new CountDownLatch(1);
+
+	@BeforeEach
+	public void setUp() {
+		rabbitmqProperties = new JakdukProperties().new Rabbitmq();
+		rabbitmqProperties.setLocalBufferSize(10);
+		rabbitmqProperties.setPublisherBufferTimeout(100L);
+		rabbitmqProperties.setPublisherRetryInterval(10L);
+
+		elasticsearchListener = mock(ElasticsearchListener.class);
+
+		sut = new LocalMessageTransport();
+		ReflectionTestUtils.setField(sut, "rabbitmqProperties", rabbitmqProperties);
+		ReflectionTestUtils.setField(sut, "elasticsearchListener", elasticsearchListener);
+		ReflectionTestUtils.setField(sut, "emailListener", mock(EmailListener.class));
+	}
+
+	@DisplayName("작업 스레드가 처리하는 동안 쌓인 메시지는 한 배치로 넘긴다")
+	@Test
+	public void drain() throws Exception {
+		this.handleWith((messages, acknowledger) -> {
+		});
+		sut.startWorkers();
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		assertEquals(Collections.singletonList("a"), this.nextBatch());
+
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		sut.publishElasticsearch(ROUTING_KEY, "c");
+		sut.publishElasticsearch(ROUTING_KEY, "d");
+		firstBatchLatch.countDown();
+
+		assertEquals(Arrays.asList("b", "c", "d"), this.nextBatch());
+	}
+
+	@DisplayName("재시도할 메시지는 뒤에 쌓인 메시지보다 먼저 다시 처리한다")
+	@Test
+	public void retryInPlace() throws Exception {
+		this.handleWith((messages, acknowledger) -> {
+			if (this.toIds(messages).equals(Collections.singletonList("a"))
+				&& !messages.get(0).getMessageProperties().isRedelivered()) {
+
+				messages.get(0).getMessageProperties().setRedelivered(true);
+				acknowledger.retry(messages.get(0));
+			}
+		});
+		sut.startWorkers();
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		assertEquals(Collections.singletonList("a"), this.nextBatch());
+
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		firstBatchLatch.countDown();
+
+		assertEquals(Collections.singletonList("a"), this.nextBatch());
+		assertEquals(Collections.singletonList("b"), this.nextBatch());
+	}
+
+	@DisplayName("버퍼가 차면 요청 스레드에서 처리하지 않고 기다렸다가 버린다")
+	@Test
+	public void overflow() throws Exception {
+		rabbitmqProperties.setLocalBufferSize(1);
+		this.handleWith((messages, acknowledger) -> {
+		});
+		sut.startWorkers();
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		assertEquals(Collections.singletonList("a"), this.nextBatch());
+
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		sut.publishElasticsearch(ROUTING_KEY, "c");
+		assertNull(batches.poll(200, TimeUnit.MILLISECONDS));
+
+		firstBatchLatch.countDown();
+
+		assertEquals(Collections.singletonList("b"), this.nextBatch());
+		assertNull(batches.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@AfterEach
+	public void after() throws InterruptedException {
+		firstBatchLatch.countDown();
+		sut.stopWorkers();
+	}
+
+	private void handleWith(Handler handler) throws Exception {
+		doAnswer(invocation -> {
+			List<Message> messages = invocation.getArgument(0);
+			batches.add(this.toIds(messages));
+
+			firstBatchLatch.await(5, TimeUnit.SECONDS);
+			handler.handle(messages, invocation.getArgument(1));
+
+			return null;
+		}).when(elasticsearchListener).handle(anyList(), any(MessageAcknowledger.class));
+	}
+
+	private List<String> nextBatch() throws InterruptedException {
+		List<String> batch = batches.poll(5, TimeUnit.SECONDS);
+		assertNotNull(batch);
+
+		return batch;
+	}
+
+	private List<String> toIds(List<Message> messages) {
+		return messages.stream()
+			.map(message -> new String(message.getBody(), StandardCharsets.UTF_8).replace("\"", ""))
+			.collect(Collectors.toList());
+	}
+
+	private interface Handler {
+		void handle(List<Message> messages, MessageAcknowledger acknowledger) throws Exception;
+	}
+
+}
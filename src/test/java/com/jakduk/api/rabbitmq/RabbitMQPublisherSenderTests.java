@@ -0,0 +1,214 @@
+package com.jakduk.api.rabbitmq;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.common.rabbitmq.LocalMessageTransport;
+import com.jakduk.api.common.rabbitmq.RabbitMQPublisher;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.configuration.rabbitmq.RabbitMQ;
+
+public class RabbitMQPublisherSenderTests {
+
+	private static final String ROUTING_KEY = "dev.elasticsearch.delete-document-article";
+
+	private RabbitMQPublisher sut;
+	private JakdukProperties.Rabbitmq rabbitmqProperties;
+
+	// 브로커에 보낸 메시지. confirm 은 테스트에서 직접 준다.
+	private BlockingQueue<Sent> sent = new LinkedBlockingQueue<>();
+
+	@BeforeEach
+	public void setUp() {
+		RabbitMQ elasticsearch = new RabbitMQ();
+		elasticsearch.setBindingQueueName("dev.elasticsearch");
+		elasticsearch.setBindingRoutingKey("dev.elasticsearch.*");
+		elasticsearch.setEnabled(true);
+
+		rabbitmqProperties = new JakdukProperties().new Rabbitmq();
+		rabbitmqProperties.setExchangeName("jakduk-dev");
+		rabbitmqProperties.getQueues().put("elasticsearch", elasticsearch);
+		rabbitmqProperties.setPublisherBufferSize(10);
+		rabbitmqProperties.setPublisherBufferTimeout(100L);
+		rabbitmqProperties.setPublisherConfirmTimeout(2000L);
+		rabbitmqProperties.setPublisherMaxAttempts(2);
+		rabbitmqProperties.setPublisherRetryInterval(10L);
+
+		ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+		when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+
+		RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+		when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+		doAnswer(invocation -> sent.add(new Sent(invocation.getArgument(2), invocation.getArgument(3))))
+			.when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+		sut = new RabbitMQPublisher();
+		ReflectionTestUtils.setField(sut, "rabbitmqProperties", rabbitmqProperties);
+		ReflectionTestUtils.setField(sut, "rabbitTemplate", rabbitTemplate);
+		ReflectionTestUtils.setField(sut, "localMessageTransport", mock(LocalMessageTransport.class));
+	}
+
+	@DisplayName("confirm 을 기다리는 동안 쌓인 메시지는 한 배치로 모두 보낸 뒤 confirm 을 기다린다")
+	@Test
+	public void publishBatch() throws InterruptedException {
+		sut.startSender();
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		CorrelationData a = this.nextSent("a");
+
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		sut.publishElasticsearch(ROUTING_KEY, "c");
+		sut.publishElasticsearch(ROUTING_KEY, "d");
+		this.confirm(a, true);
+
+		// 아무 confirm 도 주지 않았는데 세 개가 모두 나간다.
+		CorrelationData b = this.nextSent("b");
+		CorrelationData c = this.nextSent("c");
+		CorrelationData d = this.nextSent("d");
+
+		this.confirm(b, true);
+		this.confirm(c, true);
+		this.confirm(d, true);
+
+		this.await(() -> sut.getMetrics().getConfirmed() == 4);
+		assertEquals(4, sut.getMetrics().getPublished());
+		assertEquals(0, sut.getMetrics().getRetried());
+	}
+
+	@DisplayName("nack 받은 메시지는 뒤에 쌓인 메시지보다 먼저 다시 보낸다")
+	@Test
+	public void retryInPlace() throws InterruptedException {
+		sut.startSender();
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		CorrelationData a = this.nextSent("a");
+
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		this.confirm(a, false);
+
+		this.confirm(this.nextSent("a"), true);
+		this.confirm(this.nextSent("b"), true);
+
+		this.await(() -> sut.getMetrics().getConfirmed() == 2);
+		assertEquals(1, sut.getMetrics().getRetried());
+		assertEquals(0, sut.getMetrics().getFailed());
+	}
+
+	@DisplayName("다시 보낼 메시지 뒤에 보낸 색인 메시지는 confirm 을 받았더라도 순서대로 함께 다시 보낸다")
+	@Test
+	public void replayAfterFailure() throws InterruptedException {
+		sut.startSender();
+
+		sut.publishElasticsearch(ROUTING_KEY, "x");
+		CorrelationData x = this.nextSent("x");
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		this.confirm(x, true);
+
+		CorrelationData a = this.nextSent("a");
+		CorrelationData b = this.nextSent("b");
+		this.confirm(a, false);
+		this.confirm(b, true);
+
+		this.confirm(this.nextSent("a"), true);
+		this.confirm(this.nextSent("b"), true);
+
+		this.await(() -> sut.getMetrics().getConfirmed() == 4);
+		assertEquals(1, sut.getMetrics().getRetried());
+		assertEquals(0, sut.getMetrics().getFailed());
+	}
+
+	@DisplayName("publisherMaxAttempts 를 다 쓰면 버리고 다음 메시지를 보낸다")
+	@Test
+	public void giveUpAfterMaxAttempts() throws InterruptedException {
+		sut.startSender();
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		CorrelationData a = this.nextSent("a");
+
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		this.confirm(a, false);
+		this.confirm(this.nextSent("a"), false);
+
+		this.confirm(this.nextSent("b"), true);
+
+		this.await(() -> sut.getMetrics().getConfirmed() == 1);
+		assertEquals(1, sut.getMetrics().getRetried());
+		assertEquals(1, sut.getMetrics().getFailed());
+	}
+
+	@DisplayName("버퍼가 차면 요청 스레드에서 보내지 않고 기다렸다가 버린다")
+	@Test
+	public void overflow() throws InterruptedException {
+		rabbitmqProperties.setPublisherBufferSize(1);
+		sut.startSender();
+
+		sut.publishElasticsearch(ROUTING_KEY, "a");
+		CorrelationData a = this.nextSent("a");
+
+		sut.publishElasticsearch(ROUTING_KEY, "b");
+		sut.publishElasticsearch(ROUTING_KEY, "c");
+
+		assertEquals(1, sut.getMetrics().getOverflowed());
+		assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+
+		this.confirm(a, true);
+		this.confirm(this.nextSent("b"), true);
+
+		this.await(() -> sut.getMetrics().getConfirmed() == 2);
+		assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+	}
+
+	@AfterEach
+	public void after() throws InterruptedException {
+		sut.stopSender();
+	}
+
+	private CorrelationData nextSent(String payload) throws InterruptedException {
+		Sent next = sent.poll(5, TimeUnit.SECONDS);
+
+		assertNotNull(next);
+		assertEquals(payload, next.payload);
+
+		return next.correlationData;
+	}
+
+	private void confirm(CorrelationData correlationData, boolean ack) {
+		correlationData.getFuture().set(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+	}
+
+	private void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static class Sent {
+		private final Object payload;
+		private final CorrelationData correlationData;
+
+		private Sent(Object payload, CorrelationData correlationData) {
+			this.payload = payload;
+			this.correlationData = correlationData;
+		}
+	}
+
+}
@@ -4,7 +4,6 @@ import com.jakduk.api.TestMvcConfig;
 import com.jakduk.api.common.Constants;
 import com.jakduk.api.common.board.category.BoardCategory;
 import com.jakduk.api.common.board.category.BoardCategoryGenerator;
-import com.jakduk.api.common.rabbitmq.RabbitMQPublisher;
 import com.jakduk.api.common.util.JakdukUtils;
 import com.jakduk.api.common.util.ObjectMapperUtils;
 import com.jakduk.api.mock.WithMockJakdukUser;
@@ -17,6 +16,7 @@ import com.jakduk.api.restcontroller.SearchRestController;
 import com.jakduk.api.restcontroller.vo.board.BoardGallerySimple;
 import com.jakduk.api.restcontroller.vo.search.*;
 import com.jakduk.api.service.SearchService;
+import com.jakduk.api.service.SearchWordService;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -31,7 +31,6 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -62,7 +61,7 @@ public class SearchMvcTests {
 	@MockBean
 	private SearchService searchService;
 	@MockBean
-	private RabbitMQPublisher rabbitMQPublisher;
+	private SearchWordService searchWordService;
 	@MockBean
 	private UserDetailsService userDetailsService;
 
@@ -253,7 +252,7 @@ public class SearchMvcTests {
 				new EsTermsBucket("축구", 21L)
 			));
 
-		when(searchService.aggregateSearchWord(any(LocalDate.class), anyInt()))
+		when(searchWordService.getPopularSearchWords(anyInt()))
 			.thenReturn(expectResponse);
 
 		mvc.perform(
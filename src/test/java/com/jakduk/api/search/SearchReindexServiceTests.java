@@ -0,0 +1,266 @@
+package com.jakduk.api.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.bson.types.ObjectId;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.model.db.Article;
+import com.jakduk.api.model.db.ArticleComment;
+import com.jakduk.api.model.db.Gallery;
+import com.jakduk.api.model.db.SearchReindexDeletion;
+import com.jakduk.api.model.db.SearchReindexJob;
+import com.jakduk.api.model.elasticsearch.EsArticle;
+import com.jakduk.api.model.elasticsearch.EsComment;
+import com.jakduk.api.model.elasticsearch.EsGallery;
+import com.jakduk.api.model.embedded.ArticleItem;
+import com.jakduk.api.repository.SearchReindexDeletionRepository;
+import com.jakduk.api.repository.SearchReindexJobRepository;
+import com.jakduk.api.repository.article.ArticleCommentRepository;
+import com.jakduk.api.repository.article.ArticleRepository;
+import com.jakduk.api.repository.gallery.GalleryRepository;
+import com.jakduk.api.service.SearchReindexService;
+import com.jakduk.api.service.SearchService;
+
+/**
+ * 재색인 작업. 작업 스레드 대신 요청 스레드에서 바로 돌린다.
+ */
+public class SearchReindexServiceTests {
+
+	private static final String BOARD_ALIAS = "jakduk_dev_board";
+	private static final String GALLERY_ALIAS = "jakduk_dev_gallery";
+
+	private SearchReindexService sut;
+	private SearchService searchService;
+	private SearchReindexJobRepository searchReindexJobRepository;
+	private SearchReindexDeletionRepository searchReindexDeletionRepository;
+	private ArticleRepository articleRepository;
+	private ArticleCommentRepository articleCommentRepository;
+	private GalleryRepository galleryRepository;
+
+	// 작업을 저장할 때마다 남긴 단계:마지막 _id
+	private List<String> checkpoints = new ArrayList<>();
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		JakdukProperties.Elasticsearch elasticsearchProperties = new JakdukProperties().new Elasticsearch();
+		elasticsearchProperties.setIndexBoard(BOARD_ALIAS);
+		elasticsearchProperties.setIndexGallery(GALLERY_ALIAS);
+		elasticsearchProperties.setBulkConcurrentRequests(1);
+
+		ThreadPoolTaskExecutor searchReindexExecutor = mock(ThreadPoolTaskExecutor.class);
+		doAnswer(invocation -> {
+			((Runnable)invocation.getArgument(0)).run();
+			return null;
+		}).when(searchReindexExecutor).execute(any(Runnable.class));
+
+		searchService = mock(SearchService.class);
+		when(searchService.getIndexArticleRequest(anyString(), any(EsArticle.class)))
+			.thenAnswer(invocation -> new IndexRequest((String)invocation.getArgument(0))
+				.id(((EsArticle)invocation.getArgument(1)).getId()));
+		when(searchService.getIndexBoardCommentRequest(anyString(), any(EsComment.class)))
+			.thenAnswer(invocation -> new IndexRequest((String)invocation.getArgument(0))
+				.id(((EsComment)invocation.getArgument(1)).getId()));
+		when(searchService.getIndexGalleryRequest(anyString(), any(EsGallery.class)))
+			.thenAnswer(invocation -> new IndexRequest((String)invocation.getArgument(0))
+				.id(((EsGallery)invocation.getArgument(1)).getId()));
+
+		searchReindexJobRepository = mock(SearchReindexJobRepository.class);
+		when(searchReindexJobRepository.findById(anyString())).thenReturn(Optional.empty());
+		when(searchReindexJobRepository.save(any(SearchReindexJob.class))).thenAnswer(invocation -> {
+			SearchReindexJob job = invocation.getArgument(0);
+			checkpoints.add(job.getPhase() + ":" + job.getLastId());
+			return job;
+		});
+
+		searchReindexDeletionRepository = mock(SearchReindexDeletionRepository.class);
+		articleRepository = mock(ArticleRepository.class);
+		articleCommentRepository = mock(ArticleCommentRepository.class);
+		galleryRepository = mock(GalleryRepository.class);
+
+		sut = new SearchReindexService();
+		ReflectionTestUtils.setField(sut, "elasticsearchProperties", elasticsearchProperties);
+		ReflectionTestUtils.setField(sut, "searchReindexExecutor", searchReindexExecutor);
+		ReflectionTestUtils.setField(sut, "searchService", searchService);
+		ReflectionTestUtils.setField(sut, "searchReindexJobRepository", searchReindexJobRepository);
+		ReflectionTestUtils.setField(sut, "searchReindexDeletionRepository", searchReindexDeletionRepository);
+		ReflectionTestUtils.setField(sut, "articleRepository", articleRepository);
+		ReflectionTestUtils.setField(sut, "articleCommentRepository", articleCommentRepository);
+		ReflectionTestUtils.setField(sut, "galleryRepository", galleryRepository);
+	}
+
+	@DisplayName("bulk 가 실패하면 FAILED 로 남기고, 다시 요청하면 마지막 체크포인트부터 이어서 한다")
+	@Test
+	public void resumeFromLastIdAfterFailedBulk() throws IOException {
+		String id01 = new ObjectId().toString();
+		String id02 = new ObjectId().toString();
+
+		when(galleryRepository.findGalleriesGreaterThanId(isNull(), anyInt()))
+			.thenReturn(Collections.singletonList(this.newGallery(id01)));
+		when(galleryRepository.findGalleriesGreaterThanId(eq(new ObjectId(id01)), anyInt()))
+			.thenReturn(Collections.singletonList(this.newGallery(id02)));
+		when(galleryRepository.findGalleriesGreaterThanId(eq(new ObjectId(id02)), anyInt()))
+			.thenReturn(Collections.emptyList());
+
+		CompletableFuture<BulkResponse> succeeded = this.completedBulk();
+		CompletableFuture<BulkResponse> failed = this.completedBulk(this.newFailedItem(RestStatus.SERVICE_UNAVAILABLE));
+		when(searchService.bulkAsync(any(BulkRequest.class))).thenReturn(succeeded, failed, succeeded);
+
+		SearchReindexJob job = sut.startReindex(Constants.SEARCH_REINDEX_TARGET_TYPE.GALLERY, null);
+
+		assertEquals(Constants.SEARCH_REINDEX_STATUS_TYPE.FAILED, job.getStatus());
+		assertEquals(Constants.SEARCH_REINDEX_PHASE_TYPE.GALLERY, job.getPhase());
+		assertEquals(id01, job.getLastId());
+		assertEquals(1L, job.getIndexedCount());
+		verify(searchService, never()).swapAlias(anyString(), anyString());
+
+		when(searchReindexJobRepository.findById(Constants.SEARCH_REINDEX_TARGET_TYPE.GALLERY.name()))
+			.thenReturn(Optional.of(job));
+
+		sut.startReindex(Constants.SEARCH_REINDEX_TARGET_TYPE.GALLERY, null);
+
+		assertEquals(Constants.SEARCH_REINDEX_STATUS_TYPE.COMPLETED, job.getStatus());
+		assertEquals(2L, job.getIndexedCount());
+
+		// 새 인덱스는 처음 한번만 만들고, 처음부터 다시 읽지 않는다.
+		verify(searchService, times(1)).createIndexLike(eq(GALLERY_ALIAS), anyString(), isNull());
+		verify(galleryRepository, times(1)).findGalleriesGreaterThanId(isNull(), anyInt());
+		verify(galleryRepository, times(2)).findGalleriesGreaterThanId(eq(new ObjectId(id01)), anyInt());
+		verify(searchService).swapAlias(GALLERY_ALIAS, job.getIndex());
+	}
+
+	@DisplayName("글을 모두 색인하면 댓글을 처음부터 색인하고, 마지막에 별칭을 옮긴다")
+	@Test
+	public void phaseTransition() throws IOException {
+		String articleId = new ObjectId().toString();
+		String commentId = new ObjectId().toString();
+
+		when(articleRepository.findPostsGreaterThanId(isNull(), anyInt()))
+			.thenReturn(Collections.singletonList(Article.builder().id(articleId).seq(1)
+				.board(Constants.BOARD_TYPE.FREE.name()).build()));
+		when(articleCommentRepository.findCommentsGreaterThanId(isNull(), anyInt()))
+			.thenReturn(Collections.singletonList(ArticleComment.builder().id(commentId)
+				.article(new ArticleItem(articleId, 1, Constants.BOARD_TYPE.FREE.name())).build()));
+
+		CompletableFuture<BulkResponse> succeeded = this.completedBulk();
+		when(searchService.bulkAsync(any(BulkRequest.class))).thenReturn(succeeded);
+
+		SearchReindexJob job = sut.startReindex(Constants.SEARCH_REINDEX_TARGET_TYPE.BOARD, null);
+
+		assertEquals(Constants.SEARCH_REINDEX_STATUS_TYPE.COMPLETED, job.getStatus());
+		assertEquals(2L, job.getIndexedCount());
+		assertEquals(Arrays.asList(
+			"ARTICLE:null",
+			"ARTICLE:" + articleId,
+			"ARTICLE_COMMENT:" + commentId,
+			"SWAP_ALIAS:null",
+			"SWAP_ALIAS:null"), checkpoints);
+
+		verify(articleCommentRepository).findCommentsGreaterThanId(isNull(), anyInt());
+		verify(articleCommentRepository).findCommentsGreaterThanId(eq(new ObjectId(commentId)), anyInt());
+		verify(searchService).swapAlias(BOARD_ALIAS, job.getIndex());
+	}
+
+	@DisplayName("실시간 변경이 먼저 쓴 문서의 CREATE 가 409 로 실패한 것은 넘어간다")
+	@Test
+	public void ignoreConflict() throws IOException {
+		String id = new ObjectId().toString();
+
+		when(galleryRepository.findGalleriesGreaterThanId(isNull(), anyInt()))
+			.thenReturn(Collections.singletonList(this.newGallery(id)));
+
+		CompletableFuture<BulkResponse> conflicted = this.completedBulk(this.newFailedItem(RestStatus.CONFLICT));
+		when(searchService.bulkAsync(any(BulkRequest.class))).thenReturn(conflicted);
+
+		SearchReindexJob job = sut.startReindex(Constants.SEARCH_REINDEX_TARGET_TYPE.GALLERY, null);
+
+		assertEquals(Constants.SEARCH_REINDEX_STATUS_TYPE.COMPLETED, job.getStatus());
+		assertEquals(id, checkpoints.get(1).split(":")[1]);
+
+		ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+		verify(searchService).bulkAsync(captor.capture());
+		assertEquals(DocWriteRequest.OpType.CREATE, captor.getValue().requests().get(0).opType());
+		verify(searchService).swapAlias(GALLERY_ALIAS, job.getIndex());
+	}
+
+	@DisplayName("재색인 중에 지운 문서는 별칭을 옮기기 전에 새 인덱스에서 다시 지운다")
+	@Test
+	public void replayDeletionsBeforeSwap() throws IOException {
+		String id = new ObjectId().toString();
+
+		when(galleryRepository.findGalleriesGreaterThanId(isNull(), anyInt()))
+			.thenReturn(Collections.singletonList(this.newGallery(id)));
+		CompletableFuture<BulkResponse> succeeded = this.completedBulk();
+		when(searchService.bulkAsync(any(BulkRequest.class))).thenReturn(succeeded);
+		when(searchService.bulk(any(BulkRequest.class))).thenReturn(succeeded.join());
+
+		// 실시간 삭제 뒤에 먼저 읽어 둔 문서를 CREATE 했다.
+		when(searchReindexDeletionRepository.findByIndex(anyString())).thenAnswer(invocation ->
+			Collections.singletonList(SearchReindexDeletion.builder()
+				.index(invocation.getArgument(0))
+				.documentId(id)
+				.build()));
+
+		SearchReindexJob job = sut.startReindex(Constants.SEARCH_REINDEX_TARGET_TYPE.GALLERY, null);
+
+		assertEquals(Constants.SEARCH_REINDEX_STATUS_TYPE.COMPLETED, job.getStatus());
+
+		ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+		InOrder inOrder = inOrder(searchService, searchReindexDeletionRepository);
+		inOrder.verify(searchService).bulk(captor.capture());
+		inOrder.verify(searchService).swapAlias(GALLERY_ALIAS, job.getIndex());
+		inOrder.verify(searchReindexDeletionRepository).deleteByIndex(job.getIndex());
+
+		DocWriteRequest<?> request = captor.getValue().requests().get(0);
+		assertEquals(DocWriteRequest.OpType.DELETE, request.opType());
+		assertEquals(job.getIndex(), request.index());
+		assertEquals(id, request.id());
+	}
+
+	private Gallery newGallery(String id) {
+		return Gallery.builder().id(id).name("gallery").build();
+	}
+
+	private BulkItemResponse newFailedItem(RestStatus status) {
+		BulkItemResponse.Failure failure = mock(BulkItemResponse.Failure.class);
+		when(failure.getStatus()).thenReturn(status);
+
+		BulkItemResponse itemResponse = mock(BulkItemResponse.class);
+		when(itemResponse.isFailed()).thenReturn(true);
+		when(itemResponse.getFailure()).thenReturn(failure);
+		when(itemResponse.getFailureMessage()).thenReturn(status.name());
+
+		return itemResponse;
+	}
+
+	private CompletableFuture<BulkResponse> completedBulk(BulkItemResponse... itemResponses) {
+		BulkResponse bulkResponse = mock(BulkResponse.class);
+		when(bulkResponse.getItems()).thenReturn(itemResponses);
+
+		return CompletableFuture.completedFuture(bulkResponse);
+	}
+
+}
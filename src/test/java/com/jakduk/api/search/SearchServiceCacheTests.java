@@ -0,0 +1,147 @@
+package com.jakduk.api.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.restcontroller.vo.search.SearchUnifiedResponse;
+import com.jakduk.api.service.SearchService;
+
+/**
+ * 통합 검색 결과 캐시. 엘라스틱서치 클라이언트 없이 돌리므로 msearch 를 보내면 실패한다.
+ */
+public class SearchServiceCacheTests {
+
+	private static final String INCLUDE = "ARTICLE,COMMENT,GALLERY";
+	private static final String PRE_TAGS = "<span class=\"color-orange\">";
+	private static final String POST_TAGS = "</span>";
+
+	private SearchService sut;
+	private JakdukProperties.Elasticsearch elasticsearchProperties;
+	private ExecutorService executorService;
+
+	@BeforeEach
+	public void setUp() {
+		elasticsearchProperties = new JakdukProperties().new Elasticsearch();
+		elasticsearchProperties.setSearchCacheSize(2);
+		elasticsearchProperties.setSearchCacheTtl(30000L);
+
+		sut = new SearchService();
+		ReflectionTestUtils.setField(sut, "elasticsearchProperties", elasticsearchProperties);
+
+		executorService = Executors.newSingleThreadExecutor();
+	}
+
+	@DisplayName("검색어의 대소문자, 공백이 달라도 캐시된 결과를 주고, TTL 이 지나면 버린다")
+	@Test
+	public void expire() throws Exception {
+		elasticsearchProperties.setSearchCacheTtl(100L);
+
+		SearchUnifiedResponse response = new SearchUnifiedResponse();
+		this.putCachedSearch("jakduk king", response);
+
+		assertSame(response, sut.searchUnified("  Jakduk   KING ", INCLUDE, 0, 10, PRE_TAGS, POST_TAGS));
+		assertEquals(1, sut.getSearchCacheMetrics().getHits());
+
+		Thread.sleep(200);
+
+		assertNull(this.getCachedSearch("jakduk king"));
+		assertEquals(0, sut.getSearchCacheMetrics().getSize());
+	}
+
+	@DisplayName("크기를 넘으면 가장 오래 안 쓰인 검색 조건부터 밀려난다")
+	@Test
+	public void evictLeastRecentlyUsed() throws Exception {
+		SearchUnifiedResponse first = new SearchUnifiedResponse();
+		SearchUnifiedResponse second = new SearchUnifiedResponse();
+		SearchUnifiedResponse third = new SearchUnifiedResponse();
+
+		this.putCachedSearch("first", first);
+		this.putCachedSearch("second", second);
+
+		// 첫 번째를 다시 쓰면 두 번째가 가장 오래 안 쓰인 것이 된다.
+		assertSame(first, sut.searchUnified("first", INCLUDE, 0, 10, PRE_TAGS, POST_TAGS));
+
+		this.putCachedSearch("third", third);
+
+		assertSame(first, this.getCachedSearch("first"));
+		assertNull(this.getCachedSearch("second"));
+		assertSame(third, this.getCachedSearch("third"));
+		assertEquals(2, sut.getSearchCacheMetrics().getSize());
+		assertEquals(1, sut.getSearchCacheMetrics().getEvictions());
+	}
+
+	@DisplayName("같은 검색이 실행 중이면 msearch 를 다시 보내지 않고 그 결과를 기다린다")
+	@Test
+	@SuppressWarnings("unchecked")
+	public void coalesce() throws Exception {
+		Map<String, CompletableFuture<SearchUnifiedResponse>> inFlightSearches =
+			(Map<String, CompletableFuture<SearchUnifiedResponse>>)ReflectionTestUtils.getField(sut, "inFlightSearches");
+
+		CompletableFuture<SearchUnifiedResponse> running = new CompletableFuture<>();
+		inFlightSearches.put(this.getSearchCacheKey("jakduk"), running);
+
+		Future<SearchUnifiedResponse> waiting = executorService.submit(
+			() -> sut.searchUnified("Jakduk", INCLUDE, 0, 10, PRE_TAGS, POST_TAGS));
+
+		// 먼저 실행 중인 검색이 끝날 때까지 기다린다.
+		Thread.sleep(200);
+		assertFalse(waiting.isDone());
+
+		SearchUnifiedResponse response = new SearchUnifiedResponse();
+		running.complete(response);
+
+		assertSame(response, waiting.get(5, TimeUnit.SECONDS));
+		assertEquals(1, sut.getSearchCacheMetrics().getCoalesced());
+		assertEquals(0, sut.getSearchCacheMetrics().getMisses());
+	}
+
+	@DisplayName("먼저 실행 중인 검색이 실패하면 기다리던 검색도 같은 예외로 실패한다")
+	@Test
+	@SuppressWarnings("unchecked")
+	public void coalesceFailed() {
+		Map<String, CompletableFuture<SearchUnifiedResponse>> inFlightSearches =
+			(Map<String, CompletableFuture<SearchUnifiedResponse>>)ReflectionTestUtils.getField(sut, "inFlightSearches");
+
+		CompletableFuture<SearchUnifiedResponse> running = new CompletableFuture<>();
+		running.completeExceptionally(new IOException("connection refused"));
+		inFlightSearches.put(this.getSearchCacheKey("jakduk"), running);
+
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> executorService.submit(
+			() -> sut.searchUnified("jakduk", INCLUDE, 0, 10, PRE_TAGS, POST_TAGS)).get(5, TimeUnit.SECONDS));
+
+		assertTrue(exception.getCause() instanceof IOException);
+	}
+
+	@AfterEach
+	public void after() {
+		executorService.shutdownNow();
+	}
+
+	private String getSearchCacheKey(String query) {
+		return ReflectionTestUtils.invokeMethod(sut, "getSearchCacheKey", query, INCLUDE, 0, 10, PRE_TAGS, POST_TAGS);
+	}
+
+	private SearchUnifiedResponse getCachedSearch(String query) {
+		return ReflectionTestUtils.invokeMethod(sut, "getCachedSearch", this.getSearchCacheKey(query));
+	}
+
+	private void putCachedSearch(String query, SearchUnifiedResponse response) {
+		ReflectionTestUtils.invokeMethod(sut, "putCachedSearch", this.getSearchCacheKey(query), response);
+	}
+
+}
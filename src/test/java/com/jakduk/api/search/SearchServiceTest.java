@@ -1,6 +1,5 @@
 package com.jakduk.api.search;
 
-import com.jakduk.api.restcontroller.vo.search.PopularSearchWordResult;
 import com.jakduk.api.service.SearchService;
 
 import org.junit.jupiter.api.Disabled;
@@ -8,7 +7,6 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
-import java.time.LocalDate;
 
 /**
  * @author Jang, Pyohwan
@@ -25,13 +23,4 @@ public class SearchServiceTest {
 		sut.searchUnified("string", "ARTICLE;COMMENT;GALLERY", 0, 10, null, null);
 	}
 
-	@Disabled
-	@Test
-	public void aggregateSearchWord() throws IOException {
-		// 한달전
-		LocalDate oneMonthAgo = LocalDate.now().minusMonths(1L);
-		PopularSearchWordResult result = sut.aggregateSearchWord(oneMonthAgo, 5);
-		System.out.println("phjang=" + result);
-	}
-
 }
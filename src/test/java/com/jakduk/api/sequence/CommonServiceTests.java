@@ -0,0 +1,101 @@
+package com.jakduk.api.sequence;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.jakduk.api.common.Constants;
+import com.jakduk.api.configuration.JakdukProperties;
+import com.jakduk.api.model.db.Sequence;
+import com.jakduk.api.service.CommonService;
+
+public class CommonServiceTests {
+
+	private static final int BLOCK_SIZE = 10;
+
+	private CommonService sut;
+	private MongoTemplate mongoTemplate;
+
+	// DB 에 저장된 seq
+	private AtomicInteger storedSeq = new AtomicInteger(370);
+
+	@BeforeEach
+	public void setUp() {
+		JakdukProperties jakdukProperties = new JakdukProperties();
+		jakdukProperties.setSequenceBlockSizes(Collections.singletonMap(Constants.SEQ_BOARD, BLOCK_SIZE));
+
+		mongoTemplate = mock(MongoTemplate.class);
+		when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+			eq(Sequence.class)))
+			.thenAnswer(invocation -> {
+				Update update = invocation.getArgument(1);
+				Integer amount = (Integer)update.getUpdateObject().get("$inc", Document.class).get("seq");
+
+				return Sequence.builder().seq(storedSeq.addAndGet(amount)).build();
+			});
+
+		sut = new CommonService();
+		ReflectionTestUtils.setField(sut, "mongoTemplate", mongoTemplate);
+		ReflectionTestUtils.setField(sut, "jakdukProperties", jakdukProperties);
+	}
+
+	@DisplayName("예약한 구간 안에서는 DB 를 거치지 않고 이어지는 번호를 준다")
+	@Test
+	public void getNextSequenceInBlock() {
+		for (int i = 1; i <= BLOCK_SIZE * 2; i++)
+			assertEquals(370 + i, sut.getNextSequence(Constants.SEQ_BOARD));
+
+		verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+			any(FindAndModifyOptions.class), eq(Sequence.class));
+
+		// 설정이 없는 이름은 하나씩 예약한다.
+		assertEquals(391, sut.getNextSequence(Constants.SEQ_JAKDU_SCHEDULE_GROUP));
+	}
+
+	@DisplayName("여러 스레드가 동시에 가져가도 번호가 겹치지 않는다")
+	@Test
+	public void getNextSequenceConcurrently() throws InterruptedException {
+		int numberOfThreads = 8;
+		int numberOfSequences = 1000;
+
+		Set<Integer> sequences = ConcurrentHashMap.newKeySet();
+		ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+		CountDownLatch latch = new CountDownLatch(numberOfThreads);
+
+		for (int i = 0; i < numberOfThreads; i++) {
+			executorService.execute(() -> {
+				try {
+					for (int j = 0; j < numberOfSequences; j++)
+						sequences.add(sut.getNextSequence(Constants.SEQ_BOARD));
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+
+		assertTrue(latch.await(30, TimeUnit.SECONDS));
+		executorService.shutdown();
+
+		assertEquals(numberOfThreads * numberOfSequences, sequences.size());
+		assertEquals(370 + numberOfThreads * numberOfSequences, storedSeq.get());
+	}
+
+}
@@ -20,6 +20,7 @@ import com.jakduk.api.model.db.FootballClubOrigin;
 import com.jakduk.api.model.db.User;
 import com.jakduk.api.model.db.UserPicture;
 import com.jakduk.api.model.embedded.LocalName;
+import com.jakduk.api.model.simple.UserOnAuthentication;
 import com.jakduk.api.model.simple.UserProfile;
 import com.jakduk.api.repository.user.UserProfileRepository;
 import com.jakduk.api.repository.user.UserRepository;
@@ -131,6 +132,30 @@ public class UserRepositoryTests {
 		assertFalse(mustNotFind.isPresent());
 	}
 
+	@Test
+	public void findUserOnAuthenticationByEmail() {
+		UserOnAuthentication user = repository.findUserOnAuthenticationByEmail(jakdukUser.getEmail()).get();
+
+		assertEquals(jakdukUser.getId(), user.getId());
+		assertEquals(jakdukUser.getPassword(), user.getPassword());
+		assertEquals(jakdukUser.getRoles(), user.getRoles());
+		assertEquals(jakdukUser.getUserPicture().getId(), user.getUserPicture().getId().toString());
+
+		assertNull(repository.findUserOnAuthenticationByEmail(facebookUser.getEmail()).get().getUserPicture());
+		assertFalse(repository.findUserOnAuthenticationByEmail("nobody@test.com").isPresent());
+	}
+
+	@Test
+	public void updateLastLogged() {
+		LocalDateTime lastLogged = LocalDateTime.now().withNano(0);
+
+		repository.updateLastLogged(jakdukUser.getId(), lastLogged);
+
+		User user = repository.findOneById(jakdukUser.getId()).get();
+		assertEquals(lastLogged, user.getLastLogged());
+		assertEquals(jakdukUser.getAbout(), user.getAbout());
+	}
+
 	@AfterEach
 	public void after() {
 		repository.deleteById(jakdukUser.getId());